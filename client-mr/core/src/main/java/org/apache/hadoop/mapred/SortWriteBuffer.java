@@ -20,7 +20,6 @@ package org.apache.hadoop.mapred;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Iterator;
 import java.util.List;
 
 import com.google.common.collect.Lists;
@@ -32,6 +31,8 @@ import org.apache.hadoop.util.Progress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.uniffle.common.merger.NormalizedKeyPrefix;
+import org.apache.uniffle.common.records.PackedRecordIndex;
 import org.apache.uniffle.common.serializer.SerializerInstance;
 
 public class SortWriteBuffer<K, V> extends OutputStream {
@@ -39,10 +40,12 @@ public class SortWriteBuffer<K, V> extends OutputStream {
   private static final Logger LOG = LoggerFactory.getLogger(SortWriteBuffer.class);
   private long copyTime = 0;
   private final List<WrappedBuffer> buffers = Lists.newArrayList();
-  private final List<Record<K>> records = Lists.newArrayList();
+  private final PackedRecordIndex records = new PackedRecordIndex();
   private int dataLength = 0;
   private long sortTime = 0;
   private final RawComparator<K> comparator;
+  // null if the records can't be sorted by the key prefixes
+  private final NormalizedKeyPrefix keyPrefix;
   private long maxSegmentSize;
   private int partitionId;
   private Serializer<K> keySerializer;
@@ -64,6 +67,7 @@ public class SortWriteBuffer<K, V> extends OutputStream {
       SerializerInstance serializerInstance) {
     this.partitionId = partitionId;
     this.comparator = comparator;
+    this.keyPrefix = NormalizedKeyPrefix.of(comparator);
     this.maxSegmentSize = maxSegmentSize;
     this.useUniffleSerializer = useUniffleSerializer;
     this.keySerializer = keySerializer;
@@ -101,7 +105,12 @@ public class SortWriteBuffer<K, V> extends OutputStream {
       valSerializer.serialize(value);
     }
     int valueLength = dataLength - lastDataLength;
-    records.add(new Record<K>(keyIndex, keyOffset, keyLength, valueLength));
+    // the key is always in one buffer, see compact
+    long prefix =
+        keyPrefix == null
+            ? 0
+            : keyPrefix.get(buffers.get(keyIndex).getBuffer(), keyOffset, keyLength);
+    records.add(keyIndex, keyOffset, keyLength, valueLength, prefix);
     return keyLength + valueLength;
   }
 
@@ -112,24 +121,26 @@ public class SortWriteBuffer<K, V> extends OutputStream {
 
   public synchronized void sort() {
     long startSort = System.currentTimeMillis();
+    // Before sort, the positions of the records are the same as the adding order
     records.sort(
-        (o1, o2) ->
+        keyPrefix != null,
+        (r1, r2) ->
             comparator.compare(
-                buffers.get(o1.getKeyIndex()).getBuffer(),
-                o1.getKeyOffSet(),
-                o1.getKeyLength(),
-                buffers.get(o2.getKeyIndex()).getBuffer(),
-                o2.getKeyOffSet(),
-                o2.getKeyLength()));
+                buffers.get(records.getKeyIndex(r1)).getBuffer(),
+                records.getKeyOffset(r1),
+                records.getKeyLength(r1),
+                buffers.get(records.getKeyIndex(r2)).getBuffer(),
+                records.getKeyOffset(r2),
+                records.getKeyLength(r2)));
     long finishSort = System.currentTimeMillis();
     sortTime += finishSort - startSort;
   }
 
   public synchronized byte[] getData() {
     int extraSize = 0;
-    for (Record<K> record : records) {
-      extraSize += WritableUtils.getVIntSize(record.getKeyLength());
-      extraSize += WritableUtils.getVIntSize(record.getValueLength());
+    for (int i = 0; i < records.size(); i++) {
+      extraSize += WritableUtils.getVIntSize(records.getKeyLength(i));
+      extraSize += WritableUtils.getVIntSize(records.getValueLength(i));
     }
 
     extraSize += WritableUtils.getVIntSize(-1);
@@ -139,12 +150,12 @@ public class SortWriteBuffer<K, V> extends OutputStream {
 
     final long startCopy = System.currentTimeMillis();
 
-    for (Record<K> record : records) {
-      offset = writeDataInt(data, offset, record.getKeyLength());
-      offset = writeDataInt(data, offset, record.getValueLength());
-      int recordLength = record.getKeyLength() + record.getValueLength();
-      int copyOffset = record.getKeyOffSet();
-      int copyIndex = record.getKeyIndex();
+    for (int i = 0; i < records.size(); i++) {
+      offset = writeDataInt(data, offset, records.getKeyLength(i));
+      offset = writeDataInt(data, offset, records.getValueLength(i));
+      int recordLength = records.getKeyLength(i) + records.getValueLength(i);
+      int copyOffset = records.getKeyOffset(i);
+      int copyIndex = records.getKeyIndex(i);
       while (recordLength > 0) {
         byte[] srcBytes = buffers.get(copyIndex).getBuffer();
         int length = copyOffset + recordLength;
@@ -303,37 +314,6 @@ public class SortWriteBuffer<K, V> extends OutputStream {
     currentIndex += bufferNum;
   }
 
-  private static final class Record<K> {
-
-    private final int keyIndex;
-    private final int keyOffSet;
-    private final int keyLength;
-    private final int valueLength;
-
-    Record(int keyIndex, int keyOffset, int keyLength, int valueLength) {
-      this.keyIndex = keyIndex;
-      this.keyOffSet = keyOffset;
-      this.keyLength = keyLength;
-      this.valueLength = valueLength;
-    }
-
-    public int getKeyIndex() {
-      return keyIndex;
-    }
-
-    public int getKeyOffSet() {
-      return keyOffSet;
-    }
-
-    public int getKeyLength() {
-      return keyLength;
-    }
-
-    public int getValueLength() {
-      return valueLength;
-    }
-  }
-
   private static final class WrappedBuffer {
 
     private byte[] buffer;
@@ -355,14 +335,14 @@ public class SortWriteBuffer<K, V> extends OutputStream {
 
   public static class SortBufferIterator<K, V> implements RawKeyValueIterator {
     private final SortWriteBuffer<K, V> sortWriteBuffer;
-    private final Iterator<Record<K>> iterator;
+    private final PackedRecordIndex records;
     private final DataInputBuffer keyBuffer = new DataInputBuffer();
     private final DataInputBuffer valueBuffer = new DataInputBuffer();
-    private SortWriteBuffer.Record<K> currentRecord;
+    private int current = -1;
 
     public SortBufferIterator(SortWriteBuffer<K, V> sortWriteBuffer) {
       this.sortWriteBuffer = sortWriteBuffer;
-      this.iterator = sortWriteBuffer.records.iterator();
+      this.records = sortWriteBuffer.records;
     }
 
     private byte[] fetchDataFromBuffers(int index, int offset, int length) {
@@ -395,9 +375,9 @@ public class SortWriteBuffer<K, V> extends OutputStream {
 
     @Override
     public DataInputBuffer getKey() {
-      int keyIndex = currentRecord.getKeyIndex();
-      int keyOffset = currentRecord.getKeyOffSet();
-      int keyLength = currentRecord.getKeyLength();
+      int keyIndex = records.getKeyIndex(current);
+      int keyOffset = records.getKeyOffset(current);
+      int keyLength = records.getKeyLength(current);
       byte[] keyData = fetchDataFromBuffers(keyIndex, keyOffset, keyLength);
       keyBuffer.reset(keyData, 0, keyLength);
       return keyBuffer;
@@ -405,9 +385,9 @@ public class SortWriteBuffer<K, V> extends OutputStream {
 
     @Override
     public DataInputBuffer getValue() {
-      int keyIndex = currentRecord.getKeyIndex();
-      int valueOffset = currentRecord.getKeyOffSet() + currentRecord.getKeyLength();
-      int valueLength = currentRecord.getValueLength();
+      int keyIndex = records.getKeyIndex(current);
+      int valueOffset = records.getKeyOffset(current) + records.getKeyLength(current);
+      int valueLength = records.getValueLength(current);
       byte[] valueData = fetchDataFromBuffers(keyIndex, valueOffset, valueLength);
       valueBuffer.reset(valueData, 0, valueLength);
       return valueBuffer;
@@ -415,8 +395,8 @@ public class SortWriteBuffer<K, V> extends OutputStream {
 
     @Override
     public boolean next() {
-      if (iterator.hasNext()) {
-        currentRecord = iterator.next();
+      if (current + 1 < records.size()) {
+        current++;
         return true;
       }
       return false;
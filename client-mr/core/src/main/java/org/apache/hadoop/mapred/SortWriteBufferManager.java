@@ -49,6 +49,7 @@ import org.apache.uniffle.client.response.SendShuffleDataResult;
 import org.apache.uniffle.common.ShuffleBlockInfo;
 import org.apache.uniffle.common.ShuffleServerInfo;
 import org.apache.uniffle.common.compression.Codec;
+import org.apache.uniffle.common.config.RssClientConf;
 import org.apache.uniffle.common.config.RssConf;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.serializer.SerializerFactory;
@@ -101,6 +102,7 @@ public class SortWriteBufferManager<K, V> {
   private final ExecutorService sendExecutorService;
   private final RssConf rssConf;
   private final Optional<Codec> codec;
+  private final ChecksumUtils.Type checksumType;
   private final Task.CombinerRunner<K, V> combinerRunner;
   private final boolean useUniffleSerializer;
   private SerializerInstance serializerInstance;
@@ -156,6 +158,7 @@ public class SortWriteBufferManager<K, V> {
     this.sendExecutorService = ThreadUtils.getDaemonFixedThreadPool(sendThreadNum, "send-thread");
     this.rssConf = rssConf;
     this.codec = Codec.newInstance(rssConf);
+    this.checksumType = rssConf.get(RssClientConf.CHECKSUM_TYPE);
     this.combinerRunner = combinerRunner;
     this.useUniffleSerializer = useUniffleSerializer;
     if (useUniffleSerializer) {
@@ -321,7 +324,7 @@ public class SortWriteBufferManager<K, V> {
               }
               SendShuffleDataResult result =
                   shuffleWriteClient.sendShuffleData(appId, shuffleBlocks, () -> false);
-              successBlockIds.addAll(result.getSuccessBlockIds());
+              result.getSuccessBlockIds().forEach(successBlockIds::add);
               failedBlockIds.addAll(result.getFailedBlockIds());
             } catch (Throwable t) {
               LOG.warn("send shuffle data exception ", t);
@@ -414,7 +417,7 @@ public class SortWriteBufferManager<K, V> {
     long start = System.currentTimeMillis();
     final byte[] compressed =
         useUniffleSerializer ? data : codec.map(c -> c.compress(data)).orElse(data);
-    final long crc32 = ChecksumUtils.getCrc32(compressed);
+    final long crc32 = ChecksumUtils.getChecksum(checksumType, compressed);
     compressTime += System.currentTimeMillis() - start;
     final long blockId =
         RssMRUtils.getBlockId(partitionId, taskAttemptId, getNextSeqNo(partitionId));
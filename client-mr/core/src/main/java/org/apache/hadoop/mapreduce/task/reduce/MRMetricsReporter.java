@@ -23,6 +23,8 @@ import org.apache.uniffle.client.record.metrics.MetricsReporter;
 
 public class MRMetricsReporter implements MetricsReporter {
 
+  private static final String WAIT_TIME_GROUP = "RMRecordsReader";
+
   Reporter reporter;
 
   public MRMetricsReporter(Reporter reporter) {
@@ -33,4 +35,9 @@ public class MRMetricsReporter implements MetricsReporter {
   public void incRecordsRead(long v) {
     this.reporter.incrCounter(RMRssShuffle.Counter.INPUT_RECORDS_PROCESSED, v);
   }
+
+  @Override
+  public void incWaitTimeMs(String stage, long waitMs) {
+    this.reporter.incrCounter(WAIT_TIME_GROUP, stage + "WaitMs", waitMs);
+  }
 }
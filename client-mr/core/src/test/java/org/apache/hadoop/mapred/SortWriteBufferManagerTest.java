@@ -687,7 +687,8 @@ public class SortWriteBufferManagerTest {
             new ShuffleBlockInfo(1, 1, 3, 1, 1, new byte[1], null, 1, 100, 1);
         failedBlockSendTracker.add(
             failedBlock, new ShuffleServerInfo("host", 39998), StatusCode.NO_BUFFER);
-        return new SendShuffleDataResult(Sets.newHashSet(2L), failedBlockSendTracker);
+        return new SendShuffleDataResult(
+            Roaring64NavigableMap.bitmapOf(2L), failedBlockSendTracker);
       } else {
         if (mode == 3) {
           try {
@@ -698,9 +699,9 @@ public class SortWriteBufferManagerTest {
             throw new RssException(e);
           }
         }
-        Set<Long> successBlockIds = Sets.newHashSet();
+        Roaring64NavigableMap successBlockIds = Roaring64NavigableMap.bitmapOf();
         for (ShuffleBlockInfo blockInfo : shuffleBlockInfoList) {
-          successBlockIds.add(blockInfo.getBlockId());
+          successBlockIds.addLong(blockInfo.getBlockId());
         }
         return new SendShuffleDataResult(successBlockIds, new FailedBlockSendTracker());
       }
@@ -475,11 +475,12 @@ public class FetcherTest {
             new ShuffleBlockInfo(1, 1, 3, 1, 1, new byte[1], null, 1, 100, 1);
         failedBlockSendTracker.add(
             failedBlock, new ShuffleServerInfo("host", 39998), StatusCode.NO_BUFFER);
-        return new SendShuffleDataResult(Sets.newHashSet(2L), failedBlockSendTracker);
+        return new SendShuffleDataResult(
+            Roaring64NavigableMap.bitmapOf(2L), failedBlockSendTracker);
       } else {
-        Set<Long> successBlockIds = Sets.newHashSet();
+        Roaring64NavigableMap successBlockIds = Roaring64NavigableMap.bitmapOf();
         for (ShuffleBlockInfo blockInfo : shuffleBlockInfoList) {
-          successBlockIds.add(blockInfo.getBlockId());
+          successBlockIds.addLong(blockInfo.getBlockId());
         }
         shuffleBlockInfoList.forEach(
             block -> {
@@ -121,6 +121,48 @@ public class RssSparkConfig {
           .defaultValue(false)
           .withDescription("Whether to enable map side combine of shuffle writer.");
 
+  public static final ConfigOption<Boolean> RSS_WRITER_BUFFER_PAGED_ENABLED =
+      ConfigOptions.key("rss.client.writer.buffer.paged.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription(
+              "Whether to write the records into the pooled pages, which are compressed and sent "
+                  + "without being concatenated into a single array.");
+
+  public static final ConfigOption<Boolean> RSS_WRITER_BUFFER_OFF_HEAP_ENABLED =
+      ConfigOptions.key("rss.client.writer.buffer.offHeap.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription(
+              "Whether to allocate the pages of the writer buffer off heap, "
+                  + "it only works when rss.client.writer.buffer.paged.enabled is true. The pages "
+                  + "are charged to the off heap memory of Spark, so spark.memory.offHeap.enabled "
+                  + "must be true.");
+
+  public static final ConfigOption<Boolean> RSS_CLIENT_ZSTD_DICTIONARY_ENABLED =
+      ConfigOptions.key("rss.client.io.compression.zstd.dictionary.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription(
+              "Whether to compress the blocks with a Zstd dictionary trained per shuffle. The "
+                  + "first writers sample their early blocks to train the dictionary, which is "
+                  + "registered to the driver and used by all the writers and readers of the "
+                  + "shuffle. It only works when the codec is ZSTD.");
+
+  public static final ConfigOption<Long> RSS_CLIENT_ZSTD_DICTIONARY_SIZE =
+      ConfigOptions.key("rss.client.io.compression.zstd.dictionary.size")
+          .longType()
+          .defaultValue(32 * 1024L)
+          .withDescription("The max size of the trained Zstd dictionary.");
+
+  public static final ConfigOption<Long> RSS_CLIENT_ZSTD_DICTIONARY_SAMPLE_SIZE =
+      ConfigOptions.key("rss.client.io.compression.zstd.dictionary.sampleSize")
+          .longType()
+          .defaultValue(1024 * 1024L)
+          .withDescription(
+              "The size of the uncompressed blocks sampled by a writer to train the Zstd "
+                  + "dictionary, the writer doesn't train one if it writes less data.");
+
   public static final String SPARK_RSS_CONFIG_PREFIX = "spark.";
 
   public static final ConfigEntry<Integer> RSS_PARTITION_NUM_PER_RANGE =
@@ -43,17 +43,24 @@ import org.slf4j.LoggerFactory;
 import org.apache.uniffle.client.api.ShuffleManagerClient;
 import org.apache.uniffle.client.factory.CoordinatorClientFactory;
 import org.apache.uniffle.client.impl.grpc.CoordinatorGrpcRetryableClient;
+import org.apache.uniffle.client.request.RssGetShuffleDictionaryRequest;
+import org.apache.uniffle.client.request.RssRegisterShuffleDictionaryRequest;
 import org.apache.uniffle.client.request.RssReportShuffleFetchFailureRequest;
 import org.apache.uniffle.client.response.RssReportShuffleFetchFailureResponse;
+import org.apache.uniffle.client.response.RssShuffleDictionaryResponse;
 import org.apache.uniffle.client.util.ClientUtils;
 import org.apache.uniffle.common.ClientType;
 import org.apache.uniffle.common.RemoteStorageInfo;
 import org.apache.uniffle.common.ShuffleServerInfo;
+import org.apache.uniffle.common.compression.Codec;
+import org.apache.uniffle.common.config.RssClientConf;
 import org.apache.uniffle.common.config.RssConf;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.exception.RssFetchFailedException;
+import org.apache.uniffle.common.rpc.StatusCode;
 import org.apache.uniffle.common.util.Constants;
 
+import static org.apache.spark.shuffle.RssSparkConfig.RSS_CLIENT_ZSTD_DICTIONARY_ENABLED;
 import static org.apache.spark.shuffle.RssSparkConfig.RSS_RESUBMIT_STAGE_WITH_FETCH_FAILURE_ENABLED;
 
 public class RssSparkShuffleUtils {
@@ -393,4 +400,51 @@ public class RssSparkShuffleUtils {
     }
     return rssFetchFailedException;
   }
+
+  /** The dictionary is shared through the shuffle manager of the driver, only Zstd supports it. */
+  public static boolean isZstdDictionaryEnabled(RssConf rssConf) {
+    return rssConf.get(RSS_CLIENT_ZSTD_DICTIONARY_ENABLED)
+        && rssConf.get(RssClientConf.COMPRESSION_TYPE) == Codec.Type.ZSTD;
+  }
+
+  /** Returns the dictionary of the shuffle, or null if no dictionary is registered yet. */
+  public static byte[] getShuffleDictionary(
+      Supplier<ShuffleManagerClient> managerClientSupplier, String appId, int shuffleId) {
+    RssShuffleDictionaryResponse response =
+        managerClientSupplier
+            .get()
+            .getShuffleDictionary(new RssGetShuffleDictionaryRequest(appId, shuffleId));
+    if (response.getStatusCode() != StatusCode.SUCCESS) {
+      throw new RssException(
+          "Failed to get the dictionary of shuffle[" + shuffleId + "]: " + response.getMessage());
+    }
+    return response.getDictionary();
+  }
+
+  /**
+   * Registers the dictionary trained by a writer and returns the dictionary the shuffle uses, which
+   * may be registered by another writer. Returns null if the registration fails, then the writer
+   * keeps compressing without a dictionary.
+   */
+  public static byte[] registerShuffleDictionary(
+      Supplier<ShuffleManagerClient> managerClientSupplier,
+      String appId,
+      int shuffleId,
+      byte[] dictionary) {
+    try {
+      RssShuffleDictionaryResponse response =
+          managerClientSupplier
+              .get()
+              .registerShuffleDictionary(
+                  new RssRegisterShuffleDictionaryRequest(appId, shuffleId, dictionary));
+      if (response.getStatusCode() == StatusCode.SUCCESS) {
+        return response.getDictionary();
+      }
+      LOG.warn(
+          "Failed to register the dictionary of shuffle[{}]: {}", shuffleId, response.getMessage());
+    } catch (Exception e) {
+      LOG.warn("Failed to register the dictionary of shuffle[{}]", shuffleId, e);
+    }
+    return null;
+  }
 }
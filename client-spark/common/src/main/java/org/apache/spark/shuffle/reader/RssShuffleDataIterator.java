@@ -67,6 +67,16 @@ public class RssShuffleDataIterator<K, C> extends AbstractIterator<Product2<K, C
       ShuffleReadClient shuffleReadClient,
       ShuffleReadMetrics shuffleReadMetrics,
       RssConf rssConf) {
+    this(serializer, shuffleReadClient, shuffleReadMetrics, rssConf, null);
+  }
+
+  /** The dictionary is used to decompress the blocks of a shuffle compressed with it. */
+  public RssShuffleDataIterator(
+      Serializer serializer,
+      ShuffleReadClient shuffleReadClient,
+      ShuffleReadMetrics shuffleReadMetrics,
+      RssConf rssConf,
+      byte[] dictionary) {
     this.serializerInstance = serializer.newInstance();
     this.shuffleReadClient = shuffleReadClient;
     this.shuffleReadMetrics = shuffleReadMetrics;
@@ -76,6 +86,9 @@ public class RssShuffleDataIterator<K, C> extends AbstractIterator<Product2<K, C
                 RssSparkConfig.SPARK_RSS_CONFIG_PREFIX.length()),
             RssSparkConfig.SPARK_SHUFFLE_COMPRESS_DEFAULT);
     this.codec = compress ? Codec.newInstance(rssConf) : Optional.empty();
+    if (dictionary != null) {
+      this.codec = codec.map(c -> c.withDecompressionDictionary(dictionary));
+    }
   }
 
   public Iterator<Tuple2<Object, Object>> createKVIterator(ByteBuffer data) {
@@ -30,7 +30,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.collect.Queues;
-import com.google.common.collect.Sets;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,8 +51,8 @@ public class DataPusher implements Closeable {
   private final ExecutorService executorService;
 
   private final ShuffleWriteClient shuffleWriteClient;
-  // Must be thread safe
-  private final Map<String, Set<Long>> taskToSuccessBlockIds;
+  // Must be thread safe, and the bitmap of a task is guarded by itself
+  private final Map<String, Roaring64NavigableMap> taskToSuccessBlockIds;
   // Must be thread safe
   Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker;
   private String rssAppId;
@@ -61,7 +61,7 @@ public class DataPusher implements Closeable {
 
   public DataPusher(
       ShuffleWriteClient shuffleWriteClient,
-      Map<String, Set<Long>> taskToSuccessBlockIds,
+      Map<String, Roaring64NavigableMap> taskToSuccessBlockIds,
       Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker,
       Set<String> failedTaskIds,
       int threadPoolSize,
@@ -100,7 +100,7 @@ public class DataPusher implements Closeable {
                 putFailedBlockSendTracker(
                     taskToFailedBlockSendTracker, taskId, result.getFailedBlockSendTracker());
               } finally {
-                Set<Long> succeedBlockIds = getSucceedBlockIds(result);
+                Roaring64NavigableMap succeedBlockIds = getSucceedBlockIds(result);
                 for (ShuffleBlockInfo block : shuffleBlockInfoList) {
                   block.executeCompletionCallback(succeedBlockIds.contains(block.getBlockId()));
                 }
@@ -111,12 +111,14 @@ public class DataPusher implements Closeable {
                   runnable.run();
                 }
               }
-              Set<Long> succeedBlockIds = getSucceedBlockIds(result);
-              return shuffleBlockInfoList.stream()
-                  .filter(x -> succeedBlockIds.contains(x.getBlockId()))
-                  .map(x -> x.getFreeMemory())
-                  .reduce((a, b) -> a + b)
-                  .get();
+              Roaring64NavigableMap succeedBlockIds = getSucceedBlockIds(result);
+              long freeMemory = 0;
+              for (ShuffleBlockInfo block : shuffleBlockInfoList) {
+                if (succeedBlockIds.contains(block.getBlockId())) {
+                  freeMemory += block.getFreeMemory();
+                }
+              }
+              return freeMemory;
             },
             executorService)
         .exceptionally(
@@ -126,21 +128,25 @@ public class DataPusher implements Closeable {
             });
   }
 
-  private Set<Long> getSucceedBlockIds(SendShuffleDataResult result) {
+  private Roaring64NavigableMap getSucceedBlockIds(SendShuffleDataResult result) {
     if (result == null || result.getSuccessBlockIds() == null) {
-      return Collections.emptySet();
+      return Roaring64NavigableMap.bitmapOf();
     }
     return result.getSuccessBlockIds();
   }
 
   private synchronized void putBlockId(
-      Map<String, Set<Long>> taskToBlockIds, String taskAttemptId, Set<Long> blockIds) {
+      Map<String, Roaring64NavigableMap> taskToBlockIds,
+      String taskAttemptId,
+      Roaring64NavigableMap blockIds) {
     if (blockIds == null || blockIds.isEmpty()) {
       return;
     }
-    taskToBlockIds
-        .computeIfAbsent(taskAttemptId, x -> Sets.newConcurrentHashSet())
-        .addAll(blockIds);
+    Roaring64NavigableMap taskBlockIds =
+        taskToBlockIds.computeIfAbsent(taskAttemptId, x -> Roaring64NavigableMap.bitmapOf());
+    synchronized (taskBlockIds) {
+      taskBlockIds.or(blockIds);
+    }
   }
 
   private synchronized void putFailedBlockSendTracker(
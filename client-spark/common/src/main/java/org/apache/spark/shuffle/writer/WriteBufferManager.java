@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -36,6 +37,10 @@ import scala.reflect.ManifestFactory$;
 import com.clearspring.analytics.util.Lists;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import org.apache.spark.executor.ShuffleWriteMetrics;
 import org.apache.spark.memory.MemoryConsumer;
 import org.apache.spark.memory.MemoryMode;
@@ -50,10 +55,14 @@ import org.slf4j.LoggerFactory;
 import org.apache.uniffle.common.ShuffleBlockInfo;
 import org.apache.uniffle.common.ShuffleServerInfo;
 import org.apache.uniffle.common.compression.Codec;
+import org.apache.uniffle.common.compression.ZstdCodec;
+import org.apache.uniffle.common.compression.ZstdDictionarySampler;
+import org.apache.uniffle.common.config.RssClientConf;
 import org.apache.uniffle.common.config.RssConf;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.util.BlockIdLayout;
 import org.apache.uniffle.common.util.ChecksumUtils;
+import org.apache.uniffle.common.util.ThreadUtils;
 
 public class WriteBufferManager extends MemoryConsumer {
 
@@ -95,7 +104,8 @@ public class WriteBufferManager extends MemoryConsumer {
   private long compressedDataLen = 0;
   private long requireMemoryInterval;
   private int requireMemoryRetryMax;
-  private Optional<Codec> codec;
+  private volatile Optional<Codec> codec;
+  private final ChecksumUtils.Type checksumType;
   private Function<List<ShuffleBlockInfo>, List<CompletableFuture<Long>>> spillFunc;
   private long sendSizeLimit;
   private boolean memorySpillEnabled;
@@ -105,6 +115,16 @@ public class WriteBufferManager extends MemoryConsumer {
   private double bufferSpillRatio;
   private Function<Integer, List<ShuffleServerInfo>> partitionAssignmentRetrieveFunc;
   private int stageAttemptNumber;
+  // the allocator of the pages of the writer buffers, it's null if the paged buffer is disabled
+  private ByteBufAllocator pageAllocator;
+  private boolean offHeapPages;
+  private final int dictionarySampleSize;
+  private final int dictionarySize;
+  // it's not null until the dictionary is trained, if the dictionary is enabled
+  private ZstdDictionarySampler dictionarySampler;
+  private Function<byte[], byte[]> dictionaryRegistrar;
+  private volatile CompletableFuture<Void> dictionaryTraining =
+      CompletableFuture.completedFuture(null);
 
   public WriteBufferManager(
       int shuffleId,
@@ -166,7 +186,10 @@ public class WriteBufferManager extends MemoryConsumer {
       Function<List<ShuffleBlockInfo>, List<CompletableFuture<Long>>> spillFunc,
       Function<Integer, List<ShuffleServerInfo>> partitionAssignmentRetrieveFunc,
       int stageAttemptNumber) {
-    super(taskMemoryManager, taskMemoryManager.pageSizeBytes(), MemoryMode.ON_HEAP);
+    super(
+        taskMemoryManager,
+        taskMemoryManager.pageSizeBytes(),
+        getMemoryMode(taskMemoryManager, rssConf));
     this.bufferSize = bufferManagerOptions.getBufferSize();
     this.spillSize = bufferManagerOptions.getBufferSpillThreshold();
     this.buffers = Maps.newHashMap();
@@ -192,6 +215,7 @@ public class WriteBufferManager extends MemoryConsumer {
                 RssSparkConfig.SPARK_RSS_CONFIG_PREFIX.length()),
             RssSparkConfig.SPARK_SHUFFLE_COMPRESS_DEFAULT);
     this.codec = compress ? Codec.newInstance(rssConf) : Optional.empty();
+    this.checksumType = rssConf.get(RssClientConf.CHECKSUM_TYPE);
     this.spillFunc = spillFunc;
     this.sendSizeLimit = rssConf.get(RssSparkConfig.RSS_CLIENT_SEND_SIZE_LIMITATION);
     this.memorySpillTimeoutSec = rssConf.get(RssSparkConfig.RSS_MEMORY_SPILL_TIMEOUT);
@@ -200,6 +224,91 @@ public class WriteBufferManager extends MemoryConsumer {
     this.blockIdLayout = BlockIdLayout.from(rssConf);
     this.partitionAssignmentRetrieveFunc = partitionAssignmentRetrieveFunc;
     this.stageAttemptNumber = stageAttemptNumber;
+    if (rssConf.get(RssSparkConfig.RSS_WRITER_BUFFER_PAGED_ENABLED)) {
+      this.pageAllocator = PooledByteBufAllocator.DEFAULT;
+      this.offHeapPages = getMode() == MemoryMode.OFF_HEAP;
+    }
+    this.dictionarySampleSize =
+        (int) (long) rssConf.get(RssSparkConfig.RSS_CLIENT_ZSTD_DICTIONARY_SAMPLE_SIZE);
+    this.dictionarySize = (int) (long) rssConf.get(RssSparkConfig.RSS_CLIENT_ZSTD_DICTIONARY_SIZE);
+  }
+
+  /**
+   * The off heap pages are charged to the off heap memory of Spark, so they are limited by
+   * spark.memory.offHeap.size like the other off heap consumers.
+   */
+  private static MemoryMode getMemoryMode(TaskMemoryManager taskMemoryManager, RssConf rssConf) {
+    if (!rssConf.get(RssSparkConfig.RSS_WRITER_BUFFER_PAGED_ENABLED)
+        || !rssConf.get(RssSparkConfig.RSS_WRITER_BUFFER_OFF_HEAP_ENABLED)) {
+      return MemoryMode.ON_HEAP;
+    }
+    if (taskMemoryManager.getTungstenMemoryMode() != MemoryMode.OFF_HEAP) {
+      throw new RssException(
+          RssSparkConfig.SPARK_RSS_CONFIG_PREFIX
+              + RssSparkConfig.RSS_WRITER_BUFFER_OFF_HEAP_ENABLED.key()
+              + " requires spark.memory.offHeap.enabled and a positive spark.memory.offHeap.size");
+    }
+    return MemoryMode.OFF_HEAP;
+  }
+
+  /**
+   * Compresses the blocks with the dictionary of the shuffle. If the shuffle has no dictionary yet,
+   * the early blocks are sampled to train one, which is passed to the registrar. The registrar
+   * returns the dictionary of the shuffle, which may be trained by another writer, or null if the
+   * dictionary can't be registered.
+   */
+  public void enableDictionary(byte[] dictionary, Function<byte[], byte[]> dictionaryRegistrar) {
+    if (!codec.isPresent() || !(codec.get() instanceof ZstdCodec)) {
+      LOG.warn("The dictionary is ignored because the codec is not Zstd");
+      return;
+    }
+    if (dictionary != null) {
+      codec = Optional.of(codec.get().withDictionary(dictionary));
+      return;
+    }
+    this.dictionarySampler = new ZstdDictionarySampler(dictionarySampleSize, dictionarySize);
+    this.dictionaryRegistrar = dictionaryRegistrar;
+  }
+
+  // The dictionary is trained and registered by a background thread, so the writer isn't blocked,
+  // and the blocks are compressed without the dictionary until it's ready.
+  private void sampleForDictionary(ByteBuf data) {
+    ZstdDictionarySampler sampler;
+    synchronized (this) {
+      if (dictionarySampler == null || !dictionarySampler.addSample(data)) {
+        return;
+      }
+      sampler = dictionarySampler;
+      dictionarySampler = null;
+    }
+    dictionaryTraining =
+        CompletableFuture.runAsync(
+            () -> {
+              byte[] dictionary = sampler.train();
+              if (dictionary != null) {
+                dictionary = dictionaryRegistrar.apply(dictionary);
+              }
+              if (dictionary != null) {
+                codec = Optional.of(codec.get().withDictionary(dictionary));
+              }
+            },
+            DictionaryTrainerHolder.EXECUTOR);
+    dictionaryTraining.whenComplete(
+        (v, e) -> {
+          if (e != null) {
+            LOG.warn("Failed to train the dictionary, the blocks are compressed without it", e);
+          }
+        });
+  }
+
+  @VisibleForTesting
+  CompletableFuture<Void> getDictionaryTraining() {
+    return dictionaryTraining;
+  }
+
+  private static class DictionaryTrainerHolder {
+    static final ExecutorService EXECUTOR =
+        ThreadUtils.getDaemonSingleThreadExecutor("zstd-dictionary-trainer");
   }
 
   public WriteBufferManager(
@@ -300,7 +409,10 @@ public class WriteBufferManager extends MemoryConsumer {
         requestMemory(required);
       }
       usedBytes.addAndGet(required);
-      wb = new WriterBuffer(bufferSegmentSize);
+      wb =
+          pageAllocator == null
+              ? new WriterBuffer(bufferSegmentSize)
+              : new WriterBuffer(bufferSegmentSize, pageAllocator, offHeapPages);
       wb.addRecord(serializedData, serializedDataLength);
       buffers.put(partitionId, wb);
     }
@@ -418,28 +530,82 @@ public class WriteBufferManager extends MemoryConsumer {
 
   // transform records to shuffleBlock
   protected ShuffleBlockInfo createShuffleBlock(int partitionId, WriterBuffer wb) {
+    if (wb.isPaged()) {
+      return createShuffleBlockFromPages(partitionId, wb);
+    }
     byte[] data = wb.getData();
     final int uncompressLength = data.length;
     byte[] compressed = data;
     if (codec.isPresent()) {
+      sampleForDictionary(Unpooled.wrappedBuffer(data));
       long start = System.currentTimeMillis();
       compressed = codec.get().compress(data);
       compressTime += System.currentTimeMillis() - start;
     }
-    final long crc32 = ChecksumUtils.getCrc32(compressed);
+    final long crc32 = ChecksumUtils.getChecksum(checksumType, compressed);
+    return newShuffleBlock(
+        partitionId, wb, Unpooled.wrappedBuffer(compressed), crc32, uncompressLength);
+  }
+
+  // the pages are sent as they are if there is no codec, otherwise they are compressed chunk by
+  // chunk into a pooled buffer, so no heap array is created for the block
+  private ShuffleBlockInfo createShuffleBlockFromPages(int partitionId, WriterBuffer wb) {
+    ByteBuf data = wb.toByteBuf();
+    final int uncompressLength = data.readableBytes();
+    ByteBuf compressed = data;
+    if (codec.isPresent()) {
+      try {
+        sampleForDictionary(data);
+        compressed = compress(codec.get(), data);
+      } finally {
+        data.release();
+      }
+    }
+    final long crc32 = ChecksumUtils.getChecksum(checksumType, compressed);
+    return newShuffleBlock(partitionId, wb, compressed, crc32, uncompressLength);
+  }
+
+  private ByteBuf compress(Codec codec, ByteBuf data) {
+    List<ByteBuf> chunks = Collections.singletonList(data);
+    ByteBuf merged = null;
+    // the pages are merged here rather than by the codec, so the copy is accounted as copyTime
+    if (codec.mergesChunks(chunks)) {
+      long start = System.currentTimeMillis();
+      int length = data.readableBytes();
+      merged =
+          data.isDirect() ? pageAllocator.directBuffer(length) : pageAllocator.heapBuffer(length);
+      merged.writeBytes(data, data.readerIndex(), length);
+      chunks = Collections.singletonList(merged);
+      copyTime += System.currentTimeMillis() - start;
+    }
+    try {
+      long start = System.currentTimeMillis();
+      ByteBuf compressed = codec.compress(chunks, pageAllocator);
+      compressTime += System.currentTimeMillis() - start;
+      return compressed;
+    } finally {
+      if (merged != null) {
+        merged.release();
+      }
+    }
+  }
+
+  private ShuffleBlockInfo newShuffleBlock(
+      int partitionId, WriterBuffer wb, ByteBuf compressed, long crc32, int uncompressLength) {
     final long blockId =
         blockIdLayout.getBlockId(getNextSeqNo(partitionId), partitionId, taskAttemptId);
+    final int compressedLength = compressed.readableBytes();
     blockCounter.incrementAndGet();
-    uncompressedDataLen += data.length;
-    compressedDataLen += compressed.length;
-    shuffleWriteMetrics.incBytesWritten(compressed.length);
+    uncompressedDataLen += uncompressLength;
+    compressedDataLen += compressedLength;
+    shuffleWriteMetrics.incBytesWritten(compressedLength);
     // add memory to indicate bytes which will be sent to shuffle server
     inSendListBytes.addAndGet(wb.getMemoryUsed());
     return new ShuffleBlockInfo(
         shuffleId,
         partitionId,
         blockId,
-        compressed.length,
+        compressedLength,
         crc32,
         compressed,
         partitionAssignmentRetrieveFunc.apply(partitionId),
@@ -616,6 +782,9 @@ public class WriteBufferManager extends MemoryConsumer {
   }
 
   public void freeAllMemory() {
+    // the pages of the buffers which are not sent are returned to the pool
+    buffers.values().forEach(WriterBuffer::release);
+    buffers.clear();
     long memory = allocatedBytes.get();
     if (memory > 0) {
       freeMemory(memory);
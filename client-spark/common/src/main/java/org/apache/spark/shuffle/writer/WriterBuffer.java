@@ -20,6 +20,9 @@ package org.apache.spark.shuffle.writer;
 import java.util.List;
 
 import com.google.common.collect.Lists;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,23 +37,56 @@ public class WriterBuffer {
   private int dataLength = 0;
   private int memoryUsed = 0;
   private long recordCount = 0;
+  // the pages are used instead of the arrays if the allocator is set
+  private ByteBufAllocator allocator;
+  private boolean offHeap;
+  private ByteBuf page;
+  private List<ByteBuf> pages = Lists.newArrayList();
 
   public WriterBuffer(int bufferSize) {
     this.bufferSize = bufferSize;
   }
 
+  /**
+   * The records are written into the pages allocated by the allocator, and the data is handed over
+   * by {@link #toByteBuf()} without being concatenated.
+   */
+  public WriterBuffer(int bufferSize, ByteBufAllocator allocator, boolean offHeap) {
+    this.bufferSize = bufferSize;
+    this.allocator = allocator;
+    this.offHeap = offHeap;
+  }
+
   public void addRecord(byte[] recordBuffer, int length) {
     if (askForMemory(length)) {
-      // buffer has data already, add buffer to list
-      if (nextOffset > 0) {
-        buffers.add(new WrappedBuffer(buffer, nextOffset));
+      int newBufferSize = Math.max(length, bufferSize);
+      if (isPaged()) {
+        if (page != null) {
+          pages.add(page);
+        }
+        page =
+            offHeap
+                ? allocator.directBuffer(newBufferSize, newBufferSize)
+                : allocator.heapBuffer(newBufferSize, newBufferSize);
         nextOffset = 0;
+      } else {
+        // buffer has data already, add buffer to list
+        if (nextOffset > 0) {
+          buffers.add(new WrappedBuffer(buffer, nextOffset));
+          nextOffset = 0;
+        }
+        buffer = new byte[newBufferSize];
       }
-      int newBufferSize = Math.max(length, bufferSize);
-      buffer = new byte[newBufferSize];
       memoryUsed += newBufferSize;
     }
 
+    if (isPaged()) {
+      page.writeBytes(recordBuffer, 0, length);
+      nextOffset += length;
+      dataLength += length;
+      recordCount++;
+      return;
+    }
     try {
       System.arraycopy(recordBuffer, 0, buffer, nextOffset, length);
     } catch (Exception e) {
@@ -71,13 +107,29 @@ public class WriterBuffer {
   }
 
   public boolean askForMemory(long length) {
-    return buffer == null || nextOffset + length > bufferSize;
+    boolean empty = isPaged() ? page == null : buffer == null;
+    return empty || nextOffset + length > bufferSize;
+  }
+
+  public boolean isPaged() {
+    return allocator != null;
   }
 
   public byte[] getData() {
     byte[] data = new byte[dataLength];
     int offset = 0;
     long start = System.currentTimeMillis();
+    if (isPaged()) {
+      for (ByteBuf buf : pages) {
+        buf.getBytes(buf.readerIndex(), data, offset, buf.readableBytes());
+        offset += buf.readableBytes();
+      }
+      if (page != null) {
+        page.getBytes(page.readerIndex(), data, offset, page.readableBytes());
+      }
+      copyTime += System.currentTimeMillis() - start;
+      return data;
+    }
     for (WrappedBuffer wrappedBuffer : buffers) {
       System.arraycopy(wrappedBuffer.getBuffer(), 0, data, offset, wrappedBuffer.getSize());
       offset += wrappedBuffer.getSize();
@@ -88,6 +140,42 @@ public class WriterBuffer {
     return data;
   }
 
+  /**
+   * Hands over the pages as a single buffer without copying them, the pages are owned by the
+   * returned buffer and this writer buffer shouldn't be used anymore.
+   */
+  public ByteBuf toByteBuf() {
+    if (!isPaged()) {
+      throw new IllegalStateException("The data of the writer buffer isn't paged");
+    }
+    if (page != null) {
+      pages.add(page);
+      page = null;
+    }
+    ByteBuf data;
+    if (pages.size() == 1) {
+      data = pages.get(0);
+    } else {
+      CompositeByteBuf composite =
+          offHeap
+              ? allocator.compositeDirectBuffer(pages.size())
+              : allocator.compositeHeapBuffer(pages.size());
+      data = composite.addComponents(true, pages);
+    }
+    pages.clear();
+    return data;
+  }
+
+  /** Releases the pages which are not handed over. */
+  public void release() {
+    pages.forEach(ByteBuf::release);
+    pages.clear();
+    if (page != null) {
+      page.release();
+      page = null;
+    }
+  }
+
   public int getDataLength() {
     return dataLength;
   }
@@ -65,6 +65,7 @@ import org.apache.spark.shuffle.handle.SimpleShuffleHandleInfo;
 import org.apache.spark.shuffle.handle.StageAttemptShuffleHandleInfo;
 import org.apache.spark.shuffle.writer.AddBlockEvent;
 import org.apache.spark.shuffle.writer.DataPusher;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -120,7 +121,7 @@ public abstract class RssShuffleManagerBase implements RssShuffleManagerInterfac
   protected final int dataReplicaWrite;
   protected final int dataReplicaRead;
   protected final boolean dataReplicaSkipEnabled;
-  protected final Map<String, Set<Long>> taskToSuccessBlockIds;
+  protected final Map<String, Roaring64NavigableMap> taskToSuccessBlockIds;
   protected final Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker;
   private Set<String> failedTaskIds = Sets.newConcurrentHashSet();
 
@@ -283,7 +284,10 @@ public abstract class RssShuffleManagerBase implements RssShuffleManagerInterfac
     }
     this.blockIdSelfManagedEnabled = rssConf.getBoolean(RSS_BLOCK_ID_SELF_MANAGEMENT_ENABLED);
     this.shuffleManagerRpcServiceEnabled =
-        partitionReassignEnabled || rssStageRetryEnabled || blockIdSelfManagedEnabled;
+        partitionReassignEnabled
+            || rssStageRetryEnabled
+            || blockIdSelfManagedEnabled
+            || RssSparkShuffleUtils.isZstdDictionaryEnabled(rssConf);
 
     if (isDriver) {
       heartBeatScheduledExecutorService =
@@ -343,7 +347,7 @@ public abstract class RssShuffleManagerBase implements RssShuffleManagerInterfac
       SparkConf conf,
       boolean isDriver,
       DataPusher dataPusher,
-      Map<String, Set<Long>> taskToSuccessBlockIds,
+      Map<String, Roaring64NavigableMap> taskToSuccessBlockIds,
       Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker) {
     this.sparkConf = conf;
     this.clientType = sparkConf.get(RssSparkConfig.RSS_CLIENT_TYPE);
@@ -1207,10 +1211,11 @@ public abstract class RssShuffleManagerBase implements RssShuffleManagerInterfac
 
   @VisibleForTesting
   public void addSuccessBlockIds(String taskId, Set<Long> blockIds) {
-    if (taskToSuccessBlockIds.get(taskId) == null) {
-      taskToSuccessBlockIds.put(taskId, Sets.newHashSet());
+    Roaring64NavigableMap bitmap =
+        taskToSuccessBlockIds.computeIfAbsent(taskId, x -> Roaring64NavigableMap.bitmapOf());
+    synchronized (bitmap) {
+      blockIds.forEach(bitmap::addLong);
     }
-    taskToSuccessBlockIds.get(taskId).addAll(blockIds);
   }
 
   @VisibleForTesting
@@ -1550,12 +1555,36 @@ public abstract class RssShuffleManagerBase implements RssShuffleManagerInterfac
     return blockIdsFailedSendTracker.getFailedBlockIds();
   }
 
-  public Set<Long> getSuccessBlockIds(String taskId) {
-    Set<Long> result = taskToSuccessBlockIds.get(taskId);
-    if (result == null) {
-      result = Collections.emptySet();
+  /** @return the snapshot of the succeeded block ids, which isn't changed by the data pusher */
+  public Roaring64NavigableMap getSuccessBlockIds(String taskId) {
+    Roaring64NavigableMap bitmap = taskToSuccessBlockIds.get(taskId);
+    if (bitmap == null) {
+      return Roaring64NavigableMap.bitmapOf();
+    }
+    synchronized (bitmap) {
+      return RssUtils.cloneBitMap(bitmap);
+    }
+  }
+
+  /** Removes the succeeded block ids of the task from the given ones, without copying them. */
+  public void removeSuccessBlockIds(String taskId, Roaring64NavigableMap blockIds) {
+    Roaring64NavigableMap bitmap = taskToSuccessBlockIds.get(taskId);
+    if (bitmap == null) {
+      return;
+    }
+    synchronized (bitmap) {
+      blockIds.andNot(bitmap);
+    }
+  }
+
+  public long getSuccessBlockIdNum(String taskId) {
+    Roaring64NavigableMap bitmap = taskToSuccessBlockIds.get(taskId);
+    if (bitmap == null) {
+      return 0;
+    }
+    synchronized (bitmap) {
+      return bitmap.getLongCardinality();
     }
-    return result;
   }
 
   public FailedBlockSendTracker getBlockIdsFailedSendTracker(String taskId) {
@@ -1582,7 +1611,7 @@ public abstract class RssShuffleManagerBase implements RssShuffleManagerInterfac
   }
 
   @VisibleForTesting
-  public Map<String, Set<Long>> getTaskToSuccessBlockIds() {
+  public Map<String, Roaring64NavigableMap> getTaskToSuccessBlockIds() {
     return taskToSuccessBlockIds;
   }
 
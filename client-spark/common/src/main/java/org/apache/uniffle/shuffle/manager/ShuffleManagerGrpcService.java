@@ -52,6 +52,8 @@ public class ShuffleManagerGrpcService extends ShuffleManagerImplBase {
   // The shuffleId mapping records the number of ShuffleServer write failures
   private final Map<Integer, ShuffleServerWriterFailureRecord> shuffleWriteStatus =
       JavaUtils.newConcurrentMap();
+  // The compression dictionary of each shuffle, which is the first one registered by the writers
+  private final Map<Integer, byte[]> shuffleDictionaries = JavaUtils.newConcurrentMap();
   private final RssShuffleManagerInterface shuffleManager;
 
   public ShuffleManagerGrpcService(RssShuffleManagerInterface shuffleManager) {
@@ -354,6 +356,7 @@ public class ShuffleManagerGrpcService extends ShuffleManagerImplBase {
    */
   public void unregisterShuffle(int shuffleId) {
     shuffleStatus.remove(shuffleId);
+    shuffleDictionaries.remove(shuffleId);
   }
 
   private static class ShuffleServerWriterFailureRecord {
@@ -711,4 +714,52 @@ public class ShuffleManagerGrpcService extends ShuffleManagerImplBase {
     responseObserver.onNext(reply);
     responseObserver.onCompleted();
   }
+
+  @Override
+  public void registerShuffleDictionary(
+      RssProtos.RegisterShuffleDictionaryRequest request,
+      StreamObserver<RssProtos.ShuffleDictionaryResponse> responseObserver) {
+    String appId = request.getAppId();
+    int shuffleId = request.getShuffleId();
+    byte[] dictionary = null;
+    if (appId.equals(shuffleManager.getAppId())) {
+      dictionary =
+          shuffleDictionaries.computeIfAbsent(
+              shuffleId,
+              key -> {
+                LOG.info(
+                    "Registered the compression dictionary of {} bytes for shuffle[{}]",
+                    request.getDictionary().size(),
+                    shuffleId);
+                return request.getDictionary().toByteArray();
+              });
+    }
+    replyShuffleDictionary(responseObserver, appId, dictionary);
+  }
+
+  @Override
+  public void getShuffleDictionary(
+      RssProtos.GetShuffleDictionaryRequest request,
+      StreamObserver<RssProtos.ShuffleDictionaryResponse> responseObserver) {
+    replyShuffleDictionary(
+        responseObserver, request.getAppId(), shuffleDictionaries.get(request.getShuffleId()));
+  }
+
+  private void replyShuffleDictionary(
+      StreamObserver<RssProtos.ShuffleDictionaryResponse> responseObserver,
+      String appId,
+      byte[] dictionary) {
+    RssProtos.ShuffleDictionaryResponse.Builder reply =
+        RssProtos.ShuffleDictionaryResponse.newBuilder();
+    if (!appId.equals(shuffleManager.getAppId())) {
+      reply.setStatus(RssProtos.StatusCode.ACCESS_DENIED).setRetMsg("Illegal appId: " + appId);
+    } else {
+      reply.setStatus(RssProtos.StatusCode.SUCCESS);
+      if (dictionary != null) {
+        reply.setDictionary(UnsafeByteOperations.unsafeWrap(dictionary));
+      }
+    }
+    responseObserver.onNext(reply.build());
+    responseObserver.onCompleted();
+  }
 }
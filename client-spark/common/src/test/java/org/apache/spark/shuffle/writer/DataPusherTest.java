@@ -27,8 +27,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.function.Supplier;
 
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
 import org.apache.uniffle.client.factory.ShuffleClientFactory;
 import org.apache.uniffle.client.impl.FailedBlockSendTracker;
@@ -91,7 +91,7 @@ public class DataPusherTest {
   public void testSendData() throws ExecutionException, InterruptedException {
     FakedShuffleWriteClient shuffleWriteClient = new FakedShuffleWriteClient();
 
-    Map<String, Set<Long>> taskToSuccessBlockIds = Maps.newConcurrentMap();
+    Map<String, Roaring64NavigableMap> taskToSuccessBlockIds = Maps.newConcurrentMap();
     Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker = JavaUtils.newConcurrentMap();
     Set<String> failedTaskIds = new HashSet<>();
 
@@ -114,7 +114,7 @@ public class DataPusherTest {
     failedBlockSendTracker.add(
         failedBlock2, new ShuffleServerInfo("host", 39998), StatusCode.NO_BUFFER);
     shuffleWriteClient.setFakedShuffleDataResult(
-        new SendShuffleDataResult(Sets.newHashSet(1L, 2L), failedBlockSendTracker));
+        new SendShuffleDataResult(Roaring64NavigableMap.bitmapOf(1L, 2L), failedBlockSendTracker));
     ShuffleBlockInfo shuffleBlockInfo =
         new ShuffleBlockInfo(1, 1, 1, 1, 1, new byte[1], null, 1, 100, 1);
     AddBlockEvent event = new AddBlockEvent("taskId", Arrays.asList(shuffleBlockInfo));
@@ -18,21 +18,25 @@
 package org.apache.spark.shuffle.writer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import com.github.luben.zstd.Zstd;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.apache.spark.SparkConf;
 import org.apache.spark.executor.ShuffleWriteMetrics;
 import org.apache.spark.memory.MemoryConsumer;
 import org.apache.spark.memory.MemoryManager;
+import org.apache.spark.memory.MemoryMode;
 import org.apache.spark.memory.TaskMemoryManager;
 import org.apache.spark.serializer.KryoSerializer;
 import org.apache.spark.serializer.Serializer;
@@ -50,9 +54,12 @@ import org.apache.uniffle.common.ShuffleBlockInfo;
 import org.apache.uniffle.common.compression.Codec;
 import org.apache.uniffle.common.config.RssClientConf;
 import org.apache.uniffle.common.config.RssConf;
+import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.util.BlockIdLayout;
+import org.apache.uniffle.common.util.ByteBufUtils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doReturn;
@@ -65,6 +72,7 @@ public class WriteBufferManagerTest {
   private WriteBufferManager createManager(SparkConf conf) {
     Serializer kryoSerializer = new KryoSerializer(conf);
     TaskMemoryManager mockTaskMemoryManager = mock(TaskMemoryManager.class);
+    when(mockTaskMemoryManager.getTungstenMemoryMode()).thenReturn(MemoryMode.OFF_HEAP);
 
     BufferManagerOptions bufferOptions = new BufferManagerOptions(conf);
     WriteBufferManager wbm =
@@ -194,6 +202,160 @@ public class WriteBufferManagerTest {
     assertEquals(96, wbm.getInSendListBytes());
   }
 
+  @Test
+  public void addRecordWithPagedBufferTest() {
+    for (boolean compress : new boolean[] {true, false}) {
+      for (boolean offHeap : new boolean[] {true, false}) {
+        SparkConf conf = getConf();
+        conf.set(RssSparkConfig.SPARK_SHUFFLE_COMPRESS_KEY, String.valueOf(compress));
+        WriteBufferManager expectedWbm = createManager(conf);
+        conf.set(
+            RssSparkConfig.SPARK_RSS_CONFIG_PREFIX
+                + RssSparkConfig.RSS_WRITER_BUFFER_PAGED_ENABLED.key(),
+            "true");
+        conf.set(
+            RssSparkConfig.SPARK_RSS_CONFIG_PREFIX
+                + RssSparkConfig.RSS_WRITER_BUFFER_OFF_HEAP_ENABLED.key(),
+            String.valueOf(offHeap));
+        WriteBufferManager wbm = createManager(conf);
+        assertEquals(offHeap ? MemoryMode.OFF_HEAP : MemoryMode.ON_HEAP, wbm.getMode());
+
+        List<ShuffleBlockInfo> expected = new ArrayList<>();
+        List<ShuffleBlockInfo> result = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+          expected.addAll(expectedWbm.addRecord(0, "Key" + i, "Value" + i));
+          result.addAll(wbm.addRecord(0, "Key" + i, "Value" + i));
+        }
+        expected.addAll(expectedWbm.addRecord(1, "Key", "Value"));
+        result.addAll(wbm.addRecord(1, "Key", "Value"));
+        expected.addAll(expectedWbm.clear(1.0));
+        result.addAll(wbm.clear(1.0));
+
+        // the blocks of the pages are the same as the blocks of the arrays
+        assertEquals(2, result.size());
+        for (int i = 0; i < result.size(); i++) {
+          ShuffleBlockInfo block = result.get(i);
+          assertEquals(offHeap, block.getData().isDirect());
+          assertEquals(expected.get(i).getBlockId(), block.getBlockId());
+          assertEquals(expected.get(i).getLength(), block.getLength());
+          assertEquals(expected.get(i).getUncompressLength(), block.getUncompressLength());
+          assertEquals(expected.get(i).getCrc(), block.getCrc());
+          assertEquals(expected.get(i).getData(), block.getData());
+          assertEquals(expected.get(i).getFreeMemory(), block.getFreeMemory());
+          wbm.releaseBlockResource(block);
+          assertEquals(0, block.getData().refCnt());
+        }
+        assertEquals(
+            expectedWbm.getShuffleWriteMetrics().bytesWritten(),
+            wbm.getShuffleWriteMetrics().bytesWritten());
+
+        // the pages which are not sent are released
+        wbm.addRecord(0, "Key", "Value");
+        WriterBuffer wb = wbm.getBuffers().get(0);
+        assertTrue(wb.isPaged());
+        wbm.freeAllMemory();
+        assertEquals(0, wbm.getBuffers().size());
+      }
+    }
+  }
+
+  @Test
+  public void offHeapPagesRequireSparkOffHeapTest() {
+    SparkConf conf = getConf();
+    conf.set(
+        RssSparkConfig.SPARK_RSS_CONFIG_PREFIX
+            + RssSparkConfig.RSS_WRITER_BUFFER_PAGED_ENABLED.key(),
+        "true");
+    conf.set(
+        RssSparkConfig.SPARK_RSS_CONFIG_PREFIX
+            + RssSparkConfig.RSS_WRITER_BUFFER_OFF_HEAP_ENABLED.key(),
+        "true");
+    TaskMemoryManager mockTaskMemoryManager = mock(TaskMemoryManager.class);
+    when(mockTaskMemoryManager.getTungstenMemoryMode()).thenReturn(MemoryMode.ON_HEAP);
+    assertThrows(
+        RssException.class,
+        () ->
+            new WriteBufferManager(
+                0,
+                0,
+                new BufferManagerOptions(conf),
+                new KryoSerializer(conf),
+                Maps.newHashMap(),
+                mockTaskMemoryManager,
+                new ShuffleWriteMetrics(),
+                RssSparkConfig.toRssConf(conf)));
+  }
+
+  @Test
+  public void addRecordWithDictionaryTest() {
+    SparkConf conf = getConf();
+    conf.set(RssSparkConfig.SPARK_SHUFFLE_COMPRESS_KEY, "true");
+    conf.set(RssSparkConfig.SPARK_RSS_CONFIG_PREFIX + RssClientConf.COMPRESSION_TYPE.key(), "ZSTD");
+    conf.set(
+        RssSparkConfig.SPARK_RSS_CONFIG_PREFIX
+            + RssSparkConfig.RSS_CLIENT_ZSTD_DICTIONARY_SAMPLE_SIZE.key(),
+        "64k");
+    conf.set(
+        RssSparkConfig.SPARK_RSS_CONFIG_PREFIX
+            + RssSparkConfig.RSS_CLIENT_ZSTD_DICTIONARY_SIZE.key(),
+        "4k");
+
+    // the early blocks are sampled to train the dictionary, which is used after registered
+    WriteBufferManager wbm = createManager(conf);
+    AtomicReference<byte[]> registered = new AtomicReference<>();
+    wbm.enableDictionary(
+        null,
+        dictionary -> {
+          assertTrue(registered.compareAndSet(null, dictionary));
+          return dictionary;
+        });
+    List<ShuffleBlockInfo> blocks = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      blocks.addAll(wbm.addRecord(i % 3, "Key" + i, "Value_" + (i % 100) + "_status_ACTIVE"));
+    }
+    // the dictionary is trained in the background without blocking the writer
+    wbm.getDictionaryTraining().join();
+    for (int i = 5000; i < 10000; i++) {
+      blocks.addAll(wbm.addRecord(i % 3, "Key" + i, "Value_" + (i % 100) + "_status_ACTIVE"));
+    }
+    blocks.addAll(wbm.clear(1.0));
+    byte[] dictionary = registered.get();
+    assertTrue(dictionary != null);
+    long dictionaryId = Zstd.getDictIdFromDict(dictionary);
+    Codec dictionaryCodec =
+        Codec.newInstance(RssSparkConfig.toRssConf(conf)).get().withDictionary(dictionary);
+    int plainBlocks = 0;
+    for (ShuffleBlockInfo block : blocks) {
+      byte[] data = ByteBufUtils.readBytes(block.getData());
+      long frameDictionaryId = Zstd.getDictIdFromFrame(data);
+      if (frameDictionaryId == 0) {
+        plainBlocks++;
+      } else {
+        assertEquals(dictionaryId, frameDictionaryId);
+      }
+      // the blocks compressed with and without the dictionary are decompressed by the same codec
+      dictionaryCodec.decompress(
+          ByteBuffer.wrap(data),
+          block.getUncompressLength(),
+          ByteBuffer.allocate(block.getUncompressLength()),
+          0);
+    }
+    assertTrue(plainBlocks > 0 && plainBlocks < blocks.size());
+
+    // the writers started later use the registered dictionary at once
+    wbm = createManager(conf);
+    wbm.enableDictionary(
+        dictionary,
+        trained -> {
+          throw new AssertionError("The dictionary should not be trained again");
+        });
+    blocks = new ArrayList<>(wbm.addRecord(0, "Key", "Value"));
+    blocks.addAll(wbm.clear(1.0));
+    for (ShuffleBlockInfo block : blocks) {
+      assertEquals(dictionaryId, Zstd.getDictIdFromFrame(ByteBufUtils.readBytes(block.getData())));
+    }
+  }
+
   @Test
   public void addHugeRecordTest() {
     SparkConf conf = getConf();
@@ -19,13 +19,17 @@ package org.apache.spark.shuffle.writer;
 
 import scala.reflect.ClassTag$;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import org.apache.spark.SparkConf;
 import org.apache.spark.serializer.KryoSerializer;
 import org.apache.spark.serializer.SerializationStream;
 import org.apache.spark.serializer.Serializer;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class WriteBufferTest {
 
@@ -83,6 +87,35 @@ public class WriteBufferTest {
     assertEquals(91, wb.getData().length);
   }
 
+  @Test
+  public void pagedTest() {
+    WriterBuffer expected = new WriterBuffer(32);
+    WriterBuffer wb = new WriterBuffer(32, PooledByteBufAllocator.DEFAULT, true);
+    assertTrue(wb.isPaged());
+    serializeData("key", "value");
+    for (int i = 0; i < 5; i++) {
+      expected.addRecord(serializedData, serializedDataLength);
+      wb.addRecord(serializedData, serializedDataLength);
+    }
+    serializeData("key1111111111111111111111111111", "value222222222222222222222222222");
+    expected.addRecord(serializedData, serializedDataLength);
+    wb.addRecord(serializedData, serializedDataLength);
+    assertEquals(expected.getMemoryUsed(), wb.getMemoryUsed());
+    assertEquals(expected.getDataLength(), wb.getDataLength());
+    assertEquals(expected.getRecordCount(), wb.getRecordCount());
+    assertArrayEquals(expected.getData(), wb.getData());
+
+    // the pages are handed over without being copied
+    ByteBuf data = wb.toByteBuf();
+    assertTrue(data.isDirect());
+    assertEquals(4, data.nioBufferCount());
+    byte[] bytes = new byte[data.readableBytes()];
+    data.readBytes(bytes);
+    assertArrayEquals(expected.getData(), bytes);
+    data.release();
+    assertEquals(0, data.refCnt());
+  }
+
   private void serializeData(Object key, Object value) {
     arrayOutputStream.reset();
     serializeStream.writeKey(key, ClassTag$.MODULE$.apply(key.getClass()));
@@ -17,15 +17,19 @@
 
 package org.apache.uniffle.shuffle.manager;
 
+import com.google.protobuf.ByteString;
 import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import org.apache.uniffle.proto.RssProtos.GetShuffleDictionaryRequest;
+import org.apache.uniffle.proto.RssProtos.RegisterShuffleDictionaryRequest;
 import org.apache.uniffle.proto.RssProtos.ReportShuffleFetchFailureRequest;
 import org.apache.uniffle.proto.RssProtos.ReportShuffleFetchFailureResponse;
 import org.apache.uniffle.proto.RssProtos.ReportShuffleWriteFailureRequest;
 import org.apache.uniffle.proto.RssProtos.ReportShuffleWriteFailureResponse;
+import org.apache.uniffle.proto.RssProtos.ShuffleDictionaryResponse;
 import org.apache.uniffle.proto.RssProtos.StatusCode;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -122,4 +126,46 @@ public class ShuffleManagerGrpcServiceTest {
         reportShuffleWriteFailureRequest, reportShuffleWriteFailureResponseObserver);
     assertEquals(StatusCode.SUCCESS, reportShuffleWriteFailureResponseObserver.value.getStatus());
   }
+
+  @Test
+  public void testShuffleDictionary() {
+    ShuffleManagerGrpcService service = new ShuffleManagerGrpcService(mockShuffleManager);
+    MockedStreamObserver<ShuffleDictionaryResponse> observer = new MockedStreamObserver<>();
+    GetShuffleDictionaryRequest getRequest =
+        GetShuffleDictionaryRequest.newBuilder().setAppId(appId).setShuffleId(shuffleId).build();
+    service.getShuffleDictionary(getRequest, observer);
+    assertEquals(StatusCode.SUCCESS, observer.value.getStatus());
+    assertTrue(observer.value.getDictionary().isEmpty());
+
+    // the first registered dictionary wins
+    ByteString first = ByteString.copyFromUtf8("first");
+    service.registerShuffleDictionary(
+        RegisterShuffleDictionaryRequest.newBuilder()
+            .setAppId(appId)
+            .setShuffleId(shuffleId)
+            .setDictionary(first)
+            .build(),
+        observer);
+    assertEquals(first, observer.value.getDictionary());
+    service.registerShuffleDictionary(
+        RegisterShuffleDictionaryRequest.newBuilder()
+            .setAppId(appId)
+            .setShuffleId(shuffleId)
+            .setDictionary(ByteString.copyFromUtf8("second"))
+            .build(),
+        observer);
+    assertEquals(first, observer.value.getDictionary());
+    service.getShuffleDictionary(getRequest, observer);
+    assertEquals(first, observer.value.getDictionary());
+
+    // req with wrong appId should fail.
+    service.getShuffleDictionary(
+        GetShuffleDictionaryRequest.newBuilder().mergeFrom(getRequest).setAppId("wrong").build(),
+        observer);
+    assertEquals(StatusCode.ACCESS_DENIED, observer.value.getStatus());
+
+    service.unregisterShuffle(shuffleId);
+    service.getShuffleDictionary(getRequest, observer);
+    assertTrue(observer.value.getDictionary().isEmpty());
+  }
 }
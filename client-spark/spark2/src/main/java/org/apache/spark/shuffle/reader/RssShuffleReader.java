@@ -39,6 +39,7 @@ import org.apache.spark.executor.ShuffleReadMetrics;
 import org.apache.spark.executor.TempShuffleReadMetrics;
 import org.apache.spark.serializer.Serializer;
 import org.apache.spark.shuffle.RssShuffleHandle;
+import org.apache.spark.shuffle.RssSparkShuffleUtils;
 import org.apache.spark.shuffle.ShuffleReader;
 import org.apache.spark.util.CompletionIterator;
 import org.apache.spark.util.CompletionIterator$;
@@ -149,7 +150,8 @@ public class RssShuffleReader<K, C> implements ShuffleReader<K, C> {
             shuffleDependency.serializer(),
             shuffleReadClient,
             new ReadMetrics(context.taskMetrics().createTempShuffleReadMetrics()),
-            rssConf);
+            rssConf,
+            getShuffleDictionary());
     CompletionIterator completionIterator =
         CompletionIterator$.MODULE$.apply(
             rssShuffleDataIterator,
@@ -252,6 +254,14 @@ public class RssShuffleReader<K, C> implements ShuffleReader<K, C> {
     return resultIter;
   }
 
+  // The writers register the dictionary before they finish, so it's complete for the readers.
+  private byte[] getShuffleDictionary() {
+    if (managerClientSupplier == null || !RssSparkShuffleUtils.isZstdDictionaryEnabled(rssConf)) {
+      return null;
+    }
+    return RssSparkShuffleUtils.getShuffleDictionary(managerClientSupplier, appId, shuffleId);
+  }
+
   private String getReadInfo() {
     return "appId="
         + appId
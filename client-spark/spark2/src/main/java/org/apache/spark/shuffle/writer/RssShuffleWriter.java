@@ -59,6 +59,7 @@ import org.apache.spark.shuffle.ShuffleWriter;
 import org.apache.spark.shuffle.handle.ShuffleHandleInfo;
 import org.apache.spark.shuffle.handle.SimpleShuffleHandleInfo;
 import org.apache.spark.storage.BlockManagerId;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,6 +73,7 @@ import org.apache.uniffle.common.ShuffleServerInfo;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.exception.RssSendFailedException;
 import org.apache.uniffle.common.exception.RssWaitFailedException;
+import org.apache.uniffle.common.util.RssUtils;
 import org.apache.uniffle.storage.util.StorageType;
 
 import static org.apache.spark.shuffle.RssSparkConfig.RSS_RESUBMIT_STAGE_WITH_WRITE_FAILURE_ENABLED;
@@ -105,7 +107,8 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
   private long sendCheckInterval;
   private boolean isMemoryShuffleEnabled;
   private final Function<String, Boolean> taskFailureCallback;
-  private final Set<Long> blockIds = Sets.newConcurrentHashSet();
+  // the ids of the blocks to be sent, it's guarded by itself
+  private final Roaring64NavigableMap blockIds = Roaring64NavigableMap.bitmapOf();
   private TaskContext taskContext;
   private SparkConf sparkConf;
   private Supplier<ShuffleManagerClient> managerClientSupplier;
@@ -229,6 +232,26 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
             this::processShuffleBlockInfos,
             context.stageAttemptNumber());
     this.bufferManager = bufferManager;
+    enableDictionary(bufferManager, sparkConf);
+  }
+
+  private void enableDictionary(WriteBufferManager bufferManager, SparkConf sparkConf) {
+    if (managerClientSupplier == null
+        || !RssSparkShuffleUtils.isZstdDictionaryEnabled(RssSparkConfig.toRssConf(sparkConf))) {
+      return;
+    }
+    byte[] dictionary = null;
+    try {
+      dictionary =
+          RssSparkShuffleUtils.getShuffleDictionary(managerClientSupplier, appId, shuffleId);
+    } catch (Exception e) {
+      LOG.warn("Failed to get the dictionary of shuffle[{}]", shuffleId, e);
+    }
+    bufferManager.enableDictionary(
+        dictionary,
+        trained ->
+            RssSparkShuffleUtils.registerShuffleDictionary(
+                managerClientSupplier, appId, shuffleId, trained));
   }
 
   private boolean isMemoryShuffleEnabled(String storageType) {
@@ -281,7 +304,7 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
     long s = System.currentTimeMillis();
     checkAllBufferSpilled();
     checkSentRecordCount(recordCount);
-    checkBlockSendResult(new HashSet<>(blockIds));
+    checkBlockSendResult(copyBlockIds());
     checkSentBlockCount();
     final long checkDuration = System.currentTimeMillis() - s;
     long commitDuration = 0;
@@ -326,8 +349,17 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
     }
   }
 
+  private Roaring64NavigableMap copyBlockIds() {
+    synchronized (blockIds) {
+      return RssUtils.cloneBitMap(blockIds);
+    }
+  }
+
   private void checkSentBlockCount() {
-    long expected = blockIds.size();
+    long expected;
+    synchronized (blockIds) {
+      expected = blockIds.getLongCardinality();
+    }
     long bufferManagerTracked = bufferManager.getBlockCount();
 
     if (serverToPartitionToBlockIds == null) {
@@ -335,11 +367,11 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
     }
 
     // to filter the multiple replica's duplicate blockIds
-    Set<Long> blockIds = new HashSet<>();
+    Roaring64NavigableMap serverBlockIds = Roaring64NavigableMap.bitmapOf();
     for (Map<Integer, Set<Long>> partitionBlockIds : serverToPartitionToBlockIds.values()) {
-      partitionBlockIds.values().forEach(x -> blockIds.addAll(x));
+      partitionBlockIds.values().forEach(x -> x.forEach(serverBlockIds::addLong));
     }
-    long serverTracked = blockIds.size();
+    long serverTracked = serverBlockIds.getLongCardinality();
     if (expected != serverTracked || expected != bufferManagerTracked) {
       throw new RssSendFailedException(
           "Potential block loss may occur for task["
@@ -369,7 +401,9 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
               sbi -> {
                 long blockId = sbi.getBlockId();
                 // add blockId to set, check if it is send later
-                blockIds.add(blockId);
+                synchronized (blockIds) {
+                  blockIds.addLong(blockId);
+                }
                 // update [partition, blockIds], it will be sent to shuffle server
                 int partitionId = sbi.getPartitionId();
                 sbi.getShuffleServerInfos()
@@ -433,11 +467,10 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
   }
 
   @VisibleForTesting
-  protected void checkBlockSendResult(Set<Long> blockIds) {
+  protected void checkBlockSendResult(Roaring64NavigableMap blockIds) {
     long start = System.currentTimeMillis();
     while (true) {
       Set<Long> failedBlockIds = shuffleManager.getFailedBlockIds(taskId);
-      Set<Long> successBlockIds = shuffleManager.getSuccessBlockIds(taskId);
       // if failed when send data to shuffle server, mark task as failed
       if (failedBlockIds.size() > 0) {
         String errorMsg =
@@ -452,18 +485,18 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
       }
 
       // remove blockIds which was sent successfully, if there has none left, all data are sent
-      blockIds.removeAll(successBlockIds);
+      shuffleManager.removeSuccessBlockIds(taskId, blockIds);
       if (blockIds.isEmpty()) {
         break;
       }
-      LOG.info("Wait " + blockIds.size() + " blocks sent to shuffle server");
+      LOG.info("Wait " + blockIds.getLongCardinality() + " blocks sent to shuffle server");
       Uninterruptibles.sleepUninterruptibly(sendCheckInterval, TimeUnit.MILLISECONDS);
       if (System.currentTimeMillis() - start > sendCheckTimeout) {
         String errorMsg =
             "Timeout: Task["
                 + taskId
                 + "] failed because "
-                + blockIds.size()
+                + blockIds.getLongCardinality()
                 + " blocks can't be sent to shuffle server in "
                 + sendCheckTimeout
                 + " ms.";
@@ -47,6 +47,7 @@ import org.apache.spark.shuffle.RssShuffleManager;
 import org.apache.spark.shuffle.RssSparkConfig;
 import org.apache.spark.shuffle.handle.SimpleShuffleHandleInfo;
 import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
 import org.apache.uniffle.client.api.ShuffleManagerClient;
 import org.apache.uniffle.client.api.ShuffleWriteClient;
@@ -134,7 +135,7 @@ public class RssShuffleWriterTest {
 
     // case 1: all blocks are sent successfully
     manager.addSuccessBlockIds(taskId, Sets.newHashSet(1L, 2L, 3L));
-    rssShuffleWriter.checkBlockSendResult(Sets.newHashSet(1L, 2L, 3L));
+    rssShuffleWriter.checkBlockSendResult(Roaring64NavigableMap.bitmapOf(1L, 2L, 3L));
     manager.clearTaskMeta(taskId);
 
     // case 2: partial blocks aren't sent before spark.rss.client.send.check.timeout.ms,
@@ -143,7 +144,8 @@ public class RssShuffleWriterTest {
     Throwable e2 =
         assertThrows(
             RuntimeException.class,
-            () -> rssShuffleWriter.checkBlockSendResult(Sets.newHashSet(1L, 2L, 3L)));
+            () ->
+                rssShuffleWriter.checkBlockSendResult(Roaring64NavigableMap.bitmapOf(1L, 2L, 3L)));
     assertTrue(e2.getMessage().startsWith("Timeout:"));
 
     manager.clearTaskMeta(taskId);
@@ -159,10 +161,11 @@ public class RssShuffleWriterTest {
     Throwable e3 =
         assertThrows(
             RuntimeException.class,
-            () -> rssShuffleWriter.checkBlockSendResult(Sets.newHashSet(1L, 2L, 3L)));
+            () ->
+                rssShuffleWriter.checkBlockSendResult(Roaring64NavigableMap.bitmapOf(1L, 2L, 3L)));
     assertTrue(e3.getMessage().startsWith("Send failed:"));
     manager.clearTaskMeta(taskId);
-    assertTrue(manager.getSuccessBlockIds(taskId).isEmpty());
+    assertEquals(0, manager.getSuccessBlockIdNum(taskId));
     assertTrue(manager.getFailedBlockIds(taskId).isEmpty());
 
     sc.stop();
@@ -177,7 +180,7 @@ public class RssShuffleWriterTest {
 
     private FakedDataPusher(
         ShuffleWriteClient shuffleWriteClient,
-        Map<String, Set<Long>> taskToSuccessBlockIds,
+        Map<String, Roaring64NavigableMap> taskToSuccessBlockIds,
         Map<String, Set<Long>> taskToFailedBlockIds,
         Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker,
         Set<String> failedTaskIds,
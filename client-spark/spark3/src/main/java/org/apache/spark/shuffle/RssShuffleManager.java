@@ -84,7 +84,7 @@ public class RssShuffleManager extends RssShuffleManagerBase {
       SparkConf conf,
       boolean isDriver,
       DataPusher dataPusher,
-      Map<String, Set<Long>> taskToSuccessBlockIds,
+      Map<String, Roaring64NavigableMap> taskToSuccessBlockIds,
       Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker) {
     super(conf, isDriver, dataPusher, taskToSuccessBlockIds, taskToFailedBlockSendTracker);
   }
@@ -42,6 +42,7 @@ import org.apache.spark.executor.ShuffleReadMetrics;
 import org.apache.spark.serializer.Serializer;
 import org.apache.spark.shuffle.FunctionUtils;
 import org.apache.spark.shuffle.RssShuffleHandle;
+import org.apache.spark.shuffle.RssSparkShuffleUtils;
 import org.apache.spark.shuffle.ShuffleReader;
 import org.apache.spark.util.CompletionIterator;
 import org.apache.spark.util.CompletionIterator$;
@@ -233,6 +234,14 @@ public class RssShuffleReader<K, C> implements ShuffleReader<K, C> {
     return hadoopConf;
   }
 
+  // The writers register the dictionary before they finish, so it's complete for the readers.
+  private byte[] getShuffleDictionary() {
+    if (managerClientSupplier == null || !RssSparkShuffleUtils.isZstdDictionaryEnabled(rssConf)) {
+      return null;
+    }
+    return RssSparkShuffleUtils.getShuffleDictionary(managerClientSupplier, appId, shuffleId);
+  }
+
   class MultiPartitionIterator<K, C> extends AbstractIterator<Product2<K, C>> {
     java.util.Iterator<CompletionIterator<Product2<K, C>, RssShuffleDataIterator<K, C>>> iterator;
     CompletionIterator<Product2<K, C>, RssShuffleDataIterator<K, C>> dataIterator;
@@ -243,6 +252,7 @@ public class RssShuffleReader<K, C> implements ShuffleReader<K, C> {
       if (numMaps <= 0) {
         return;
       }
+      byte[] dictionary = getShuffleDictionary();
       for (int partition = startPartition; partition < endPartition; partition++) {
         if (partitionToExpectBlocks.get(partition).isEmpty()) {
           LOG.info("{} partition is empty partition", partition);
@@ -283,7 +293,11 @@ public class RssShuffleReader<K, C> implements ShuffleReader<K, C> {
                         .rssConf(rssConf));
         RssShuffleDataIterator<K, C> iterator =
             new RssShuffleDataIterator<>(
-                shuffleDependency.serializer(), shuffleReadClient, readMetrics, rssConf);
+                shuffleDependency.serializer(),
+                shuffleReadClient,
+                readMetrics,
+                rssConf,
+                dictionary);
         CompletionIterator<Product2<K, C>, RssShuffleDataIterator<K, C>> completionIterator =
             CompletionIterator$.MODULE$.apply(
                 iterator,
@@ -65,6 +65,7 @@ import org.apache.spark.shuffle.ShuffleWriter;
 import org.apache.spark.shuffle.handle.MutableShuffleHandleInfo;
 import org.apache.spark.shuffle.handle.ShuffleHandleInfo;
 import org.apache.spark.storage.BlockManagerId;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -84,6 +85,7 @@ import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.exception.RssSendFailedException;
 import org.apache.uniffle.common.exception.RssWaitFailedException;
 import org.apache.uniffle.common.rpc.StatusCode;
+import org.apache.uniffle.common.util.RssUtils;
 import org.apache.uniffle.storage.util.StorageType;
 
 import static org.apache.spark.shuffle.RssSparkConfig.RSS_CLIENT_MAP_SIDE_COMBINE_ENABLED;
@@ -118,7 +120,8 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
   // Gluten needs this variable
   protected final boolean isMemoryShuffleEnabled;
   private final Function<String, Boolean> taskFailureCallback;
-  private final Set<Long> blockIds = Sets.newConcurrentHashSet();
+  // the ids of the blocks to be sent, it's guarded by itself
+  private final Roaring64NavigableMap blockIds = Roaring64NavigableMap.bitmapOf();
   private TaskContext taskContext;
   private SparkConf sparkConf;
   private boolean blockFailSentRetryEnabled;
@@ -303,6 +306,26 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
             this::getPartitionAssignedServers,
             context.stageAttemptNumber());
     this.bufferManager = bufferManager;
+    enableDictionary(bufferManager, sparkConf);
+  }
+
+  private void enableDictionary(WriteBufferManager bufferManager, SparkConf sparkConf) {
+    if (managerClientSupplier == null
+        || !RssSparkShuffleUtils.isZstdDictionaryEnabled(RssSparkConfig.toRssConf(sparkConf))) {
+      return;
+    }
+    byte[] dictionary = null;
+    try {
+      dictionary =
+          RssSparkShuffleUtils.getShuffleDictionary(managerClientSupplier, appId, shuffleId);
+    } catch (Exception e) {
+      LOG.warn("Failed to get the dictionary of shuffle[{}]", shuffleId, e);
+    }
+    bufferManager.enableDictionary(
+        dictionary,
+        trained ->
+            RssSparkShuffleUtils.registerShuffleDictionary(
+                managerClientSupplier, appId, shuffleId, trained));
   }
 
   @VisibleForTesting
@@ -366,7 +389,7 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
     long checkStartTs = System.currentTimeMillis();
     checkAllBufferSpilled();
     checkSentRecordCount(recordCount);
-    checkBlockSendResult(new HashSet<>(blockIds));
+    checkBlockSendResult(copyBlockIds());
     checkSentBlockCount();
     long commitStartTs = System.currentTimeMillis();
     long checkDuration = commitStartTs - checkStartTs;
@@ -409,8 +432,17 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
     }
   }
 
+  private Roaring64NavigableMap copyBlockIds() {
+    synchronized (blockIds) {
+      return RssUtils.cloneBitMap(blockIds);
+    }
+  }
+
   private void checkSentBlockCount() {
-    long expected = blockIds.size();
+    long expected;
+    synchronized (blockIds) {
+      expected = blockIds.getLongCardinality();
+    }
     long bufferManagerTracked = bufferManager.getBlockCount();
 
     if (serverToPartitionToBlockIds == null) {
@@ -418,11 +450,11 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
     }
 
     // to filter the multiple replica's duplicate blockIds
-    Set<Long> blockIds = new HashSet<>();
+    Roaring64NavigableMap serverBlockIds = Roaring64NavigableMap.bitmapOf();
     for (Map<Integer, Set<Long>> partitionBlockIds : serverToPartitionToBlockIds.values()) {
-      partitionBlockIds.values().forEach(x -> blockIds.addAll(x));
+      partitionBlockIds.values().forEach(x -> x.forEach(serverBlockIds::addLong));
     }
-    long serverTracked = blockIds.size();
+    long serverTracked = serverBlockIds.getLongCardinality();
     if (expected != serverTracked || expected != bufferManagerTracked) {
       throw new RssSendFailedException(
           "Potential block loss may occur for task["
@@ -450,7 +482,9 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
           sbi -> {
             long blockId = sbi.getBlockId();
             // add blockId to set, check if it is sent later
-            blockIds.add(blockId);
+            synchronized (blockIds) {
+              blockIds.addLong(blockId);
+            }
             // update [partition, blockIds], it will be sent to shuffle server
             int partitionId = sbi.getPartitionId();
             sbi.getShuffleServerInfos()
@@ -497,11 +531,11 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
 
   // Gluten needs this method
   protected void internalCheckBlockSendResult() {
-    this.checkBlockSendResult(this.blockIds);
+    this.checkBlockSendResult(copyBlockIds());
   }
 
   @VisibleForTesting
-  protected void checkBlockSendResult(Set<Long> blockIds) {
+  protected void checkBlockSendResult(Roaring64NavigableMap blockIds) {
     boolean interrupted = false;
 
     try {
@@ -512,8 +546,7 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
         try {
           finishEventQueue.clear();
           checkDataIfAnyFailure();
-          Set<Long> successBlockIds = shuffleManager.getSuccessBlockIds(taskId);
-          blockIds.removeAll(successBlockIds);
+          shuffleManager.removeSuccessBlockIds(taskId, blockIds);
           if (blockIds.isEmpty()) {
             break;
           }
@@ -533,7 +566,7 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
             "Timeout: Task["
                 + taskId
                 + "] failed because "
-                + blockIds.size()
+                + blockIds.getLongCardinality()
                 + " blocks can't be sent to shuffle server in "
                 + sendCheckTimeout
                 + " ms.";
@@ -836,7 +869,9 @@ public class RssShuffleWriter<K, V, C> extends ShuffleWriter<K, V> {
                     .get(block.getPartitionId())
                     .remove(block.getBlockId()));
     partitionLengths[block.getPartitionId()] -= block.getLength();
-    blockIds.remove(block.getBlockId());
+    synchronized (blockIds) {
+      blockIds.removeLong(block.getBlockId());
+    }
   }
 
   @VisibleForTesting
@@ -18,11 +18,11 @@
 package org.apache.spark.shuffle;
 
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.commons.lang3.SystemUtils;
 import org.apache.spark.SparkConf;
 import org.apache.spark.shuffle.writer.DataPusher;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
 import org.apache.uniffle.client.impl.FailedBlockSendTracker;
 import org.apache.uniffle.common.ShuffleBlockInfo;
@@ -35,7 +35,7 @@ public class TestUtils {
       SparkConf conf,
       Boolean isDriver,
       DataPusher dataPusher,
-      Map<String, Set<Long>> successBlockIds,
+      Map<String, Roaring64NavigableMap> successBlockIds,
       Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker) {
     return new RssShuffleManager(
         conf, isDriver, dataPusher, successBlockIds, taskToFailedBlockSendTracker);
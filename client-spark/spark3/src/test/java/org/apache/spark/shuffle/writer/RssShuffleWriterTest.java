@@ -20,7 +20,6 @@ package org.apache.spark.shuffle.writer;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,7 +27,6 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import scala.Product2;
 import scala.Tuple2;
@@ -54,6 +52,7 @@ import org.apache.spark.shuffle.handle.MutableShuffleHandleInfo;
 import org.apache.spark.shuffle.handle.SimpleShuffleHandleInfo;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
 import org.apache.uniffle.client.api.ShuffleManagerClient;
 import org.apache.uniffle.client.api.ShuffleWriteClient;
@@ -64,6 +63,7 @@ import org.apache.uniffle.common.ShuffleServerInfo;
 import org.apache.uniffle.common.rpc.StatusCode;
 import org.apache.uniffle.common.util.ExpiringCloseableSupplier;
 import org.apache.uniffle.common.util.JavaUtils;
+import org.apache.uniffle.common.util.RssUtils;
 import org.apache.uniffle.storage.util.StorageType;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -124,7 +124,7 @@ public class RssShuffleWriterTest {
         .set(RssSparkConfig.RSS_WRITER_BUFFER_SPILL_SIZE.key(), "128")
         .set(RssSparkConfig.RSS_STORAGE_TYPE.key(), StorageType.LOCALFILE.name());
 
-    Map<String, Set<Long>> successBlockIds = JavaUtils.newConcurrentMap();
+    Map<String, Roaring64NavigableMap> successBlockIds = JavaUtils.newConcurrentMap();
     Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker = JavaUtils.newConcurrentMap();
     taskToFailedBlockSendTracker.put(taskId, new FailedBlockSendTracker());
 
@@ -216,7 +216,8 @@ public class RssShuffleWriterTest {
     // Make the id1 + id10 + id11 broken, and then finally, it will use the id12 successfully
     AtomicInteger failureCnt = new AtomicInteger();
     RssShuffleManager shuffleManager = writer.getShuffleManager();
-    Map<String, Set<Long>> taskToSuccessBlockIds = shuffleManager.getTaskToSuccessBlockIds();
+    Map<String, Roaring64NavigableMap> taskToSuccessBlockIds =
+        shuffleManager.getTaskToSuccessBlockIds();
     Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker =
         shuffleManager.getTaskToFailedBlockSendTracker();
     TaskAttemptAssignment taskAssignment = writer.getTaskAttemptAssignment();
@@ -261,9 +262,7 @@ public class RssShuffleWriterTest {
                   }
 
                 } else {
-                  taskToSuccessBlockIds
-                      .computeIfAbsent(taskId, x -> new HashSet<>())
-                      .add(block.getBlockId());
+                  addSuccessBlockId(taskToSuccessBlockIds, taskId, block.getBlockId());
                 }
               }
               return new CompletableFuture<>();
@@ -282,7 +281,7 @@ public class RssShuffleWriterTest {
 
     Awaitility.await()
         .timeout(Duration.ofSeconds(5))
-        .until(() -> taskToSuccessBlockIds.get(taskId).size() == mockedData.size());
+        .until(() -> successBlockCount(taskToSuccessBlockIds, taskId) == mockedData.size());
     assertEquals(3, failureCnt.get());
   }
 
@@ -299,7 +298,8 @@ public class RssShuffleWriterTest {
 
     AtomicInteger failureCnt = new AtomicInteger();
     RssShuffleManager shuffleManager = writer.getShuffleManager();
-    Map<String, Set<Long>> taskToSuccessBlockIds = shuffleManager.getTaskToSuccessBlockIds();
+    Map<String, Roaring64NavigableMap> taskToSuccessBlockIds =
+        shuffleManager.getTaskToSuccessBlockIds();
     Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker =
         shuffleManager.getTaskToFailedBlockSendTracker();
     FakedDataPusher pusher =
@@ -316,9 +316,7 @@ public class RssShuffleWriterTest {
                   // refresh the assignment to simulate the reassign rpc.
                   writer.getTaskAttemptAssignment().update(shuffleHandle);
                 } else {
-                  taskToSuccessBlockIds
-                      .computeIfAbsent(taskId, x -> new HashSet<>())
-                      .add(block.getBlockId());
+                  addSuccessBlockId(taskToSuccessBlockIds, taskId, block.getBlockId());
                 }
               }
               return new CompletableFuture<>();
@@ -337,7 +335,7 @@ public class RssShuffleWriterTest {
 
     Awaitility.await()
         .timeout(Duration.ofSeconds(5))
-        .until(() -> taskToSuccessBlockIds.get(taskId).size() == mockedData.size());
+        .until(() -> successBlockCount(taskToSuccessBlockIds, taskId) == mockedData.size());
     assertEquals(1, failureCnt.get());
   }
 
@@ -356,7 +354,7 @@ public class RssShuffleWriterTest {
         .set(RssSparkConfig.RSS_STORAGE_TYPE.key(), StorageType.LOCALFILE.name());
 
     List<ShuffleBlockInfo> shuffleBlockInfos = Lists.newArrayList();
-    Map<String, Set<Long>> successBlockIds = JavaUtils.newConcurrentMap();
+    Map<String, Roaring64NavigableMap> successBlockIds = JavaUtils.newConcurrentMap();
     Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker = JavaUtils.newConcurrentMap();
     taskToFailedBlockSendTracker.put("taskId", new FailedBlockSendTracker());
 
@@ -374,8 +372,7 @@ public class RssShuffleWriterTest {
                   sentFailureCnt.addAndGet(1);
                   isSuccessful = false;
                 } else {
-                  successBlockIds.putIfAbsent(event.getTaskId(), Sets.newConcurrentHashSet());
-                  successBlockIds.get(event.getTaskId()).add(block.getBlockId());
+                  addSuccessBlockId(successBlockIds, event.getTaskId(), block.getBlockId());
                   shuffleBlockInfos.add(block);
                 }
                 block.executeCompletionCallback(isSuccessful);
@@ -478,7 +475,7 @@ public class RssShuffleWriterTest {
 
     Awaitility.await()
         .timeout(Duration.ofSeconds(5))
-        .until(() -> successBlockIds.get("taskId").size() == data.size());
+        .until(() -> successBlockCount(successBlockIds, "taskId") == data.size());
     assertEquals(2, sentFailureCnt.get());
     assertEquals(0, taskToFailedBlockSendTracker.get("taskId").getFailedBlockIds().size());
     assertEquals(6, shuffleWriteMetrics.recordsWritten());
@@ -515,8 +512,7 @@ public class RssShuffleWriterTest {
                   isSuccessful = false;
                   rejectCnt.incrementAndGet();
                 } else {
-                  successBlockIds.putIfAbsent(event.getTaskId(), Sets.newConcurrentHashSet());
-                  successBlockIds.get(event.getTaskId()).add(block.getBlockId());
+                  addSuccessBlockId(successBlockIds, event.getTaskId(), block.getBlockId());
                 }
                 block.executeCompletionCallback(isSuccessful);
               }
@@ -548,7 +544,7 @@ public class RssShuffleWriterTest {
         .set(RssSparkConfig.RSS_CLIENT_SEND_CHECK_INTERVAL_MS.key(), "1000")
         .set(RssSparkConfig.RSS_STORAGE_TYPE.key(), StorageType.LOCALFILE.name())
         .set(RssSparkConfig.RSS_COORDINATOR_QUORUM.key(), "127.0.0.1:12345,127.0.0.1:12346");
-    Map<String, Set<Long>> successBlocks = JavaUtils.newConcurrentMap();
+    Map<String, Roaring64NavigableMap> successBlocks = JavaUtils.newConcurrentMap();
     Map<String, FailedBlockSendTracker> taskToFailedBlockSendTracker = JavaUtils.newConcurrentMap();
     Map<String, Map<Long, BlockingQueue<ShuffleServerInfo>>> taskToFailedBlockIdsAndServer =
         JavaUtils.newConcurrentMap();
@@ -601,22 +597,23 @@ public class RssShuffleWriterTest {
     doReturn(1000000L).when(bufferManagerSpy).acquireMemory(anyLong());
 
     // case 1: all blocks are sent successfully
-    successBlocks.put("taskId", Sets.newHashSet(1L, 2L, 3L));
-    rssShuffleWriter.checkBlockSendResult(Sets.newHashSet(1L, 2L, 3L));
+    successBlocks.put("taskId", Roaring64NavigableMap.bitmapOf(1L, 2L, 3L));
+    rssShuffleWriter.checkBlockSendResult(Roaring64NavigableMap.bitmapOf(1L, 2L, 3L));
     successBlocks.clear();
 
     // case 2: partial blocks aren't sent before spark.rss.client.send.check.timeout.ms,
     // Runtime exception will be thrown
-    successBlocks.put("taskId", Sets.newHashSet(1L, 2L));
+    successBlocks.put("taskId", Roaring64NavigableMap.bitmapOf(1L, 2L));
     Throwable e2 =
         assertThrows(
             RuntimeException.class,
-            () -> rssShuffleWriter.checkBlockSendResult(Sets.newHashSet(1L, 2L, 3L)));
+            () ->
+                rssShuffleWriter.checkBlockSendResult(Roaring64NavigableMap.bitmapOf(1L, 2L, 3L)));
     assertTrue(e2.getMessage().startsWith("Timeout:"));
     successBlocks.clear();
 
     // case 3: partial blocks are sent failed, Runtime exception will be thrown
-    successBlocks.put("taskId", Sets.newHashSet(1L, 2L));
+    successBlocks.put("taskId", Roaring64NavigableMap.bitmapOf(1L, 2L));
     FailedBlockSendTracker failedBlockSendTracker = new FailedBlockSendTracker();
     taskToFailedBlockSendTracker.put("taskId", failedBlockSendTracker);
     ShuffleServerInfo shuffleServerInfo = new ShuffleServerInfo("127.0.0.1", 20001);
@@ -625,10 +622,41 @@ public class RssShuffleWriterTest {
     Throwable e3 =
         assertThrows(
             RuntimeException.class,
-            () -> rssShuffleWriter.checkBlockSendResult(Sets.newHashSet(1L, 2L, 3L)));
+            () ->
+                rssShuffleWriter.checkBlockSendResult(Roaring64NavigableMap.bitmapOf(1L, 2L, 3L)));
     assertTrue(e3.getMessage().startsWith("Fail to send the block"));
     successBlocks.clear();
     taskToFailedBlockSendTracker.clear();
+
+    // case 4: a task with a large number of blocks is checked on bitmaps without boxing the ids
+    Roaring64NavigableMap manyBlockIds = Roaring64NavigableMap.bitmapOf();
+    for (long blockId = 0; blockId < 1_000_000L; blockId++) {
+      manyBlockIds.addLong(blockId);
+    }
+    successBlocks.put("taskId", RssUtils.cloneBitMap(manyBlockIds));
+    rssShuffleWriter.checkBlockSendResult(manyBlockIds);
+    assertTrue(manyBlockIds.isEmpty());
+    successBlocks.clear();
+  }
+
+  private static void addSuccessBlockId(
+      Map<String, Roaring64NavigableMap> successBlockIds, String taskId, long blockId) {
+    Roaring64NavigableMap blockIds =
+        successBlockIds.computeIfAbsent(taskId, x -> Roaring64NavigableMap.bitmapOf());
+    synchronized (blockIds) {
+      blockIds.addLong(blockId);
+    }
+  }
+
+  private static long successBlockCount(
+      Map<String, Roaring64NavigableMap> successBlockIds, String taskId) {
+    Roaring64NavigableMap blockIds = successBlockIds.get(taskId);
+    if (blockIds == null) {
+      return 0;
+    }
+    synchronized (blockIds) {
+      return blockIds.getLongCardinality();
+    }
   }
 
   static class FakedDataPusher extends DataPusher {
@@ -640,7 +668,7 @@ public class RssShuffleWriterTest {
 
     private FakedDataPusher(
         ShuffleWriteClient shuffleWriteClient,
-        Map<String, Set<Long>> taskToSuccessBlockIds,
+        Map<String, Roaring64NavigableMap> taskToSuccessBlockIds,
         Map<String, Set<Long>> taskToFailedBlockIds,
         Map<String, FailedBlockSendTracker> failedBlockSendTracker,
         Set<String> failedTaskIds,
@@ -680,7 +708,7 @@ public class RssShuffleWriterTest {
         .set(RssSparkConfig.RSS_STORAGE_TYPE.key(), StorageType.MEMORY.name())
         .set(RssSparkConfig.RSS_COORDINATOR_QUORUM.key(), "127.0.0.1:12345,127.0.0.1:12346");
 
-    Map<String, Set<Long>> successBlockIds = Maps.newConcurrentMap();
+    Map<String, Roaring64NavigableMap> successBlockIds = Maps.newConcurrentMap();
 
     List<Long> freeMemoryList = new ArrayList<>();
     FakedDataPusher dataPusher =
@@ -690,10 +718,10 @@ public class RssShuffleWriterTest {
               long sum =
                   event.getShuffleDataInfoList().stream().mapToLong(x -> x.getFreeMemory()).sum();
               freeMemoryList.add(sum);
-              successBlockIds.putIfAbsent(event.getTaskId(), new HashSet<>());
-              successBlockIds
-                  .get(event.getTaskId())
-                  .add(event.getShuffleDataInfoList().get(0).getBlockId());
+              addSuccessBlockId(
+                  successBlockIds,
+                  event.getTaskId(),
+                  event.getShuffleDataInfoList().get(0).getBlockId());
               return CompletableFuture.completedFuture(sum);
             });
 
@@ -760,7 +788,7 @@ public class RssShuffleWriterTest {
 
     // case1: all blocks are sent and pass the blocks check when spill is triggered
     rssShuffleWriter.write(data.iterator());
-    assertEquals(4, successBlockIds.get("taskId").size());
+    assertEquals(4, successBlockCount(successBlockIds, "taskId"));
     for (int i = 0; i < 4; i++) {
       assertEquals(32, freeMemoryList.get(i));
     }
@@ -781,21 +809,16 @@ public class RssShuffleWriterTest {
         .set(RssSparkConfig.RSS_STORAGE_TYPE.key(), StorageType.LOCALFILE.name())
         .set(RssSparkConfig.RSS_COORDINATOR_QUORUM.key(), "127.0.0.1:12345,127.0.0.1:12346");
     List<ShuffleBlockInfo> shuffleBlockInfos = Lists.newArrayList();
-    Map<String, Set<Long>> successBlockIds = Maps.newConcurrentMap();
+    Map<String, Roaring64NavigableMap> successBlockIds = Maps.newConcurrentMap();
 
     FakedDataPusher dataPusher =
         new FakedDataPusher(
             event -> {
               assertEquals("taskId", event.getTaskId());
               shuffleBlockInfos.addAll(event.getShuffleDataInfoList());
-              Set<Long> blockIds =
-                  event
-                      .getShuffleDataInfoList()
-                      .parallelStream()
-                      .map(sdi -> sdi.getBlockId())
-                      .collect(Collectors.toSet());
-              successBlockIds.putIfAbsent(event.getTaskId(), Sets.newConcurrentHashSet());
-              successBlockIds.get(event.getTaskId()).addAll(blockIds);
+              for (ShuffleBlockInfo sdi : event.getShuffleDataInfoList()) {
+                addSuccessBlockId(successBlockIds, event.getTaskId(), sdi.getBlockId());
+              }
               return new CompletableFuture<>();
             });
 
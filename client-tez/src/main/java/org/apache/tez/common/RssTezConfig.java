@@ -106,6 +106,9 @@ public class RssTezConfig {
   public static final String RSS_CLIENT_BATCH_TRIGGER_NUM =
       TEZ_RSS_CONFIG_PREFIX + "rss.client.batch.trigger.num";
   public static final int RSS_CLIENT_DEFAULT_BATCH_TRIGGER_NUM = 50;
+  public static final String RSS_CLIENT_COMBINE_ENABLE =
+      TEZ_RSS_CONFIG_PREFIX + "rss.client.combine.enable";
+  public static final boolean RSS_CLIENT_DEFAULT_COMBINE_ENABLE = false;
   public static final String RSS_DEFAULT_STORAGE_TYPE = "MEMORY";
   public static final String RSS_CLIENT_SEND_CHECK_INTERVAL_MS =
       TEZ_RSS_CONFIG_PREFIX + "rss.client.send.check.interval.ms";
@@ -20,16 +20,26 @@ package org.apache.tez.runtime.library.common.sort.buffer;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import com.google.common.collect.Lists;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.io.RawComparator;
 import org.apache.hadoop.io.WritableUtils;
 import org.apache.hadoop.io.serializer.Serializer;
+import org.apache.hadoop.util.Progress;
+import org.apache.tez.runtime.library.common.combine.Combiner;
+import org.apache.tez.runtime.library.common.sort.impl.IFile;
+import org.apache.tez.runtime.library.common.sort.impl.TezRawKeyValueIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.uniffle.common.exception.RssException;
+import org.apache.uniffle.common.merger.NormalizedKeyPrefix;
+import org.apache.uniffle.common.records.PackedRecordIndex;
 import org.apache.uniffle.common.serializer.SerializerInstance;
 
 public class WriteBuffer<K, V> extends OutputStream {
@@ -41,6 +51,10 @@ public class WriteBuffer<K, V> extends OutputStream {
   private Serializer<V> valSerializer;
   private long maxSegmentSize;
   private final RawComparator<K> comparator;
+  // null if the records can't be sorted by the key prefixes
+  private final NormalizedKeyPrefix keyPrefix;
+  // null if the records are sent without combining
+  private final Combiner combiner;
   private int dataLength = 0;
   private int currentOffset = 0;
   private int currentIndex = 0;
@@ -48,7 +62,7 @@ public class WriteBuffer<K, V> extends OutputStream {
   private long copyTime = 0;
   private boolean isNeedSorted = false;
   private final List<WrappedBuffer> buffers = Lists.newArrayList();
-  private final List<Record<K>> records = Lists.newArrayList();
+  private final PackedRecordIndex records = new PackedRecordIndex();
 
   private final boolean useUniffleSerializer;
   private SerializerInstance serializerInstance;
@@ -62,9 +76,13 @@ public class WriteBuffer<K, V> extends OutputStream {
       boolean useUniffleSerializer,
       Serializer<K> keySerializer,
       Serializer<V> valueSerializer,
-      SerializerInstance serializerInstance) {
+      SerializerInstance serializerInstance,
+      Combiner combiner) {
     this.partitionId = partitionId;
     this.comparator = comparator;
+    this.keyPrefix = isNeedSorted ? NormalizedKeyPrefix.of(comparator) : null;
+    // The combiner works on the sorted records and writes them by the hadoop serializers
+    this.combiner = isNeedSorted && !useUniffleSerializer ? combiner : null;
     this.useUniffleSerializer = useUniffleSerializer;
     this.maxSegmentSize = maxSegmentSize;
     this.keySerializer = keySerializer;
@@ -104,7 +122,12 @@ public class WriteBuffer<K, V> extends OutputStream {
       valSerializer.serialize(value);
     }
     int valueLength = dataLength - lastDataLength;
-    records.add(new Record<K>(keyIndex, keyOffset, keyLength, valueLength));
+    // the key is always in one buffer, see compact
+    long prefix =
+        keyPrefix == null
+            ? 0
+            : keyPrefix.get(buffers.get(keyIndex).getBuffer(), keyOffset, keyLength);
+    records.add(keyIndex, keyOffset, keyLength, valueLength, prefix);
     return keyLength + valueLength;
   }
 
@@ -115,40 +138,43 @@ public class WriteBuffer<K, V> extends OutputStream {
 
   /** get data */
   public synchronized byte[] getData() {
-    int extraSize = 0;
-    for (Record<K> record : records) {
-      extraSize += WritableUtils.getVIntSize(record.getKeyLength());
-      extraSize += WritableUtils.getVIntSize(record.getValueLength());
-    }
-    extraSize += WritableUtils.getVIntSize(-1);
-    extraSize += WritableUtils.getVIntSize(-1);
-    byte[] data = new byte[dataLength + extraSize];
-    int offset = 0;
     long startSort = System.currentTimeMillis();
     if (this.isNeedSorted) {
+      // Before sort, the positions of the records are the same as the adding order
       records.sort(
-          new Comparator<Record<K>>() {
-            @Override
-            public int compare(Record<K> o1, Record<K> o2) {
-              return comparator.compare(
-                  buffers.get(o1.getKeyIndex()).getBuffer(),
-                  o1.getKeyOffSet(),
-                  o1.getKeyLength(),
-                  buffers.get(o2.getKeyIndex()).getBuffer(),
-                  o2.getKeyOffSet(),
-                  o2.getKeyLength());
-            }
-          });
+          keyPrefix != null,
+          (r1, r2) ->
+              comparator.compare(
+                  buffers.get(records.getKeyIndex(r1)).getBuffer(),
+                  records.getKeyOffset(r1),
+                  records.getKeyLength(r1),
+                  buffers.get(records.getKeyIndex(r2)).getBuffer(),
+                  records.getKeyOffset(r2),
+                  records.getKeyLength(r2)));
     }
     long startCopy = System.currentTimeMillis();
     sortTime += startCopy - startSort;
+    if (combiner != null) {
+      byte[] data = combine();
+      copyTime += System.currentTimeMillis() - startCopy;
+      return data;
+    }
 
-    for (Record<K> record : records) {
-      offset = writeDataInt(data, offset, record.getKeyLength());
-      offset = writeDataInt(data, offset, record.getValueLength());
-      int recordLength = record.getKeyLength() + record.getValueLength();
-      int copyOffset = record.getKeyOffSet();
-      int copyIndex = record.getKeyIndex();
+    int extraSize = 0;
+    for (int i = 0; i < records.size(); i++) {
+      extraSize += WritableUtils.getVIntSize(records.getKeyLength(i));
+      extraSize += WritableUtils.getVIntSize(records.getValueLength(i));
+    }
+    extraSize += WritableUtils.getVIntSize(-1);
+    extraSize += WritableUtils.getVIntSize(-1);
+    byte[] data = new byte[dataLength + extraSize];
+    int offset = 0;
+    for (int i = 0; i < records.size(); i++) {
+      offset = writeDataInt(data, offset, records.getKeyLength(i));
+      offset = writeDataInt(data, offset, records.getValueLength(i));
+      int recordLength = records.getKeyLength(i) + records.getValueLength(i);
+      int copyOffset = records.getKeyOffset(i);
+      int copyIndex = records.getKeyIndex(i);
       while (recordLength > 0) {
         byte[] srcBytes = buffers.get(copyIndex).getBuffer();
         int length = copyOffset + recordLength;
@@ -169,6 +195,19 @@ public class WriteBuffer<K, V> extends OutputStream {
     return data;
   }
 
+  /** Combine the sorted records, the result has the same format as the uncombined data. */
+  private byte[] combine() {
+    DataOutputBuffer output = new DataOutputBuffer(dataLength);
+    try {
+      combiner.combine(new SortedRecordIterator(), new CombineWriter(output));
+      WritableUtils.writeVInt(output, -1);
+      WritableUtils.writeVInt(output, -1);
+    } catch (IOException | InterruptedException e) {
+      throw new RssException("Failed to combine the records of partition " + partitionId, e);
+    }
+    return Arrays.copyOf(output.getData(), output.getLength());
+  }
+
   private boolean compact(int lastIndex, int lastOffset, int dataLength) {
     if (lastIndex != currentIndex) {
       if (LOG.isDebugEnabled()) {
@@ -307,51 +346,170 @@ public class WriteBuffer<K, V> extends OutputStream {
     return sortTime;
   }
 
-  private static final class Record<K> {
-    private final int keyIndex;
-    private final int keyOffSet;
-    private final int keyLength;
-    private final int valueLength;
+  private static final class WrappedBuffer {
+    private byte[] buffer;
+    private int size;
 
-    Record(int keyIndex, int keyOffset, int keyLength, int valueLength) {
-      this.keyIndex = keyIndex;
-      this.keyOffSet = keyOffset;
-      this.keyLength = keyLength;
-      this.valueLength = valueLength;
+    WrappedBuffer(int size) {
+      this.buffer = new byte[size];
+      this.size = size;
     }
 
-    public int getKeyIndex() {
-      return keyIndex;
+    public byte[] getBuffer() {
+      return buffer;
     }
 
-    public int getKeyOffSet() {
-      return keyOffSet;
+    public int getSize() {
+      return size;
     }
+  }
 
-    public int getKeyLength() {
-      return keyLength;
+  private final class SortedRecordIterator implements TezRawKeyValueIterator {
+    private final DataInputBuffer keyBuffer = new DataInputBuffer();
+    private final DataInputBuffer valueBuffer = new DataInputBuffer();
+    private final Progress progress = new Progress();
+    private int current = -1;
+
+    @Override
+    public DataInputBuffer getKey() {
+      // the key is always in one buffer, see compact
+      keyBuffer.reset(
+          buffers.get(records.getKeyIndex(current)).getBuffer(),
+          records.getKeyOffset(current),
+          records.getKeyLength(current));
+      return keyBuffer;
     }
 
-    public int getValueLength() {
-      return valueLength;
+    @Override
+    public DataInputBuffer getValue() {
+      int index = records.getKeyIndex(current);
+      int offset = records.getKeyOffset(current) + records.getKeyLength(current);
+      int length = records.getValueLength(current);
+      while (offset >= buffers.get(index).getSize() && length > 0) {
+        offset -= buffers.get(index).getSize();
+        index++;
+      }
+      if (offset + length <= buffers.get(index).getSize()) {
+        valueBuffer.reset(buffers.get(index).getBuffer(), offset, length);
+        return valueBuffer;
+      }
+      // the value spans several buffers
+      byte[] data = new byte[length];
+      int copyOffset = 0;
+      while (copyOffset < length) {
+        WrappedBuffer buffer = buffers.get(index);
+        int copyLength = Math.min(buffer.getSize() - offset, length - copyOffset);
+        System.arraycopy(buffer.getBuffer(), offset, data, copyOffset, copyLength);
+        copyOffset += copyLength;
+        index++;
+        offset = 0;
+      }
+      valueBuffer.reset(data, 0, length);
+      return valueBuffer;
+    }
+
+    @Override
+    public boolean next() {
+      if (hasNext()) {
+        current++;
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return current + 1 < records.size();
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public Progress getProgress() {
+      return progress;
+    }
+
+    @Override
+    public boolean isSameKey() {
+      // Let the combiner compare the keys
+      return false;
     }
   }
 
-  private static final class WrappedBuffer {
-    private byte[] buffer;
-    private int size;
+  /**
+   * Writes the combined records to the output with the same format as {@link #getData()}. The
+   * values appended without a key are written with the last appended key.
+   */
+  private final class CombineWriter extends IFile.Writer {
+    private final DataOutputBuffer output;
+    private final DataOutputBuffer recordBuffer = new DataOutputBuffer();
+    private final DataOutputBuffer lastKey = new DataOutputBuffer();
+    private boolean hasLastKey = false;
+
+    CombineWriter(DataOutputBuffer output) throws IOException {
+      super(null, null, false);
+      this.output = output;
+      keySerializer.open(recordBuffer);
+      valSerializer.open(recordBuffer);
+    }
 
-    WrappedBuffer(int size) {
-      this.buffer = new byte[size];
-      this.size = size;
+    @Override
+    public void append(Object key, Object value) throws IOException {
+      recordBuffer.reset();
+      keySerializer.serialize((K) key);
+      lastKey.reset();
+      lastKey.write(recordBuffer.getData(), 0, recordBuffer.getLength());
+      hasLastKey = true;
+      appendValue(value);
     }
 
-    public byte[] getBuffer() {
-      return buffer;
+    @Override
+    public void append(DataInputBuffer key, DataInputBuffer value) throws IOException {
+      lastKey.reset();
+      lastKey.write(key.getData(), key.getPosition(), key.getLength() - key.getPosition());
+      hasLastKey = true;
+      appendValue(value);
     }
 
-    public int getSize() {
-      return size;
+    @Override
+    public <K1, V1> void appendKeyValues(K1 key, Iterator<V1> values) throws IOException {
+      if (values.hasNext()) {
+        append(key, values.next());
+        appendValues(values);
+      }
+    }
+
+    @Override
+    public void appendValue(Object value) throws IOException {
+      recordBuffer.reset();
+      valSerializer.serialize((V) value);
+      writeRecord(recordBuffer.getData(), 0, recordBuffer.getLength());
+    }
+
+    @Override
+    public void appendValue(DataInputBuffer value) throws IOException {
+      writeRecord(value.getData(), value.getPosition(), value.getLength() - value.getPosition());
     }
+
+    @Override
+    public <V1> void appendValues(Iterator<V1> values) throws IOException {
+      while (values.hasNext()) {
+        appendValue(values.next());
+      }
+    }
+
+    private void writeRecord(byte[] value, int offset, int length) throws IOException {
+      if (!hasLastKey) {
+        throw new IOException("The value is appended before any key");
+      }
+      WritableUtils.writeVInt(output, lastKey.getLength());
+      WritableUtils.writeVInt(output, length);
+      output.write(lastKey.getData(), 0, lastKey.getLength());
+      output.write(value, offset, length);
+    }
+
+    @Override
+    public void close() {}
   }
 }
@@ -46,6 +46,7 @@ import org.apache.tez.common.counters.TezCounter;
 import org.apache.tez.dag.records.TezDAGID;
 import org.apache.tez.dag.records.TezTaskAttemptID;
 import org.apache.tez.dag.records.TezVertexID;
+import org.apache.tez.runtime.library.common.combine.Combiner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,6 +55,7 @@ import org.apache.uniffle.client.response.SendShuffleDataResult;
 import org.apache.uniffle.common.ShuffleBlockInfo;
 import org.apache.uniffle.common.ShuffleServerInfo;
 import org.apache.uniffle.common.compression.Codec;
+import org.apache.uniffle.common.config.RssClientConf;
 import org.apache.uniffle.common.config.RssConf;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.serializer.SerializerFactory;
@@ -90,6 +92,7 @@ public class WriteBufferManager<K, V> {
   private final double sendThreshold;
   private final int batch;
   private final Optional<Codec> codec;
+  private final ChecksumUtils.Type checksumType;
   private final Map<Integer, List<ShuffleServerInfo>> partitionToServers;
   private final Set<Long> allBlockIds = Sets.newConcurrentHashSet();
   // server -> partitionId -> blockIds
@@ -111,6 +114,8 @@ public class WriteBufferManager<K, V> {
 
   private final boolean useUniffleSerializer;
   private SerializerInstance serializerInstance;
+  // null if the records are sent without combining
+  private final Combiner combiner;
 
   /** WriteBufferManager */
   public WriteBufferManager(
@@ -143,7 +148,8 @@ public class WriteBufferManager<K, V> {
       TezCounter mapOutputRecordCounter,
       boolean useUniffleSerializer,
       Class<K> keyClass,
-      Class<V> valClass) {
+      Class<V> valClass,
+      Combiner combiner) {
     this.tezTaskAttemptID = tezTaskAttemptID;
     this.maxMemSize = maxMemSize;
     this.appId = appId;
@@ -168,6 +174,7 @@ public class WriteBufferManager<K, V> {
     this.sendThreshold = sendThreshold;
     this.batch = batch;
     this.codec = Codec.newInstance(rssConf);
+    this.checksumType = rssConf.get(RssClientConf.CHECKSUM_TYPE);
     this.partitionToServers = partitionToServers;
     this.numMaps = numMaps;
     this.isMemoryShuffleEnabled = isMemoryShuffleEnabled;
@@ -180,6 +187,7 @@ public class WriteBufferManager<K, V> {
     this.mapOutputByteCounter = mapOutputByteCounter;
     this.mapOutputRecordCounter = mapOutputRecordCounter;
     this.useUniffleSerializer = useUniffleSerializer;
+    this.combiner = combiner;
     if (useUniffleSerializer) {
       SerializerFactory factory = new SerializerFactory(rssConf);
       org.apache.uniffle.common.serializer.Serializer serializer = factory.getSerializer(keyClass);
@@ -219,7 +227,8 @@ public class WriteBufferManager<K, V> {
               useUniffleSerializer,
               keySerializer,
               valSerializer,
-              serializerInstance);
+              serializerInstance,
+              combiner);
       buffers.putIfAbsent(partitionId, sortWriterBuffer);
       waitSendBuffers.add(sortWriterBuffer);
     }
@@ -308,7 +317,7 @@ public class WriteBufferManager<K, V> {
               }
               SendShuffleDataResult result =
                   shuffleWriteClient.sendShuffleData(appId, shuffleBlocks, () -> false);
-              successBlockIds.addAll(result.getSuccessBlockIds());
+              result.getSuccessBlockIds().forEach(successBlockIds::add);
               failedBlockIds.addAll(result.getFailedBlockIds());
             } catch (Throwable t) {
               LOG.warn("send shuffle data exception ", t);
@@ -404,7 +413,7 @@ public class WriteBufferManager<K, V> {
 
     final byte[] compressed =
         useUniffleSerializer ? data : codec.map(c -> c.compress(data)).orElse(data);
-    final long crc32 = ChecksumUtils.getCrc32(compressed);
+    final long crc32 = ChecksumUtils.getChecksum(checksumType, compressed);
     compressTime += System.currentTimeMillis() - start;
     final long blockId =
         RssTezUtils.getBlockId(partitionId, taskAttemptId, getNextSeqNo(partitionId));
@@ -143,6 +143,9 @@ public class RssSorter extends ExternalSorter {
     boolean isRemoteMergeEnable =
         conf.getBoolean(
             RssTezConfig.RSS_REMOTE_MERGE_ENABLE, RssTezConfig.RSS_REMOTE_MERGE_ENABLE_DEFAULT);
+    boolean isCombineEnable =
+        conf.getBoolean(
+            RssTezConfig.RSS_CLIENT_COMBINE_ENABLE, RssTezConfig.RSS_CLIENT_DEFAULT_COMBINE_ENABLE);
     bufferManager =
         new WriteBufferManager(
             tezTaskAttemptID,
@@ -174,7 +177,8 @@ public class RssSorter extends ExternalSorter {
             mapOutputRecordCounter,
             isRemoteMergeEnable,
             ConfigUtils.getIntermediateOutputKeyClass(this.conf),
-            ConfigUtils.getIntermediateOutputValueClass(this.conf));
+            ConfigUtils.getIntermediateOutputValueClass(this.conf),
+            isCombineEnable ? combiner : null);
     LOG.info("Initialized WriteBufferManager.");
   }
 
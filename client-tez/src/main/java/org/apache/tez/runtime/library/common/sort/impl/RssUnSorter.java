@@ -168,6 +168,7 @@ public class RssUnSorter extends ExternalSorter {
             mapOutputRecordCounter,
             false,
             null,
+            null,
             null);
     LOG.info("Initialized WriteBufferManager.");
   }
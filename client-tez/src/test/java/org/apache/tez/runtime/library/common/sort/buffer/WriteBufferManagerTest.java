@@ -172,6 +172,7 @@ public class WriteBufferManagerTest {
             mapOutputRecordCounter,
             false,
             null,
+            null,
             null);
     partitionToServers.put(1, Lists.newArrayList(mock(ShuffleServerInfo.class)));
     Random random = new Random();
@@ -279,6 +280,7 @@ public class WriteBufferManagerTest {
             mapOutputRecordCounter,
             false,
             null,
+            null,
             null);
 
     Random random = new Random();
@@ -395,6 +397,7 @@ public class WriteBufferManagerTest {
             mapOutputRecordCounter,
             false,
             null,
+            null,
             null);
 
     Random random = new Random();
@@ -502,6 +505,7 @@ public class WriteBufferManagerTest {
             mapOutputRecordCounter,
             false,
             null,
+            null,
             null);
 
     Random random = new Random();
@@ -585,7 +589,8 @@ public class WriteBufferManagerTest {
             mapOutputRecordCounter,
             true,
             Text.class,
-            Text.class);
+            Text.class,
+            null);
 
     List<Integer> indexes = new ArrayList<>();
     for (int i = 0; i < RECORDS; i++) {
@@ -681,7 +686,8 @@ public class WriteBufferManagerTest {
             new ShuffleBlockInfo(1, 1, 3, 1, 1, new byte[1], null, 1, 100, 1);
         failedBlockSendTracker.add(
             failedBlock, new ShuffleServerInfo("host", 39998), StatusCode.NO_BUFFER);
-        return new SendShuffleDataResult(Sets.newHashSet(2L), failedBlockSendTracker);
+        return new SendShuffleDataResult(
+            Roaring64NavigableMap.bitmapOf(2L), failedBlockSendTracker);
       } else {
         if (mode == 3) {
           try {
@@ -692,9 +698,9 @@ public class WriteBufferManagerTest {
             throw new RssException(e.toString());
           }
         }
-        Set<Long> successBlockIds = Sets.newHashSet();
+        Roaring64NavigableMap successBlockIds = Roaring64NavigableMap.bitmapOf();
         for (ShuffleBlockInfo blockInfo : shuffleBlockInfoList) {
-          successBlockIds.add(blockInfo.getBlockId());
+          successBlockIds.addLong(blockInfo.getBlockId());
         }
         return new SendShuffleDataResult(successBlockIds, new FailedBlockSendTracker());
       }
@@ -22,14 +22,17 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 
 import io.netty.buffer.Unpooled;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.DataInputBuffer;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableComparator;
@@ -38,6 +41,7 @@ import org.apache.hadoop.io.serializer.Deserializer;
 import org.apache.hadoop.io.serializer.SerializationFactory;
 import org.apache.hadoop.io.serializer.Serializer;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.tez.runtime.library.common.combine.Combiner;
 import org.junit.jupiter.api.Test;
 
 import org.apache.uniffle.common.config.RssConf;
@@ -48,6 +52,7 @@ import org.apache.uniffle.common.serializer.SerializerInstance;
 
 import static com.google.common.collect.Maps.newConcurrentMap;
 import static org.apache.uniffle.common.serializer.SerializerUtils.genData;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -78,6 +83,7 @@ public class WriteBufferTest {
             false,
             keySerializer,
             valSerializer,
+            null,
             null);
 
     long recordLength = buffer.addRecord(key, value);
@@ -111,6 +117,7 @@ public class WriteBufferTest {
             false,
             keySerializer,
             valSerializer,
+            null,
             null);
     long start = buffer.getDataLength();
     assertEquals(0, start);
@@ -198,7 +205,8 @@ public class WriteBufferTest {
             true,
             null,
             null,
-            instance);
+            instance,
+            null);
     for (int i = 0; i < RECORDS_NUM; i++) {
       buffer.addRecord(genData(Text.class, i), genData(IntWritable.class, i));
     }
@@ -232,7 +240,8 @@ public class WriteBufferTest {
             true,
             null,
             null,
-            instance);
+            instance,
+            null);
     List<Integer> indices = new ArrayList<>();
     for (int i = 0; i < RECORDS_NUM; i++) {
       indices.add(i);
@@ -256,6 +265,169 @@ public class WriteBufferTest {
     dStream.close();
   }
 
+  @Test
+  public void testSortAndCombine() throws IOException {
+    JobConf jobConf = new JobConf(new Configuration());
+    SerializationFactory serializationFactory = new SerializationFactory(jobConf);
+    Serializer<Text> keySerializer = serializationFactory.getSerializer(Text.class);
+    Serializer<IntWritable> valSerializer = serializationFactory.getSerializer(IntWritable.class);
+    // sum the values of the same key
+    Combiner combiner =
+        (kvIter, writer) -> {
+          DataInputBuffer lastKey = null;
+          IntWritable sum = new IntWritable();
+          Text key = new Text();
+          while (kvIter.next()) {
+            DataInputBuffer currentKey = kvIter.getKey();
+            if (lastKey != null
+                && WritableComparator.compareBytes(
+                        lastKey.getData(),
+                        lastKey.getPosition(),
+                        lastKey.getLength() - lastKey.getPosition(),
+                        currentKey.getData(),
+                        currentKey.getPosition(),
+                        currentKey.getLength() - currentKey.getPosition())
+                    != 0) {
+              writer.append(key, sum);
+              sum.set(0);
+            }
+            lastKey = new DataInputBuffer();
+            lastKey.reset(
+                Arrays.copyOfRange(
+                    currentKey.getData(), currentKey.getPosition(), currentKey.getLength()),
+                0,
+                currentKey.getLength() - currentKey.getPosition());
+            key.readFields(currentKey);
+            IntWritable value = new IntWritable();
+            value.readFields(kvIter.getValue());
+            sum.set(sum.get() + value.get());
+          }
+          if (lastKey != null) {
+            writer.append(key, sum);
+          }
+        };
+
+    Random random = new Random();
+    Map<String, Integer> expected = new TreeMap<>();
+    WriteBuffer<Text, IntWritable> sortBuffer =
+        new WriteBuffer<>(
+            true,
+            1,
+            WritableComparator.get(Text.class),
+            100L,
+            false,
+            keySerializer,
+            valSerializer,
+            null,
+            null);
+    WriteBuffer<Text, IntWritable> combineBuffer =
+        new WriteBuffer<>(
+            true,
+            1,
+            WritableComparator.get(Text.class),
+            100L,
+            false,
+            keySerializer,
+            valSerializer,
+            null,
+            combiner);
+    List<String> sortedKeys = new ArrayList<>();
+    for (int i = 0; i < RECORDS_NUM; i++) {
+      String key = "key" + random.nextInt(100);
+      int value = random.nextInt(1000);
+      sortBuffer.addRecord(new Text(key), new IntWritable(value));
+      combineBuffer.addRecord(new Text(key), new IntWritable(value));
+      expected.merge(key, value, Integer::sum);
+      sortedKeys.add(key);
+    }
+    Collections.sort(sortedKeys);
+
+    DataInputStream dStream = new DataInputStream(new ByteArrayInputStream(sortBuffer.getData()));
+    Text key = new Text();
+    IntWritable value = new IntWritable();
+    for (String sortedKey : sortedKeys) {
+      readInt(dStream);
+      readInt(dStream);
+      key.readFields(dStream);
+      value.readFields(dStream);
+      assertEquals(sortedKey, key.toString());
+    }
+    assertEquals(-1, readInt(dStream));
+    assertEquals(-1, readInt(dStream));
+
+    dStream = new DataInputStream(new ByteArrayInputStream(combineBuffer.getData()));
+    for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+      int keyLength = readInt(dStream);
+      final int valueLength = readInt(dStream);
+      key.readFields(dStream);
+      value.readFields(dStream);
+      assertEquals(
+          WritableUtils.getVIntSize(entry.getKey().length()) + entry.getKey().length(), keyLength);
+      assertEquals(4, valueLength);
+      assertEquals(entry.getKey(), key.toString());
+      assertEquals(entry.getValue().intValue(), value.get());
+    }
+    assertEquals(-1, readInt(dStream));
+    assertEquals(-1, readInt(dStream));
+  }
+
+  @Test
+  public void testCombineWithAppendedValues() throws IOException {
+    JobConf jobConf = new JobConf(new Configuration());
+    SerializationFactory serializationFactory = new SerializationFactory(jobConf);
+    Serializer<Text> keySerializer = serializationFactory.getSerializer(Text.class);
+    Serializer<IntWritable> valSerializer = serializationFactory.getSerializer(IntWritable.class);
+    // write the key once and append the values of the same key to it
+    Combiner combiner =
+        (kvIter, writer) -> {
+          byte[] lastKey = null;
+          while (kvIter.next()) {
+            DataInputBuffer currentKey = kvIter.getKey();
+            byte[] key =
+                Arrays.copyOfRange(
+                    currentKey.getData(), currentKey.getPosition(), currentKey.getLength());
+            if (Arrays.equals(lastKey, key)) {
+              writer.appendValue(kvIter.getValue());
+            } else {
+              writer.append(currentKey, kvIter.getValue());
+              lastKey = key;
+            }
+          }
+        };
+
+    Random random = new Random();
+    WriteBuffer<Text, IntWritable> sortBuffer =
+        new WriteBuffer<>(
+            true,
+            1,
+            WritableComparator.get(Text.class),
+            100L,
+            false,
+            keySerializer,
+            valSerializer,
+            null,
+            null);
+    WriteBuffer<Text, IntWritable> combineBuffer =
+        new WriteBuffer<>(
+            true,
+            1,
+            WritableComparator.get(Text.class),
+            100L,
+            false,
+            keySerializer,
+            valSerializer,
+            null,
+            combiner);
+    for (int i = 0; i < RECORDS_NUM; i++) {
+      Text key = new Text("key" + random.nextInt(100));
+      IntWritable value = new IntWritable(random.nextInt(1000));
+      sortBuffer.addRecord(key, value);
+      combineBuffer.addRecord(key, value);
+    }
+    // every value is written with its key, so nothing is combined
+    assertArrayEquals(sortBuffer.getData(), combineBuffer.getData());
+  }
+
   int readInt(DataInputStream dStream) throws IOException {
     return WritableUtils.readVInt(dStream);
   }
@@ -102,6 +102,15 @@ public class PartitionDataReplicaRequirementTracking {
     }
   }
 
+  /** Returns a copy of the tracking, the servers marked on the copy don't affect this one. */
+  public PartitionDataReplicaRequirementTracking copy() {
+    PartitionDataReplicaRequirementTracking copy =
+        new PartitionDataReplicaRequirementTracking(shuffleId, inventory);
+    succeedList.forEach(
+        (partitionId, replicas) -> copy.succeedList.put(partitionId, new HashMap<>(replicas)));
+    return copy;
+  }
+
   public int getShuffleId() {
     return shuffleId;
   }
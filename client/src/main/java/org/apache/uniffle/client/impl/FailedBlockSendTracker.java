@@ -83,6 +83,10 @@ public class FailedBlockSendTracker {
     trackingNeedSplitPartitionStatusQueue.clear();
   }
 
+  public boolean isEmpty() {
+    return trackingBlockStatusMap.isEmpty();
+  }
+
   public Set<Long> getFailedBlockIds() {
     return trackingBlockStatusMap.keySet();
   }
@@ -66,6 +66,7 @@ public class ShuffleReadClientImpl implements ShuffleReadClient {
   private AtomicLong readDataTime = new AtomicLong(0);
   private AtomicLong copyTime = new AtomicLong(0);
   private AtomicLong crcCheckTime = new AtomicLong(0);
+  private ChecksumUtils.Type checksumType;
   private ClientReadHandler clientReadHandler;
   private IdHelper idHelper;
   private BlockIdLayout blockIdLayout;
@@ -151,6 +152,7 @@ public class ShuffleReadClientImpl implements ShuffleReadClient {
     this.idHelper = builder.getIdHelper();
     this.shuffleServerInfoList = builder.getShuffleServerInfoList();
     this.blockIdLayout = BlockIdLayout.from(builder.getRssConf());
+    this.checksumType = builder.getRssConf().get(RssClientConf.CHECKSUM_TYPE);
 
     CreateShuffleReadHandlerRequest request = new CreateShuffleReadHandlerRequest();
     request.setStorageType(builder.getStorageType());
@@ -239,7 +241,8 @@ public class ShuffleReadClientImpl implements ShuffleReadClient {
           try {
             long start = System.currentTimeMillis();
             expectedCrc = bs.getCrc();
-            actualCrc = ChecksumUtils.getCrc32(readBuffer, bs.getOffset(), bs.getLength());
+            actualCrc =
+                ChecksumUtils.getChecksum(checksumType, readBuffer, bs.getOffset(), bs.getLength());
             crcCheckTime.addAndGet(System.currentTimeMillis() - start);
           } catch (Exception e) {
             LOG.warn("Can't read data for " + blockIdLayout.asBlockId(bs.getBlockId()), e);
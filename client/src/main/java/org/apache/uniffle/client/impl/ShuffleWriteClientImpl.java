@@ -22,12 +22,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -88,6 +93,7 @@ import org.apache.uniffle.common.ShuffleAssignmentsInfo;
 import org.apache.uniffle.common.ShuffleBlockInfo;
 import org.apache.uniffle.common.ShuffleDataDistributionType;
 import org.apache.uniffle.common.ShuffleServerInfo;
+import org.apache.uniffle.common.config.RssClientConf;
 import org.apache.uniffle.common.config.RssConf;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.exception.RssFetchFailedException;
@@ -118,6 +124,7 @@ public class ShuffleWriteClientImpl implements ShuffleWriteClient {
   private boolean replicaSkipEnabled;
   private int dataCommitPoolSize = -1;
   private final ExecutorService dataTransferPool;
+  private final ExecutorService shuffleResultFetchPool;
   private final int unregisterThreadPoolSize;
   private final int unregisterTimeSec;
   private final int unregisterRequestTimeSec;
@@ -162,6 +169,10 @@ public class ShuffleWriteClientImpl implements ShuffleWriteClient {
     }
     this.rssConf = builder.getRssConf();
     this.blockIdLayout = BlockIdLayout.from(rssConf);
+    this.shuffleResultFetchPool =
+        ThreadUtils.getDaemonFixedThreadPool(
+            rssConf.get(RssClientConf.RSS_CLIENT_SHUFFLE_RESULT_FETCH_THREADS),
+            "client-shuffle-result-fetch");
   }
 
   private boolean sendShuffleDataAsync(
@@ -456,18 +467,21 @@ public class ShuffleWriteClientImpl implements ShuffleWriteClient {
           needCancelRequest);
     }
 
-    Set<Long> blockIdsSendSuccessSet = Sets.newHashSet();
+    Roaring64NavigableMap blockIdsSendSuccessSet = Roaring64NavigableMap.bitmapOf();
+    boolean hasFailedBlocks = !blockIdsSendFailTracker.isEmpty();
     blockIdsSendSuccessTracker
         .entrySet()
         .forEach(
             successBlockId -> {
               if (successBlockId.getValue().get() >= replicaWrite) {
-                blockIdsSendSuccessSet.add(successBlockId.getKey());
+                blockIdsSendSuccessSet.addLong(successBlockId.getKey());
                 // If the replicaWrite to be sent is reached,
                 // no matter whether the block fails to be sent or not,
                 // the block is considered to have been sent successfully and is removed from the
                 // failed block tracker
-                blockIdsSendFailTracker.remove(successBlockId.getKey());
+                if (hasFailedBlocks) {
+                  blockIdsSendFailTracker.remove(successBlockId.getKey());
+                }
               }
             });
     return new SendShuffleDataResult(blockIdsSendSuccessSet, blockIdsSendFailTracker);
@@ -876,6 +890,13 @@ public class ShuffleWriteClientImpl implements ShuffleWriteClient {
     return blockIdBitmap;
   }
 
+  /**
+   * Fetches the results from the servers concurrently and merges them as they arrive. To ask the
+   * servers for the same partitions as a serial fetch does, the requests are sent in waves: a wave
+   * assumes the requests before it in the server order succeed, and skips the partitions that would
+   * be satisfied by them. The partitions of the failed requests are fetched by the next wave from
+   * the servers not asked yet.
+   */
   @Override
   public Roaring64NavigableMap getShuffleResultForMultiPart(
       String clientType,
@@ -886,43 +907,29 @@ public class ShuffleWriteClientImpl implements ShuffleWriteClient {
       PartitionDataReplicaRequirementTracking replicaRequirementTracking) {
     Roaring64NavigableMap blockIdBitmap = Roaring64NavigableMap.bitmapOf();
     Set<Integer> allRequestedPartitionIds = new HashSet<>();
-    for (Map.Entry<ShuffleServerInfo, Set<Integer>> entry : serverToPartitions.entrySet()) {
-      ShuffleServerInfo shuffleServerInfo = entry.getKey();
-      Set<Integer> requestPartitions = Sets.newHashSet();
-      for (Integer partitionId : entry.getValue()) {
-        if (!replicaRequirementTracking.isSatisfied(partitionId, replicaRead)) {
-          requestPartitions.add(partitionId);
-        }
-      }
-      allRequestedPartitionIds.addAll(requestPartitions);
-      RssGetShuffleResultForMultiPartRequest request =
-          new RssGetShuffleResultForMultiPartRequest(
-              appId, shuffleId, requestPartitions, blockIdLayout);
-      try {
-        RssGetShuffleResultResponse response =
-            getShuffleServerClient(shuffleServerInfo).getShuffleResultForMultiPart(request);
-        if (response.getStatusCode() == StatusCode.SUCCESS) {
-          // merge into blockIds from multiple servers.
-          Roaring64NavigableMap blockIdBitmapOfServer = response.getBlockIdBitmap();
-          blockIdBitmap.or(blockIdBitmapOfServer);
-          for (Integer partitionId : requestPartitions) {
-            replicaRequirementTracking.markPartitionOfServerSuccessful(
-                partitionId, shuffleServerInfo);
+    Map<ShuffleServerInfo, Set<Integer>> pendingServers = new LinkedHashMap<>(serverToPartitions);
+    while (!pendingServers.isEmpty()) {
+      PartitionDataReplicaRequirementTracking expectedTracking = replicaRequirementTracking.copy();
+      Map<ShuffleServerInfo, Set<Integer>> wave = new LinkedHashMap<>();
+      for (Map.Entry<ShuffleServerInfo, Set<Integer>> entry : pendingServers.entrySet()) {
+        Set<Integer> requestPartitions = Sets.newHashSet();
+        for (Integer partitionId : entry.getValue()) {
+          if (!expectedTracking.isSatisfied(partitionId, replicaRead)) {
+            requestPartitions.add(partitionId);
+            expectedTracking.markPartitionOfServerSuccessful(partitionId, entry.getKey());
           }
         }
-      } catch (Exception e) {
-        failedPartitions.addAll(requestPartitions);
-        LOG.warn(
-            "Get shuffle result is failed from "
-                + shuffleServerInfo
-                + " for appId["
-                + appId
-                + "], shuffleId["
-                + shuffleId
-                + "], requestPartitions"
-                + requestPartitions,
-            e);
+        if (!requestPartitions.isEmpty()) {
+          wave.put(entry.getKey(), requestPartitions);
+        }
       }
+      if (wave.isEmpty()) {
+        break;
+      }
+      pendingServers.keySet().removeAll(wave.keySet());
+      wave.values().forEach(allRequestedPartitionIds::addAll);
+      fetchShuffleResults(
+          wave, appId, shuffleId, blockIdBitmap, failedPartitions, replicaRequirementTracking);
     }
     boolean isSuccessful =
         allRequestedPartitionIds.stream()
@@ -935,6 +942,73 @@ public class ShuffleWriteClientImpl implements ShuffleWriteClient {
     return blockIdBitmap;
   }
 
+  private void fetchShuffleResults(
+      Map<ShuffleServerInfo, Set<Integer>> serverToPartitions,
+      String appId,
+      int shuffleId,
+      Roaring64NavigableMap blockIdBitmap,
+      Set<Integer> failedPartitions,
+      PartitionDataReplicaRequirementTracking replicaRequirementTracking) {
+    CompletionService<Roaring64NavigableMap> completionService =
+        new ExecutorCompletionService<>(shuffleResultFetchPool);
+    Map<Future<Roaring64NavigableMap>, ShuffleServerInfo> futureToServer = Maps.newHashMap();
+    for (Map.Entry<ShuffleServerInfo, Set<Integer>> entry : serverToPartitions.entrySet()) {
+      RssGetShuffleResultForMultiPartRequest request =
+          new RssGetShuffleResultForMultiPartRequest(
+              appId, shuffleId, entry.getValue(), blockIdLayout);
+      Future<Roaring64NavigableMap> future =
+          completionService.submit(
+              () -> {
+                RssGetShuffleResultResponse response =
+                    getShuffleServerClient(entry.getKey()).getShuffleResultForMultiPart(request);
+                return response.getStatusCode() == StatusCode.SUCCESS
+                    ? response.getBlockIdBitmap()
+                    : null;
+              });
+      futureToServer.put(future, entry.getKey());
+    }
+    for (int i = 0; i < serverToPartitions.size(); i++) {
+      try {
+        Future<Roaring64NavigableMap> future = completionService.take();
+        ShuffleServerInfo shuffleServerInfo = futureToServer.get(future);
+        Set<Integer> requestPartitions = serverToPartitions.get(shuffleServerInfo);
+        try {
+          Roaring64NavigableMap blockIdBitmapOfServer = future.get();
+          if (blockIdBitmapOfServer != null) {
+            // merge into blockIds from multiple servers.
+            blockIdBitmap.or(blockIdBitmapOfServer);
+            for (Integer partitionId : requestPartitions) {
+              replicaRequirementTracking.markPartitionOfServerSuccessful(
+                  partitionId, shuffleServerInfo);
+            }
+          }
+        } catch (ExecutionException e) {
+          failedPartitions.addAll(requestPartitions);
+          LOG.warn(
+              "Get shuffle result is failed from "
+                  + shuffleServerInfo
+                  + " for appId["
+                  + appId
+                  + "], shuffleId["
+                  + shuffleId
+                  + "], requestPartitions"
+                  + requestPartitions,
+              e.getCause());
+        }
+      } catch (InterruptedException e) {
+        futureToServer.keySet().forEach(future -> future.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new RssFetchFailedException(
+            "Interrupted when getting shuffle result for appId["
+                + appId
+                + "], shuffleId["
+                + shuffleId
+                + "]",
+            e);
+      }
+    }
+  }
+
   @Override
   public void registerApplicationInfo(String appId, long timeoutMs, String user) {
     RssApplicationInfoRequest request = new RssApplicationInfoRequest(appId, timeoutMs, user);
@@ -979,6 +1053,7 @@ public class ShuffleWriteClientImpl implements ShuffleWriteClient {
       coordinatorClient.close();
     }
     dataTransferPool.shutdownNow();
+    shuffleResultFetchPool.shutdownNow();
   }
 
   @Override
@@ -19,4 +19,10 @@ package org.apache.uniffle.client.record.metrics;
 
 public interface MetricsReporter {
   void incRecordsRead(long v);
+
+  /** Reports the number of buffers queued in front of the given stage of the reader. */
+  default void updateQueueDepth(String stage, int depth) {}
+
+  /** Reports the time the given stage of the reader spent waiting for input or downstream space. */
+  default void incWaitTimeMs(String stage, long waitMs) {}
 }
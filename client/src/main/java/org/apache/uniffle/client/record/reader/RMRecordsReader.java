@@ -18,14 +18,20 @@
 package org.apache.uniffle.client.record.reader;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.netty.buffer.ByteBuf;
@@ -59,16 +65,23 @@ import org.apache.uniffle.common.serializer.SerializerFactory;
 import org.apache.uniffle.common.serializer.SerializerInstance;
 import org.apache.uniffle.common.serializer.writable.ComparativeOutputBuffer;
 import org.apache.uniffle.common.util.JavaUtils;
+import org.apache.uniffle.common.util.ThreadUtils;
 
 import static org.apache.uniffle.common.config.RssClientConf.RSS_CLIENT_REMOTE_MERGE_FETCH_INIT_SLEEP_MS;
 import static org.apache.uniffle.common.config.RssClientConf.RSS_CLIENT_REMOTE_MERGE_FETCH_MAX_SLEEP_MS;
 import static org.apache.uniffle.common.config.RssClientConf.RSS_CLIENT_REMOTE_MERGE_READER_MAX_BUFFER;
 import static org.apache.uniffle.common.config.RssClientConf.RSS_CLIENT_REMOTE_MERGE_READER_MAX_RECORDS_PER_BUFFER;
+import static org.apache.uniffle.common.config.RssClientConf.RSS_CLIENT_REMOTE_MERGE_READER_THREADS;
 
 public class RMRecordsReader<K, V, C> {
 
   private static final Logger LOG = LoggerFactory.getLogger(RMRecordsReader.class);
 
+  public static final String FETCH_STAGE = "fetch";
+  public static final String COMBINE_STAGE = "combine";
+  public static final String MERGE_STAGE = "merge";
+  public static final String RESULT_STAGE = "result";
+
   private String appId;
   private final int shuffleId;
   private final Set<Integer> partitionIds;
@@ -89,6 +102,7 @@ public class RMRecordsReader<K, V, C> {
   private final long maxFetchSleepTime;
   private final int maxBufferPerPartition;
   private final int maxRecordsNumPerBuffer;
+  private final int readerThreads;
 
   private Map<Integer, List<ShuffleServerInfo>> shuffleServerInfoMap;
   private volatile boolean stop = false;
@@ -97,6 +111,9 @@ public class RMRecordsReader<K, V, C> {
   private Map<Integer, Queue<RecordBuffer>> combineBuffers = JavaUtils.newConcurrentMap();
   private Map<Integer, Queue<RecordBuffer>> mergeBuffers = JavaUtils.newConcurrentMap();
   private Queue<Record> results;
+  private final Map<String, AtomicInteger> queueDepths = JavaUtils.newConcurrentMap();
+  // Shared by the fetchers and combiners of all partitions
+  private ScheduledExecutorService executor;
 
   public RMRecordsReader(
       String appId,
@@ -167,6 +184,9 @@ public class RMRecordsReader<K, V, C> {
     this.isMapCombine = isMapCombine;
     this.metrics = metrics;
     this.clientType = clientType;
+    for (String stage : new String[] {COMBINE_STAGE, MERGE_STAGE, RESULT_STAGE}) {
+      queueDepths.put(stage, new AtomicInteger());
+    }
     if (this.raw) {
       SerializerFactory factory = new SerializerFactory(rssConf);
       Serializer serializer = factory.getSerializer(keyClass);
@@ -180,8 +200,10 @@ public class RMRecordsReader<K, V, C> {
     this.maxBufferPerPartition = Math.max(1, maxBuffer / partitionIds.size());
     this.maxRecordsNumPerBuffer =
         rssConf.get(RSS_CLIENT_REMOTE_MERGE_READER_MAX_RECORDS_PER_BUFFER);
+    this.readerThreads = rssConf.get(RSS_CLIENT_REMOTE_MERGE_READER_THREADS);
     this.results =
-        new Queue<>(maxBufferPerPartition * maxRecordsNumPerBuffer * partitionIds.size());
+        new Queue<>(
+            RESULT_STAGE, maxBufferPerPartition * maxRecordsNumPerBuffer * partitionIds.size());
     this.retryMax =
         rssConf.getInteger(
             RssClientConfig.RSS_CLIENT_RETRY_MAX,
@@ -194,16 +216,22 @@ public class RMRecordsReader<K, V, C> {
   }
 
   public void start() {
+    int stages = this.combiner != null ? 2 : 1;
+    int threads = Math.max(1, Math.min(readerThreads, partitionIds.size() * stages));
+    ScheduledThreadPoolExecutor pool =
+        new ScheduledThreadPoolExecutor(threads, ThreadUtils.getThreadFactory("RMRecordsReader"));
+    pool.setRemoveOnCancelPolicy(true);
+    this.executor = pool;
     for (int partitionId : partitionIds) {
-      mergeBuffers.put(partitionId, new Queue<>(maxBufferPerPartition));
+      mergeBuffers.put(partitionId, new Queue<>(MERGE_STAGE, maxBufferPerPartition));
       if (this.combiner != null) {
-        combineBuffers.put(partitionId, new Queue<>(maxBufferPerPartition));
+        combineBuffers.put(partitionId, new Queue<>(COMBINE_STAGE, maxBufferPerPartition));
       }
-      RecordsFetcher fetcher = new RecordsFetcher(partitionId);
-      fetcher.start();
+    }
+    for (int partitionId : partitionIds) {
+      executor.execute(new RecordsFetcher(partitionId));
       if (this.combiner != null) {
-        RecordsCombiner combineThread = new RecordsCombiner(partitionId);
-        combineThread.start();
+        executor.execute(new RecordsCombiner(partitionId));
       }
     }
 
@@ -214,6 +242,10 @@ public class RMRecordsReader<K, V, C> {
   public void close() {
     error = null;
     stop = true;
+    wakeUpAll();
+    if (executor != null) {
+      executor.shutdownNow();
+    }
     for (Queue<RecordBuffer> buffer : mergeBuffers.values()) {
       buffer.clear();
     }
@@ -230,6 +262,39 @@ public class RMRecordsReader<K, V, C> {
     }
   }
 
+  private void fail(Throwable e) {
+    error = e;
+    stop = true;
+    wakeUpAll();
+  }
+
+  // Wakes up every thread blocked on a queue so that it can observe the stop flag.
+  private void wakeUpAll() {
+    for (Queue<RecordBuffer> buffer : combineBuffers.values()) {
+      buffer.wakeUp();
+    }
+    for (Queue<RecordBuffer> buffer : mergeBuffers.values()) {
+      buffer.wakeUp();
+    }
+    Queue<Record> resultQueue = results;
+    if (resultQueue != null) {
+      resultQueue.wakeUp();
+    }
+  }
+
+  private void updateQueueDepth(String stage, int delta) {
+    int depth = queueDepths.get(stage).addAndGet(delta);
+    if (metrics != null) {
+      metrics.updateQueueDepth(stage, depth);
+    }
+  }
+
+  private void incWaitTime(String stage, long waitNanos) {
+    if (metrics != null && waitNanos > 0) {
+      metrics.incWaitTimeMs(stage, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+  }
+
   private boolean isSameKey(Object k1, Object k2) {
     if (raw) {
       ComparativeOutputBuffer buffer1 = (ComparativeOutputBuffer) k1;
@@ -404,64 +469,302 @@ public class RMRecordsReader<K, V, C> {
 
   class Queue<E> {
 
-    private LinkedBlockingQueue<E> queue;
-    private volatile boolean producerDone = false;
-
-    Queue(int maxBufferPerPartition) {
-      this.queue = new LinkedBlockingQueue<>(maxBufferPerPartition);
+    private final String stage;
+    private final int capacity;
+    private final ArrayDeque<E> queue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private boolean producerDone = false;
+    // Callbacks of a pooled producer parked on a full queue and of a pooled consumer parked on an
+    // empty queue. They are run outside the lock once the queue can make progress again.
+    private Runnable spaceListener;
+    private Runnable dataListener;
+
+    Queue(String stage, int capacity) {
+      this.stage = stage;
+      this.capacity = capacity;
     }
 
     public void setProducerDone(boolean producerDone) {
-      this.producerDone = producerDone;
+      Runnable listener;
+      lock.lock();
+      try {
+        this.producerDone = producerDone;
+        notEmpty.signalAll();
+        listener = dataListener;
+        dataListener = null;
+      } finally {
+        lock.unlock();
+      }
+      runListener(listener);
+    }
+
+    // Block until there is space in the queue. Only used by the dedicated merger thread.
+    public void put(E e) throws InterruptedException {
+      Runnable listener;
+      lock.lockInterruptibly();
+      try {
+        while (queue.size() >= capacity && !stop) {
+          notFull.await();
+        }
+        if (stop) {
+          return;
+        }
+        listener = enqueue(e);
+      } finally {
+        lock.unlock();
+      }
+      runListener(listener);
     }
 
-    public void put(E recordBuffer) throws InterruptedException {
-      this.queue.put(recordBuffer);
+    // Never blocks, used by the pooled stages. If the queue is full the element is not added and
+    // onSpace will be run once the consumer has taken an element.
+    public boolean offer(E e, Runnable onSpace) {
+      Runnable listener;
+      lock.lock();
+      try {
+        if (queue.size() >= capacity) {
+          spaceListener = onSpace;
+          return false;
+        }
+        listener = enqueue(e);
+      } finally {
+        lock.unlock();
+      }
+      runListener(listener);
+      return true;
     }
 
     // Block until data arrives or the producer completes the work.
     // If null is returned, it means that all data has been processed
     public E take() throws InterruptedException {
-      while (!producerDone && !stop) {
-        E e = this.queue.poll(100, TimeUnit.MILLISECONDS);
+      E e;
+      Runnable listener;
+      long waitNanos = 0;
+      lock.lockInterruptibly();
+      try {
+        if (queue.isEmpty() && !producerDone && !stop) {
+          long start = System.nanoTime();
+          while (queue.isEmpty() && !producerDone && !stop) {
+            notEmpty.await();
+          }
+          waitNanos = System.nanoTime() - start;
+        }
+        if (error != null) {
+          throw new RssException("RMShuffleReader fetch record failed, caused by " + error);
+        }
+        e = queue.poll();
+        listener = e != null ? dequeued() : null;
+      } finally {
+        lock.unlock();
+      }
+      runListener(listener);
+      incWaitTime(stage, waitNanos);
+      return e;
+    }
+
+    // Never blocks, used by the pooled stages. Returns null if nothing is buffered, in which case
+    // onData will be run once data arrives or the producer completes the work.
+    public E poll(Runnable onData) {
+      E e;
+      Runnable listener = null;
+      lock.lock();
+      try {
+        e = queue.poll();
         if (e != null) {
-          return e;
+          listener = dequeued();
+        } else if (producerDone) {
+          listener = onData;
+        } else {
+          dataListener = onData;
         }
+      } finally {
+        lock.unlock();
+      }
+      runListener(listener);
+      return e;
+    }
+
+    // Whether the producer has completed the work and all data has been taken.
+    public boolean isDrained() {
+      lock.lock();
+      try {
+        return producerDone && queue.isEmpty();
+      } finally {
+        lock.unlock();
       }
-      if (error != null) {
-        throw new RssException("RMShuffleReader fetch record failed, caused by " + error);
+    }
+
+    public void wakeUp() {
+      lock.lock();
+      try {
+        notEmpty.signalAll();
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
       }
-      return this.queue.poll(100, TimeUnit.MILLISECONDS);
     }
 
     public void clear() {
-      this.queue.clear();
-      this.producerDone = false;
+      lock.lock();
+      try {
+        updateQueueDepth(stage, -queue.size());
+        this.queue.clear();
+        this.producerDone = false;
+        this.spaceListener = null;
+        this.dataListener = null;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private Runnable enqueue(E e) {
+      queue.add(e);
+      updateQueueDepth(stage, 1);
+      notEmpty.signal();
+      Runnable listener = dataListener;
+      dataListener = null;
+      return listener;
+    }
+
+    private Runnable dequeued() {
+      updateQueueDepth(stage, -1);
+      notFull.signal();
+      Runnable listener = spaceListener;
+      spaceListener = null;
+      return listener;
+    }
+
+    private void runListener(Runnable listener) {
+      if (listener != null) {
+        listener.run();
+      }
+    }
+  }
+
+  /**
+   * A stage of the per-partition pipeline that runs as a task on the shared executor. Instead of
+   * blocking a thread, a task parks itself when the downstream queue is full, when its upstream
+   * queue is empty or while the server merge is in progress, and is resubmitted once it can make
+   * progress again.
+   */
+  abstract class StageTask implements Runnable {
+
+    private final String stage;
+    protected final int partitionId;
+    private final Queue<RecordBuffer> nextQueue;
+    private final ArrayDeque<RecordBuffer> pending = new ArrayDeque<>();
+    private final Runnable resume = () -> submit(this);
+    private long parkedAt = -1;
+    protected boolean finished = false;
+
+    StageTask(String stage, int partitionId, Queue<RecordBuffer> nextQueue) {
+      this.stage = stage;
+      this.partitionId = partitionId;
+      this.nextQueue = nextQueue;
+    }
+
+    @Override
+    public void run() {
+      if (stop) {
+        return;
+      }
+      if (parkedAt >= 0) {
+        incWaitTime(stage, System.nanoTime() - parkedAt);
+        parkedAt = -1;
+      }
+      try {
+        while (!stop) {
+          if (!drainPending()) {
+            return;
+          }
+          if (finished) {
+            nextQueue.setProducerDone(true);
+            return;
+          }
+          if (!process()) {
+            return;
+          }
+        }
+      } catch (Throwable e) {
+        if (!stop) {
+          LOG.info(
+              "Found exception in {} stage of partition {}, caused by ", stage, partitionId, e);
+          fail(e);
+        }
+      }
+    }
+
+    /**
+     * Does one step of work and emits its output.
+     *
+     * @return false if the task has parked or rescheduled itself
+     */
+    protected abstract boolean process() throws Exception;
+
+    protected void emit(RecordBuffer recordBuffer) {
+      pending.add(recordBuffer);
+    }
+
+    protected Runnable resumer() {
+      return resume;
+    }
+
+    // Marks the task as parked before it hands its resumer to a queue or the scheduler, so that the
+    // time until it runs again is reported as wait time of this stage.
+    protected void park() {
+      parkedAt = System.nanoTime();
+    }
+
+    protected void unpark() {
+      parkedAt = -1;
+    }
+
+    private boolean drainPending() {
+      while (!pending.isEmpty()) {
+        park();
+        if (!nextQueue.offer(pending.peek(), resume)) {
+          return false;
+        }
+        unpark();
+        pending.poll();
+      }
+      return true;
+    }
+  }
+
+  private void submit(Runnable task) {
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // The reader has been closed.
+      if (!stop) {
+        fail(e);
+      }
     }
   }
 
-  class RecordsFetcher extends Thread {
+  class RecordsFetcher extends StageTask {
 
-    private int partitionId;
     private long sleepTime;
     private long blockId = 1; // Merged blockId counting from 1
     private RecordBuffer recordBuffer;
-    private Queue<RecordBuffer> nextQueue;
     private List<ShuffleServerInfo> serverInfos;
     private ShuffleServerClient client;
     private int choose;
     private String fetchError;
 
     RecordsFetcher(int partitionId) {
-      this.partitionId = partitionId;
+      super(
+          FETCH_STAGE,
+          partitionId,
+          combiner == null ? mergeBuffers.get(partitionId) : combineBuffers.get(partitionId));
       this.sleepTime = initFetchSleepTime;
       this.recordBuffer = new RecordBuffer<>(partitionId);
-      this.nextQueue =
-          combiner == null ? mergeBuffers.get(partitionId) : combineBuffers.get(partitionId);
       this.serverInfos = shuffleServerInfoMap.get(partitionId);
       this.choose = serverInfos.size() - 1;
       this.client = createShuffleServerClient(serverInfos.get(choose));
-      setName("RecordsFetcher-" + partitionId);
     }
 
     private void nextShuffleServerInfo() {
@@ -473,154 +776,141 @@ public class RMRecordsReader<K, V, C> {
     }
 
     @Override
-    public void run() {
-      while (!stop) {
+    protected boolean process() throws Exception {
+      RssGetSortedShuffleDataRequest request =
+          new RssGetSortedShuffleDataRequest(
+              appId, shuffleId, partitionId, blockId, retryMax, retryIntervalMax);
+      RssGetSortedShuffleDataResponse response = client.getSortedShuffleData(request);
+      if (response.getStatusCode() != StatusCode.SUCCESS
+          || response.getMergeState() == MergeState.INTERNAL_ERROR.code()) {
+        fetchError = response.getMessage();
+        nextShuffleServerInfo();
+      } else if (response.getMergeState() == MergeState.INITED.code()) {
+        fetchError = "Remote merge should be started!";
+        nextShuffleServerInfo();
+      } else if (response.getMergeState() == MergeState.MERGING.code()
+          && response.getNextBlockId() == -1) {
+        // All merged data has been read, but there may be data that has not yet been merged. So
+        // retry later without holding a thread.
+        LOG.info("RMRecordsFetcher will retry after {} ms", sleepTime);
+        park();
+        executor.schedule(resumer(), sleepTime, TimeUnit.MILLISECONDS);
+        this.sleepTime = Math.min(this.sleepTime * 2, maxFetchSleepTime);
+        return false;
+      } else if (response.getMergeState() == MergeState.DONE.code()
+          && response.getNextBlockId() == -1) {
+        // All data has been read. Send the last records.
+        if (recordBuffer.size() > 0) {
+          emit(recordBuffer);
+        }
+        finished = true;
+      } else if (response.getMergeState() == MergeState.DONE.code()
+          || response.getMergeState() == MergeState.MERGING.code()) {
+        this.sleepTime = initFetchSleepTime;
+        blockId = response.getNextBlockId();
+        ManagedBuffer managedBuffer = null;
+        ByteBuf byteBuf = null;
+        RecordsReader<K, V> reader = null;
         try {
-          RssGetSortedShuffleDataRequest request =
-              new RssGetSortedShuffleDataRequest(
-                  appId, shuffleId, partitionId, blockId, retryMax, retryIntervalMax);
-          RssGetSortedShuffleDataResponse response = client.getSortedShuffleData(request);
-          if (response.getStatusCode() != StatusCode.SUCCESS
-              || response.getMergeState() == MergeState.INTERNAL_ERROR.code()) {
-            fetchError = response.getMessage();
-            nextShuffleServerInfo();
-            break;
-          } else if (response.getMergeState() == MergeState.INITED.code()) {
-            fetchError = "Remote merge should be started!";
-            nextShuffleServerInfo();
-            break;
-          }
-          if (response.getMergeState() == MergeState.MERGING.code()
-              && response.getNextBlockId() == -1) {
-            // All merged data has been read, but there may be data that has not yet been merged. So
-            // wait done!
-            LOG.info("RMRecordsFetcher will sleep {} ms", sleepTime);
-            Thread.sleep(this.sleepTime);
-            this.sleepTime = Math.min(this.sleepTime * 2, maxFetchSleepTime);
-          } else if (response.getMergeState() == MergeState.DONE.code()
-              && response.getNextBlockId() == -1) {
-            // All data has been read. Send the last records.
-            if (recordBuffer.size() > 0) {
-              nextQueue.put(recordBuffer);
+          managedBuffer = response.getData();
+          byteBuf = managedBuffer.byteBuf();
+          // Fetching and parsing a block run in the same task. Parsing ahead of the downstream
+          // queue is bounded by one response, which keeps the memory of each partition predictable.
+          reader =
+              new RecordsReader<>(
+                  rssConf,
+                  SerInputStream.newInputStream(byteBuf),
+                  keyClass,
+                  valueClass,
+                  raw,
+                  false);
+          reader.init();
+          while (reader.next()) {
+            if (metrics != null) {
+              metrics.incRecordsRead(1);
             }
-            nextQueue.setProducerDone(true);
-            break;
-          } else if (response.getMergeState() == MergeState.DONE.code()
-              || response.getMergeState() == MergeState.MERGING.code()) {
-            this.sleepTime = initFetchSleepTime;
-            blockId = response.getNextBlockId();
-            ManagedBuffer managedBuffer = null;
-            ByteBuf byteBuf = null;
-            RecordsReader<K, V> reader = null;
-            try {
-              managedBuffer = response.getData();
-              byteBuf = managedBuffer.byteBuf();
-              // Fetch blocks and parsing blocks are a synchronous process. If the two processes are
-              // split into two different threads, then will be asynchronous processes. Although it
-              // seems to save time, it actually consumes more memory.
-              reader =
-                  new RecordsReader<>(
-                      rssConf,
-                      SerInputStream.newInputStream(byteBuf),
-                      keyClass,
-                      valueClass,
-                      raw,
-                      false);
-              reader.init();
-              while (reader.next()) {
-                if (metrics != null) {
-                  metrics.incRecordsRead(1);
-                }
-                if (recordBuffer.size() >= maxRecordsNumPerBuffer) {
-                  nextQueue.put(recordBuffer);
-                  recordBuffer = new RecordBuffer<>(partitionId);
-                }
-                recordBuffer.addRecord(reader.getCurrentKey(), reader.getCurrentValue());
-              }
-            } finally {
-              if (reader != null) {
-                reader.close();
-              }
-              if (byteBuf != null) {
-                byteBuf.release();
-              }
-              if (managedBuffer != null) {
-                managedBuffer.release();
-              }
+            if (recordBuffer.size() >= maxRecordsNumPerBuffer) {
+              emit(recordBuffer);
+              recordBuffer = new RecordBuffer<>(partitionId);
             }
-          } else {
-            fetchError = "Receive wrong offset from server, offset is " + response.getNextBlockId();
-            nextShuffleServerInfo();
-            break;
+            recordBuffer.addRecord(reader.getCurrentKey(), reader.getCurrentValue());
+          }
+        } finally {
+          if (reader != null) {
+            reader.close();
+          }
+          if (byteBuf != null) {
+            byteBuf.release();
+          }
+          if (managedBuffer != null) {
+            managedBuffer.release();
           }
-        } catch (Throwable e) {
-          error = e;
-          stop = true;
-          LOG.info("Found exception when fetch sorted record, caused by ", e);
         }
+      } else {
+        fetchError = "Receive wrong offset from server, offset is " + response.getNextBlockId();
+        nextShuffleServerInfo();
       }
+      return true;
     }
   }
 
-  class RecordsCombiner extends Thread {
+  class RecordsCombiner extends StageTask {
 
-    private int partitionId;
     // The RecordBuffer has a capacity limit, records for the same key may be
     // distributed in different RecordBuffers. So we need a cachedBuffer used
     // to record the buffer of the last combine.
     private RecordBuffer<K, C> cached;
-    private Queue<RecordBuffer> nextQueue;
+    private Queue<RecordBuffer> inputQueue;
 
     RecordsCombiner(int partitionId) {
-      this.partitionId = partitionId;
+      super(COMBINE_STAGE, partitionId, mergeBuffers.get(partitionId));
       this.cached = new RecordBuffer<>(partitionId);
-      this.nextQueue = mergeBuffers.get(partitionId);
-      setName("RecordsCombiner-" + partitionId);
+      this.inputQueue = combineBuffers.get(partitionId);
     }
 
     @Override
-    public void run() {
-      while (!stop) {
-        try {
-          // 1 try to get RecordBuffer from RecordFetcher
-          RecordBuffer current = combineBuffers.get(partitionId).take();
-          // current is null means that all upstream data has been read
-          if (current == null) {
-            if (cached.size() > 0) {
-              sendCachedBuffer(cached);
-            }
-            nextQueue.setProducerDone(true);
-            break;
-          } else {
-            // 2 If the last key of cached is not same with the first key of current,
-            //   we can send the cached to downstream directly.
-            if (cached.size() > 0 && !isSameKey(cached.getLastKey(), current.getFirstKey())) {
-              sendCachedBuffer(cached);
-              cached = new RecordBuffer<>(partitionId);
-            }
+    protected boolean process() {
+      // 1 all upstream data has been read, send the cached records
+      if (inputQueue.isDrained()) {
+        if (cached.size() > 0) {
+          emit(combineCachedBuffer(cached));
+        }
+        finished = true;
+        return true;
+      }
 
-            // 3 combine the current, then cache it. By this way, we can handle the specical case
-            // that next record
-            // buffer has same key in current.
-            RecordBlob recordBlob = new RecordBlob<>(partitionId);
-            recordBlob.addRecords(current);
-            recordBlob.combine(combiner, isMapCombine);
-            for (Object record : recordBlob.getResult()) {
-              if (cached.size() >= maxRecordsNumPerBuffer
-                  && !isSameKey(((Record) record).getKey(), cached.getLastKey())) {
-                sendCachedBuffer(cached);
-                cached = new RecordBuffer<>(partitionId);
-              }
-              cached.addRecord((Record) record);
-            }
-          }
-        } catch (InterruptedException e) {
-          throw new RssException(e);
+      // 2 try to get RecordBuffer from RecordFetcher, park until it arrives
+      park();
+      RecordBuffer current = inputQueue.poll(resumer());
+      if (current == null) {
+        return false;
+      }
+      unpark();
+
+      // 3 If the last key of cached is not same with the first key of current,
+      //   we can send the cached to downstream directly.
+      if (cached.size() > 0 && !isSameKey(cached.getLastKey(), current.getFirstKey())) {
+        emit(combineCachedBuffer(cached));
+        cached = new RecordBuffer<>(partitionId);
+      }
+
+      // 4 combine the current, then cache it. By this way, we can handle the specical case
+      // that next record buffer has same key in current.
+      RecordBlob recordBlob = new RecordBlob<>(partitionId);
+      recordBlob.addRecords(current);
+      recordBlob.combine(combiner, isMapCombine);
+      for (Object record : recordBlob.getResult()) {
+        if (cached.size() >= maxRecordsNumPerBuffer
+            && !isSameKey(((Record) record).getKey(), cached.getLastKey())) {
+          emit(combineCachedBuffer(cached));
+          cached = new RecordBuffer<>(partitionId);
         }
+        cached.addRecord((Record) record);
       }
+      return true;
     }
 
-    private void sendCachedBuffer(RecordBuffer<K, C> cachedBuffer) throws InterruptedException {
+    private RecordBuffer combineCachedBuffer(RecordBuffer<K, C> cachedBuffer) {
       // Multiple records with the same key may span different recordbuffers. we were only combined
       // within the same recordbuffer. So before send to downstream, we should combine the cached.
       RecordBlob recordBlob = new RecordBlob<K, C, Object>(partitionId);
@@ -628,7 +918,7 @@ public class RMRecordsReader<K, V, C> {
       recordBlob.combine(combiner, true);
       RecordBuffer recordBuffer = new RecordBuffer<>(partitionId);
       recordBuffer.addRecords(recordBlob.getResult());
-      nextQueue.put(recordBuffer);
+      return recordBuffer;
     }
   }
 
@@ -676,8 +966,10 @@ public class RMRecordsReader<K, V, C> {
           results.setProducerDone(true);
         }
       } catch (InterruptedException | IOException e) {
-        error = e;
-        stop = true;
+        fail(e);
+      } finally {
+        // All fetchers and combiners have completed or failed once the merger exits.
+        executor.shutdownNow();
       }
     }
   }
@@ -19,20 +19,22 @@ package org.apache.uniffle.client.response;
 
 import java.util.Set;
 
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
 import org.apache.uniffle.client.impl.FailedBlockSendTracker;
 
 public class SendShuffleDataResult {
 
-  private Set<Long> successBlockIds;
+  private Roaring64NavigableMap successBlockIds;
   private FailedBlockSendTracker failedBlockSendTracker;
 
   public SendShuffleDataResult(
-      Set<Long> successBlockIds, FailedBlockSendTracker failedBlockSendTracker) {
+      Roaring64NavigableMap successBlockIds, FailedBlockSendTracker failedBlockSendTracker) {
     this.successBlockIds = successBlockIds;
     this.failedBlockSendTracker = failedBlockSendTracker;
   }
 
-  public Set<Long> getSuccessBlockIds() {
+  public Roaring64NavigableMap getSuccessBlockIds() {
     return successBlockIds;
   }
 
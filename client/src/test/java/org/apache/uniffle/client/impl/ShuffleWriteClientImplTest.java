@@ -18,7 +18,9 @@
 package org.apache.uniffle.client.impl;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
@@ -35,6 +37,7 @@ import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
 import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
+import org.apache.uniffle.client.PartitionDataReplicaRequirementTracking;
 import org.apache.uniffle.client.api.ShuffleServerClient;
 import org.apache.uniffle.client.factory.ShuffleClientFactory;
 import org.apache.uniffle.client.response.RssGetShuffleResultResponse;
@@ -387,4 +390,66 @@ public class ShuffleWriteClientImplTest {
         .getShuffleResult(argThat(request -> request.getBlockIdLayout().equals(layout)));
     assertArrayEquals(result.stream().sorted().toArray(), new long[] {1L, 2L, 5L});
   }
+
+  @Test
+  public void testGetShuffleResultForMultiPart() throws Exception {
+    ShuffleWriteClientImpl shuffleWriteClient =
+        ShuffleClientFactory.newWriteBuilder()
+            .clientType(ClientType.GRPC.name())
+            .retryMax(3)
+            .retryIntervalMax(2000)
+            .heartBeatThreadNum(4)
+            .replica(3)
+            .replicaWrite(2)
+            .replicaRead(2)
+            .replicaSkipEnabled(true)
+            .dataTransferPoolSize(1)
+            .dataCommitPoolSize(1)
+            .unregisterThreadPoolSize(10)
+            .unregisterTimeSec(10)
+            .unregisterRequestTimeSec(10)
+            .build();
+    ShuffleServerInfo ssi1 = new ShuffleServerInfo("id1", "host1", 0);
+    ShuffleServerInfo ssi2 = new ShuffleServerInfo("id2", "host2", 0);
+    ShuffleServerInfo ssi3 = new ShuffleServerInfo("id3", "host3", 0);
+    ShuffleServerClient failedClient = mock(ShuffleServerClient.class);
+    when(failedClient.getShuffleResultForMultiPart(any())).thenThrow(new RssException("failed"));
+    ShuffleServerClient client2 = mock(ShuffleServerClient.class);
+    when(client2.getShuffleResultForMultiPart(any()))
+        .thenReturn(
+            new RssGetShuffleResultResponse(
+                StatusCode.SUCCESS, RssUtils.serializeBitMap(Roaring64NavigableMap.bitmapOf(1L))));
+    ShuffleServerClient client3 = mock(ShuffleServerClient.class);
+    when(client3.getShuffleResultForMultiPart(any()))
+        .thenReturn(
+            new RssGetShuffleResultResponse(
+                StatusCode.SUCCESS, RssUtils.serializeBitMap(Roaring64NavigableMap.bitmapOf(2L))));
+    ShuffleWriteClientImpl spyClient = Mockito.spy(shuffleWriteClient);
+    doReturn(failedClient).when(spyClient).getShuffleServerClient(ssi1);
+    doReturn(client2).when(spyClient).getShuffleServerClient(ssi2);
+    doReturn(client3).when(spyClient).getShuffleServerClient(ssi3);
+
+    Map<ShuffleServerInfo, Set<Integer>> serverToPartitions = new LinkedHashMap<>();
+    serverToPartitions.put(ssi1, Sets.newHashSet(0, 1));
+    serverToPartitions.put(ssi2, Sets.newHashSet(0, 1));
+    serverToPartitions.put(ssi3, Sets.newHashSet(0, 1));
+    Map<Integer, List<ShuffleServerInfo>> partitionToServers = Maps.newHashMap();
+    partitionToServers.put(0, Lists.newArrayList(ssi1, ssi2, ssi3));
+    partitionToServers.put(1, Lists.newArrayList(ssi1, ssi2, ssi3));
+    Set<Integer> failedPartitions = Sets.newHashSet();
+    Roaring64NavigableMap result =
+        spyClient.getShuffleResultForMultiPart(
+            "GRPC",
+            serverToPartitions,
+            "appId",
+            1,
+            failedPartitions,
+            new PartitionDataReplicaRequirementTracking(partitionToServers, 1));
+
+    assertArrayEquals(new long[] {1L, 2L}, result.stream().sorted().toArray());
+    assertEquals(Sets.newHashSet(0, 1), failedPartitions);
+    // the third server is only asked after the first one failed
+    verify(client3).getShuffleResultForMultiPart(any());
+    spyClient.close();
+  }
 }
@@ -20,32 +20,46 @@ package org.apache.uniffle.client.record.reader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import org.apache.uniffle.client.api.ShuffleServerClient;
 import org.apache.uniffle.client.record.Record;
+import org.apache.uniffle.client.record.metrics.MetricsReporter;
 import org.apache.uniffle.client.record.writer.Combiner;
 import org.apache.uniffle.client.record.writer.SumByKeyCombiner;
+import org.apache.uniffle.client.request.RssGetSortedShuffleDataRequest;
+import org.apache.uniffle.client.response.RssGetSortedShuffleDataResponse;
 import org.apache.uniffle.common.ShuffleServerInfo;
 import org.apache.uniffle.common.config.RssConf;
+import org.apache.uniffle.common.merger.MergeState;
 import org.apache.uniffle.common.merger.Merger;
 import org.apache.uniffle.common.merger.Segment;
+import org.apache.uniffle.common.netty.buffer.NettyManagedBuffer;
+import org.apache.uniffle.common.rpc.StatusCode;
 import org.apache.uniffle.common.serializer.DynBufferSerOutputStream;
 import org.apache.uniffle.common.serializer.SerOutputStream;
 import org.apache.uniffle.common.serializer.SerializerFactory;
 import org.apache.uniffle.common.serializer.SerializerInstance;
 import org.apache.uniffle.common.serializer.SerializerUtils;
 
+import static org.apache.uniffle.common.config.RssClientConf.RSS_CLIENT_REMOTE_MERGE_FETCH_INIT_SLEEP_MS;
+import static org.apache.uniffle.common.config.RssClientConf.RSS_CLIENT_REMOTE_MERGE_READER_THREADS;
 import static org.apache.uniffle.common.serializer.SerializerUtils.genSortedRecordBuffer;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
@@ -343,4 +357,110 @@ public class RMRecordsReaderTest {
     assertEquals(RECORDS_NUM * 6, index);
     Arrays.stream(buffers).forEach(bs -> Arrays.stream(bs).forEach(b -> b.release()));
   }
+
+  @Timeout(30)
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testReadWhileMergingWithSharedThread(boolean withCombine) throws Exception {
+    // 1 basic parameter
+    final Class keyClass = Text.class;
+    final Class valueClass = IntWritable.class;
+    final Comparator comparator = SerializerUtils.getComparator(keyClass);
+    final RssConf rssConf = new RssConf();
+    final Combiner combiner =
+        withCombine
+            ? new SumByKeyCombiner(
+                false,
+                new SerializerFactory(rssConf).getSerializer(keyClass).newInstance(),
+                keyClass,
+                valueClass)
+            : null;
+    // All fetchers and combiners share one thread and the server merge is not ready at first.
+    rssConf.set(RSS_CLIENT_REMOTE_MERGE_READER_THREADS, 1);
+    rssConf.set(RSS_CLIENT_REMOTE_MERGE_FETCH_INIT_SLEEP_MS, 10);
+    final List<ShuffleServerInfo> serverInfos = new ArrayList<>();
+    serverInfos.add(new ShuffleServerInfo("dummy", -1));
+    final int partitionNum = 3;
+    Map<Integer, List<ShuffleServerInfo>> serverInfoMap = new HashMap<>();
+    for (int i = 0; i < partitionNum; i++) {
+      serverInfoMap.put(i, serverInfos);
+    }
+
+    // 2 construct reader
+    Map<String, Long> waitTimes = new ConcurrentHashMap<>();
+    Map<String, Integer> maxQueueDepths = new ConcurrentHashMap<>();
+    MetricsReporter metrics =
+        new MetricsReporter() {
+          @Override
+          public void incRecordsRead(long v) {}
+
+          @Override
+          public void updateQueueDepth(String stage, int depth) {
+            maxQueueDepths.merge(stage, depth, Math::max);
+          }
+
+          @Override
+          public void incWaitTimeMs(String stage, long waitMs) {
+            waitTimes.merge(stage, waitMs, Long::sum);
+          }
+        };
+    RMRecordsReader reader =
+        new RMRecordsReader(
+            APP_ID,
+            SHUFFLE_ID,
+            serverInfoMap.keySet(),
+            serverInfoMap,
+            rssConf,
+            keyClass,
+            valueClass,
+            comparator,
+            false,
+            combiner,
+            false,
+            metrics);
+    RMRecordsReader readerSpy = spy(reader);
+    ByteBuf[][] buffers = new ByteBuf[partitionNum][1];
+    for (int i = 0; i < partitionNum; i++) {
+      buffers[i][0] =
+          genSortedRecordBuffer(rssConf, keyClass, valueClass, i, partitionNum, RECORDS_NUM, 1);
+    }
+    Map<Integer, Integer> mergingRounds = new ConcurrentHashMap<>();
+    ShuffleServerClient serverClient =
+        new MockedShuffleServerClient(new int[] {0, 1, 2}, buffers, null) {
+          @Override
+          public RssGetSortedShuffleDataResponse getSortedShuffleData(
+              RssGetSortedShuffleDataRequest request) {
+            if (mergingRounds.merge(request.getPartitionId(), 1, Integer::sum) <= 2) {
+              return new RssGetSortedShuffleDataResponse(
+                  StatusCode.SUCCESS,
+                  "",
+                  new NettyManagedBuffer(Unpooled.buffer(0)),
+                  -1,
+                  MergeState.MERGING.code());
+            }
+            return super.getSortedShuffleData(request);
+          }
+        };
+    doReturn(serverClient).when(readerSpy).createShuffleServerClient(any());
+
+    // 3 run reader and verify result
+    readerSpy.start();
+    int index = 0;
+    KeyValueReader keyValueReader = readerSpy.keyValueReader();
+    while (keyValueReader.hasNext()) {
+      Record record = keyValueReader.next();
+      assertEquals(SerializerUtils.genData(keyClass, index), record.getKey());
+      assertEquals(SerializerUtils.genData(valueClass, index), record.getValue());
+      index++;
+    }
+    assertEquals(RECORDS_NUM * partitionNum, index);
+    assertTrue(waitTimes.getOrDefault(RMRecordsReader.FETCH_STAGE, 0L) >= 10);
+    assertTrue(maxQueueDepths.get(RMRecordsReader.MERGE_STAGE) > 0);
+    assertTrue(maxQueueDepths.get(RMRecordsReader.RESULT_STAGE) > 0);
+    if (withCombine) {
+      assertTrue(maxQueueDepths.get(RMRecordsReader.COMBINE_STAGE) > 0);
+    }
+    readerSpy.close();
+    Arrays.stream(buffers).forEach(bs -> Arrays.stream(bs).forEach(b -> b.release()));
+  }
 }
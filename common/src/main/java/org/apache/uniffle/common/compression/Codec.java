@@ -18,8 +18,12 @@
 package org.apache.uniffle.common.compression;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Optional;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
 import org.apache.uniffle.common.config.RssConf;
 
 import static org.apache.uniffle.common.config.RssClientConf.COMPRESSION_TYPE;
@@ -52,6 +56,17 @@ public abstract class Codec {
   public abstract void decompress(
       ByteBuffer src, int uncompressedLen, ByteBuffer dest, int destOffset);
 
+  /**
+   * Decompresses the readable bytes of src into dest at its writer index, which is advanced by
+   * uncompressedLen. Both buffers should be direct or both on heap, like the ByteBuffer variant.
+   */
+  public void decompress(ByteBuf src, int uncompressedLen, ByteBuf dest) {
+    dest.ensureWritable(uncompressedLen);
+    int writerIndex = dest.writerIndex();
+    decompress(src.nioBuffer(), uncompressedLen, dest.nioBuffer(writerIndex, uncompressedLen), 0);
+    dest.writerIndex(writerIndex + uncompressedLen);
+  }
+
   /** Compress bytes into a byte array. */
   public abstract byte[] compress(byte[] src);
 
@@ -62,6 +77,90 @@ public abstract class Codec {
    */
   public abstract int compress(ByteBuffer src, ByteBuffer dest);
 
+  /**
+   * Compresses the readable bytes of the chunks as one block into a buffer from the allocator. The
+   * result can be decompressed by {@link #decompress(ByteBuffer, int, ByteBuffer, int)} like the
+   * output of the other compress methods. The output is direct if all chunks are direct. The chunks
+   * are neither released nor consumed, the caller owns the returned buffer.
+   */
+  public ByteBuf compress(List<ByteBuf> chunks, ByteBufAllocator allocator) {
+    final int length = readableBytes(chunks);
+    final boolean direct = isDirect(chunks);
+    ByteBuf src = merge(chunks, length, direct, allocator);
+    ByteBuf dest = allocate(allocator, direct, maxCompressedLength(length));
+    try {
+      int compressedLength =
+          compress(src.nioBuffer(src.readerIndex(), length), dest.nioBuffer(0, dest.capacity()));
+      dest.writerIndex(compressedLength);
+      return dest;
+    } catch (Throwable e) {
+      dest.release();
+      throw e;
+    } finally {
+      if (chunks.size() != 1 || src != chunks.get(0)) {
+        src.release();
+      }
+    }
+  }
+
+  /**
+   * Whether {@link #compress(List, ByteBufAllocator)} copies the chunks into a contiguous buffer
+   * before compressing them, so the callers can merge and account the copy by themselves.
+   */
+  public boolean mergesChunks(List<ByteBuf> chunks) {
+    return !(chunks.size() == 1 && chunks.get(0).nioBufferCount() == 1);
+  }
+
+  protected static int readableBytes(List<ByteBuf> chunks) {
+    int length = 0;
+    for (ByteBuf chunk : chunks) {
+      length += chunk.readableBytes();
+    }
+    return length;
+  }
+
+  protected static boolean isDirect(List<ByteBuf> chunks) {
+    for (ByteBuf chunk : chunks) {
+      if (!chunk.isDirect()) {
+        return false;
+      }
+    }
+    return !chunks.isEmpty();
+  }
+
+  protected static ByteBuf allocate(ByteBufAllocator allocator, boolean direct, int capacity) {
+    return direct ? allocator.directBuffer(capacity) : allocator.heapBuffer(capacity);
+  }
+
+  // The block codecs need a contiguous input, so multiple chunks are merged into a pooled buffer.
+  private static ByteBuf merge(
+      List<ByteBuf> chunks, int length, boolean direct, ByteBufAllocator allocator) {
+    if (chunks.size() == 1 && chunks.get(0).nioBufferCount() == 1) {
+      return chunks.get(0);
+    }
+    ByteBuf merged = allocate(allocator, direct, length);
+    for (ByteBuf chunk : chunks) {
+      merged.writeBytes(chunk, chunk.readerIndex(), chunk.readableBytes());
+    }
+    return merged;
+  }
+
+  /**
+   * Returns a codec which compresses with the given trained dictionary and decompresses the blocks
+   * compressed with it. The codecs which don't support dictionaries return themselves.
+   */
+  public Codec withDictionary(byte[] dictionary) {
+    return this;
+  }
+
+  /**
+   * Returns a codec which only decompresses the blocks compressed with the given trained
+   * dictionary, so the readers don't prepare the dictionary for compression.
+   */
+  public Codec withDecompressionDictionary(byte[] dictionary) {
+    return withDictionary(dictionary);
+  }
+
   /**
    * maximum size of the compressed data
    *
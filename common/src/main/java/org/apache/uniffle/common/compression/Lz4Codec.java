@@ -41,6 +41,18 @@ public class Lz4Codec extends Codec {
 
   @Override
   public void decompress(ByteBuffer src, int uncompressedLen, ByteBuffer dest, int destOffset) {
+    if (src.hasArray() && dest.hasArray()) {
+      // the ByteBuffer variant ignores the array offset of the sliced heap buffers
+      lz4Factory
+          .fastDecompressor()
+          .decompress(
+              src.array(),
+              src.arrayOffset() + src.position(),
+              dest.array(),
+              dest.arrayOffset() + destOffset,
+              uncompressedLen);
+      return;
+    }
     lz4Factory
         .fastDecompressor()
         .decompress(src, src.position(), dest, destOffset, uncompressedLen);
@@ -55,6 +67,20 @@ public class Lz4Codec extends Codec {
   public int compress(ByteBuffer src, ByteBuffer dest) {
     try {
       int destOff = dest.position();
+      if (src.hasArray() && dest.hasArray()) {
+        int compressedLength =
+            lz4Factory
+                .fastCompressor()
+                .compress(
+                    src.array(),
+                    src.arrayOffset() + src.position(),
+                    src.remaining(),
+                    dest.array(),
+                    dest.arrayOffset() + destOff,
+                    dest.remaining());
+        dest.position(destOff + compressedLength);
+        return compressedLength;
+      }
       lz4Factory.fastCompressor().compress(src.duplicate(), dest);
       return dest.position() - destOff;
     } catch (Exception e) {
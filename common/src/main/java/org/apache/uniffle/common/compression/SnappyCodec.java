@@ -41,10 +41,10 @@ public class SnappyCodec extends Codec {
         int size =
             Snappy.uncompress(
                 src.array(),
-                src.position(),
+                src.arrayOffset() + src.position(),
                 src.limit() - src.position(),
                 dest.array(),
-                destOffset);
+                dest.arrayOffset() + destOffset);
         if (size != uncompressedLen) {
           throw new RssException(
               "This should not happen that the decompressed data size is not equals to original size.");
@@ -95,10 +95,10 @@ public class SnappyCodec extends Codec {
         int compressedSize =
             Snappy.compress(
                 src.array(),
-                src.position(),
+                src.arrayOffset() + src.position(),
                 src.limit() - src.position(),
                 dest.array(),
-                dest.position());
+                dest.arrayOffset() + dest.position());
         dest.position(destOff + compressedSize);
         return compressedSize;
       }
@@ -18,9 +18,17 @@
 package org.apache.uniffle.common.compression;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
+import com.github.luben.zstd.EndDirective;
 import com.github.luben.zstd.Zstd;
 import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.google.common.annotations.VisibleForTesting;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,8 +41,29 @@ import static org.apache.uniffle.common.config.RssClientConf.ZSTD_COMPRESSION_WO
 public class ZstdCodec extends Codec {
   private static final Logger LOGGER = LoggerFactory.getLogger(ZstdCodec.class);
 
+  private static final int MAGIC_NUMBER = 0xFD2FB528;
+  private static final int[] DICTIONARY_ID_SIZES = {0, 1, 2, 4};
+
   private int compressionLevel;
   private int workerNumber;
+  // the trained dictionary, which is null for the shared instance, dictCompress is also null for
+  // the instance which only decompresses
+  private final ZstdDictCompress dictCompress;
+  private final ZstdDictDecompress dictDecompress;
+
+  private ZstdCodec() {
+    this.dictCompress = null;
+    this.dictDecompress = null;
+  }
+
+  private ZstdCodec(
+      int compressionLevel, int workerNumber, byte[] dictionary, boolean compressWithDictionary) {
+    this.compressionLevel = compressionLevel;
+    this.workerNumber = workerNumber;
+    this.dictCompress =
+        compressWithDictionary ? new ZstdDictCompress(dictionary, compressionLevel) : null;
+    this.dictDecompress = new ZstdDictDecompress(dictionary);
+  }
 
   private static class LazyHolder {
     static final ZstdCodec INSTANCE = new ZstdCodec();
@@ -46,12 +75,84 @@ public class ZstdCodec extends Codec {
     return LazyHolder.INSTANCE;
   }
 
+  // The native contexts are reused by each thread instead of being created for every block.
+  private static final ThreadLocal<ZstdCompressCtx> COMPRESS_CTX =
+      ThreadLocal.withInitial(ZstdCompressCtx::new);
+  private static final ThreadLocal<ZstdDecompressCtx> DECOMPRESS_CTX =
+      ThreadLocal.withInitial(ZstdDecompressCtx::new);
+  private static final ByteBuffer EMPTY = ByteBuffer.allocateDirect(0);
+
+  private ZstdCompressCtx compressCtx() {
+    ZstdCompressCtx ctx = COMPRESS_CTX.get();
+    ctx.reset();
+    ctx.setLevel(compressionLevel);
+    if (workerNumber > 0) {
+      ctx.setWorkers(workerNumber);
+    }
+    if (dictCompress != null) {
+      ctx.loadDict(dictCompress);
+    }
+    return ctx;
+  }
+
+  // The frames without a dictionary id must be decompressed without the dictionary, because the
+  // dictionary also changes the initial state of the decoder.
+  private ZstdDecompressCtx decompressCtx(ByteBuffer src) {
+    ZstdDecompressCtx ctx = DECOMPRESS_CTX.get();
+    ctx.reset();
+    if (dictDecompress != null && getDictionaryId(src) != 0) {
+      ctx.loadDict(dictDecompress);
+    }
+    return ctx;
+  }
+
+  /** Reads the dictionary id from the frame header, returns 0 if the frame has no dictionary id. */
+  @VisibleForTesting
+  static long getDictionaryId(ByteBuffer frame) {
+    int position = frame.position();
+    if (frame.remaining() < 5 || readLittleEndian(frame, position, 4) != MAGIC_NUMBER) {
+      return 0;
+    }
+    int descriptor = frame.get(position + 4) & 0xFF;
+    boolean singleSegment = (descriptor & 0x20) != 0;
+    int dictionaryIdSize = DICTIONARY_ID_SIZES[descriptor & 0x3];
+    int offset = position + 5 + (singleSegment ? 0 : 1);
+    if (dictionaryIdSize == 0 || frame.limit() < offset + dictionaryIdSize) {
+      return 0;
+    }
+    return readLittleEndian(frame, offset, dictionaryIdSize) & 0xFFFFFFFFL;
+  }
+
+  private static int readLittleEndian(ByteBuffer buffer, int offset, int size) {
+    int value = 0;
+    for (int i = 0; i < size; i++) {
+      value |= (buffer.get(offset + i) & 0xFF) << (8 * i);
+    }
+    return value;
+  }
+
+  @Override
+  public Codec withDictionary(byte[] dictionary) {
+    return new ZstdCodec(compressionLevel, workerNumber, dictionary, true);
+  }
+
+  @Override
+  public Codec withDecompressionDictionary(byte[] dictionary) {
+    return new ZstdCodec(compressionLevel, workerNumber, dictionary, false);
+  }
+
   @Override
   public void decompress(ByteBuffer src, int uncompressedLen, ByteBuffer dst, int dstOffset) {
     if (src.isDirect() && dst.isDirect()) {
       long size =
-          Zstd.decompressDirectByteBuffer(
-              dst, dstOffset, uncompressedLen, src, src.position(), src.limit() - src.position());
+          decompressCtx(src)
+              .decompressDirectByteBuffer(
+                  dst,
+                  dstOffset,
+                  uncompressedLen,
+                  src,
+                  src.position(),
+                  src.limit() - src.position());
       if (size != uncompressedLen) {
         throw new RssException(
             "This should not happen that the decompressed data size is not equals to original size.");
@@ -60,13 +161,14 @@ public class ZstdCodec extends Codec {
     }
 
     if (!src.isDirect() && !dst.isDirect()) {
-      Zstd.decompressByteArray(
-          dst.array(),
-          dstOffset,
-          uncompressedLen,
-          src.array(),
-          src.position(),
-          src.limit() - src.position());
+      decompressCtx(src)
+          .decompressByteArray(
+              dst.array(),
+              dst.arrayOffset() + dstOffset,
+              uncompressedLen,
+              src.array(),
+              src.arrayOffset() + src.position(),
+              src.limit() - src.position());
       return;
     }
 
@@ -76,36 +178,32 @@ public class ZstdCodec extends Codec {
 
   @Override
   public byte[] compress(byte[] src) {
-    ZstdCompressCtx ctx = new ZstdCompressCtx();
-    try {
-      ctx.setLevel(compressionLevel);
-      if (workerNumber > 0) {
-        ctx.setWorkers(workerNumber);
-      }
-      return ctx.compress(src);
-    } finally {
-      ctx.close();
-    }
+    return compressCtx().compress(src);
   }
 
   @Override
   public int compress(ByteBuffer src, ByteBuffer dest) {
     try {
       if (src.isDirect() && dest.isDirect()) {
-        return Zstd.compress(dest, src.duplicate(), compressionLevel);
+        int destOff = dest.position();
+        int compressedSize =
+            compressCtx()
+                .compressDirectByteBuffer(
+                    dest, destOff, dest.remaining(), src, src.position(), src.remaining());
+        dest.position(destOff + compressedSize);
+        return compressedSize;
       }
       if (!src.isDirect() && !dest.isDirect()) {
         int destOff = dest.position();
         int compressedSize =
-            (int)
-                Zstd.compressByteArray(
+            compressCtx()
+                .compressByteArray(
                     dest.array(),
-                    dest.position(),
+                    dest.arrayOffset() + dest.position(),
                     dest.remaining(),
                     src.array(),
-                    src.position(),
-                    src.remaining(),
-                    compressionLevel);
+                    src.arrayOffset() + src.position(),
+                    src.remaining());
         dest.position(destOff + compressedSize);
         return compressedSize;
       }
@@ -115,6 +213,54 @@ public class ZstdCodec extends Codec {
     throw new IllegalStateException("Zstd only supports the same type of bytebuffer compression.");
   }
 
+  /**
+   * Direct chunks are fed to one streaming frame, so they don't need to be merged first. The frame
+   * records the content size and is decoded by the one-shot decompression.
+   */
+  @Override
+  public ByteBuf compress(List<ByteBuf> chunks, ByteBufAllocator allocator) {
+    if (!isDirect(chunks)) {
+      return super.compress(chunks, allocator);
+    }
+    final int length = readableBytes(chunks);
+    ByteBuf dest = allocator.directBuffer(maxCompressedLength(length));
+    try {
+      ZstdCompressCtx ctx = compressCtx();
+      ctx.setPledgedSrcSize(length);
+      ByteBuffer destBuffer = dest.nioBuffer(0, dest.capacity());
+      for (ByteBuf chunk : chunks) {
+        for (ByteBuffer src : chunk.nioBuffers()) {
+          while (src.hasRemaining()) {
+            checkRemaining(destBuffer);
+            ctx.compressDirectByteBufferStream(destBuffer, src, EndDirective.CONTINUE);
+          }
+        }
+      }
+      while (!ctx.compressDirectByteBufferStream(destBuffer, EMPTY, EndDirective.END)) {
+        checkRemaining(destBuffer);
+      }
+      dest.writerIndex(destBuffer.position());
+      return dest;
+    } catch (Throwable e) {
+      dest.release();
+      if (e instanceof RssException) {
+        throw e;
+      }
+      throw new RssException("Failed to compress by Zstd", e);
+    }
+  }
+
+  @Override
+  public boolean mergesChunks(List<ByteBuf> chunks) {
+    return !isDirect(chunks) && super.mergesChunks(chunks);
+  }
+
+  private static void checkRemaining(ByteBuffer destBuffer) {
+    if (!destBuffer.hasRemaining()) {
+      throw new RssException("The compressed data exceeds the bound of Zstd");
+    }
+  }
+
   @Override
   public int maxCompressedLength(int sourceLength) {
     return (int) Zstd.compressBound(sourceLength);
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.common.compression;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Samples the uncompressed blocks until enough data is collected, then trains a Zstd dictionary
+ * from them. The dictionary helps the small blocks, which are compressed independently and don't
+ * have enough data of their own to find the repetitions.
+ */
+public class ZstdDictionarySampler {
+  private static final Logger LOG = LoggerFactory.getLogger(ZstdDictionarySampler.class);
+
+  // the trainer works better with many small samples than with a few large ones
+  private static final int MAX_SAMPLE_LENGTH = 16 * 1024;
+
+  private final int sampleSize;
+  private final int dictionarySize;
+  private final ZstdDictTrainer trainer;
+  private int sampledBytes = 0;
+
+  public ZstdDictionarySampler(int sampleSize, int dictionarySize) {
+    this.sampleSize = sampleSize;
+    this.dictionarySize = dictionarySize;
+    this.trainer = new ZstdDictTrainer(sampleSize, dictionarySize);
+  }
+
+  /**
+   * Adds the readable bytes of the block as samples without consuming them. Returns true once
+   * enough samples are collected, the remaining bytes are ignored then.
+   */
+  public boolean addSample(ByteBuf block) {
+    int index = block.readerIndex();
+    int end = block.writerIndex();
+    while (index < end && !isFull()) {
+      int length = Math.min(Math.min(end - index, MAX_SAMPLE_LENGTH), sampleSize - sampledBytes);
+      byte[] sample = new byte[length];
+      block.getBytes(index, sample);
+      trainer.addSample(sample);
+      sampledBytes += length;
+      index += length;
+    }
+    return isFull();
+  }
+
+  public boolean isFull() {
+    return sampledBytes >= sampleSize;
+  }
+
+  /** Trains the dictionary from the samples, returns null if the samples are not suitable. */
+  public byte[] train() {
+    long start = System.currentTimeMillis();
+    try {
+      byte[] dictionary = trainer.trainSamples();
+      LOG.info(
+          "Trained the Zstd dictionary of {} bytes from {} bytes samples in {} ms",
+          dictionary.length,
+          sampledBytes,
+          System.currentTimeMillis() - start);
+      return dictionary;
+    } catch (Exception e) {
+      LOG.warn(
+          "Failed to train the Zstd dictionary of {} bytes from {} bytes samples",
+          dictionarySize,
+          sampledBytes,
+          e);
+      return null;
+    }
+  }
+}
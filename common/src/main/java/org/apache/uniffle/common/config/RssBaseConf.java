@@ -335,7 +335,11 @@ public class RssBaseConf extends RssConf {
       ConfigOptions.key("rss.storage.localFileWriterClass")
           .stringType()
           .defaultValue("org.apache.uniffle.storage.handler.impl.LocalFileWriter")
-          .withDescription("The writer class to write shuffle data for LOCALFILE.");
+          .withDescription(
+              "The writer class to write shuffle data for LOCALFILE. "
+                  + "org.apache.uniffle.storage.handler.impl.LocalFileGatheringWriter writes "
+                  + "the blocks of a flush event by gathering writes without copying them "
+                  + "into heap, and writes the index by a direct buffer.");
 
   public static final ConfigOption<String> RSS_STORAGE_HDFS_WRITE_DATA_BUFFER_SIZE =
       ConfigOptions.key("rss.storage.hdfs.write.dataBufferSize")
@@ -349,6 +353,14 @@ public class RssBaseConf extends RssConf {
           .defaultValue("8k")
           .withDescription("The buffer size to cache the write index content for HDFS.");
 
+  public static final ConfigOption<Boolean> RSS_MERGE_LOSER_TREE_ENABLED =
+      ConfigOptions.key("rss.merge.loserTree.enabled")
+          .booleanType()
+          .defaultValue(true)
+          .withDescription(
+              "Whether to merge the sorted segments by a loser tree, which needs about half the "
+                  + "key comparisons of a binary heap for each record.");
+
   public boolean loadConfFromFile(String fileName, List<ConfigOption<Object>> configOptions) {
     Map<String, String> properties = RssUtils.getPropertiesFromFile(fileName);
     if (properties == null) {
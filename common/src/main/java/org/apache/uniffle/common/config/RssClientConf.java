@@ -25,6 +25,7 @@ import org.apache.uniffle.common.ShuffleDataDistributionType;
 import org.apache.uniffle.common.compression.Codec;
 import org.apache.uniffle.common.netty.IOMode;
 import org.apache.uniffle.common.util.BlockIdLayout;
+import org.apache.uniffle.common.util.ChecksumUtils;
 
 import static org.apache.uniffle.common.compression.Codec.Type.LZ4;
 
@@ -47,6 +48,15 @@ public class RssClientConf {
               "The compression codec is used to compress the shuffle data. "
                   + "Default codec is `LZ4`. Other options are`ZSTD` and `SNAPPY`.");
 
+  public static final ConfigOption<ChecksumUtils.Type> CHECKSUM_TYPE =
+      ConfigOptions.key("rss.client.checksum.type")
+          .enumType(ChecksumUtils.Type.class)
+          .defaultValue(ChecksumUtils.Type.CRC32)
+          .withDescription(
+              "The checksum algorithm of the shuffle blocks, it must be the same for the writers "
+                  + "and readers of an application. Default is `CRC32`. Other options are "
+                  + "`CRC32C` and `XXHASH64`.");
+
   public static final ConfigOption<Integer> ZSTD_COMPRESSION_LEVEL =
       ConfigOptions.key("rss.client.io.compression.zstd.level")
           .intType()
@@ -310,6 +320,14 @@ public class RssClientConf {
           .defaultValue(500)
           .withDescription("the max size of records per buffer when fetch remote merge records");
 
+  public static final ConfigOption<Integer> RSS_CLIENT_REMOTE_MERGE_READER_THREADS =
+      ConfigOptions.key("rss.client.remote.merge.reader.threads")
+          .intType()
+          .defaultValue(4)
+          .withDescription(
+              "the number of threads shared by the fetch and combine stages of all partitions "
+                  + "when fetch remote merge records");
+
   public static final ConfigOption<List<String>> RSS_CLIENT_EXTRA_JAVA_SYSTEM_PROPERTIES =
       ConfigOptions.key("rss.client.extraJavaSystemProperties")
           .stringType()
@@ -357,9 +375,68 @@ public class RssClientConf {
           .defaultValue(4)
           .withDescription("Read prefetch capacity");
 
+  public static final ConfigOption<Integer> RSS_CLIENT_PREFETCH_THREADS =
+      ConfigOptions.key("rss.client.read.prefetch.threads")
+          .intType()
+          .checkValue(ConfigUtils.POSITIVE_INTEGER_VALIDATOR_2, "prefetch threads must be positive")
+          .defaultValue(8)
+          .withDescription(
+              "The number of threads to prefetch shuffle data, which are shared by all the "
+                  + "readers with the same number in the same JVM");
+
   public static final ConfigOption<Integer> READ_CLIENT_PREFETCH_TIMEOUT_SEC =
       ConfigOptions.key("rss.client.read.prefetch.timeoutSec")
           .intType()
           .defaultValue(120)
           .withDescription("Read prefetch timeout seconds");
+
+  public static final ConfigOption<Boolean> RSS_CLIENT_READ_COALESCE_ENABLED =
+      ConfigOptions.key("rss.client.read.coalesce.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription(
+              "Whether to plan the reads of localfile and hadoop storage at block granularity, "
+                  + "skipping unexpected and processed blocks and merging nearby ranges");
+
+  public static final ConfigOption<Long> RSS_CLIENT_READ_COALESCE_MAX_GAP =
+      ConfigOptions.key("rss.client.read.coalesce.maxGap")
+          .longType()
+          .checkValue(ConfigUtils.NON_NEGATIVE_LONG_VALIDATOR, "max gap must be non-negative")
+          .defaultValue(1024 * 1024L)
+          .withDescription(
+              "The max bytes of unwanted data that may be read to merge two nearby ranges "
+                  + "into one read when coalescing is enabled");
+
+  public static final ConfigOption<Boolean> RSS_CLIENT_READ_HEDGE_ENABLED =
+      ConfigOptions.key("rss.client.read.hedge.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription(
+              "Whether to read the next replica as well when a read from the current replica "
+                  + "is slow, the first non-empty result will be used");
+
+  public static final ConfigOption<Double> RSS_CLIENT_READ_HEDGE_PERCENTILE =
+      ConfigOptions.key("rss.client.read.hedge.percentile")
+          .doubleType()
+          .checkValue(value -> value > 0 && value <= 1, "percentile must be in (0, 1]")
+          .defaultValue(0.95)
+          .withDescription(
+              "A read is slow when it takes longer than this percentile of the recent reads "
+                  + "from the same replicas");
+
+  public static final ConfigOption<Long> RSS_CLIENT_READ_HEDGE_MIN_DELAY_MS =
+      ConfigOptions.key("rss.client.read.hedge.minDelayMs")
+          .longType()
+          .checkValue(ConfigUtils.POSITIVE_LONG_VALIDATOR, "min delay must be positive")
+          .defaultValue(500L)
+          .withDescription("The min time to wait for a read before reading the next replica");
+
+  public static final ConfigOption<Integer> RSS_CLIENT_SHUFFLE_RESULT_FETCH_THREADS =
+      ConfigOptions.key("rss.client.shuffleResult.fetch.threads")
+          .intType()
+          .checkValue(ConfigUtils.POSITIVE_INTEGER_VALIDATOR_2, "fetch threads must be positive")
+          .defaultValue(16)
+          .withDescription(
+              "The number of threads to fetch the shuffle results from the shuffle servers "
+                  + "concurrently, which are shared by all the readers of the client");
 }
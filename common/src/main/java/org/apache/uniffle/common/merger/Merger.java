@@ -28,6 +28,7 @@ import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.io.RawComparator;
 import org.apache.hadoop.util.PriorityQueue;
 
+import org.apache.uniffle.common.config.RssBaseConf;
 import org.apache.uniffle.common.config.RssConf;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.records.RecordsWriter;
@@ -35,13 +36,84 @@ import org.apache.uniffle.common.serializer.SerOutputStream;
 
 public class Merger {
 
+  /**
+   * Compares the current keys of the segments. For raw comparators, the normalized key prefixes are
+   * compared first, so the full comparator is called only if the prefixes are equal.
+   */
+  static class SegmentComparator {
+
+    private final Comparator comparator;
+    private final boolean raw;
+    private final boolean buffered;
+    // null if the order of the comparator can't be normalized
+    private final NormalizedKeyPrefix keyPrefix;
+
+    SegmentComparator(Comparator comparator, boolean raw, boolean buffered) {
+      if (comparator == null) {
+        throw new RssException("comparator is null!");
+      }
+      this.comparator = comparator;
+      this.raw = raw;
+      this.buffered = buffered;
+      this.keyPrefix = raw ? NormalizedKeyPrefix.of(comparator) : null;
+    }
+
+    // Must be called once the segment moves to the next key
+    void updateKeyPrefix(Segment segment) {
+      if (keyPrefix == null) {
+        return;
+      }
+      if (buffered) {
+        ByteBuf key = (ByteBuf) segment.getCurrentKey();
+        segment.keyPrefix =
+            keyPrefix.get(key.array(), key.arrayOffset() + key.readerIndex(), key.readableBytes());
+      } else {
+        DataOutputBuffer key = (DataOutputBuffer) segment.getCurrentKey();
+        segment.keyPrefix = keyPrefix.get(key.getData(), 0, key.getLength());
+      }
+    }
+
+    boolean lessThan(Segment s1, Segment s2) {
+      int c;
+      if (raw) {
+        if (keyPrefix != null && s1.keyPrefix != s2.keyPrefix) {
+          return Long.compareUnsigned(s1.keyPrefix, s2.keyPrefix) < 0;
+        }
+        if (buffered) {
+          ByteBuf key1 = (ByteBuf) s1.getCurrentKey();
+          ByteBuf key2 = (ByteBuf) s2.getCurrentKey();
+          // make sure key buffer is in heap, avoid byte array copy
+          c =
+              ((RawComparator) comparator)
+                  .compare(
+                      key1.array(),
+                      key1.arrayOffset() + key1.readerIndex(),
+                      key1.readableBytes(),
+                      key2.array(),
+                      key2.arrayOffset() + key2.readerIndex(),
+                      key2.readableBytes());
+        } else {
+          DataOutputBuffer key1 = (DataOutputBuffer) s1.getCurrentKey();
+          DataOutputBuffer key2 = (DataOutputBuffer) s2.getCurrentKey();
+          c =
+              ((RawComparator) comparator)
+                  .compare(
+                      key1.getData(), 0, key1.getLength(), key2.getData(), 0, key2.getLength());
+        }
+      } else {
+        c = comparator.compare(s1.getCurrentKey(), s2.getCurrentKey());
+      }
+      return c < 0 || ((c == 0) && s1.getId() < s2.getId());
+    }
+  }
+
   public static class MergeQueue<K, V> extends PriorityQueue<Segment> implements KeyValueIterator {
 
     private final RssConf rssConf;
     private final List<Segment> segments;
     private final Class<K> keyClass;
     private final Class<V> valueClass;
-    private Comparator comparator;
+    private final SegmentComparator segmentComparator;
     private boolean raw;
     private boolean buffered;
 
@@ -62,10 +134,7 @@ public class Merger {
       this.segments = segments;
       this.keyClass = keyClass;
       this.valueClass = valueClass;
-      if (comparator == null) {
-        throw new RssException("comparator is null!");
-      }
-      this.comparator = comparator;
+      this.segmentComparator = new SegmentComparator(comparator, raw, buffered);
       this.raw = raw;
       this.buffered = buffered;
     }
@@ -76,42 +145,7 @@ public class Merger {
 
     @Override
     protected boolean lessThan(Object o1, Object o2) {
-      if (raw) {
-        if (buffered) {
-          Segment s1 = (Segment) o1;
-          Segment s2 = (Segment) o2;
-          ByteBuf key1 = (ByteBuf) s1.getCurrentKey();
-          ByteBuf key2 = (ByteBuf) s2.getCurrentKey();
-          // make sure key buffer is in heap, avoid byte array copy
-          int c =
-              ((RawComparator) comparator)
-                  .compare(
-                      key1.array(),
-                      key1.arrayOffset() + key1.readerIndex(),
-                      key1.readableBytes(),
-                      key2.array(),
-                      key2.arrayOffset() + key2.readerIndex(),
-                      key2.readableBytes());
-          return c < 0 || ((c == 0) && s1.getId() < s2.getId());
-        } else {
-          Segment s1 = (Segment) o1;
-          Segment s2 = (Segment) o2;
-          DataOutputBuffer key1 = (DataOutputBuffer) s1.getCurrentKey();
-          DataOutputBuffer key2 = (DataOutputBuffer) s2.getCurrentKey();
-          int c =
-              ((RawComparator) comparator)
-                  .compare(
-                      key1.getData(), 0, key1.getLength(), key2.getData(), 0, key2.getLength());
-          return c < 0 || ((c == 0) && s1.getId() < s2.getId());
-        }
-      } else {
-        Segment s1 = (Segment) o1;
-        Segment s2 = (Segment) o2;
-        Object key1 = s1.getCurrentKey();
-        Object key2 = s2.getCurrentKey();
-        int c = comparator.compare(key1, key2);
-        return c < 0 || ((c == 0) && s1.getId() < s2.getId());
-      }
+      return segmentComparator.lessThan((Segment) o1, (Segment) o2);
     }
 
     public void init() throws IOException {
@@ -119,6 +153,7 @@ public class Merger {
       for (Segment segment : segments) {
         boolean hasNext = segment.next();
         if (hasNext) {
+          segmentComparator.updateKeyPrefix(segment);
           segmentsToMerge.add(segment);
         } else {
           segment.close();
@@ -169,6 +204,7 @@ public class Merger {
 
     private void adjustPriorityQueue(Segment segment) throws IOException {
       if (segment.next()) {
+        segmentComparator.updateKeyPrefix(segment);
         adjustTop();
       } else {
         pop();
@@ -178,6 +214,7 @@ public class Merger {
           if (newSegment != null) {
             newSegment.init();
             if (newSegment.next()) {
+              segmentComparator.updateKeyPrefix(newSegment);
               put(newSegment);
             } else {
               newSegment.close();
@@ -188,23 +225,198 @@ public class Merger {
     }
 
     public void merge(SerOutputStream output) throws IOException {
-      RecordsWriter<K, V> writer =
-          new RecordsWriter<K, V>(rssConf, output, keyClass, valueClass, raw, buffered);
-      try {
-        writer.init();
-        while (this.next()) {
-          writer.append(this.getCurrentKey(), this.getCurrentValue());
+      Merger.writeRecords(rssConf, output, keyClass, valueClass, raw, buffered, this);
+    }
+
+    @Override
+    public void close() throws IOException {}
+  }
+
+  /**
+   * Merges the segments by a loser tree. Each internal node keeps the loser of the match between
+   * its subtrees, and the winner of the whole tree is the next record. After the winner moves to
+   * the next key, only the losers on its path to the root are compared with it, which is about
+   * log2(n) comparisons, while the sift down of a binary heap takes about 2 * log2(n).
+   */
+  public static class LoserTreeMergeQueue<K, V> implements KeyValueIterator {
+
+    private final RssConf rssConf;
+    private final Class<K> keyClass;
+    private final Class<V> valueClass;
+    private final SegmentComparator segmentComparator;
+    private final boolean raw;
+    private final boolean buffered;
+    private final int size;
+    // The current segment of each leaf, null if it's exhausted
+    private final Segment[] leaves;
+    // tree[0] is the winner, tree[i] is the loser of the internal node i. The leaf i is the node
+    // size + i, and the parent of the node j is the node j / 2.
+    private final int[] tree;
+    private Function<Integer, Segment> popSegmentHook;
+
+    private Object currentKey;
+    private Object currentValue;
+    private boolean started = false;
+
+    public LoserTreeMergeQueue(
+        RssConf rssConf,
+        List<Segment> segments,
+        Class<K> keyClass,
+        Class<V> valueClass,
+        Comparator<K> comparator,
+        boolean raw,
+        boolean buffered) {
+      this.rssConf = rssConf;
+      this.keyClass = keyClass;
+      this.valueClass = valueClass;
+      this.segmentComparator = new SegmentComparator(comparator, raw, buffered);
+      this.raw = raw;
+      this.buffered = buffered;
+      this.size = segments.size();
+      this.leaves = segments.toArray(new Segment[0]);
+      this.tree = new int[Math.max(1, size)];
+    }
+
+    public void setPopSegmentHook(Function<Integer, Segment> popSegmentHook) {
+      this.popSegmentHook = popSegmentHook;
+    }
+
+    public void init() throws IOException {
+      for (int i = 0; i < size; i++) {
+        if (leaves[i].next()) {
+          segmentComparator.updateKeyPrefix(leaves[i]);
+        } else {
+          leaves[i].close();
+          leaves[i] = null;
+        }
+      }
+      if (size == 0) {
+        return;
+      }
+      int[] winners = new int[size * 2];
+      for (int i = 0; i < size; i++) {
+        winners[size + i] = i;
+      }
+      for (int node = size - 1; node >= 1; node--) {
+        int left = winners[node * 2];
+        int right = winners[node * 2 + 1];
+        if (beats(left, right)) {
+          winners[node] = left;
+          tree[node] = right;
+        } else {
+          winners[node] = right;
+          tree[node] = left;
+        }
+      }
+      tree[0] = winners[1];
+    }
+
+    // An exhausted leaf loses to any other leaf
+    private boolean beats(int leaf1, int leaf2) {
+      if (leaves[leaf2] == null) {
+        return leaves[leaf1] != null;
+      }
+      return leaves[leaf1] != null && segmentComparator.lessThan(leaves[leaf1], leaves[leaf2]);
+    }
+
+    private void replay(int leaf) {
+      int winner = leaf;
+      for (int node = (size + leaf) / 2; node >= 1; node /= 2) {
+        if (beats(tree[node], winner)) {
+          int loser = winner;
+          winner = tree[node];
+          tree[node] = loser;
         }
-        writer.flush();
-      } finally {
-        writer.close();
       }
+      tree[0] = winner;
+    }
+
+    private void advance(int leaf) throws IOException {
+      Segment segment = leaves[leaf];
+      if (segment.next()) {
+        segmentComparator.updateKeyPrefix(segment);
+        return;
+      }
+      segment.close();
+      leaves[leaf] = null;
+      if (popSegmentHook != null) {
+        Segment newSegment = popSegmentHook.apply((int) segment.getId());
+        if (newSegment != null) {
+          newSegment.init();
+          if (newSegment.next()) {
+            segmentComparator.updateKeyPrefix(newSegment);
+            leaves[leaf] = newSegment;
+          } else {
+            newSegment.close();
+          }
+        }
+      }
+    }
+
+    @Override
+    public Object getCurrentKey() {
+      return currentKey;
+    }
+
+    @Override
+    public Object getCurrentValue() {
+      return currentValue;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      if (size == 0) {
+        return false;
+      }
+      if (started) {
+        int winner = tree[0];
+        if (leaves[winner] != null) {
+          advance(winner);
+          replay(winner);
+        }
+      }
+      started = true;
+      Segment winnerSegment = leaves[tree[0]];
+      if (winnerSegment == null) {
+        currentKey = null;
+        currentValue = null;
+        return false;
+      }
+      currentKey = winnerSegment.getCurrentKey();
+      currentValue = winnerSegment.getCurrentValue();
+      return true;
+    }
+
+    public void merge(SerOutputStream output) throws IOException {
+      Merger.writeRecords(rssConf, output, keyClass, valueClass, raw, buffered, this);
     }
 
     @Override
     public void close() throws IOException {}
   }
 
+  private static <K, V> void writeRecords(
+      RssConf rssConf,
+      SerOutputStream output,
+      Class<K> keyClass,
+      Class<V> valueClass,
+      boolean raw,
+      boolean buffered,
+      KeyValueIterator iterator)
+      throws IOException {
+    RecordsWriter<K, V> writer =
+        new RecordsWriter<K, V>(rssConf, output, keyClass, valueClass, raw, buffered);
+    try {
+      writer.init();
+      while (iterator.next()) {
+        writer.append(iterator.getCurrentKey(), iterator.getCurrentValue());
+      }
+      writer.flush();
+    } finally {
+      writer.close();
+    }
+  }
+
   public static void merge(
       RssConf conf,
       SerOutputStream output,
@@ -214,6 +426,17 @@ public class Merger {
       Comparator comparator,
       boolean raw)
       throws IOException {
+    if (conf.get(RssBaseConf.RSS_MERGE_LOSER_TREE_ENABLED)) {
+      LoserTreeMergeQueue mergeQueue =
+          new LoserTreeMergeQueue(conf, segments, keyClass, valueClass, comparator, raw, true);
+      try {
+        mergeQueue.init();
+        mergeQueue.merge(output);
+      } finally {
+        mergeQueue.close();
+      }
+      return;
+    }
     MergeQueue mergeQueue =
         new MergeQueue(conf, segments, keyClass, valueClass, comparator, raw, true);
     try {
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.common.merger;
+
+import java.util.Comparator;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * The first bytes of a serialized key as an unsigned long, which are ordered like the keys by the
+ * raw comparator. The keys with different prefixes are ordered by the prefixes only, the full
+ * comparator is needed only if the prefixes are equal. Only the comparators whose order is known
+ * are supported, the subclasses of them may change the order.
+ */
+public abstract class NormalizedKeyPrefix {
+
+  public abstract long get(byte[] bytes, int offset, int length);
+
+  /** @return null if the order of the comparator can't be normalized */
+  public static NormalizedKeyPrefix of(Comparator<?> comparator) {
+    if (comparator == null) {
+      return null;
+    }
+    Class<?> comparatorClass = comparator.getClass();
+    if (comparatorClass == Text.Comparator.class) {
+      // the bytes after the vint length are compared
+      return new NormalizedKeyPrefix() {
+        @Override
+        public long get(byte[] bytes, int offset, int length) {
+          int n = WritableUtils.decodeVIntSize(bytes[offset]);
+          return getBytesPrefix(bytes, offset + n, length - n);
+        }
+      };
+    } else if (comparatorClass == BytesWritable.Comparator.class) {
+      // the bytes after the int length are compared
+      return new NormalizedKeyPrefix() {
+        @Override
+        public long get(byte[] bytes, int offset, int length) {
+          return getBytesPrefix(bytes, offset + Integer.BYTES, length - Integer.BYTES);
+        }
+      };
+    } else if (comparatorClass == IntWritable.Comparator.class) {
+      return new NormalizedKeyPrefix() {
+        @Override
+        public long get(byte[] bytes, int offset, int length) {
+          return (WritableComparator.readInt(bytes, offset) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        }
+      };
+    } else if (comparatorClass == LongWritable.Comparator.class) {
+      return new NormalizedKeyPrefix() {
+        @Override
+        public long get(byte[] bytes, int offset, int length) {
+          return WritableComparator.readLong(bytes, offset) ^ Long.MIN_VALUE;
+        }
+      };
+    }
+    return null;
+  }
+
+  /**
+   * The short keys are padded with zero, so a key is never ordered before its extension by the
+   * prefix, e.g. "ab" and "ab\0" have the same prefix and are compared by the full comparator.
+   */
+  static long getBytesPrefix(byte[] bytes, int offset, int length) {
+    long prefix = 0;
+    int n = Math.min(length, Long.BYTES);
+    for (int i = 0; i < n; i++) {
+      prefix = (prefix << 8) | (bytes[offset + i] & 0xFF);
+    }
+    return prefix << ((Long.BYTES - n) * 8);
+  }
+}
@@ -22,6 +22,8 @@ import java.io.IOException;
 public abstract class Segment {
 
   private long id;
+  // The normalized prefix of the current key, which is maintained by the merge queue
+  long keyPrefix;
 
   public Segment(long id) {
     this.id = id;
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.common.records;
+
+import java.util.Arrays;
+
+/**
+ * The index of the serialized records in a sort buffer. The key position, key length and value
+ * length of each record are packed into an int array, and the normalized key prefixes into a long
+ * array, so sorting neither allocates an object per record nor chases the pointers of them.
+ *
+ * <p>If the prefixes are ordered like the keys, the records are radix sorted by the prefixes, and
+ * only the records with equal prefixes are compared by the comparator. Otherwise, all the records
+ * are sorted by the comparator. The sort is stable in both cases.
+ */
+public class PackedRecordIndex {
+
+  @FunctionalInterface
+  public interface RecordComparator {
+    /** Compares the keys of the records, the records are the positions in adding order. */
+    int compare(int record1, int record2);
+  }
+
+  private static final int FIELD_NUM = 4;
+  private static final int KEY_INDEX = 0;
+  private static final int KEY_OFFSET = 1;
+  private static final int KEY_LENGTH = 2;
+  private static final int VALUE_LENGTH = 3;
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  // keyIndex, keyOffset, keyLength and valueLength of the records in adding order
+  private int[] fields = new int[INITIAL_CAPACITY * FIELD_NUM];
+  private long[] prefixes = new long[INITIAL_CAPACITY];
+  // The records in sorted order, null before sort
+  private int[] order;
+  private int size = 0;
+
+  public void add(int keyIndex, int keyOffset, int keyLength, int valueLength, long keyPrefix) {
+    if (size == prefixes.length) {
+      int capacity = prefixes.length * 2;
+      fields = Arrays.copyOf(fields, capacity * FIELD_NUM);
+      prefixes = Arrays.copyOf(prefixes, capacity);
+    }
+    int base = size * FIELD_NUM;
+    fields[base + KEY_INDEX] = keyIndex;
+    fields[base + KEY_OFFSET] = keyOffset;
+    fields[base + KEY_LENGTH] = keyLength;
+    fields[base + VALUE_LENGTH] = valueLength;
+    prefixes[size] = keyPrefix;
+    order = null;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+    order = null;
+    fields = new int[INITIAL_CAPACITY * FIELD_NUM];
+    prefixes = new long[INITIAL_CAPACITY];
+  }
+
+  // The getters take the position in sorted order, or in adding order before sort.
+  public int getKeyIndex(int i) {
+    return fields[record(i) * FIELD_NUM + KEY_INDEX];
+  }
+
+  public int getKeyOffset(int i) {
+    return fields[record(i) * FIELD_NUM + KEY_OFFSET];
+  }
+
+  public int getKeyLength(int i) {
+    return fields[record(i) * FIELD_NUM + KEY_LENGTH];
+  }
+
+  public int getValueLength(int i) {
+    return fields[record(i) * FIELD_NUM + VALUE_LENGTH];
+  }
+
+  private int record(int i) {
+    return order == null ? i : order[i];
+  }
+
+  /**
+   * @param prefixOrdered whether the unsigned order of the prefixes is the order of the keys, for
+   *     the keys with different prefixes
+   */
+  public void sort(boolean prefixOrdered, RecordComparator comparator) {
+    // the getters take the adding order during sort, which is used by the comparator
+    order = null;
+    int[] sorted = new int[size];
+    int[] tmp = new int[size];
+    if (prefixOrdered) {
+      long[] sortedPrefixes = Arrays.copyOf(prefixes, size);
+      for (int i = 0; i < size; i++) {
+        sorted[i] = i;
+      }
+      radixSort(sortedPrefixes, sorted, tmp);
+      int start = 0;
+      for (int i = 1; i <= size; i++) {
+        if (i == size || sortedPrefixes[i] != sortedPrefixes[start]) {
+          if (i - start > 1) {
+            mergeSort(sorted, tmp, start, i, comparator);
+          }
+          start = i;
+        }
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        sorted[i] = i;
+      }
+      mergeSort(sorted, tmp, 0, size, comparator);
+    }
+    order = sorted;
+  }
+
+  /** LSD radix sort by the unsigned prefixes, one byte per pass. */
+  private void radixSort(long[] keys, int[] values, int[] tmpValues) {
+    if (size < 2) {
+      return;
+    }
+    long[] tmpKeys = new long[keys.length];
+    int[] counts = new int[256];
+    long[] srcKeys = keys;
+    int[] srcValues = values;
+    long[] dstKeys = tmpKeys;
+    int[] dstValues = tmpValues;
+    for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+      Arrays.fill(counts, 0);
+      for (int i = 0; i < size; i++) {
+        counts[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+      }
+      // skip the byte if it's the same for all the records, e.g. the padding of the short keys
+      if (counts[(int) (srcKeys[0] >>> shift) & 0xFF] == size) {
+        continue;
+      }
+      int position = 0;
+      for (int b = 0; b < counts.length; b++) {
+        int count = counts[b];
+        counts[b] = position;
+        position += count;
+      }
+      for (int i = 0; i < size; i++) {
+        int target = counts[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+        dstKeys[target] = srcKeys[i];
+        dstValues[target] = srcValues[i];
+      }
+      long[] swapKeys = srcKeys;
+      srcKeys = dstKeys;
+      dstKeys = swapKeys;
+      int[] swapValues = srcValues;
+      srcValues = dstValues;
+      dstValues = swapValues;
+    }
+    if (srcKeys != keys) {
+      System.arraycopy(srcKeys, 0, keys, 0, size);
+      System.arraycopy(srcValues, 0, values, 0, size);
+    }
+  }
+
+  private static void mergeSort(
+      int[] records, int[] tmp, int from, int to, RecordComparator comparator) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      for (int i = from + 1; i < to; i++) {
+        int record = records[i];
+        int j = i - 1;
+        while (j >= from && comparator.compare(records[j], record) > 0) {
+          records[j + 1] = records[j];
+          j--;
+        }
+        records[j + 1] = record;
+      }
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    mergeSort(records, tmp, from, middle, comparator);
+    mergeSort(records, tmp, middle, to, comparator);
+    if (comparator.compare(records[middle - 1], records[middle]) <= 0) {
+      return;
+    }
+    System.arraycopy(records, from, tmp, from, to - from);
+    int left = from;
+    int right = middle;
+    for (int i = from; i < to; i++) {
+      if (right >= to || (left < middle && comparator.compare(tmp[left], tmp[right]) <= 0)) {
+        records[i] = tmp[left++];
+      } else {
+        records[i] = tmp[right++];
+      }
+    }
+  }
+}
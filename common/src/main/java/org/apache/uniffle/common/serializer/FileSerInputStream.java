@@ -17,6 +17,7 @@
 
 package org.apache.uniffle.common.serializer;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -27,17 +28,15 @@ import io.netty.buffer.ByteBuf;
 
 public class FileSerInputStream extends SerInputStream {
 
+  public static final int BUFFER_SIZE = 64 * 1024;
+
   private final long start; // the start of source input stream
   private final long end; // the end of source input stream
   private FileInputStream input; // the input stream of the source
   private FileChannel fileChannel;
 
-  // In FileSerInputStream, buffer is not direct memory. This stream will read file
-  // content to direct memory, then copy the direct memory to heap. But it doesn't
-  // matter, because it is only used for testing.
-  private ByteBuffer bb = null;
-  private byte[] bs = null;
-  private byte[] b1;
+  // The file is read chunk by chunk, so that the small reads, e.g. vint, don't cost a syscall each.
+  private final ByteBuffer buffer;
   private long pos;
 
   public FileSerInputStream(File file, long start, long end) throws IOException {
@@ -53,6 +52,8 @@ public class FileSerInputStream extends SerInputStream {
     this.end = end;
     this.pos = start;
     this.fileChannel.position(start);
+    this.buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(BUFFER_SIZE, end - start)));
+    this.buffer.flip();
   }
 
   @Override
@@ -71,30 +72,41 @@ public class FileSerInputStream extends SerInputStream {
   }
 
   @Override
-  public void transferTo(ByteBuf to, int len) throws IOException {
-    // We copy the bytes, but it doesn't matter, only for test
-    byte[] bytes = new byte[len];
+  public synchronized void transferTo(ByteBuf to, int len) throws IOException {
     while (len > 0) {
-      int c = read(bytes, 0, bytes.length);
+      if (!fill()) {
+        throw new EOFException("Unexpected EOF, " + len + " bytes are left to transfer");
+      }
+      int c = Math.min(len, buffer.remaining());
+      to.writeBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), c);
+      buffer.position(buffer.position() + c);
+      pos += c;
       len -= c;
     }
-    to.writeBytes(bytes);
   }
 
-  private int read(ByteBuffer bb) throws IOException {
-    return fileChannel.read(bb);
+  private boolean fill() throws IOException {
+    if (buffer.hasRemaining()) {
+      return true;
+    }
+    long left = end - pos;
+    if (left <= 0) {
+      return false;
+    }
+    buffer.clear();
+    buffer.limit((int) Math.min(buffer.capacity(), left));
+    int n = fileChannel.read(buffer);
+    buffer.flip();
+    return n > 0;
   }
 
   @Override
   public synchronized int read() throws IOException {
-    if (b1 == null) {
-      b1 = new byte[1];
-    }
-    int n = read(b1);
-    if (n == 1) {
-      return b1[0] & 0xFF;
+    if (!fill()) {
+      return -1;
     }
-    return -1;
+    pos++;
+    return buffer.get() & 0xFF;
   }
 
   @Override
@@ -108,16 +120,13 @@ public class FileSerInputStream extends SerInputStream {
     } else if (len == 0) {
       return 0;
     }
-    ByteBuffer bb = (this.bs == bs) ? this.bb : ByteBuffer.wrap(bs);
-    bb.limit(Math.min(off + len, bb.capacity()));
-    bb.position(off);
-    this.bb = bb;
-    this.bs = bs;
-    int ret = read(bb);
-    if (ret >= 0) {
-      pos += ret;
+    if (!fill()) {
+      return -1;
     }
-    return ret;
+    int c = Math.min(len, buffer.remaining());
+    buffer.get(bs, off, c);
+    pos += c;
+    return c;
   }
 
   @Override
@@ -17,6 +17,7 @@
 
 package org.apache.uniffle.common.serializer;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -32,12 +33,14 @@ public class FileSerOutputStream extends SerOutputStream {
     this.outputStream = new FileOutputStream(file);
   }
 
+  /** The written bytes are buffered, they are visible in the file only after flush or close. */
+  public FileSerOutputStream(File file, int bufferSize) throws IOException {
+    this.outputStream = new BufferedOutputStream(new FileOutputStream(file), bufferSize);
+  }
+
   @Override
   public void write(ByteBuf from) throws IOException {
-    // We copy the bytes, but it doesn't matter, only for test
-    byte[] bytes = new byte[from.readableBytes()];
-    from.readBytes(bytes);
-    outputStream.write(bytes);
+    from.readBytes(outputStream, from.readableBytes());
   }
 
   @Override
@@ -17,27 +17,40 @@
 
 package org.apache.uniffle.common.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.nio.ByteBuffer;
 import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.ByteBuf;
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+
+import org.apache.uniffle.common.exception.RssException;
 
 public class ChecksumUtils {
 
-  private static final int LENGTH_PER_CRC = 4 * 1024;
+  /** The algorithm of the checksum stored with each block. */
+  public enum Type {
+    CRC32,
+    CRC32C,
+    XXHASH64
+  }
+
+  private static final ThreadLocal<CRC32> CRC32_HOLDER = ThreadLocal.withInitial(CRC32::new);
+  private static final XXHash64 XXHASH64 = XXHashFactory.fastestInstance().hash64();
+  private static final long XXHASH64_SEED = 0L;
 
   public static long getCrc32(byte[] buf) {
     return getCrc32(buf, 0, buf.length);
   }
 
   public static long getCrc32(byte[] buf, int offset, int length) {
-    CRC32 crc32 = new CRC32();
-
-    for (int i = 0; i < length; ) {
-      int len = Math.min(LENGTH_PER_CRC, length - i);
-      crc32.update(buf, i + offset, len);
-      i += len;
-    }
-
-    return crc32.getValue();
+    return getChecksum(Type.CRC32, buf, offset, length);
   }
 
   public static long getCrc32(ByteBuffer byteBuffer) {
@@ -45,15 +58,129 @@ public class ChecksumUtils {
   }
 
   public static long getCrc32(ByteBuffer byteBuffer, int offset, int length) {
-    CRC32 crc32 = new CRC32();
-    ByteBuffer crcBuffer = byteBuffer.duplicate();
-    crcBuffer.position(offset);
-    for (int i = 0; i < length; ) {
-      int len = Math.min(LENGTH_PER_CRC, length - i);
-      crcBuffer.limit(crcBuffer.position() + len);
-      crc32.update(crcBuffer);
-      i += len;
+    return getChecksum(Type.CRC32, byteBuffer, offset, length);
+  }
+
+  /** Computes the crc of the readable bytes, the components of a composite buffer aren't merged. */
+  public static long getCrc32(ByteBuf byteBuf) {
+    return getChecksum(Type.CRC32, byteBuf);
+  }
+
+  public static long getChecksum(Type type, byte[] buf) {
+    return getChecksum(type, buf, 0, buf.length);
+  }
+
+  public static long getChecksum(Type type, byte[] buf, int offset, int length) {
+    switch (type) {
+      case CRC32:
+        CRC32 crc32 = CRC32_HOLDER.get();
+        crc32.reset();
+        crc32.update(buf, offset, length);
+        return crc32.getValue();
+      case CRC32C:
+        return Crc32c.getValue(ByteBuffer.wrap(buf, offset, length));
+      case XXHASH64:
+        return XXHASH64.hash(buf, offset, length, XXHASH64_SEED);
+      default:
+        throw new RssException("Unsupported checksum type " + type);
+    }
+  }
+
+  /** Computes the checksum of the given range in one pass, the buffer's position isn't changed. */
+  public static long getChecksum(Type type, ByteBuffer byteBuffer, int offset, int length) {
+    if (type == Type.XXHASH64) {
+      return XXHASH64.hash(byteBuffer, offset, length, XXHASH64_SEED);
+    }
+    ByteBuffer buffer = byteBuffer.duplicate();
+    buffer.limit(offset + length);
+    buffer.position(offset);
+    return getChecksum(type, new ByteBuffer[] {buffer});
+  }
+
+  /** Computes the checksum of the readable bytes of a heap, direct or composite buffer. */
+  public static long getChecksum(Type type, ByteBuf byteBuf) {
+    if (type == Type.XXHASH64) {
+      // xxHash64 has no streaming api over ByteBuffer, so the components of a composite buffer
+      // have to be merged.
+      ByteBuffer buffer = byteBuf.nioBuffer();
+      return XXHASH64.hash(buffer, buffer.position(), buffer.remaining(), XXHASH64_SEED);
+    }
+    return getChecksum(type, byteBuf.nioBuffers());
+  }
+
+  private static long getChecksum(Type type, ByteBuffer[] buffers) {
+    switch (type) {
+      case CRC32:
+        CRC32 crc32 = CRC32_HOLDER.get();
+        crc32.reset();
+        for (ByteBuffer buffer : buffers) {
+          crc32.update(buffer);
+        }
+        return crc32.getValue();
+      case CRC32C:
+        return Crc32c.getValue(buffers);
+      default:
+        throw new RssException("Unsupported checksum type " + type);
+    }
+  }
+
+  /**
+   * CRC32C is computed by java.util.zip.CRC32C, which is intrinsified since Java 9. It is looked up
+   * reflectively because the project still targets Java 8, where Guava's implementation is used.
+   */
+  private static class Crc32c {
+
+    private static final MethodHandle CONSTRUCTOR;
+    private static final MethodHandle UPDATE;
+    private static final ThreadLocal<Checksum> HOLDER;
+
+    static {
+      MethodHandle constructor = null;
+      MethodHandle update = null;
+      try {
+        Class<?> clazz = Class.forName("java.util.zip.CRC32C");
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        constructor =
+            lookup
+                .findConstructor(clazz, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(Checksum.class));
+        update =
+            lookup.findVirtual(
+                Checksum.class, "update", MethodType.methodType(void.class, ByteBuffer.class));
+      } catch (ReflectiveOperationException e) {
+        // Java 8
+      }
+      CONSTRUCTOR = constructor;
+      UPDATE = update;
+      HOLDER = constructor == null ? null : ThreadLocal.withInitial(Crc32c::newChecksum);
+    }
+
+    private static Checksum newChecksum() {
+      try {
+        return (Checksum) CONSTRUCTOR.invokeExact();
+      } catch (Throwable e) {
+        throw new RssException(e);
+      }
+    }
+
+    static long getValue(ByteBuffer... buffers) {
+      if (HOLDER == null) {
+        Hasher hasher = Hashing.crc32c().newHasher();
+        for (ByteBuffer buffer : buffers) {
+          hasher.putBytes(buffer.duplicate());
+        }
+        return hasher.hash().asInt() & 0xFFFFFFFFL;
+      }
+      Checksum checksum = HOLDER.get();
+      checksum.reset();
+      try {
+        for (ByteBuffer buffer : buffers) {
+          UPDATE.invokeExact(checksum, buffer.duplicate());
+        }
+      } catch (Throwable e) {
+        throw new RssException(e);
+      }
+      return checksum.getValue();
     }
-    return crc32.getValue();
   }
 }
@@ -20,8 +20,14 @@ package org.apache.uniffle.common.compression;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import org.apache.commons.lang3.RandomUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -29,6 +35,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import org.apache.uniffle.common.config.RssConf;
+import org.apache.uniffle.common.util.ByteBufUtils;
 import org.apache.uniffle.common.util.ByteBufferUtils;
 
 import static org.apache.uniffle.common.config.RssClientConf.COMPRESSION_TYPE;
@@ -108,6 +115,75 @@ public class CompressionTest {
     srcBuffer = ByteBuffer.allocateDirect(size + destOffset);
     destBuffer = ByteBuffer.allocateDirect(codec.maxCompressedLength(size) + destOffset);
     testCompressWithByteBuffer(codec, data, srcBuffer, destBuffer, destOffset);
+
+    // case9: use on heap bytebuffer sliced from a larger array, like the pooled buffers
+    srcBuffer = slice(ByteBuffer.allocate(size + destOffset), destOffset);
+    destBuffer =
+        slice(ByteBuffer.allocate(codec.maxCompressedLength(size) + destOffset), destOffset);
+    testCompressWithByteBuffer(codec, data, srcBuffer, destBuffer, 0);
+  }
+
+  @ParameterizedTest
+  @MethodSource("testCompression")
+  public void testCompressChunks(int size, Codec.Type type) {
+    byte[] data = RandomUtils.nextBytes(size);
+    Codec codec = Codec.newInstance(new RssConf().set(COMPRESSION_TYPE, type)).get();
+    ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+    // case1: direct chunks
+    List<ByteBuf> chunks = split(data, 3, true);
+    checkCompressedChunks(codec, data, codec.compress(chunks, allocator), true);
+    // the chunks are not consumed by the compression
+    assertEquals(size, Codec.readableBytes(chunks));
+    chunks.forEach(ByteBuf::release);
+
+    // case2: heap chunks
+    chunks = split(data, 3, false);
+    checkCompressedChunks(codec, data, codec.compress(chunks, allocator), false);
+    chunks.forEach(ByteBuf::release);
+
+    // case3: a composite of direct chunks, like the pages of the writer buffer
+    CompositeByteBuf composite = Unpooled.compositeBuffer();
+    composite.addComponents(true, split(data, 4, true));
+    // only Zstd compresses the direct pages without merging them
+    assertEquals(
+        size > 1 && !(codec instanceof ZstdCodec),
+        codec.mergesChunks(Collections.singletonList(composite)));
+    checkCompressedChunks(
+        codec, data, codec.compress(Collections.singletonList(composite), allocator), true);
+    composite.release();
+  }
+
+  private static List<ByteBuf> split(byte[] data, int count, boolean direct) {
+    List<ByteBuf> chunks = new ArrayList<>();
+    int chunkSize = data.length / count + 1;
+    for (int offset = 0; offset < data.length; offset += chunkSize) {
+      int length = Math.min(chunkSize, data.length - offset);
+      ByteBuf chunk = direct ? Unpooled.directBuffer(length) : Unpooled.buffer(length);
+      chunk.writeBytes(data, offset, length);
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+
+  private void checkCompressedChunks(
+      Codec codec, byte[] originData, ByteBuf compressed, boolean direct) {
+    assertEquals(direct, compressed.isDirect());
+    // the caller-provided buffer is expanded to hold the decompressed data
+    ByteBuf res = direct ? Unpooled.directBuffer(1) : Unpooled.buffer(1);
+    try {
+      codec.decompress(compressed, originData.length, res);
+      assertEquals(originData.length, res.readableBytes());
+      assertArrayEquals(originData, ByteBufUtils.readBytes(res));
+    } finally {
+      compressed.release();
+      res.release();
+    }
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int offset) {
+    buffer.position(offset);
+    return buffer.slice();
   }
 
   private void testCompressWithByteBuffer(
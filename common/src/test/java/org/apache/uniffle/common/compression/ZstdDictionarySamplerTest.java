@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.common.compression;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.github.luben.zstd.Zstd;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.uniffle.common.config.RssConf;
+
+import static org.apache.uniffle.common.config.RssClientConf.COMPRESSION_TYPE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ZstdDictionarySamplerTest {
+  private static final Logger LOG = LoggerFactory.getLogger(ZstdDictionarySamplerTest.class);
+
+  private static final String[] CITIES = {"Beijing", "Shanghai", "Hangzhou", "Shenzhen"};
+  private static final String[] STATUS = {"ACTIVE", "INACTIVE", "PENDING"};
+
+  // Generates a small block of rows like a serialized Spark row, with a fixed width part and
+  // repetitive strings.
+  private static byte[] newBlock(Random random, int rows) {
+    ByteBuffer buffer = ByteBuffer.allocate(rows * 128);
+    for (int i = 0; i < rows; i++) {
+      buffer.putLong(random.nextInt(1_000_000));
+      buffer.putInt(random.nextInt(100));
+      buffer.putDouble(random.nextInt(10_000) / 100.0);
+      String text =
+          "user_"
+              + random.nextInt(100_000)
+              + ",2024-01-"
+              + (10 + random.nextInt(20))
+              + ","
+              + CITIES[random.nextInt(CITIES.length)]
+              + ","
+              + STATUS[random.nextInt(STATUS.length)];
+      byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+    }
+    byte[] block = new byte[buffer.position()];
+    buffer.flip();
+    buffer.get(block);
+    return block;
+  }
+
+  private static Codec newCodec() {
+    return Codec.newInstance(new RssConf().set(COMPRESSION_TYPE, Codec.Type.ZSTD)).get();
+  }
+
+  private static byte[] trainDictionary(Random random) {
+    ZstdDictionarySampler sampler = new ZstdDictionarySampler(1024 * 1024, 16 * 1024);
+    while (!sampler.addSample(Unpooled.wrappedBuffer(newBlock(random, 20)))) {
+      assertFalse(sampler.isFull());
+    }
+    assertTrue(sampler.isFull());
+    return sampler.train();
+  }
+
+  @Test
+  public void testTrainAndCompress() {
+    Random random = new Random(42);
+    byte[] dictionary = trainDictionary(random);
+    assertNotNull(dictionary);
+    Codec codec = newCodec();
+    Codec dictionaryCodec = codec.withDictionary(dictionary);
+
+    byte[] block = newBlock(random, 20);
+    byte[] plain = codec.compress(block);
+    byte[] compressed = dictionaryCodec.compress(block);
+    assertEquals(0, ZstdCodec.getDictionaryId(ByteBuffer.wrap(plain)));
+    assertEquals(
+        Zstd.getDictIdFromDict(dictionary), ZstdCodec.getDictionaryId(ByteBuffer.wrap(compressed)));
+
+    // the dictionary codec decompresses the blocks compressed with and without the dictionary
+    for (byte[] frame : new byte[][] {plain, compressed}) {
+      ByteBuffer dest = ByteBuffer.allocate(block.length);
+      dictionaryCodec.decompress(ByteBuffer.wrap(frame), block.length, dest, 0);
+      assertArrayEquals(block, dest.array());
+
+      ByteBuffer src = ByteBuffer.allocateDirect(frame.length);
+      src.put(frame);
+      src.flip();
+      ByteBuffer directDest = ByteBuffer.allocateDirect(block.length);
+      dictionaryCodec.decompress(src, block.length, directDest, 0);
+      byte[] res = new byte[block.length];
+      directDest.get(res);
+      assertArrayEquals(block, res);
+    }
+
+    // the decompression only codec of the readers decompresses them too
+    Codec readCodec = codec.withDecompressionDictionary(dictionary);
+    for (byte[] frame : new byte[][] {plain, compressed}) {
+      ByteBuffer dest = ByteBuffer.allocate(block.length);
+      readCodec.decompress(ByteBuffer.wrap(frame), block.length, dest, 0);
+      assertArrayEquals(block, dest.array());
+    }
+
+    // the chunked compression uses the dictionary too
+    ByteBuf chunk = Unpooled.directBuffer(block.length);
+    chunk.writeBytes(block);
+    ByteBuf chunked =
+        dictionaryCodec.compress(Collections.singletonList(chunk), PooledByteBufAllocator.DEFAULT);
+    ByteBuf res = Unpooled.directBuffer(block.length);
+    try {
+      assertEquals(
+          Zstd.getDictIdFromDict(dictionary), ZstdCodec.getDictionaryId(chunked.nioBuffer()));
+      dictionaryCodec.decompress(chunked, block.length, res);
+      byte[] bytes = new byte[block.length];
+      res.readBytes(bytes);
+      assertArrayEquals(block, bytes);
+    } finally {
+      chunk.release();
+      chunked.release();
+      res.release();
+    }
+  }
+
+  /** Compares the compressed size of the small row blocks with and without the dictionary. */
+  @Test
+  public void testCompressionRatio() {
+    Random random = new Random(7);
+    byte[] dictionary = trainDictionary(random);
+    assertNotNull(dictionary);
+    Codec codec = newCodec();
+    Codec dictionaryCodec = codec.withDictionary(dictionary);
+    for (int rows : new int[] {5, 20, 100}) {
+      List<byte[]> blocks = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        blocks.add(newBlock(random, rows));
+      }
+      long rawSize = 0;
+      long plainSize = 0;
+      long dictionarySize = 0;
+      long plainTime = 0;
+      long dictionaryTime = 0;
+      for (byte[] block : blocks) {
+        rawSize += block.length;
+        long start = System.nanoTime();
+        plainSize += codec.compress(block).length;
+        plainTime += System.nanoTime() - start;
+        start = System.nanoTime();
+        dictionarySize += dictionaryCodec.compress(block).length;
+        dictionaryTime += System.nanoTime() - start;
+      }
+      LOG.info(
+          "{} rows per block: raw {} bytes, zstd {} bytes in {} us, "
+              + "zstd with dictionary {} bytes in {} us",
+          rows,
+          rawSize,
+          plainSize,
+          plainTime / 1000,
+          dictionarySize,
+          dictionaryTime / 1000);
+      assertTrue(dictionarySize < plainSize);
+    }
+  }
+
+  @Test
+  public void testTrainWithTooFewSamples() {
+    ZstdDictionarySampler sampler = new ZstdDictionarySampler(1024 * 1024, 16 * 1024);
+    sampler.addSample(Unpooled.wrappedBuffer(new byte[] {1, 2, 3}));
+    assertFalse(sampler.isFull());
+    assertNull(sampler.train());
+  }
+}
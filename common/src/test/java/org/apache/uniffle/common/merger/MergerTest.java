@@ -18,16 +18,35 @@
 package org.apache.uniffle.common.merger;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
 
 import io.netty.buffer.ByteBuf;
+import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.RawComparator;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import org.apache.uniffle.common.config.RssBaseConf;
 import org.apache.uniffle.common.config.RssConf;
 import org.apache.uniffle.common.records.RecordsReader;
 import org.apache.uniffle.common.serializer.DynBufferSerOutputStream;
@@ -40,6 +59,10 @@ import org.apache.uniffle.common.serializer.SerializerUtils;
 
 import static org.apache.uniffle.common.serializer.SerializerUtils.genData;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MergerTest {
 
@@ -55,6 +78,9 @@ class MergerTest {
         "org.apache.hadoop.io.Text,org.apache.hadoop.io.IntWritable,false,false",
         "java.lang.String,java.lang.Integer",
         "org.apache.uniffle.common.serializer.SerializerUtils$SomeClass,java.lang.Integer",
+        "org.apache.hadoop.io.Text,org.apache.hadoop.io.IntWritable,true,true,false",
+        "org.apache.hadoop.io.Text,org.apache.hadoop.io.IntWritable,true,false,false",
+        "java.lang.String,java.lang.Integer,false,false,false",
       })
   void testMergeSegmentToFile(String classes, @TempDir File tmpDir) throws Exception {
     // 1 Parse arguments
@@ -63,9 +89,11 @@ class MergerTest {
     Class<?> valueClass = SerializerUtils.getClassByName(classArray[1]);
     boolean raw = classArray.length > 2 && Boolean.parseBoolean(classArray[2]);
     boolean direct = classArray.length > 3 && Boolean.parseBoolean(classArray[3]);
+    boolean loserTree = classArray.length <= 4 || Boolean.parseBoolean(classArray[4]);
 
     // 2 Construct segments, then merge
     RssConf rssConf = new RssConf();
+    rssConf.set(RssBaseConf.RSS_MERGE_LOSER_TREE_ENABLED, loserTree);
     List<Segment> segments = new ArrayList<>();
     Comparator<?> comparator = SerializerUtils.getComparator(keyClass);
     for (int i = 0; i < SEGMENTS; i++) {
@@ -118,4 +146,128 @@ class MergerTest {
     assertEquals(RECORDS * SEGMENTS, index);
     reader.close();
   }
+
+  @Test
+  void testLoserTree() throws Exception {
+    Random random = new Random();
+    for (int segmentNum = 0; segmentNum < 8; segmentNum++) {
+      List<Segment> segments = new ArrayList<>();
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < segmentNum; i++) {
+        // some segments are empty
+        List<Integer> keys = new ArrayList<>();
+        int keyNum = random.nextInt(4) * random.nextInt(20);
+        for (int j = 0; j < keyNum; j++) {
+          keys.add(random.nextInt(50));
+        }
+        Collections.sort(keys);
+        expected.addAll(keys);
+        segments.add(new ListSegment(i, keys));
+      }
+      Collections.sort(expected);
+      Merger.LoserTreeMergeQueue<Integer, Integer> mergeQueue =
+          new Merger.LoserTreeMergeQueue<>(
+              new RssConf(),
+              segments,
+              Integer.class,
+              Integer.class,
+              Comparator.naturalOrder(),
+              false,
+              true);
+      mergeQueue.init();
+      List<Integer> merged = new ArrayList<>();
+      int lastSegmentId = -1;
+      while (mergeQueue.next()) {
+        int key = (Integer) mergeQueue.getCurrentKey();
+        int segmentId = (Integer) mergeQueue.getCurrentValue();
+        // the equal keys are ordered by the segment id
+        if (!merged.isEmpty() && merged.get(merged.size() - 1) == key) {
+          assertTrue(lastSegmentId <= segmentId);
+        }
+        merged.add(key);
+        lastSegmentId = segmentId;
+      }
+      assertFalse(mergeQueue.next());
+      assertEquals(expected, merged);
+    }
+  }
+
+  @Test
+  void testNormalizedKeyPrefix() throws Exception {
+    Random random = new Random();
+    Map<Class<?>, Supplier<Writable>> generators = new HashMap<>();
+    // small alphabets, so there are many equal prefixes and zero bytes
+    generators.put(Text.class, () -> new Text(randomBytes(random, 12, 3)));
+    generators.put(BytesWritable.class, () -> new BytesWritable(randomBytes(random, 12, 3)));
+    generators.put(IntWritable.class, () -> new IntWritable(random.nextInt()));
+    generators.put(LongWritable.class, () -> new LongWritable(random.nextLong()));
+    for (Map.Entry<Class<?>, Supplier<Writable>> entry : generators.entrySet()) {
+      RawComparator<?> comparator =
+          WritableComparator.get(entry.getKey().asSubclass(WritableComparable.class));
+      NormalizedKeyPrefix keyPrefix = NormalizedKeyPrefix.of(comparator);
+      assertNotNull(keyPrefix);
+      for (int i = 0; i < 10000; i++) {
+        byte[] key1 = serialize(entry.getValue().get());
+        byte[] key2 = serialize(entry.getValue().get());
+        long prefix1 = keyPrefix.get(key1, 0, key1.length);
+        long prefix2 = keyPrefix.get(key2, 0, key2.length);
+        if (prefix1 != prefix2) {
+          assertEquals(
+              Integer.signum(comparator.compare(key1, 0, key1.length, key2, 0, key2.length)),
+              Integer.signum(Long.compareUnsigned(prefix1, prefix2)));
+        }
+      }
+    }
+    // the order of the other comparators is unknown
+    assertNull(NormalizedKeyPrefix.of(Comparator.naturalOrder()));
+  }
+
+  private static byte[] randomBytes(Random random, int maxLength, int alphabet) {
+    byte[] bytes = new byte[random.nextInt(maxLength)];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) (random.nextInt(alphabet) * 0x7F);
+    }
+    return bytes;
+  }
+
+  private static byte[] serialize(Writable writable) throws IOException {
+    DataOutputBuffer buffer = new DataOutputBuffer();
+    writable.write(buffer);
+    return Arrays.copyOf(buffer.getData(), buffer.getLength());
+  }
+
+  /** The value of a record is the id of its segment. */
+  private static class ListSegment extends Segment {
+    private final Iterator<Integer> iterator;
+    private Integer current;
+
+    ListSegment(long id, List<Integer> keys) {
+      super(id);
+      this.iterator = keys.iterator();
+    }
+
+    @Override
+    public boolean next() {
+      current = iterator.hasNext() ? iterator.next() : null;
+      return current != null;
+    }
+
+    @Override
+    public Object getCurrentKey() {
+      return current;
+    }
+
+    @Override
+    public Object getCurrentValue() {
+      return (int) getId();
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public long getSize() {
+      return 0;
+    }
+  }
 }
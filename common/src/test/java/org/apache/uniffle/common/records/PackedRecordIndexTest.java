@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.common.records;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PackedRecordIndexTest {
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void sortTest(boolean prefixOrdered) {
+    Random random = new Random();
+    for (int recordNum : new int[] {0, 1, 10, 3000}) {
+      // key is the value of the record, and the prefix only has the high bits of it, so there
+      // are many records with equal prefixes
+      List<long[]> keys = new ArrayList<>();
+      PackedRecordIndex index = new PackedRecordIndex();
+      for (int i = 0; i < recordNum; i++) {
+        long key = random.nextInt(1000);
+        keys.add(new long[] {key, i});
+        index.add(i, (int) key, 1, 2, key >>> 4);
+      }
+      index.sort(prefixOrdered, (r1, r2) -> Long.compare(keys.get(r1)[0], keys.get(r2)[0]));
+      keys.sort(Comparator.comparingLong(key -> key[0]));
+
+      assertEquals(recordNum, index.size());
+      for (int i = 0; i < recordNum; i++) {
+        // the sort is stable
+        assertEquals(keys.get(i)[1], index.getKeyIndex(i));
+        assertEquals(keys.get(i)[0], index.getKeyOffset(i));
+        assertEquals(1, index.getKeyLength(i));
+        assertEquals(2, index.getValueLength(i));
+      }
+    }
+  }
+}
@@ -21,15 +21,22 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Random;
 import java.util.zip.CRC32;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 public class ChecksumUtilsTest {
 
@@ -112,4 +119,64 @@ public class ChecksumUtilsTest {
     directOffsetBuffer.put(data);
     assertEquals(expectCrc, ChecksumUtils.getCrc32(directOffsetBuffer, offset, length));
   }
+
+  @Test
+  public void crc32ByteBufTest() {
+    byte[] data = new byte[32 * 1024];
+    new Random().nextBytes(data);
+    long expectCrc = ChecksumUtils.getCrc32(data);
+    assertEquals(expectCrc, ChecksumUtils.getCrc32(Unpooled.wrappedBuffer(data)));
+
+    CompositeByteBuf composite = Unpooled.compositeBuffer();
+    composite.addComponent(true, Unpooled.wrappedBuffer(data, 0, 10000));
+    ByteBuf direct = Unpooled.directBuffer(data.length - 10000);
+    direct.writeBytes(data, 10000, data.length - 10000);
+    composite.addComponent(true, direct);
+    assertEquals(expectCrc, ChecksumUtils.getCrc32(composite));
+    assertEquals(0, composite.readerIndex());
+    composite.release();
+  }
+
+  @Test
+  public void checksumKnownValueTest() {
+    byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+    assertEquals(0xCBF43926L, ChecksumUtils.getChecksum(ChecksumUtils.Type.CRC32, data));
+    assertEquals(0xE3069283L, ChecksumUtils.getChecksum(ChecksumUtils.Type.CRC32C, data));
+    assertEquals(
+        0xEF46DB3751D8E999L, ChecksumUtils.getChecksum(ChecksumUtils.Type.XXHASH64, new byte[0]));
+  }
+
+  @ParameterizedTest
+  @EnumSource(ChecksumUtils.Type.class)
+  public void checksumTest(ChecksumUtils.Type type) {
+    Random random = new Random();
+    byte[] data = new byte[64 * 1024 + 7];
+    random.nextBytes(data);
+    long expected = ChecksumUtils.getChecksum(type, data);
+
+    // heap and direct ByteBuffer with an offset
+    int offset = random.nextInt(15) + 1;
+    ByteBuffer heap = ByteBuffer.allocate(data.length + offset);
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length + offset);
+    for (ByteBuffer buffer : new ByteBuffer[] {heap, direct}) {
+      buffer.position(offset);
+      buffer.put(data);
+      assertEquals(expected, ChecksumUtils.getChecksum(type, buffer, offset, data.length));
+      assertEquals(data.length + offset, buffer.position());
+    }
+
+    // composite ByteBuf
+    CompositeByteBuf composite = Unpooled.compositeBuffer();
+    composite.addComponent(true, Unpooled.wrappedBuffer(data, 0, 10000));
+    ByteBuf directBuf = Unpooled.directBuffer(data.length - 10000);
+    directBuf.writeBytes(data, 10000, data.length - 10000);
+    composite.addComponent(true, directBuf);
+    assertEquals(expected, ChecksumUtils.getChecksum(type, composite));
+    assertEquals(0, composite.readerIndex());
+    composite.release();
+
+    // other data has another checksum
+    data[0]++;
+    assertNotEquals(expected, ChecksumUtils.getChecksum(type, data));
+  }
 }
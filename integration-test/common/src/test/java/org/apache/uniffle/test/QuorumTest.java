@@ -200,9 +200,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
     SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
     Roaring64NavigableMap failedBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
     Roaring64NavigableMap succBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
-    for (Long blockId : result.getSuccessBlockIds()) {
-      succBlockIdBitmap.addLong(blockId);
-    }
+    succBlockIdBitmap.or(result.getSuccessBlockIds());
     for (Long blockId : result.getFailedBlockIds()) {
       failedBlockIdBitmap.addLong(blockId);
     }
@@ -238,9 +236,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
     result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
     failedBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
     succBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
-    for (Long blockId : result.getSuccessBlockIds()) {
-      succBlockIdBitmap.addLong(blockId);
-    }
+    succBlockIdBitmap.or(result.getSuccessBlockIds());
     for (Long blockId : result.getFailedBlockIds()) {
       failedBlockIdBitmap.addLong(blockId);
     }
@@ -350,9 +346,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
             Lists.newArrayList(shuffleServerInfo0, shuffleServerInfo1, shuffleServerInfo2));
     SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
     Roaring64NavigableMap succBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
-    for (Long blockId : result.getSuccessBlockIds()) {
-      succBlockIdBitmap.addLong(blockId);
-    }
+    succBlockIdBitmap.or(result.getSuccessBlockIds());
     assertEquals(0, result.getFailedBlockIds().size());
     assertEquals(blockIdBitmap, succBlockIdBitmap);
 
@@ -395,7 +389,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
       failedBlockIdBitmap.addLong(blockId);
     }
     assertEquals(blockIdBitmap, failedBlockIdBitmap);
-    assertEquals(0, result.getSuccessBlockIds().size());
+    assertEquals(0, result.getSuccessBlockIds().getLongCardinality());
 
     // report result should fail
     Map<Integer, Set<Long>> partitionToBlockIds = Maps.newHashMap();
@@ -450,9 +444,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
     SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
     Roaring64NavigableMap failedBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
     Roaring64NavigableMap succBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
-    for (Long blockId : result.getSuccessBlockIds()) {
-      succBlockIdBitmap.addLong(blockId);
-    }
+    succBlockIdBitmap.or(result.getSuccessBlockIds());
     for (Long blockId : result.getFailedBlockIds()) {
       failedBlockIdBitmap.addLong(blockId);
     }
@@ -526,7 +518,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
               expectedData,
               Lists.newArrayList(shuffleServerInfo0, shuffleServerInfo1, shuffleServerInfo2));
       SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
-      assertTrue(result.getSuccessBlockIds().size() == 3);
+      assertTrue(result.getSuccessBlockIds().getLongCardinality() == 3);
       assertTrue(result.getFailedBlockIds().size() == 0);
     }
 
@@ -580,9 +572,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
     // data read should success
     SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
     Roaring64NavigableMap succBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
-    for (Long blockId : result.getSuccessBlockIds()) {
-      succBlockIdBitmap.addLong(blockId);
-    }
+    succBlockIdBitmap.or(result.getSuccessBlockIds());
     assertEquals(0, result.getFailedBlockIds().size());
     assertEquals(blockIdBitmap, succBlockIdBitmap);
 
@@ -712,7 +702,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
               expectedData,
               Lists.newArrayList(shuffleServerInfo0, shuffleServerInfo1, shuffleServerInfo2));
       SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
-      assertTrue(result.getSuccessBlockIds().size() == 3);
+      assertTrue(result.getSuccessBlockIds().getLongCardinality() == 3);
       assertTrue(result.getFailedBlockIds().size() == 0);
     }
 
@@ -772,7 +762,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
               expectedData,
               Lists.newArrayList(shuffleServerInfo0, fakedShuffleServerInfo1, shuffleServerInfo2));
       SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
-      assertTrue(result.getSuccessBlockIds().size() == 3);
+      assertTrue(result.getSuccessBlockIds().getLongCardinality() == 3);
       assertTrue(result.getFailedBlockIds().size() == 0);
     }
 
@@ -836,7 +826,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
                   shuffleServerInfo3,
                   shuffleServerInfo4));
       SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
-      assertTrue(result.getSuccessBlockIds().size() == 3);
+      assertTrue(result.getSuccessBlockIds().getLongCardinality() == 3);
       assertTrue(result.getFailedBlockIds().size() == 0);
     }
 
@@ -891,7 +881,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
                   shuffleServerInfo3,
                   shuffleServerInfo4));
       SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
-      assertEquals(3, result.getSuccessBlockIds().size());
+      assertEquals(3, result.getSuccessBlockIds().getLongCardinality());
       assertEquals(0, result.getFailedBlockIds().size());
     }
 
@@ -944,7 +934,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
                   shuffleServerInfo3,
                   shuffleServerInfo4));
       SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
-      assertTrue(result.getSuccessBlockIds().size() == 3);
+      assertTrue(result.getSuccessBlockIds().getLongCardinality() == 3);
       assertTrue(result.getFailedBlockIds().size() == 0);
     }
 
@@ -993,7 +983,7 @@ public class QuorumTest extends ShuffleReadWriteBase {
               expectedData,
               Lists.newArrayList(shuffleServerInfo0, shuffleServerInfo1, shuffleServerInfo2));
       SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
-      assertTrue(result.getSuccessBlockIds().size() == 3);
+      assertTrue(result.getSuccessBlockIds().getLongCardinality() == 3);
       assertTrue(result.getFailedBlockIds().size() == 0);
     }
 
@@ -135,9 +135,7 @@ public class RpcClientRetryTest extends ShuffleReadWriteBase {
     SendShuffleDataResult result = shuffleWriteClientImpl.sendShuffleData(testAppId, blocks);
     Roaring64NavigableMap failedBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
     Roaring64NavigableMap successfulBlockIdBitmap = Roaring64NavigableMap.bitmapOf();
-    for (Long blockId : result.getSuccessBlockIds()) {
-      successfulBlockIdBitmap.addLong(blockId);
-    }
+    successfulBlockIdBitmap.or(result.getSuccessBlockIds());
     for (Long blockId : result.getFailedBlockIds()) {
       failedBlockIdBitmap.addLong(blockId);
     }
@@ -155,9 +155,7 @@ public class ShuffleWithRssClientTest extends ShuffleReadWriteBase {
     for (Long blockId : result.getFailedBlockIds()) {
       failedBlockIdBitmap.addLong(blockId);
     }
-    for (Long blockId : result.getSuccessBlockIds()) {
-      succBlockIdBitmap.addLong(blockId);
-    }
+    succBlockIdBitmap.or(result.getSuccessBlockIds());
     // There will no failed blocks when replica=2
     assertEquals(failedBlockIdBitmap.getLongCardinality(), 0);
     assertEquals(blockIdBitmap, succBlockIdBitmap);
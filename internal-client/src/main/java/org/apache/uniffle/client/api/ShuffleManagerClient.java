@@ -17,10 +17,12 @@
 
 package org.apache.uniffle.client.api;
 
+import org.apache.uniffle.client.request.RssGetShuffleDictionaryRequest;
 import org.apache.uniffle.client.request.RssGetShuffleResultForMultiPartRequest;
 import org.apache.uniffle.client.request.RssGetShuffleResultRequest;
 import org.apache.uniffle.client.request.RssPartitionToShuffleServerRequest;
 import org.apache.uniffle.client.request.RssReassignOnBlockSendFailureRequest;
+import org.apache.uniffle.client.request.RssRegisterShuffleDictionaryRequest;
 import org.apache.uniffle.client.request.RssReportShuffleFetchFailureRequest;
 import org.apache.uniffle.client.request.RssReportShuffleResultRequest;
 import org.apache.uniffle.client.request.RssReportShuffleWriteFailureRequest;
@@ -30,6 +32,7 @@ import org.apache.uniffle.client.response.RssReassignOnStageRetryResponse;
 import org.apache.uniffle.client.response.RssReportShuffleFetchFailureResponse;
 import org.apache.uniffle.client.response.RssReportShuffleResultResponse;
 import org.apache.uniffle.client.response.RssReportShuffleWriteFailureResponse;
+import org.apache.uniffle.client.response.RssShuffleDictionaryResponse;
 import org.apache.uniffle.common.util.StatefulCloseable;
 
 public interface ShuffleManagerClient extends StatefulCloseable {
@@ -68,4 +71,13 @@ public interface ShuffleManagerClient extends StatefulCloseable {
       RssGetShuffleResultForMultiPartRequest request);
 
   RssReportShuffleResultResponse reportShuffleResult(RssReportShuffleResultRequest request);
+
+  /**
+   * Registers the compression dictionary of a shuffle. The response carries the dictionary which
+   * was registered first, so all writers of the shuffle end up with the same one.
+   */
+  RssShuffleDictionaryResponse registerShuffleDictionary(
+      RssRegisterShuffleDictionaryRequest request);
+
+  RssShuffleDictionaryResponse getShuffleDictionary(RssGetShuffleDictionaryRequest request);
 }
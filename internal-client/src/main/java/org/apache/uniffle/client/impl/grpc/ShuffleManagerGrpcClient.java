@@ -23,10 +23,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.uniffle.client.api.ShuffleManagerClient;
+import org.apache.uniffle.client.request.RssGetShuffleDictionaryRequest;
 import org.apache.uniffle.client.request.RssGetShuffleResultForMultiPartRequest;
 import org.apache.uniffle.client.request.RssGetShuffleResultRequest;
 import org.apache.uniffle.client.request.RssPartitionToShuffleServerRequest;
 import org.apache.uniffle.client.request.RssReassignOnBlockSendFailureRequest;
+import org.apache.uniffle.client.request.RssRegisterShuffleDictionaryRequest;
 import org.apache.uniffle.client.request.RssReportShuffleFetchFailureRequest;
 import org.apache.uniffle.client.request.RssReportShuffleResultRequest;
 import org.apache.uniffle.client.request.RssReportShuffleWriteFailureRequest;
@@ -36,6 +38,7 @@ import org.apache.uniffle.client.response.RssReassignOnStageRetryResponse;
 import org.apache.uniffle.client.response.RssReportShuffleFetchFailureResponse;
 import org.apache.uniffle.client.response.RssReportShuffleResultResponse;
 import org.apache.uniffle.client.response.RssReportShuffleWriteFailureResponse;
+import org.apache.uniffle.client.response.RssShuffleDictionaryResponse;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.proto.RssProtos;
 import org.apache.uniffle.proto.RssProtos.ReportShuffleFetchFailureRequest;
@@ -155,6 +158,21 @@ public class ShuffleManagerGrpcClient extends GrpcClient implements ShuffleManag
     return RssReportShuffleResultResponse.fromProto(response);
   }
 
+  @Override
+  public RssShuffleDictionaryResponse registerShuffleDictionary(
+      RssRegisterShuffleDictionaryRequest request) {
+    RssProtos.ShuffleDictionaryResponse response =
+        getBlockingStub().registerShuffleDictionary(request.toProto());
+    return RssShuffleDictionaryResponse.fromProto(response);
+  }
+
+  @Override
+  public RssShuffleDictionaryResponse getShuffleDictionary(RssGetShuffleDictionaryRequest request) {
+    RssProtos.ShuffleDictionaryResponse response =
+        getBlockingStub().getShuffleDictionary(request.toProto());
+    return RssShuffleDictionaryResponse.fromProto(response);
+  }
+
   @Override
   public boolean isClosed() {
     return channel.isShutdown() || channel.isTerminated();
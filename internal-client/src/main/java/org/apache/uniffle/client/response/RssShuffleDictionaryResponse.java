@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.client.response;
+
+import org.apache.uniffle.common.rpc.StatusCode;
+import org.apache.uniffle.proto.RssProtos;
+
+public class RssShuffleDictionaryResponse extends ClientResponse {
+
+  private final byte[] dictionary;
+
+  public RssShuffleDictionaryResponse(StatusCode statusCode, String message, byte[] dictionary) {
+    super(statusCode, message);
+    this.dictionary = dictionary;
+  }
+
+  /** Returns the dictionary of the shuffle, or null if no dictionary is registered yet. */
+  public byte[] getDictionary() {
+    return dictionary;
+  }
+
+  public static RssShuffleDictionaryResponse fromProto(
+      RssProtos.ShuffleDictionaryResponse rpcResponse) {
+    return new RssShuffleDictionaryResponse(
+        StatusCode.fromProto(rpcResponse.getStatus()),
+        rpcResponse.getRetMsg(),
+        rpcResponse.getDictionary().isEmpty() ? null : rpcResponse.getDictionary().toByteArray());
+  }
+}
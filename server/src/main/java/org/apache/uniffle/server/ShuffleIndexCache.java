@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import io.netty.buffer.Unpooled;
+
+import org.apache.uniffle.common.ShuffleIndexResult;
+import org.apache.uniffle.common.UnionKey;
+import org.apache.uniffle.common.netty.buffer.NettyManagedBuffer;
+import org.apache.uniffle.server.buffer.ShuffleBufferManager;
+
+/**
+ * The LRU cache of the index files, which is bounded by the size of the index data. The memory of
+ * the cached index is required from the read buffer of {@link ShuffleBufferManager}, and it's
+ * released when the index is removed. A cached index is used only if the data file and the length
+ * of the index file are not changed, otherwise it's loaded from the file again.
+ */
+public class ShuffleIndexCache {
+
+  private static final int CONCURRENCY_LEVEL = 4;
+
+  private final ShuffleBufferManager shuffleBufferManager;
+  private final long maxEntrySize;
+  // appId_shuffleId_startPartition -> index
+  private final Cache<String, CachedIndex> cache;
+
+  public ShuffleIndexCache(long capacity, ShuffleBufferManager shuffleBufferManager) {
+    this.shuffleBufferManager = shuffleBufferManager;
+    // the capacity is divided among the segments of the cache, the larger one is evicted at once
+    this.maxEntrySize = capacity / CONCURRENCY_LEVEL;
+    this.cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(CONCURRENCY_LEVEL)
+            .maximumWeight(capacity)
+            .<String, CachedIndex>weigher((key, index) -> index.data.length)
+            .removalListener(this::onRemoval)
+            .build();
+  }
+
+  /**
+   * @param fileResult the index result of the file, whose data is not read yet
+   * @return the cached index result if it's valid, otherwise the index is read from the file
+   */
+  public ShuffleIndexResult get(
+      String appId, int shuffleId, int startPartition, ShuffleIndexResult fileResult) {
+    long indexSize =
+        fileResult.getManagedBuffer() == null ? 0 : fileResult.getManagedBuffer().size();
+    if (indexSize == 0 || indexSize > maxEntrySize) {
+      return fileResult;
+    }
+    String key = UnionKey.buildKey(appId, shuffleId, startPartition);
+    CachedIndex index = cache.getIfPresent(key);
+    if (index != null && index.isValid(fileResult, indexSize)) {
+      ShuffleServerMetrics.counterTotalIndexCacheHit.inc();
+      return index.toResult();
+    }
+    ShuffleServerMetrics.counterTotalIndexCacheMiss.inc();
+    ByteBuffer buffer = fileResult.getIndexData();
+    byte[] data;
+    if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.array().length == indexSize) {
+      data = buffer.array();
+    } else {
+      data = new byte[buffer.remaining()];
+      buffer.duplicate().get(data);
+    }
+    fileResult.release();
+    index =
+        new CachedIndex(
+            data,
+            fileResult.getDataFileLen(),
+            fileResult.getDataFileName(),
+            fileResult.getStorageIds());
+    if (shuffleBufferManager == null || shuffleBufferManager.requireReadMemory(data.length)) {
+      ShuffleServerMetrics.gaugeIndexCacheSize.inc(data.length);
+      cache.put(key, index);
+    }
+    return index.toResult();
+  }
+
+  private void onRemoval(RemovalNotification<String, CachedIndex> notification) {
+    int size = notification.getValue().data.length;
+    if (shuffleBufferManager != null) {
+      shuffleBufferManager.releaseReadMemory(size);
+    }
+    ShuffleServerMetrics.gaugeIndexCacheSize.dec(size);
+    if (notification.wasEvicted()) {
+      ShuffleServerMetrics.counterTotalIndexCacheEviction.inc();
+    }
+  }
+
+  public void removeApp(String appId) {
+    cache.asMap().keySet().removeIf(key -> UnionKey.startsWith(key, appId, ""));
+  }
+
+  public void removeShuffle(String appId, int shuffleId) {
+    cache.asMap().keySet().removeIf(key -> UnionKey.startsWith(key, appId, shuffleId, ""));
+  }
+
+  @VisibleForTesting
+  long size() {
+    return cache.size();
+  }
+
+  private static class CachedIndex {
+    private final byte[] data;
+    private final long dataFileLen;
+    private final String dataFileName;
+    private final int[] storageIds;
+
+    CachedIndex(byte[] data, long dataFileLen, String dataFileName, int[] storageIds) {
+      this.data = data;
+      this.dataFileLen = dataFileLen;
+      this.dataFileName = dataFileName;
+      this.storageIds = storageIds;
+    }
+
+    boolean isValid(ShuffleIndexResult fileResult, long indexSize) {
+      return data.length == indexSize
+          && dataFileLen == fileResult.getDataFileLen()
+          && Objects.equals(dataFileName, fileResult.getDataFileName());
+    }
+
+    ShuffleIndexResult toResult() {
+      // every result has its own wrapper, so releasing it doesn't affect the cached data
+      return new ShuffleIndexResult(
+          new NettyManagedBuffer(Unpooled.wrappedBuffer(data)),
+          dataFileLen,
+          dataFileName,
+          storageIds);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+
+import org.apache.uniffle.common.UnionKey;
+import org.apache.uniffle.common.util.BlockIdLayout;
+import org.apache.uniffle.server.buffer.ShuffleBufferManager;
+
+/**
+ * The LRU cache of the serialized shuffle results, which is bounded by the size of the results. The
+ * reducers of a shuffle usually ask for the same partition sets, e.g. the coalesced partitions of
+ * AQE, and the result of a partition set doesn't change after all the map tasks have reported. A
+ * cached result is keyed by the number of the reported blocks of its partitions, so it's never used
+ * once more blocks are reported. The memory is accounted like {@link ShuffleIndexCache}.
+ */
+public class ShuffleResultCache {
+
+  private static final int CONCURRENCY_LEVEL = 4;
+
+  private final ShuffleBufferManager shuffleBufferManager;
+  private final long maxEntrySize;
+  // appId_shuffleId_layout_blockNumber_partitions -> serialized block ids
+  private final Cache<String, byte[]> cache;
+
+  public ShuffleResultCache(long capacity, ShuffleBufferManager shuffleBufferManager) {
+    this.shuffleBufferManager = shuffleBufferManager;
+    this.maxEntrySize = capacity / CONCURRENCY_LEVEL;
+    this.cache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(CONCURRENCY_LEVEL)
+            .maximumWeight(capacity)
+            .<String, byte[]>weigher((key, result) -> weight(key, result))
+            .removalListener(this::onRemoval)
+            .build();
+  }
+
+  public interface ResultLoader {
+    byte[] load() throws IOException;
+  }
+
+  /**
+   * @param blockNumber the number of the reported blocks of the partitions
+   * @param loader loads the result if it's not cached
+   */
+  public byte[] get(
+      String appId,
+      int shuffleId,
+      Set<Integer> partitions,
+      BlockIdLayout blockIdLayout,
+      long blockNumber,
+      ResultLoader loader)
+      throws IOException {
+    String key =
+        UnionKey.buildKey(
+            appId, shuffleId, blockIdLayout, blockNumber, new TreeSet<>(partitions).toString());
+    byte[] result = cache.getIfPresent(key);
+    if (result != null) {
+      ShuffleServerMetrics.counterTotalShuffleResultCacheHit.inc();
+      return result;
+    }
+    ShuffleServerMetrics.counterTotalShuffleResultCacheMiss.inc();
+    result = loader.load();
+    int weight = weight(key, result);
+    if (result == null || weight > maxEntrySize) {
+      return result;
+    }
+    if (shuffleBufferManager == null || shuffleBufferManager.requireReadMemory(weight)) {
+      ShuffleServerMetrics.gaugeShuffleResultCacheSize.inc(weight);
+      cache.put(key, result);
+    }
+    return result;
+  }
+
+  private static int weight(String key, byte[] result) {
+    return key.length() + (result == null ? 0 : result.length);
+  }
+
+  private void onRemoval(RemovalNotification<String, byte[]> notification) {
+    int weight = weight(notification.getKey(), notification.getValue());
+    if (shuffleBufferManager != null) {
+      shuffleBufferManager.releaseReadMemory(weight);
+    }
+    ShuffleServerMetrics.gaugeShuffleResultCacheSize.dec(weight);
+  }
+
+  public void removeApp(String appId) {
+    cache.asMap().keySet().removeIf(key -> UnionKey.startsWith(key, appId, ""));
+  }
+
+  public void removeShuffle(String appId, int shuffleId) {
+    cache.asMap().keySet().removeIf(key -> UnionKey.startsWith(key, appId, shuffleId, ""));
+  }
+
+  @VisibleForTesting
+  long size() {
+    return cache.size();
+  }
+}
@@ -269,6 +269,27 @@ public class ShuffleServerConf extends RssBaseConf {
           .defaultValue(2 * 1024L * 1024L)
           .withDescription("The index file size hint");
 
+  public static final ConfigOption<Long> SERVER_SHUFFLE_INDEX_CACHE_CAPACITY =
+      ConfigOptions.key("rss.server.index.cache.capacity")
+          .longType()
+          .checkValue(
+              ConfigUtils.NON_NEGATIVE_LONG_VALIDATOR, "index cache capacity must be non-negative")
+          .defaultValue(0L)
+          .withDescription(
+              "The max size of the local index files cached in memory, which is accounted "
+                  + "against the read buffer capacity. The cache is disabled if it's 0");
+
+  public static final ConfigOption<Long> SERVER_SHUFFLE_RESULT_CACHE_CAPACITY =
+      ConfigOptions.key("rss.server.shuffleResult.cache.capacity")
+          .longType()
+          .checkValue(
+              ConfigUtils.NON_NEGATIVE_LONG_VALIDATOR,
+              "shuffle result cache capacity must be non-negative")
+          .defaultValue(0L)
+          .withDescription(
+              "The max size of the serialized shuffle results cached in memory, which is "
+                  + "accounted against the read buffer capacity. The cache is disabled if it's 0");
+
   public static final ConfigOption<Boolean> SERVER_UNHEALTHY_ONCE_STORAGE_CORRUPTION =
       ConfigOptions.key("rss.server.health.markUnhealthyOnceStorageCorruption")
           .booleanType()
@@ -473,12 +494,39 @@ public class ShuffleServerConf extends RssBaseConf {
           .enumType(ShuffleBufferType.class)
           .defaultValue(ShuffleBufferType.LINKED_LIST)
           .withDescription(
-              "The type for shuffle buffers. Setting as LINKED_LIST or SKIP_LIST."
+              "The type for shuffle buffers. Setting as LINKED_LIST, SKIP_LIST, SLAB or LONG_MAP."
                   + " The default value is LINKED_LIST. SKIP_LIST will help to improve"
                   + " the performance when there are a large number of blocks in memory"
                   + " or when the memory occupied by the blocks is very large."
                   + " The cpu usage of the shuffle server will be reduced."
-                  + " But SKIP_LIST doesn't support the slow-start feature of MR.");
+                  + " But SKIP_LIST doesn't support the slow-start feature of MR."
+                  + " SLAB works like LINKED_LIST, but copies the small blocks into large"
+                  + " off-heap slabs which are released as a whole after flushing, it's"
+                  + " recommended when the netty server is enabled and the blocks are small."
+                  + " LONG_MAP indexes the block ids with a primitive long hash table instead"
+                  + " of a skip list, which reduces the allocation and the cpu usage per block,"
+                  + " and flushes the blocks in the order of taskAttemptId like SKIP_LIST.");
+
+  public static final ConfigOption<Long> SERVER_SHUFFLE_BUFFER_SLAB_SIZE =
+      ConfigOptions.key("rss.server.shuffleBuffer.slab.size")
+          .longType()
+          .checkValue(
+              ConfigUtils.POSITIVE_INTEGER_VALIDATOR,
+              "The slab size must be positive and less than 2GB")
+          .defaultValue(256 * 1024L)
+          .withDescription(
+              "The size of the off-heap slab for the SLAB shuffle buffer type."
+                  + " The blocks bigger than it are not copied into slabs.");
+
+  public static final ConfigOption<Integer> SERVER_SHUFFLE_BUFFER_SLAB_MAX_POOLED_NUM =
+      ConfigOptions.key("rss.server.shuffleBuffer.slab.maxPooledNum")
+          .intType()
+          .checkValue(
+              ConfigUtils.NON_NEGATIVE_INTEGER_VALIDATOR_2, "The pooled num must be non negative")
+          .defaultValue(64)
+          .withDescription(
+              "The max number of the released slabs kept to be reused by the SLAB shuffle buffer"
+                  + " type, the other released slabs are freed immediately.");
 
   public static final ConfigOption<Integer> SERVER_SHUFFLE_FLUSH_TRYLOCK_TIMEOUT =
       ConfigOptions.key("rss.server.flush.tryLockTimeoutMs")
@@ -489,6 +537,16 @@ public class ShuffleServerConf extends RssBaseConf {
                   + "it will try to get the lock of the application. If the time to wait for the lock"
                   + " is too long, the rpc threads will be blocked for a long time.");
 
+  public static final ConfigOption<Integer> SERVER_SHUFFLE_BUFFER_FLUSH_LOCK_STRIPES =
+      ConfigOptions.key("rss.server.shuffleBuffer.flush.lockStripes")
+          .intType()
+          .checkValue(ConfigUtils.POSITIVE_INTEGER_VALIDATOR_2, "lock stripes must be positive")
+          .defaultValue(64)
+          .withDescription(
+              "The number of striped locks guarding the single buffer flush decisions of the"
+                  + " shuffle buffer manager. Writes to different shuffle buffers only contend"
+                  + " when their buffers are hashed into the same stripe.");
+
   public static final ConfigOption<Long> SERVER_SHUFFLE_FLUSH_THRESHOLD =
       ConfigOptions.key("rss.server.shuffle.flush.threshold")
           .longType()
@@ -712,11 +770,16 @@ public class ShuffleServerConf extends RssBaseConf {
           .defaultValue(Integer.MAX_VALUE)
           .withDescription("size of waiting queue for merge thread pool");
 
+  /** @deprecated the merge threads are a work-stealing pool, which retires idle threads itself */
+  @Deprecated
   public static final ConfigOption<Integer> SERVER_MERGE_THREAD_ALIVE_TIME =
       ConfigOptions.key("rss.server.merge.threadAliveTime")
           .intType()
           .defaultValue(120)
-          .withDescription("thread idle time in merge thread pool (s)");
+          .withDescription(
+              "Deprecated. thread idle time in merge thread pool (s). It's ignored since the "
+                  + "merge threads are a work-stealing pool, which retires the idle threads by "
+                  + "itself");
 
   public static final ConfigOption<String> SERVER_MERGE_DEFAULT_MERGED_BLOCK_SIZE =
       ConfigOptions.key("rss.server.merge.defaultMergedBlockSize")
@@ -744,6 +807,32 @@ public class ShuffleServerConf extends RssBaseConf {
           .defaultValue(2)
           .withDescription("The ring buffer size for read block when merge");
 
+  public static final ConfigOption<Integer> SERVER_MERGE_FACTOR =
+      ConfigOptions.key("rss.server.merge.factor")
+          .intType()
+          .checkValue(value -> value >= 2, "merge factor must be at least 2")
+          .defaultValue(100)
+          .withDescription(
+              "The max number of segments merged at once. If a partition has more blocks, they "
+                  + "are merged into sorted runs on local disk first, and the runs are merged in "
+                  + "further passes");
+
+  public static final ConfigOption<String> SERVER_MERGE_SPILL_PATH =
+      ConfigOptions.key("rss.server.merge.spillPath")
+          .stringType()
+          .defaultValue(null)
+          .withDescription(
+              "The directory of the sorted runs of multi-pass merge. If not set, the local "
+                  + "storage of the partition is used");
+
+  public static final ConfigOption<Boolean> SERVER_MERGE_PARALLEL_ENABLED =
+      ConfigOptions.key("rss.server.merge.parallel.enabled")
+          .booleanType()
+          .defaultValue(true)
+          .withDescription(
+              "Whether to split the merge of a partition with more blocks than "
+                  + "rss.server.merge.factor into sub-merges run by the idle merge threads");
+
   public static final ConfigOption<String> SERVER_MERGE_CLASS_LOADER_JARS_PATH =
       ConfigOptions.key("rss.server.merge.classLoaderJarsPath")
           .stringType()
@@ -761,6 +850,44 @@ public class ShuffleServerConf extends RssBaseConf {
           .withDescription(
               "The block id manager class, the implementation of this interface "
                   + "to manage the shuffle block ids");
+  public static final ConfigOption<String> SERVER_BLOCK_ID_SPILL_PATH =
+      ConfigOptions.key("rss.server.blockIdManager.spill.path")
+          .stringType()
+          .noDefaultValue()
+          .withDescription(
+              "The local path to spill the block ids of the idle shuffles, only used by "
+                  + "PartitionIndexedShuffleBlockIdManager. The spill is disabled if it's not set");
+  public static final ConfigOption<Long> SERVER_BLOCK_ID_SPILL_IDLE_TIME_MS =
+      ConfigOptions.key("rss.server.blockIdManager.spill.idleTimeMs")
+          .longType()
+          .checkValue(
+              ConfigUtils.NON_NEGATIVE_LONG_VALIDATOR, "spill idle time must be non-negative")
+          .defaultValue(10 * 60 * 1000L)
+          .withDescription(
+              "The block ids of a shuffle are spilled if they are not accessed for this time");
+  public static final ConfigOption<Long> SERVER_BLOCK_ID_SPILL_MIN_BLOCK_NUM =
+      ConfigOptions.key("rss.server.blockIdManager.spill.minBlockNum")
+          .longType()
+          .checkValue(
+              ConfigUtils.NON_NEGATIVE_LONG_VALIDATOR, "spill min block num must be non-negative")
+          .defaultValue(100000L)
+          .withDescription("The block ids of a shuffle are spilled only if there are so many");
+  public static final ConfigOption<Boolean> SERVER_BLOCK_ID_FREEZE_ENABLED =
+      ConfigOptions.key("rss.server.blockIdManager.freeze.enabled")
+          .booleanType()
+          .defaultValue(true)
+          .withDescription(
+              "Whether to freeze the block ids of a shuffle into a compact form in the background "
+                  + "after the shuffle is committed");
+  public static final ConfigOption<Long> SERVER_BLOCK_ID_FREEZE_DELAY_MS =
+      ConfigOptions.key("rss.server.blockIdManager.freeze.delayMs")
+          .longType()
+          .checkValue(
+              ConfigUtils.NON_NEGATIVE_LONG_VALIDATOR, "freeze delay must be non-negative")
+          .defaultValue(10 * 1000L)
+          .withDescription(
+              "The block ids of a shuffle are frozen if the shuffle is not committed again "
+                  + "for this time");
   public static final ConfigOption<List<String>> SERVER_DISPLAY_METRICS_LIST =
       ConfigOptions.key("rss.server.displayMetricsList")
           .stringType()
@@ -84,6 +84,20 @@ public class ShuffleServerMetrics {
       "total_require_read_memory_retry_num";
   private static final String TOTAL_REQUIRE_READ_MEMORY_FAILED =
       "total_require_read_memory_failed_num";
+  private static final String TOTAL_INDEX_CACHE_HIT = "total_index_cache_hit";
+  private static final String TOTAL_INDEX_CACHE_MISS = "total_index_cache_miss";
+  private static final String TOTAL_INDEX_CACHE_EVICTION = "total_index_cache_eviction";
+  private static final String INDEX_CACHE_SIZE = "index_cache_size";
+  private static final String TOTAL_SHUFFLE_RESULT_CACHE_HIT = "total_shuffle_result_cache_hit";
+  private static final String TOTAL_SHUFFLE_RESULT_CACHE_MISS = "total_shuffle_result_cache_miss";
+  private static final String SHUFFLE_RESULT_CACHE_SIZE = "shuffle_result_cache_size";
+  private static final String TOTAL_MERGE_PASS_NUM = "total_merge_pass_num";
+  private static final String TOTAL_MERGE_SPILL_SIZE = "total_merge_spill_size";
+  private static final String TOTAL_SUB_MERGE_NUM = "total_sub_merge_num";
+  private static final String TOTAL_PRIORITIZED_MERGE_EVENT_NUM =
+      "total_prioritized_merge_event_num";
+  private static final String MERGE_EVENT_QUEUE_TIME = "merge_event_queue_time";
+  private static final String PARTITION_MERGE_TIME = "partition_merge_time";
 
   private static final String LOCAL_STORAGE_IS_WRITABLE = "local_storage_is_writable";
   private static final String LOCAL_STORAGE_IS_TIMEOUT = "local_storage_is_timeout";
@@ -110,6 +124,8 @@ public class ShuffleServerMetrics {
   private static final String TOTAL_HADOOP_WRITE_DATA_FOR_HUGE_PARTITION =
       "total_hadoop_write_data_for_huge_partition";
   private static final String TOTAL_LOCALFILE_WRITE_DATA = "total_localfile_write_data";
+  private static final String TOTAL_LOCALFILE_WRITE_TIME = "total_localfile_write_time";
+  private static final String LOCALFILE_WRITE_SPEED = "localfile_write_speed";
   private static final String LOCAL_DISK_PATH_LABEL = "local_disk_path";
   public static final String LOCAL_DISK_PATH_LABEL_ALL = "ALL";
   private static final String TOTAL_REQUIRE_BUFFER_FAILED = "total_require_buffer_failed";
@@ -165,6 +181,13 @@ public class ShuffleServerMetrics {
   public static final String BLOCK_COUNT_IN_BUFFER_POOL = "block_count_in_buffer_pool";
   public static final String BUFFER_COUNT_IN_BUFFER_POOL = "buffer_count_in_buffer_pool";
   public static final String SHUFFLE_COUNT_IN_BUFFER_POOL = "shuffle_count_in_buffer_pool";
+  public static final String SLAB_ALLOCATED_SIZE = "slab_allocated_size";
+  public static final String SLAB_USED_SIZE = "slab_used_size";
+  public static final String SLAB_WASTED_SIZE = "slab_wasted_size";
+  public static final String SLAB_POOLED_SIZE = "slab_pooled_size";
+  public static final String SLAB_HELD_SIZE = "slab_held_size";
+  public static final String SLAB_UTILIZATION = "slab_utilization";
+  public static final String SLAB_FRAGMENTATION = "slab_fragmentation";
 
   public static final String COMMITTED_BLOCK_COUNT = "committed_block_count";
   public static final String REPORTED_BLOCK_COUNT = "reported_block_count";
@@ -214,8 +237,19 @@ public class ShuffleServerMetrics {
   public static Counter.Child counterTotalRequireReadMemoryNum;
   public static Counter.Child counterTotalRequireReadMemoryRetryNum;
   public static Counter.Child counterTotalRequireReadMemoryFailedNum;
+  public static Counter.Child counterTotalIndexCacheHit;
+  public static Counter.Child counterTotalIndexCacheMiss;
+  public static Counter.Child counterTotalIndexCacheEviction;
+  public static Counter.Child counterTotalShuffleResultCacheHit;
+  public static Counter.Child counterTotalShuffleResultCacheMiss;
+  public static Counter.Child counterTotalMergePassNum;
+  public static Counter.Child counterTotalMergeSpillSize;
+  public static Counter.Child counterTotalSubMergeNum;
+  public static Counter.Child counterTotalPrioritizedMergeEventNum;
 
   public static Summary summaryTotalRemoveResourceTime;
+  public static Summary summaryMergeEventQueueTime;
+  public static Summary summaryPartitionMergeTime;
   public static Summary summaryTotalRemoveResourceByShuffleIdsTime;
 
   public static Gauge.Child gaugeHugePartitionNum;
@@ -235,6 +269,8 @@ public class ShuffleServerMetrics {
   public static Gauge.Child gaugeInFlushBufferSize;
   public static Gauge.Child gaugeUsedBufferSize;
   public static Gauge.Child gaugeReadBufferUsedSize;
+  public static Gauge.Child gaugeIndexCacheSize;
+  public static Gauge.Child gaugeShuffleResultCacheSize;
   public static Gauge.Child gaugeWriteHandler;
   public static Gauge.Child gaugeMergeEventQueueSize;
   public static Gauge.Child gaugeHadoopFlushThreadPoolQueueSize;
@@ -262,6 +298,8 @@ public class ShuffleServerMetrics {
   public static Counter counterTotalHadoopWriteDataSize;
   public static Counter counterTotalHadoopWriteDataSizeForHugePartition;
   public static Counter counterTotalLocalFileWriteDataSize;
+  public static Counter counterTotalLocalFileWriteTime;
+  public static Histogram histogramLocalFileWriteSpeed;
 
   private static String tags;
   public static Counter counterLocalFileEventFlush;
@@ -408,6 +446,14 @@ public class ShuffleServerMetrics {
             STORAGE_HOST_LABEL);
     counterTotalLocalFileWriteDataSize =
         metricsManager.addCounter(TOTAL_LOCALFILE_WRITE_DATA, LOCAL_DISK_PATH_LABEL);
+    counterTotalLocalFileWriteTime =
+        metricsManager.addCounter(TOTAL_LOCALFILE_WRITE_TIME, LOCAL_DISK_PATH_LABEL);
+    // the write speed of the flush events in MB/s
+    histogramLocalFileWriteSpeed =
+        metricsManager.addHistogram(
+            LOCALFILE_WRITE_SPEED,
+            new double[] {1, 10, 50, 100, 200, 500, 1000, 2000},
+            LOCAL_DISK_PATH_LABEL);
 
     counterTotalRequireBufferFailed = metricsManager.addLabeledCounter(TOTAL_REQUIRE_BUFFER_FAILED);
     counterTotalRequireBufferFailedForRegularPartition =
@@ -436,6 +482,18 @@ public class ShuffleServerMetrics {
         metricsManager.addLabeledCounter(TOTAL_REQUIRE_READ_MEMORY_RETRY);
     counterTotalRequireReadMemoryFailedNum =
         metricsManager.addLabeledCounter(TOTAL_REQUIRE_READ_MEMORY_FAILED);
+    counterTotalIndexCacheHit = metricsManager.addLabeledCounter(TOTAL_INDEX_CACHE_HIT);
+    counterTotalIndexCacheMiss = metricsManager.addLabeledCounter(TOTAL_INDEX_CACHE_MISS);
+    counterTotalIndexCacheEviction = metricsManager.addLabeledCounter(TOTAL_INDEX_CACHE_EVICTION);
+    counterTotalShuffleResultCacheHit =
+        metricsManager.addLabeledCounter(TOTAL_SHUFFLE_RESULT_CACHE_HIT);
+    counterTotalShuffleResultCacheMiss =
+        metricsManager.addLabeledCounter(TOTAL_SHUFFLE_RESULT_CACHE_MISS);
+    counterTotalMergePassNum = metricsManager.addLabeledCounter(TOTAL_MERGE_PASS_NUM);
+    counterTotalMergeSpillSize = metricsManager.addLabeledCounter(TOTAL_MERGE_SPILL_SIZE);
+    counterTotalSubMergeNum = metricsManager.addLabeledCounter(TOTAL_SUB_MERGE_NUM);
+    counterTotalPrioritizedMergeEventNum =
+        metricsManager.addLabeledCounter(TOTAL_PRIORITIZED_MERGE_EVENT_NUM);
 
     counterTotalAppNum = metricsManager.addLabeledCounter(TOTAL_APP_NUM);
     counterTotalAppWithHugePartitionNum =
@@ -467,6 +525,8 @@ public class ShuffleServerMetrics {
     gaugeInFlushBufferSize = metricsManager.addLabeledGauge(IN_FLUSH_BUFFER_SIZE);
     gaugeUsedBufferSize = metricsManager.addLabeledGauge(USED_BUFFER_SIZE);
     gaugeReadBufferUsedSize = metricsManager.addLabeledGauge(READ_USED_BUFFER_SIZE);
+    gaugeIndexCacheSize = metricsManager.addLabeledGauge(INDEX_CACHE_SIZE);
+    gaugeShuffleResultCacheSize = metricsManager.addLabeledGauge(SHUFFLE_RESULT_CACHE_SIZE);
     gaugeWriteHandler = metricsManager.addLabeledGauge(TOTAL_WRITE_HANDLER);
     gaugeMergeEventQueueSize = metricsManager.addLabeledGauge(MERGE_EVENT_QUEUE_SIZE);
     gaugeHadoopFlushThreadPoolQueueSize =
@@ -502,6 +562,8 @@ public class ShuffleServerMetrics {
     counterAppNotFound = metricsManager.addCounter(TOTAL_APP_NOT_FOUND_NUM);
 
     summaryTotalRemoveResourceTime = metricsManager.addSummary(TOTAL_REMOVE_RESOURCE_TIME);
+    summaryMergeEventQueueTime = metricsManager.addSummary(MERGE_EVENT_QUEUE_TIME);
+    summaryPartitionMergeTime = metricsManager.addSummary(PARTITION_MERGE_TIME);
     summaryTotalRemoveResourceByShuffleIdsTime =
         metricsManager.addSummary(TOTAL_REMOVE_RESOURCE_BY_SHUFFLE_IDS_TIME);
 
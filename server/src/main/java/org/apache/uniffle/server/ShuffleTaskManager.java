@@ -29,6 +29,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -57,6 +58,7 @@ import org.apache.uniffle.common.ShuffleDataResult;
 import org.apache.uniffle.common.ShuffleIndexResult;
 import org.apache.uniffle.common.ShufflePartitionedBlock;
 import org.apache.uniffle.common.ShufflePartitionedData;
+import org.apache.uniffle.common.UnionKey;
 import org.apache.uniffle.common.config.RssBaseConf;
 import org.apache.uniffle.common.exception.FileNotFoundException;
 import org.apache.uniffle.common.exception.InvalidRequestException;
@@ -105,6 +107,7 @@ public class ShuffleTaskManager {
   private final ScheduledExecutorService expiredAppCleanupExecutorService;
   private final ScheduledExecutorService leakShuffleDataCheckExecutorService;
   private ScheduledExecutorService triggerFlushExecutorService;
+  private ScheduledExecutorService blockIdFreezeExecutorService;
   private final TopNShuffleDataSizeOfAppCalcTask topNShuffleDataSizeOfAppCalcTask;
   private StorageManager storageManager;
   private AtomicLong requireBufferId = new AtomicLong(0);
@@ -123,6 +126,11 @@ public class ShuffleTaskManager {
   private final long storageRemoveOperationTimeoutSec;
   private ShuffleMergeManager shuffleMergeManager;
   private ShuffleBlockIdManager shuffleBlockIdManager;
+  private final ShuffleIndexCache shuffleIndexCache;
+  private final ShuffleResultCache shuffleResultCache;
+  private long blockIdFreezeDelayMs;
+  // appId_shuffleId -> the pending freeze of the block ids
+  private final Map<String, ScheduledFuture<?>> blockIdFreezeTasks = JavaUtils.newConcurrentMap();
 
   public ShuffleTaskManager(
       ShuffleServerConf conf,
@@ -188,11 +196,26 @@ public class ShuffleTaskManager {
           triggerFlushInterval,
           TimeUnit.MILLISECONDS);
     }
+    if (conf.get(ShuffleServerConf.SERVER_BLOCK_ID_FREEZE_ENABLED)) {
+      blockIdFreezeDelayMs = conf.get(ShuffleServerConf.SERVER_BLOCK_ID_FREEZE_DELAY_MS);
+      blockIdFreezeExecutorService =
+          ThreadUtils.getDaemonSingleThreadScheduledExecutor("blockIdFreezer");
+    }
     if (shuffleBufferManager != null) {
       shuffleBufferManager.setShuffleTaskManager(this);
     }
 
     shuffleBlockIdManager = ShuffleBlockIdManagerFactory.createShuffleBlockIdManager(conf);
+    long indexCacheCapacity = conf.get(ShuffleServerConf.SERVER_SHUFFLE_INDEX_CACHE_CAPACITY);
+    this.shuffleIndexCache =
+        indexCacheCapacity > 0
+            ? new ShuffleIndexCache(indexCacheCapacity, shuffleBufferManager)
+            : null;
+    long resultCacheCapacity = conf.get(ShuffleServerConf.SERVER_SHUFFLE_RESULT_CACHE_CAPACITY);
+    this.shuffleResultCache =
+        resultCacheCapacity > 0
+            ? new ShuffleResultCache(resultCacheCapacity, shuffleBufferManager)
+            : null;
 
     appLocks =
         CacheBuilder.newBuilder()
@@ -410,14 +433,13 @@ public class ShuffleTaskManager {
       long expectedCommitted = cloneBlockIds.getLongCardinality();
       shuffleBufferManager.commitShuffleTask(appId, shuffleId);
       Roaring64NavigableMap committedBlockIds;
-      Roaring64NavigableMap cloneCommittedBlockIds;
       long checkInterval = 1000L;
       while (true) {
         committedBlockIds = shuffleFlushManager.getCommittedBlockIds(appId, shuffleId);
+        // the committed block ids are removed under the lock, so they needn't be copied
         synchronized (committedBlockIds) {
-          cloneCommittedBlockIds = RssUtils.cloneBitMap(committedBlockIds);
+          cloneBlockIds.andNot(committedBlockIds);
         }
-        cloneBlockIds.andNot(cloneCommittedBlockIds);
         if (cloneBlockIds.isEmpty()) {
           break;
         }
@@ -448,9 +470,46 @@ public class ShuffleTaskManager {
               + (System.currentTimeMillis() - start)
               + " ms to check");
     }
+    scheduleBlockIdFreeze(appId, shuffleId);
     return StatusCode.SUCCESS;
   }
 
+  /**
+   * Freeze the block ids of the shuffle off the rpc thread once it is not committed again for a
+   * while, so the commits of the map tasks one by one don't freeze it repeatedly.
+   */
+  private void scheduleBlockIdFreeze(String appId, int shuffleId) {
+    if (blockIdFreezeExecutorService == null) {
+      return;
+    }
+    blockIdFreezeTasks.compute(
+        UnionKey.buildKey(appId, shuffleId),
+        (key, pendingTask) -> {
+          if (pendingTask != null) {
+            pendingTask.cancel(false);
+          }
+          return blockIdFreezeExecutorService.schedule(
+              () -> freezeBlockIds(key, appId, shuffleId),
+              blockIdFreezeDelayMs,
+              TimeUnit.MILLISECONDS);
+        });
+  }
+
+  private void freezeBlockIds(String key, String appId, int shuffleId) {
+    blockIdFreezeTasks.remove(key);
+    ShuffleTaskInfo taskInfo = shuffleTaskInfos.get(appId);
+    ShuffleBlockIdManager manager = taskInfo == null ? null : taskInfo.getShuffleBlockIdManager();
+    if (manager == null) {
+      return;
+    }
+    try {
+      manager.freezeBlockIds(appId, shuffleId);
+    } catch (Exception e) {
+      LOG.warn(
+          "Failed to freeze the block ids of appId[{}], shuffleId[{}]", appId, shuffleId, e);
+    }
+  }
+
   /**
    * Add finished blockIds from client
    *
@@ -673,7 +732,20 @@ public class ShuffleTaskManager {
     if (manager == null) {
       throw new RssException("appId[" + appId + "] is expired!");
     }
-    return manager.getFinishedBlockIds(taskInfo, appId, shuffleId, partitions, blockIdLayout);
+    if (shuffleResultCache == null) {
+      return manager.getFinishedBlockIds(taskInfo, appId, shuffleId, partitions, blockIdLayout);
+    }
+    long blockNumber = 0;
+    for (int partitionId : partitions) {
+      blockNumber += taskInfo.getBlockNumber(shuffleId, partitionId);
+    }
+    return shuffleResultCache.get(
+        appId,
+        shuffleId,
+        partitions,
+        blockIdLayout,
+        blockNumber,
+        () -> manager.getFinishedBlockIds(taskInfo, appId, shuffleId, partitions, blockIdLayout));
   }
 
   public ShuffleDataResult getInMemoryShuffleData(
@@ -760,6 +832,9 @@ public class ShuffleTaskManager {
     if (result == null) {
       throw new FileNotFoundException("No such data in current storage manager.");
     }
+    if (shuffleIndexCache != null) {
+      return shuffleIndexCache.get(appId, shuffleId, range[0], result);
+    }
     return result;
   }
 
@@ -829,6 +904,12 @@ public class ShuffleTaskManager {
       }
       shuffleBufferManager.removeBufferByShuffleId(appId, shuffleIds);
       shuffleFlushManager.removeResourcesOfShuffleId(appId, shuffleIds);
+      if (shuffleIndexCache != null) {
+        shuffleIds.forEach(shuffleId -> shuffleIndexCache.removeShuffle(appId, shuffleId));
+      }
+      if (shuffleResultCache != null) {
+        shuffleIds.forEach(shuffleId -> shuffleResultCache.removeShuffle(appId, shuffleId));
+      }
 
       String operationMsg =
           String.format("removing storage data for appId:%s, shuffleIds:%s", appId, shuffleIds);
@@ -907,10 +988,20 @@ public class ShuffleTaskManager {
       ShuffleBlockIdManager manager = shuffleTaskInfo.getShuffleBlockIdManager();
       if (manager != null) {
         manager.removeBlockIdByAppId(appId);
+        // the manager configured by the app is only used by itself
+        if (manager != shuffleBlockIdManager) {
+          manager.close();
+        }
       }
       shuffleBlockIdManager.removeBlockIdByAppId(appId);
       shuffleBufferManager.removeBuffer(appId);
       shuffleFlushManager.removeResources(appId);
+      if (shuffleIndexCache != null) {
+        shuffleIndexCache.removeApp(appId);
+      }
+      if (shuffleResultCache != null) {
+        shuffleResultCache.removeApp(appId);
+      }
 
       String operationMsg = String.format("removing storage data for appId:%s", appId);
       withTimeoutExecution(
@@ -1056,9 +1147,7 @@ public class ShuffleTaskManager {
   }
 
   private void triggerFlush() {
-    synchronized (this.shuffleBufferManager) {
-      this.shuffleBufferManager.flushIfNecessary();
-    }
+    this.shuffleBufferManager.flushIfNecessary();
   }
 
   public Map<String, ShuffleTaskInfo> getShuffleTaskInfos() {
@@ -1067,6 +1156,10 @@ public class ShuffleTaskManager {
 
   public void stop() {
     topNShuffleDataSizeOfAppCalcTask.stop();
+    if (blockIdFreezeExecutorService != null) {
+      blockIdFreezeExecutorService.shutdownNow();
+    }
+    shuffleBlockIdManager.close();
   }
 
   public void start() {
@@ -168,7 +168,10 @@ public class DefaultShuffleBlockIdManager implements ShuffleBlockIdManager {
     for (Map.Entry<Integer, Set<Integer>> entry : bitmapIndexToPartitions.entrySet()) {
       Set<Integer> requestPartitions = entry.getValue();
       Roaring64NavigableMap bitmap = blockIds[entry.getKey()];
-      getBlockIdsByPartitionId(requestPartitions, bitmap, res, blockIdLayout);
+      // the bitmap may be updated or frozen concurrently
+      synchronized (bitmap) {
+        getBlockIdsByPartitionId(requestPartitions, bitmap, res, blockIdLayout);
+      }
     }
     if (res.getLongCardinality() != expectedBlockNumber) {
       throw new RssException(
@@ -182,6 +185,29 @@ public class DefaultShuffleBlockIdManager implements ShuffleBlockIdManager {
     return RssUtils.serializeBitMap(res);
   }
 
+  @Override
+  public void freezeBlockIds(String appId, int shuffleId) {
+    Map<Integer, Roaring64NavigableMap[]> shuffleIdToPartitions = partitionsToBlockIds.get(appId);
+    Roaring64NavigableMap[] blockIds =
+        shuffleIdToPartitions == null ? null : shuffleIdToPartitions.get(shuffleId);
+    if (blockIds == null) {
+      return;
+    }
+    final long start = System.currentTimeMillis();
+    // the bitmaps are still mutable after being run-optimized, so they are never unfrozen
+    for (Roaring64NavigableMap bitmap : blockIds) {
+      synchronized (bitmap) {
+        bitmap.runOptimize();
+      }
+    }
+    LOG.info(
+        "Froze {} bitmaps of appId[{}], shuffleId[{}] cost {} ms",
+        blockIds.length,
+        appId,
+        shuffleId,
+        System.currentTimeMillis() - start);
+  }
+
   @Override
   public void removeBlockIdByShuffleId(String appId, List<Integer> shuffleIds) {
     Optional.ofNullable(partitionsToBlockIds.get(appId))
@@ -0,0 +1,586 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.block;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import org.apache.commons.lang3.StringUtils;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.uniffle.common.exception.RssException;
+import org.apache.uniffle.common.util.BlockIdLayout;
+import org.apache.uniffle.common.util.JavaUtils;
+import org.apache.uniffle.common.util.RssUtils;
+import org.apache.uniffle.common.util.ThreadUtils;
+import org.apache.uniffle.server.ShuffleServerConf;
+import org.apache.uniffle.server.ShuffleTaskInfo;
+
+/**
+ * Manage the block ids of each partition in its own bitmap, so getting the finished block ids only
+ * visits the block ids of the requested partitions. If the spill path is configured, the block ids
+ * of the shuffles which are not accessed for a while are spilled to a local file as run-optimized
+ * serialized bitmaps with the index of partitions, and they are read from the file by partition
+ * until the shuffle is updated again.
+ * When the shuffle is frozen after it is committed, the block ids of each partition are frozen
+ * into a run-optimized serialized bitmap, so the result of a single partition is returned as it is
+ * and the bitmaps are released. Only the partitions updated again, e.g. by a retried task, are
+ * unfrozen.
+ */
+public class PartitionIndexedShuffleBlockIdManager implements ShuffleBlockIdManager {
+  private static final Logger LOG =
+      LoggerFactory.getLogger(PartitionIndexedShuffleBlockIdManager.class);
+  private static final String SPILL_FILE_SUFFIX = ".blockIds";
+
+  // appId -> shuffleId -> blockIds
+  private final Map<String, Map<Integer, ShuffleBlockIds>> partitionsToBlockIds;
+  private final String spillPath;
+  private final long spillIdleTimeMs;
+  private final long spillMinBlockNum;
+  private ScheduledExecutorService spillExecutor;
+
+  public PartitionIndexedShuffleBlockIdManager() {
+    this(new ShuffleServerConf());
+  }
+
+  public PartitionIndexedShuffleBlockIdManager(ShuffleServerConf conf) {
+    this.partitionsToBlockIds = JavaUtils.newConcurrentMap();
+    this.spillPath = conf.get(ShuffleServerConf.SERVER_BLOCK_ID_SPILL_PATH);
+    this.spillIdleTimeMs = conf.get(ShuffleServerConf.SERVER_BLOCK_ID_SPILL_IDLE_TIME_MS);
+    this.spillMinBlockNum = conf.get(ShuffleServerConf.SERVER_BLOCK_ID_SPILL_MIN_BLOCK_NUM);
+    if (StringUtils.isNotEmpty(spillPath)) {
+      initSpillPath();
+      long checkInterval = Math.max(spillIdleTimeMs / 2, 1000L);
+      spillExecutor = ThreadUtils.getDaemonSingleThreadScheduledExecutor("blockIdSpiller");
+      spillExecutor.scheduleAtFixedRate(
+          this::spillIdleShuffles, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void initSpillPath() {
+    File dir = new File(spillPath);
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new RssException("Failed to create the block id spill path " + spillPath);
+    }
+    // the files left by the previous process are useless
+    File[] staleFiles = dir.listFiles((d, name) -> name.endsWith(SPILL_FILE_SUFFIX));
+    if (staleFiles != null) {
+      for (File file : staleFiles) {
+        if (!file.delete()) {
+          LOG.warn("Failed to delete the stale block id spill file {}", file);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void registerAppId(String appId) {
+    partitionsToBlockIds.computeIfAbsent(appId, key -> JavaUtils.newConcurrentMap());
+  }
+
+  @Override
+  public int addFinishedBlockIds(
+      ShuffleTaskInfo taskInfo,
+      String appId,
+      Integer shuffleId,
+      Map<Integer, long[]> partitionToBlockIds,
+      int bitmapNum) {
+    Map<Integer, ShuffleBlockIds> shuffleIdToBlockIds = partitionsToBlockIds.get(appId);
+    if (shuffleIdToBlockIds == null) {
+      throw new RssException("appId[" + appId + "] is expired!");
+    }
+    ShuffleBlockIds blockIds =
+        shuffleIdToBlockIds.computeIfAbsent(
+            shuffleId, key -> new ShuffleBlockIds(appId + "_" + shuffleId));
+    int totalUpdatedBlockCount = 0;
+    for (Map.Entry<Integer, long[]> entry : partitionToBlockIds.entrySet()) {
+      Integer partitionId = entry.getKey();
+      int updatedBlockCount = blockIds.add(partitionId, entry.getValue());
+      totalUpdatedBlockCount += updatedBlockCount;
+      taskInfo.incBlockNumber(shuffleId, partitionId, updatedBlockCount);
+    }
+    return totalUpdatedBlockCount;
+  }
+
+  @Override
+  public byte[] getFinishedBlockIds(
+      ShuffleTaskInfo taskInfo,
+      String appId,
+      Integer shuffleId,
+      Set<Integer> partitions,
+      BlockIdLayout blockIdLayout)
+      throws IOException {
+    Map<Integer, ShuffleBlockIds> shuffleIdToBlockIds = partitionsToBlockIds.get(appId);
+    if (shuffleIdToBlockIds == null) {
+      LOG.warn("Empty blockIds for app: {}. This should not happen", appId);
+      return null;
+    }
+    ShuffleBlockIds blockIds = shuffleIdToBlockIds.get(shuffleId);
+    if (blockIds == null) {
+      LOG.warn("Empty blockIds for app: {}, shuffleId: {}", appId, shuffleId);
+      return new byte[] {};
+    }
+    long expectedBlockNumber = 0;
+    for (int partitionId : partitions) {
+      expectedBlockNumber += taskInfo.getBlockNumber(shuffleId, partitionId);
+    }
+    if (partitions.size() == 1) {
+      byte[] frozen = blockIds.getFrozen(partitions.iterator().next(), expectedBlockNumber);
+      if (frozen != null) {
+        return frozen;
+      }
+    }
+    Roaring64NavigableMap res = Roaring64NavigableMap.bitmapOf();
+    blockIds.collect(partitions, res);
+    if (res.getLongCardinality() != expectedBlockNumber) {
+      throw new RssException(
+          "Inconsistent block number for partitions: "
+              + partitions
+              + ". Excepted: "
+              + expectedBlockNumber
+              + ", actual: "
+              + res.getLongCardinality());
+    }
+    return RssUtils.serializeBitMap(res);
+  }
+
+  @Override
+  public void freezeBlockIds(String appId, int shuffleId) throws IOException {
+    Map<Integer, ShuffleBlockIds> shuffleIdToBlockIds = partitionsToBlockIds.get(appId);
+    if (shuffleIdToBlockIds == null) {
+      return;
+    }
+    ShuffleBlockIds blockIds = shuffleIdToBlockIds.get(shuffleId);
+    if (blockIds != null) {
+      blockIds.freeze();
+    }
+  }
+
+  @Override
+  public void removeBlockIdByShuffleId(String appId, List<Integer> shuffleIds) {
+    Optional.ofNullable(partitionsToBlockIds.get(appId))
+        .ifPresent(
+            x -> {
+              for (Integer shuffleId : shuffleIds) {
+                Optional.ofNullable(x.remove(shuffleId)).ifPresent(ShuffleBlockIds::remove);
+              }
+            });
+  }
+
+  @Override
+  public void removeBlockIdByAppId(String appId) {
+    Optional.ofNullable(partitionsToBlockIds.remove(appId))
+        .ifPresent(x -> x.values().forEach(ShuffleBlockIds::remove));
+  }
+
+  @Override
+  public long getTotalBlockCount() {
+    return partitionsToBlockIds.values().stream()
+        .flatMap(innerMap -> innerMap.values().stream())
+        .mapToLong(ShuffleBlockIds::getBlockCount)
+        .sum();
+  }
+
+  @Override
+  public long getBlockCountByShuffleId(String appId, List<Integer> shuffleIds) {
+    Map<Integer, ShuffleBlockIds> shuffleIdToBlockIds = partitionsToBlockIds.get(appId);
+    if (shuffleIdToBlockIds == null) {
+      return 0L;
+    }
+    return shuffleIds.stream()
+        .map(shuffleIdToBlockIds::get)
+        .filter(x -> x != null)
+        .mapToLong(ShuffleBlockIds::getBlockCount)
+        .sum();
+  }
+
+  @Override
+  public boolean contains(String appId) {
+    return partitionsToBlockIds.containsKey(appId);
+  }
+
+  @Override
+  public long getBitmapNum(String appId, int shuffleId) {
+    return partitionsToBlockIds.get(appId).get(shuffleId).getPartitionNum();
+  }
+
+  private void spillIdleShuffles() {
+    spillIdleShuffles(System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  void spillIdleShuffles(long now) {
+    for (Map<Integer, ShuffleBlockIds> shuffles : partitionsToBlockIds.values()) {
+      for (ShuffleBlockIds blockIds : shuffles.values()) {
+        if (now - blockIds.lastAccessTime >= spillIdleTimeMs
+            && blockIds.getBlockCount() >= spillMinBlockNum) {
+          try {
+            blockIds.spill();
+          } catch (Exception e) {
+            LOG.warn("Failed to spill the block ids of {}", blockIds.name, e);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    if (spillExecutor != null) {
+      spillExecutor.shutdownNow();
+    }
+  }
+
+  @VisibleForTesting
+  boolean isSpilled(String appId, int shuffleId) {
+    return partitionsToBlockIds.get(appId).get(shuffleId).spilled != null;
+  }
+
+  @VisibleForTesting
+  boolean isFrozen(String appId, int shuffleId, int partitionId) {
+    return partitionsToBlockIds.get(appId).get(shuffleId).frozenPartitions.containsKey(partitionId);
+  }
+
+  /** The block ids of a shuffle, whose partitions are in memory, frozen or spilled to a file. */
+  private class ShuffleBlockIds {
+    private final String name;
+    // the partitions are updated with the read lock held, and frozen, unfrozen, spilled or loaded
+    // with the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Roaring64NavigableMap> partitions = JavaUtils.newConcurrentMap();
+    // a frozen partition is not in the partitions above
+    private final Map<Integer, FrozenPartition> frozenPartitions = JavaUtils.newConcurrentMap();
+    private final AtomicLong blockCount = new AtomicLong(0L);
+    private volatile long lastAccessTime = System.currentTimeMillis();
+    private volatile SpilledBlockIds spilled;
+    private boolean removed;
+
+    ShuffleBlockIds(String name) {
+      this.name = name;
+    }
+
+    int add(int partitionId, long[] blockIds) {
+      lock.readLock().lock();
+      try {
+        while (spilled != null || frozenPartitions.containsKey(partitionId)) {
+          lock.readLock().unlock();
+          try {
+            load(partitionId);
+          } finally {
+            lock.readLock().lock();
+          }
+        }
+        lastAccessTime = System.currentTimeMillis();
+        Roaring64NavigableMap bitmap =
+            partitions.computeIfAbsent(partitionId, k -> Roaring64NavigableMap.bitmapOf());
+        int updatedBlockCount = 0;
+        synchronized (bitmap) {
+          for (long blockId : blockIds) {
+            if (!bitmap.contains(blockId)) {
+              bitmap.addLong(blockId);
+              updatedBlockCount++;
+            }
+          }
+        }
+        blockCount.addAndGet(updatedBlockCount);
+        return updatedBlockCount;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    void collect(Set<Integer> partitionIds, Roaring64NavigableMap result) throws IOException {
+      lock.readLock().lock();
+      try {
+        lastAccessTime = System.currentTimeMillis();
+        if (spilled != null) {
+          spilled.read(partitionIds, result);
+          return;
+        }
+        for (int partitionId : partitionIds) {
+          FrozenPartition frozen = frozenPartitions.get(partitionId);
+          if (frozen != null) {
+            result.or(RssUtils.deserializeBitMap(frozen.bitmap));
+            continue;
+          }
+          Roaring64NavigableMap bitmap = partitions.get(partitionId);
+          if (bitmap != null) {
+            synchronized (bitmap) {
+              result.or(bitmap);
+            }
+          }
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    long getBlockCount() {
+      return blockCount.get();
+    }
+
+    int getPartitionNum() {
+      SpilledBlockIds spilledBlockIds = spilled;
+      return spilledBlockIds != null
+          ? spilledBlockIds.partitionIds.length
+          : partitions.size() + frozenPartitions.size();
+    }
+
+    /** @return the frozen block ids of the partition, or null if they are not frozen or changed */
+    byte[] getFrozen(int partitionId, long expectedBlockNumber) {
+      lock.readLock().lock();
+      try {
+        lastAccessTime = System.currentTimeMillis();
+        FrozenPartition frozen = spilled == null ? frozenPartitions.get(partitionId) : null;
+        return frozen != null && frozen.blockCount == expectedBlockNumber ? frozen.bitmap : null;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    void freeze() throws IOException {
+      lock.writeLock().lock();
+      try {
+        // the spilled partitions are loaded as frozen ones
+        if (removed || spilled != null || partitions.isEmpty()) {
+          return;
+        }
+        final long start = System.currentTimeMillis();
+        Map<Integer, FrozenPartition> frozen = Maps.newHashMapWithExpectedSize(partitions.size());
+        long size = 0;
+        for (Map.Entry<Integer, Roaring64NavigableMap> entry : partitions.entrySet()) {
+          Roaring64NavigableMap bitmap = entry.getValue();
+          FrozenPartition partition =
+              new FrozenPartition(serialize(bitmap), bitmap.getLongCardinality());
+          frozen.put(entry.getKey(), partition);
+          size += partition.bitmap.length;
+        }
+        frozenPartitions.putAll(frozen);
+        partitions.keySet().removeAll(frozen.keySet());
+        LOG.info(
+            "Froze {} partitions of {} into {} bytes cost {} ms",
+            frozen.size(),
+            name,
+            size,
+            System.currentTimeMillis() - start);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    void spill() throws IOException {
+      lock.writeLock().lock();
+      try {
+        if (removed || spilled != null || getPartitionNum() == 0) {
+          return;
+        }
+        final long start = System.currentTimeMillis();
+        File file = new File(spillPath, name + SPILL_FILE_SUFFIX);
+        int[] partitionIds = getSortedPartitionIds();
+        long[] offsets = new long[partitionIds.length];
+        int[] lengths = new int[partitionIds.length];
+        long[] counts = new long[partitionIds.length];
+        long offset = 0;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+          for (int i = 0; i < partitionIds.length; i++) {
+            // the frozen partitions are written as they are
+            FrozenPartition partition = frozenPartitions.get(partitionIds[i]);
+            if (partition == null) {
+              Roaring64NavigableMap bitmap = partitions.get(partitionIds[i]);
+              partition = new FrozenPartition(serialize(bitmap), bitmap.getLongCardinality());
+            }
+            out.write(partition.bitmap);
+            offsets[i] = offset;
+            lengths[i] = partition.bitmap.length;
+            counts[i] = partition.blockCount;
+            offset += partition.bitmap.length;
+          }
+        } catch (IOException e) {
+          deleteFile(file);
+          throw e;
+        }
+        spilled = new SpilledBlockIds(file, partitionIds, offsets, lengths, counts);
+        partitions.clear();
+        frozenPartitions.clear();
+        LOG.info(
+            "Spilled {} block ids of {} to {} cost {} ms",
+            blockCount.get(),
+            name,
+            file,
+            System.currentTimeMillis() - start);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private int[] getSortedPartitionIds() {
+      int[] partitionIds =
+          Stream.concat(partitions.keySet().stream(), frozenPartitions.keySet().stream())
+              .mapToInt(Integer::intValue)
+              .toArray();
+      Arrays.sort(partitionIds);
+      return partitionIds;
+    }
+
+    /** Load the spilled partitions as frozen ones, and unfreeze the partition to be updated. */
+    private void load(int partitionId) {
+      lock.writeLock().lock();
+      try {
+        loadSpilled();
+        FrozenPartition frozen = frozenPartitions.get(partitionId);
+        if (frozen == null) {
+          return;
+        }
+        try {
+          partitions.put(partitionId, RssUtils.deserializeBitMap(frozen.bitmap));
+        } catch (IOException e) {
+          throw new RssException(
+              "Failed to unfreeze the block ids of partition " + partitionId + " of " + name, e);
+        }
+        frozenPartitions.remove(partitionId);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private void loadSpilled() {
+      SpilledBlockIds spilledBlockIds = spilled;
+      if (spilledBlockIds == null) {
+        return;
+      }
+      try {
+        spilledBlockIds.loadTo(frozenPartitions);
+      } catch (IOException e) {
+        frozenPartitions.clear();
+        throw new RssException("Failed to load the block ids of " + name, e);
+      }
+      spilled = null;
+      deleteFile(spilledBlockIds.file);
+    }
+
+    void remove() {
+      lock.writeLock().lock();
+      try {
+        removed = true;
+        partitions.clear();
+        frozenPartitions.clear();
+        if (spilled != null) {
+          deleteFile(spilled.file);
+          spilled = null;
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  private static byte[] serialize(Roaring64NavigableMap bitmap) throws IOException {
+    bitmap.runOptimize();
+    return RssUtils.serializeBitMap(bitmap);
+  }
+
+  private static void deleteFile(File file) {
+    if (file.exists() && !file.delete()) {
+      LOG.warn("Failed to delete the block id spill file {}", file);
+    }
+  }
+
+  /** The run-optimized serialized bitmap of a partition and the number of its block ids. */
+  private static class FrozenPartition {
+    private final byte[] bitmap;
+    private final long blockCount;
+
+    FrozenPartition(byte[] bitmap, long blockCount) {
+      this.bitmap = bitmap;
+      this.blockCount = blockCount;
+    }
+  }
+
+  /** The index of a spill file, whose partitions are stored in the order of partition id. */
+  private static class SpilledBlockIds {
+    private final File file;
+    private final int[] partitionIds;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final long[] counts;
+
+    SpilledBlockIds(File file, int[] partitionIds, long[] offsets, int[] lengths, long[] counts) {
+      this.file = file;
+      this.partitionIds = partitionIds;
+      this.offsets = offsets;
+      this.lengths = lengths;
+      this.counts = counts;
+    }
+
+    void read(Set<Integer> requestPartitions, Roaring64NavigableMap result) throws IOException {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+        FileChannel channel = raf.getChannel();
+        for (int partitionId : requestPartitions) {
+          int index = Arrays.binarySearch(partitionIds, partitionId);
+          if (index >= 0) {
+            result.or(RssUtils.deserializeBitMap(readPartition(channel, index)));
+          }
+        }
+      }
+    }
+
+    void loadTo(Map<Integer, FrozenPartition> frozenPartitions) throws IOException {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+        FileChannel channel = raf.getChannel();
+        for (int i = 0; i < partitionIds.length; i++) {
+          frozenPartitions.put(
+              partitionIds[i], new FrozenPartition(readPartition(channel, i), counts[i]));
+        }
+      }
+    }
+
+    private byte[] readPartition(FileChannel channel, int index) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(lengths[index]);
+      long position = offsets[index];
+      while (buffer.hasRemaining()) {
+        int n = channel.read(buffer, position);
+        if (n < 0) {
+          throw new IOException("Unexpected end of the block id spill file " + file);
+        }
+        position += n;
+      }
+      return buffer.array();
+    }
+  }
+}
@@ -55,4 +55,14 @@ public interface ShuffleBlockIdManager {
   boolean contains(String testAppId);
 
   long getBitmapNum(String appId, int shuffleId);
+
+  /**
+   * Freeze the block ids of the shuffle into a compact form after it is committed, which usually
+   * means all its map tasks have reported. The block ids may still be updated later, e.g. by a
+   * retried task.
+   */
+  default void freezeBlockIds(String appId, int shuffleId) throws IOException {}
+
+  /** Release the resources of the manager, e.g. its background threads. */
+  default void close() {}
 }
@@ -26,17 +26,30 @@ public class ShuffleBlockIdManagerFactory {
   public static ShuffleBlockIdManager createShuffleBlockIdManager(ShuffleServerConf conf) {
     String className = conf.get(ShuffleServerConf.SERVER_BLOCK_ID_MANAGER_CLASS);
     return createShuffleBlockIdManager(
-        className, ShuffleServerConf.SERVER_BLOCK_ID_MANAGER_CLASS.key());
+        className, ShuffleServerConf.SERVER_BLOCK_ID_MANAGER_CLASS.key(), conf);
   }
 
   public static ShuffleBlockIdManager createShuffleBlockIdManager(
       String className, String configKey) {
+    return createShuffleBlockIdManager(className, configKey, null);
+  }
+
+  private static ShuffleBlockIdManager createShuffleBlockIdManager(
+      String className, String configKey, ShuffleServerConf conf) {
     if (StringUtils.isEmpty(className)) {
       throw new IllegalStateException(
           "Configuration error: " + configKey + " should not set to empty");
     }
 
     try {
+      if (conf != null) {
+        try {
+          return (ShuffleBlockIdManager)
+              RssUtils.getConstructor(className, ShuffleServerConf.class).newInstance(conf);
+        } catch (NoSuchMethodException e) {
+          // the implementation doesn't need the server conf
+        }
+      }
       return (ShuffleBlockIdManager) RssUtils.getConstructor(className).newInstance();
     } catch (Exception e) {
       throw new IllegalStateException(
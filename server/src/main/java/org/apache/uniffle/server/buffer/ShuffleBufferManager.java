@@ -20,21 +20,23 @@ package org.apache.uniffle.server.buffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeMap;
 import com.google.common.collect.Sets;
 import com.google.common.collect.TreeRangeMap;
+import com.google.common.util.concurrent.Striped;
 import io.netty.util.internal.PlatformDependent;
 import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.slf4j.Logger;
@@ -45,10 +47,8 @@ import org.apache.uniffle.common.ReconfigurableRegistry;
 import org.apache.uniffle.common.ShuffleDataResult;
 import org.apache.uniffle.common.ShufflePartitionedData;
 import org.apache.uniffle.common.rpc.StatusCode;
-import org.apache.uniffle.common.util.Constants;
 import org.apache.uniffle.common.util.JavaUtils;
 import org.apache.uniffle.common.util.NettyUtils;
-import org.apache.uniffle.common.util.RssUtils;
 import org.apache.uniffle.server.HugePartitionUtils;
 import org.apache.uniffle.server.ShuffleDataFlushEvent;
 import org.apache.uniffle.server.ShuffleFlushManager;
@@ -60,12 +60,21 @@ import static org.apache.uniffle.server.ShuffleServerMetrics.BLOCK_COUNT_IN_BUFF
 import static org.apache.uniffle.server.ShuffleServerMetrics.BUFFER_COUNT_IN_BUFFER_POOL;
 import static org.apache.uniffle.server.ShuffleServerMetrics.IN_FLUSH_BLOCK_COUNT_IN_BUFFER_POOL;
 import static org.apache.uniffle.server.ShuffleServerMetrics.SHUFFLE_COUNT_IN_BUFFER_POOL;
+import static org.apache.uniffle.server.ShuffleServerMetrics.SLAB_ALLOCATED_SIZE;
+import static org.apache.uniffle.server.ShuffleServerMetrics.SLAB_FRAGMENTATION;
+import static org.apache.uniffle.server.ShuffleServerMetrics.SLAB_HELD_SIZE;
+import static org.apache.uniffle.server.ShuffleServerMetrics.SLAB_POOLED_SIZE;
+import static org.apache.uniffle.server.ShuffleServerMetrics.SLAB_USED_SIZE;
+import static org.apache.uniffle.server.ShuffleServerMetrics.SLAB_UTILIZATION;
+import static org.apache.uniffle.server.ShuffleServerMetrics.SLAB_WASTED_SIZE;
 
 public class ShuffleBufferManager {
 
   private static final Logger LOG = LoggerFactory.getLogger(ShuffleBufferManager.class);
 
   private final ShuffleBufferType shuffleBufferType;
+  // only used by the SLAB shuffle buffer type
+  private final SlabArena slabArena;
   private final int flushTryLockTimeout;
   private ShuffleTaskManager shuffleTaskManager;
   private final ShuffleFlushManager shuffleFlushManager;
@@ -89,10 +98,18 @@ public class ShuffleBufferManager {
   protected AtomicLong inFlushSize = new AtomicLong(0L);
   protected AtomicLong usedMemory = new AtomicLong(0L);
   private AtomicLong readDataMemory = new AtomicLong(0L);
+  // guards the single buffer flush decision, writers of different buffers rarely share a stripe
+  private final Striped<Lock> bufferFlushLocks;
+  // only the elected thread is allowed to pick and flush shuffles when reaching highWaterMark
+  private final AtomicBoolean isWaterMarkFlushing = new AtomicBoolean(false);
   // appId -> shuffleId -> partitionId -> ShuffleBuffer to avoid too many appId
   protected Map<String, Map<Integer, RangeMap<Integer, ShuffleBuffer>>> bufferPool;
   // appId -> shuffleId -> shuffle size in buffer
-  protected Map<String, Map<Integer, AtomicLong>> shuffleSizeMap = JavaUtils.newConcurrentMap();
+  protected Map<String, Map<Integer, ShuffleSize>> shuffleSizeMap = JavaUtils.newConcurrentMap();
+  // the shuffle sizes ordered by size, which is used to pick the shuffles to flush
+  private final ShuffleSizeIndex shuffleSizeIndex = new ShuffleSizeIndex();
+  // the shuffles picked to flush, it's only accessed by the thread elected in flushIfNecessary
+  private final List<ShuffleSize> pickedShuffles = Lists.newArrayList();
   private final boolean appBlockSizeMetricEnabled;
 
   public ShuffleBufferManager(
@@ -153,6 +170,23 @@ public class ShuffleBufferManager {
         conf.getBoolean(ShuffleServerConf.APP_LEVEL_SHUFFLE_BLOCK_SIZE_METRIC_ENABLED);
     shuffleBufferType = conf.get(ShuffleServerConf.SERVER_SHUFFLE_BUFFER_TYPE);
     flushTryLockTimeout = conf.get(ShuffleServerConf.SERVER_SHUFFLE_FLUSH_TRYLOCK_TIMEOUT);
+    if (shuffleBufferType == ShuffleBufferType.SLAB) {
+      slabArena =
+          new SlabArena(
+              conf.get(ShuffleServerConf.SERVER_SHUFFLE_BUFFER_SLAB_SIZE).intValue(),
+              conf.get(ShuffleServerConf.SERVER_SHUFFLE_BUFFER_SLAB_MAX_POOLED_NUM));
+      ShuffleServerMetrics.addLabeledGauge(SLAB_ALLOCATED_SIZE, slabArena::getAllocatedSize);
+      ShuffleServerMetrics.addLabeledGauge(SLAB_USED_SIZE, slabArena::getUsedSize);
+      ShuffleServerMetrics.addLabeledGauge(SLAB_WASTED_SIZE, slabArena::getWastedSize);
+      ShuffleServerMetrics.addLabeledGauge(SLAB_POOLED_SIZE, slabArena::getPooledSize);
+      ShuffleServerMetrics.addLabeledGauge(SLAB_HELD_SIZE, slabArena::getHeldSize);
+      ShuffleServerMetrics.addLabeledGauge(SLAB_UTILIZATION, slabArena::getUtilization);
+      ShuffleServerMetrics.addLabeledGauge(SLAB_FRAGMENTATION, slabArena::getFragmentation);
+    } else {
+      slabArena = null;
+    }
+    bufferFlushLocks =
+        Striped.lock(conf.get(ShuffleServerConf.SERVER_SHUFFLE_BUFFER_FLUSH_LOCK_STRIPES));
     ShuffleServerMetrics.addLabeledCacheGauge(
         BLOCK_COUNT_IN_BUFFER_POOL,
         () ->
@@ -227,6 +261,10 @@ public class ShuffleBufferManager {
       ShuffleBuffer shuffleBuffer;
       if (shuffleBufferType == ShuffleBufferType.SKIP_LIST) {
         shuffleBuffer = new ShuffleBufferWithSkipList();
+      } else if (shuffleBufferType == ShuffleBufferType.SLAB) {
+        shuffleBuffer = new ShuffleBufferWithSlab(slabArena);
+      } else if (shuffleBufferType == ShuffleBufferType.LONG_MAP) {
+        shuffleBuffer = new ShuffleBufferWithLongMap();
       } else {
         shuffleBuffer = new ShuffleBufferWithLinkedList();
       }
@@ -284,7 +322,9 @@ public class ShuffleBufferManager {
         shuffleId,
         spd.getPartitionId());
     updateShuffleSize(appId, shuffleId, size);
-    synchronized (this) {
+    Lock bufferFlushLock = bufferFlushLocks.get(buffer);
+    bufferFlushLock.lock();
+    try {
       flushSingleBufferIfNecessary(
           buffer,
           appId,
@@ -292,16 +332,19 @@ public class ShuffleBufferManager {
           spd.getPartitionId(),
           entry.getKey().lowerEndpoint(),
           entry.getKey().upperEndpoint());
-      flushIfNecessary();
+    } finally {
+      bufferFlushLock.unlock();
     }
+    flushIfNecessary();
     return StatusCode.SUCCESS;
   }
 
   private void updateShuffleSize(String appId, int shuffleId, long size) {
-    shuffleSizeMap.computeIfAbsent(appId, key -> JavaUtils.newConcurrentMap());
-    Map<Integer, AtomicLong> shuffleIdToSize = shuffleSizeMap.get(appId);
-    shuffleIdToSize.computeIfAbsent(shuffleId, key -> new AtomicLong(0));
-    shuffleIdToSize.get(shuffleId).addAndGet(size);
+    ShuffleSize shuffleSize =
+        shuffleSizeMap
+            .computeIfAbsent(appId, key -> JavaUtils.newConcurrentMap())
+            .computeIfAbsent(shuffleId, key -> new ShuffleSize(appId, shuffleId));
+    shuffleSizeIndex.update(shuffleSize, size);
   }
 
   public Entry<Range<Integer>, ShuffleBuffer> getShuffleBufferEntry(
@@ -375,32 +418,53 @@ public class ShuffleBufferManager {
   }
 
   public void flushIfNecessary() {
-    // if data size in buffer > highWaterMark, do the flush
-    if (usedMemory.get() - preAllocatedSize.get() - inFlushSize.get() > highWaterMark) {
-      // todo: add a metric here to track how many times flush occurs.
-      LOG.info(
-          "Start to flush with usedMemory[{}], preAllocatedSize[{}], inFlushSize[{}]",
-          usedMemory.get(),
-          preAllocatedSize.get(),
-          inFlushSize.get());
-      Map<String, Set<Integer>> pickedShuffle = pickFlushedShuffle();
-      flush(pickedShuffle);
+    // if data size in buffer > highWaterMark, do the flush.
+    // Only one thread is elected to pick and flush shuffles, the others return immediately
+    // because the memory they are waiting for will be released by the elected one.
+    if (isOverHighWaterMark() && isWaterMarkFlushing.compareAndSet(false, true)) {
+      try {
+        // double check since another thread may have just finished a flush
+        if (!isOverHighWaterMark()) {
+          return;
+        }
+        // todo: add a metric here to track how many times flush occurs.
+        LOG.info(
+            "Start to flush with usedMemory[{}], preAllocatedSize[{}], inFlushSize[{}]",
+            usedMemory.get(),
+            preAllocatedSize.get(),
+            inFlushSize.get());
+        pickFlushedShuffle(pickedShuffles);
+        flush(pickedShuffles);
+      } finally {
+        pickedShuffles.clear();
+        isWaterMarkFlushing.set(false);
+      }
     }
   }
 
-  public synchronized void commitShuffleTask(String appId, int shuffleId) {
+  private boolean isOverHighWaterMark() {
+    return usedMemory.get() - preAllocatedSize.get() - inFlushSize.get() > highWaterMark;
+  }
+
+  public void commitShuffleTask(String appId, int shuffleId) {
     RangeMap<Integer, ShuffleBuffer> buffers = bufferPool.get(appId).get(shuffleId);
     for (Map.Entry<Range<Integer>, ShuffleBuffer> entry : buffers.asMapOfRanges().entrySet()) {
       ShuffleBuffer buffer = entry.getValue();
       Range<Integer> range = entry.getKey();
-      flushBuffer(
-          buffer,
-          appId,
-          shuffleId,
-          range.lowerEndpoint(),
-          range.upperEndpoint(),
-          HugePartitionUtils.isHugePartition(
-              shuffleTaskManager, appId, shuffleId, range.lowerEndpoint()));
+      Lock bufferFlushLock = bufferFlushLocks.get(buffer);
+      bufferFlushLock.lock();
+      try {
+        flushBuffer(
+            buffer,
+            appId,
+            shuffleId,
+            range.lowerEndpoint(),
+            range.upperEndpoint(),
+            HugePartitionUtils.isHugePartition(
+                shuffleTaskManager, appId, shuffleId, range.lowerEndpoint()));
+      } finally {
+        bufferFlushLock.unlock();
+      }
     }
   }
 
@@ -450,16 +514,18 @@ public class ShuffleBufferManager {
       return;
     }
     removeBufferByShuffleId(appId, shuffleIdToBuffers.keySet());
-    shuffleSizeMap.remove(appId);
+    Map<Integer, ShuffleSize> shuffleIdToSizeMap = shuffleSizeMap.remove(appId);
+    if (shuffleIdToSizeMap != null) {
+      shuffleIdToSizeMap.values().forEach(shuffleSizeIndex::remove);
+    }
     bufferPool.remove(appId);
     if (appBlockSizeMetricEnabled) {
       ShuffleServerMetrics.appHistogramWriteBlockSize.remove(appId);
     }
   }
 
-  public synchronized boolean requireMemory(long size, boolean isPreAllocated) {
-    if (capacity - usedMemory.get() >= size) {
-      usedMemory.addAndGet(size);
+  public boolean requireMemory(long size, boolean isPreAllocated) {
+    if (tryIncreaseUsedMemory(size)) {
       ShuffleServerMetrics.gaugeUsedBufferSize.set(usedMemory.get());
       if (isPreAllocated) {
         requirePreAllocatedSize(size);
@@ -500,18 +566,44 @@ public class ShuffleBufferManager {
     return false;
   }
 
+  private boolean tryIncreaseUsedMemory(long size) {
+    while (true) {
+      long current = usedMemory.get();
+      if (capacity - current < size) {
+        return false;
+      }
+      if (usedMemory.compareAndSet(current, current + size)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Decrease the counter by the given size atomically, the counter will be set to 0 if it is less
+   * than the size.
+   *
+   * @return the value of the counter before decreasing
+   */
+  private static long decreaseOrReset(AtomicLong counter, long size) {
+    while (true) {
+      long current = counter.get();
+      long next = current >= size ? current - size : 0L;
+      if (counter.compareAndSet(current, next)) {
+        return current;
+      }
+    }
+  }
+
   public void releaseMemory(
       long size, boolean isReleaseFlushMemory, boolean isReleasePreAllocation) {
-    if (usedMemory.get() >= size) {
-      usedMemory.addAndGet(-size);
-    } else {
+    long previousUsedMemory = decreaseOrReset(usedMemory, size);
+    if (previousUsedMemory < size) {
       LOG.warn(
           "Current allocated memory["
-              + usedMemory.get()
+              + previousUsedMemory
               + "] is less than released["
               + size
               + "], set allocated memory to 0");
-      usedMemory.set(0L);
     }
 
     ShuffleServerMetrics.gaugeUsedBufferSize.set(usedMemory.get());
@@ -526,16 +618,14 @@ public class ShuffleBufferManager {
   }
 
   private void releaseFlushMemory(long size) {
-    if (inFlushSize.get() >= size) {
-      inFlushSize.addAndGet(-size);
-    } else {
+    long previousInFlushSize = decreaseOrReset(inFlushSize, size);
+    if (previousInFlushSize < size) {
       LOG.warn(
           "Current in flush memory["
-              + inFlushSize.get()
+              + previousInFlushSize
               + "] is less than released["
               + size
               + "], set in flush memory to 0");
-      inFlushSize.set(0L);
     }
     ShuffleServerMetrics.gaugeInFlushBufferSize.set(inFlushSize.get());
   }
@@ -589,58 +679,61 @@ public class ShuffleBufferManager {
     }
   }
 
-  // Flush the buffer with required map which is <appId -> shuffleId>.
+  // Flush the buffers of the picked shuffles in order.
   // If the total size of the shuffles picked is bigger than the expected flush size,
   // it will just flush a part of partitions.
-  private synchronized void flush(Map<String, Set<Integer>> requiredFlush) {
+  // It's only invoked by the thread elected in flushIfNecessary.
+  private void flush(List<ShuffleSize> requiredFlush) {
     long pickedFlushSize = 0L;
     long expectedFlushSize = highWaterMark - lowWaterMark;
-    for (Map.Entry<String, Map<Integer, RangeMap<Integer, ShuffleBuffer>>> appIdToBuffers :
-        bufferPool.entrySet()) {
-      String appId = appIdToBuffers.getKey();
-      if (requiredFlush.containsKey(appId)) {
-        if (shuffleTaskManager.isAppExpired(appId)) {
+    for (ShuffleSize shuffleSize : requiredFlush) {
+      String appId = shuffleSize.getAppId();
+      int shuffleId = shuffleSize.getShuffleId();
+      Map<Integer, RangeMap<Integer, ShuffleBuffer>> shuffleIdToBuffers = bufferPool.get(appId);
+      if (shuffleIdToBuffers == null || shuffleTaskManager.isAppExpired(appId)) {
+        continue;
+      }
+      RangeMap<Integer, ShuffleBuffer> rangeToBuffers = shuffleIdToBuffers.get(shuffleId);
+      if (rangeToBuffers == null) {
+        continue;
+      }
+      ReentrantReadWriteLock.ReadLock readLock = shuffleTaskManager.getAppReadLock(appId);
+      boolean lockAcquired = false;
+      try {
+        lockAcquired = readLock.tryLock(flushTryLockTimeout, TimeUnit.MILLISECONDS);
+        if (!lockAcquired) {
           continue;
         }
-        ReentrantReadWriteLock.ReadLock readLock = shuffleTaskManager.getAppReadLock(appId);
-        boolean lockAcquired = false;
-        try {
-          lockAcquired = readLock.tryLock(flushTryLockTimeout, TimeUnit.MILLISECONDS);
-          if (!lockAcquired) {
-            continue;
-          }
-          for (Map.Entry<Integer, RangeMap<Integer, ShuffleBuffer>> shuffleIdToBuffers :
-              appIdToBuffers.getValue().entrySet()) {
-            int shuffleId = shuffleIdToBuffers.getKey();
-            Set<Integer> requiredShuffleId = requiredFlush.get(appId);
-            if (requiredShuffleId != null && requiredShuffleId.contains(shuffleId)) {
-              for (Map.Entry<Range<Integer>, ShuffleBuffer> rangeEntry :
-                  shuffleIdToBuffers.getValue().asMapOfRanges().entrySet()) {
-                Range<Integer> range = rangeEntry.getKey();
-                ShuffleBuffer shuffleBuffer = rangeEntry.getValue();
-                pickedFlushSize += shuffleBuffer.getEncodedLength();
-                flushBuffer(
-                    shuffleBuffer,
-                    appId,
-                    shuffleId,
-                    range.lowerEndpoint(),
-                    range.upperEndpoint(),
-                    HugePartitionUtils.isHugePartition(
-                        shuffleTaskManager, appId, shuffleId, range.lowerEndpoint()));
-                if (pickedFlushSize > expectedFlushSize) {
-                  LOG.info("Already picked enough buffers to flush {} bytes", pickedFlushSize);
-                  return;
-                }
-              }
-            }
+        for (Map.Entry<Range<Integer>, ShuffleBuffer> rangeEntry :
+            rangeToBuffers.asMapOfRanges().entrySet()) {
+          Range<Integer> range = rangeEntry.getKey();
+          ShuffleBuffer shuffleBuffer = rangeEntry.getValue();
+          pickedFlushSize += shuffleBuffer.getEncodedLength();
+          Lock bufferFlushLock = bufferFlushLocks.get(shuffleBuffer);
+          bufferFlushLock.lock();
+          try {
+            flushBuffer(
+                shuffleBuffer,
+                appId,
+                shuffleId,
+                range.lowerEndpoint(),
+                range.upperEndpoint(),
+                HugePartitionUtils.isHugePartition(
+                    shuffleTaskManager, appId, shuffleId, range.lowerEndpoint()));
+          } finally {
+            bufferFlushLock.unlock();
           }
-        } catch (InterruptedException e) {
-          LOG.warn("Ignore the InterruptedException which should be caused by internal killed");
-        } finally {
-          if (lockAcquired) {
-            readLock.unlock();
+          if (pickedFlushSize > expectedFlushSize) {
+            LOG.info("Already picked enough buffers to flush {} bytes", pickedFlushSize);
+            return;
           }
         }
+      } catch (InterruptedException e) {
+        LOG.warn("Ignore the InterruptedException which should be caused by internal killed");
+      } finally {
+        if (lockAcquired) {
+          readLock.unlock();
+        }
       }
     }
   }
@@ -657,16 +750,14 @@ public class ShuffleBufferManager {
   }
 
   public void releasePreAllocatedSize(long delta) {
-    if (preAllocatedSize.get() >= delta) {
-      preAllocatedSize.addAndGet(-delta);
-    } else {
+    long previousPreAllocatedSize = decreaseOrReset(preAllocatedSize, delta);
+    if (previousPreAllocatedSize < delta) {
       LOG.warn(
           "Current pre-allocated memory["
-              + preAllocatedSize.get()
+              + previousPreAllocatedSize
               + "] is less than released["
               + delta
               + "], set pre-allocated memory to 0");
-      preAllocatedSize.set(0L);
     }
     ShuffleServerMetrics.gaugeAllocatedBufferSize.set(preAllocatedSize.get());
   }
@@ -710,7 +801,7 @@ public class ShuffleBufferManager {
   }
 
   @VisibleForTesting
-  public Map<String, Map<Integer, AtomicLong>> getShuffleSizeMap() {
+  public Map<String, Map<Integer, ShuffleSize>> getShuffleSizeMap() {
     return shuffleSizeMap;
   }
 
@@ -718,30 +809,9 @@ public class ShuffleBufferManager {
     return preAllocatedSize.get();
   }
 
-  // sort for shuffle according to data size, then pick properly data which will be flushed
-  private Map<String, Set<Integer>> pickFlushedShuffle() {
-    // create list for sort
-    List<Entry<String, AtomicLong>> sizeList = generateSizeList();
-    sizeList.sort(
-        (entry1, entry2) -> {
-          if (entry1 == null && entry2 == null) {
-            return 0;
-          }
-          if (entry1 == null) {
-            return 1;
-          }
-          if (entry2 == null) {
-            return -1;
-          }
-          if (entry1.getValue().get() > entry2.getValue().get()) {
-            return -1;
-          } else if (entry1.getValue().get() == entry2.getValue().get()) {
-            return 0;
-          }
-          return 1;
-        });
-
-    Map<String, Set<Integer>> pickedShuffle = Maps.newHashMap();
+  // iterate shuffles in descending order of data size, then pick properly data which will be
+  // flushed
+  private void pickFlushedShuffle(List<ShuffleSize> pickedShuffle) {
     // The algorithm here is to flush data size > highWaterMark - lowWaterMark
     // the remaining data in buffer maybe more than lowWaterMark
     // because shuffle server is still receiving data, but it should be ok
@@ -751,15 +821,20 @@ public class ShuffleBufferManager {
     int printIndex = 0;
     int printIgnoreIndex = 0;
     int printMax = 10;
-    for (Map.Entry<String, AtomicLong> entry : sizeList) {
-      long size = entry.getValue().get();
-      String appIdShuffleIdKey = entry.getKey();
+    Iterator<ShuffleSize> iterator = shuffleSizeIndex.descendingIterator();
+    while (iterator.hasNext()) {
+      ShuffleSize shuffleSize = iterator.next();
+      long size = shuffleSize.get();
       if (size > this.shuffleFlushThreshold || pickedFlushSize <= atLeastFlushSizeIgnoreThreshold) {
         pickedFlushSize += size;
-        addPickedShuffle(appIdShuffleIdKey, pickedShuffle);
+        pickedShuffle.add(shuffleSize);
         // print detail picked info
         if (printIndex < printMax) {
-          LOG.info("Pick application_shuffleId[{}] with {} bytes", appIdShuffleIdKey, size);
+          LOG.info(
+              "Pick application[{}] shuffleId[{}] with {} bytes",
+              shuffleSize.getAppId(),
+              shuffleSize.getShuffleId(),
+              size);
           printIndex++;
         }
         if (pickedFlushSize > expectedFlushSize) {
@@ -771,35 +846,17 @@ public class ShuffleBufferManager {
         // some shuffle's size
         // is less than threshold
         if (printIgnoreIndex < printMax) {
-          LOG.info("Ignore application_shuffleId[{}] with {} bytes", appIdShuffleIdKey, size);
+          LOG.info(
+              "Ignore application[{}] shuffleId[{}] with {} bytes",
+              shuffleSize.getAppId(),
+              shuffleSize.getShuffleId(),
+              size);
           printIgnoreIndex++;
         } else {
           break;
         }
       }
     }
-    return pickedShuffle;
-  }
-
-  private List<Map.Entry<String, AtomicLong>> generateSizeList() {
-    Map<String, AtomicLong> sizeMap = Maps.newHashMap();
-    for (Map.Entry<String, Map<Integer, AtomicLong>> appEntry : shuffleSizeMap.entrySet()) {
-      String appId = appEntry.getKey();
-      for (Map.Entry<Integer, AtomicLong> shuffleEntry : appEntry.getValue().entrySet()) {
-        Integer shuffleId = shuffleEntry.getKey();
-        sizeMap.put(RssUtils.generateShuffleKey(appId, shuffleId), shuffleEntry.getValue());
-      }
-    }
-    return Lists.newArrayList(sizeMap.entrySet());
-  }
-
-  private void addPickedShuffle(String shuffleIdKey, Map<String, Set<Integer>> pickedShuffle) {
-    String[] splits = shuffleIdKey.split(Constants.KEY_SPLIT_CHAR);
-    String appId = splits[0];
-    Integer shuffleId = Integer.parseInt(splits[1]);
-    pickedShuffle.computeIfAbsent(appId, key -> Sets.newHashSet());
-    Set<Integer> shuffleIdSet = pickedShuffle.get(appId);
-    shuffleIdSet.add(shuffleId);
   }
 
   public void removeBufferByShuffleId(String appId, Collection<Integer> shuffleIds) {
@@ -808,7 +865,7 @@ public class ShuffleBufferManager {
       return;
     }
 
-    Map<Integer, AtomicLong> shuffleIdToSizeMap = shuffleSizeMap.get(appId);
+    Map<Integer, ShuffleSize> shuffleIdToSizeMap = shuffleSizeMap.get(appId);
     for (int shuffleId : shuffleIds) {
       RangeMap<Integer, ShuffleBuffer> bufferRangeMap = shuffleIdToBuffers.remove(shuffleId);
       if (bufferRangeMap == null) {
@@ -832,7 +889,10 @@ public class ShuffleBufferManager {
         }
       }
       if (shuffleIdToSizeMap != null) {
-        shuffleIdToSizeMap.remove(shuffleId);
+        ShuffleSize shuffleSize = shuffleIdToSizeMap.remove(shuffleId);
+        if (shuffleSize != null) {
+          shuffleSizeIndex.remove(shuffleSize);
+        }
       }
     }
   }
@@ -862,6 +922,11 @@ public class ShuffleBufferManager {
     return shuffleBufferType;
   }
 
+  @VisibleForTesting
+  SlabArena getSlabArena() {
+    return slabArena;
+  }
+
   public long getHugePartitionSplitLimit() {
     return hugePartitionSplitLimitRef.getSizeAsBytes();
   }
@@ -19,5 +19,7 @@ package org.apache.uniffle.server.buffer;
 
 public enum ShuffleBufferType {
   SKIP_LIST,
-  LINKED_LIST
+  LINKED_LIST,
+  SLAB,
+  LONG_MAP
 }
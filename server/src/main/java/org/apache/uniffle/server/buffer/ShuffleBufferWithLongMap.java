@@ -0,0 +1,418 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.buffer;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import org.apache.uniffle.common.BufferSegment;
+import org.apache.uniffle.common.ShuffleDataDistributionType;
+import org.apache.uniffle.common.ShufflePartitionedBlock;
+import org.apache.uniffle.common.ShufflePartitionedData;
+import org.apache.uniffle.common.util.Constants;
+import org.apache.uniffle.common.util.JavaUtils;
+import org.apache.uniffle.server.ShuffleDataFlushEvent;
+import org.apache.uniffle.server.ShuffleFlushManager;
+
+/**
+ * A shuffle buffer which keeps the blocks in an append-ordered array, and indexes the block ids
+ * with a primitive long open-addressing table. Compared with {@link ShuffleBufferWithSkipList}, no
+ * block id is boxed and no node is allocated per block, and the lastBlockId of a read is located in
+ * O(1). The blocks are read in the order they are received, and flushed in the order of
+ * taskAttemptId for {@link ShuffleDataDistributionType#LOCAL_ORDER}.
+ */
+public class ShuffleBufferWithLongMap extends AbstractShuffleBuffer {
+  private static final Comparator<ShufflePartitionedBlock> TASK_ATTEMPT_ID_ORDER =
+      Comparator.comparingLong(ShufflePartitionedBlock::getTaskAttemptId);
+
+  private BlockArray blocks;
+  private final Map<Long, BlockArray> inFlushBlockMap;
+
+  public ShuffleBufferWithLongMap() {
+    this.blocks = new BlockArray();
+    this.inFlushBlockMap = JavaUtils.newConcurrentMap();
+  }
+
+  @Override
+  public synchronized long append(ShufflePartitionedData data) {
+    if (evicted) {
+      return BUFFER_EVICTED;
+    }
+    long currentEncodedLength = 0;
+    long currentDataLength = 0;
+
+    for (ShufflePartitionedBlock block : data.getBlockList()) {
+      // If sendShuffleData retried, we may receive duplicate block. The duplicate
+      // block would gc without release. Here we must release the duplicated block.
+      if (blocks.add(block)) {
+        currentEncodedLength += block.getEncodedLength();
+        currentDataLength += block.getDataLength();
+      } else {
+        block.getData().release();
+      }
+    }
+    this.encodedLength += currentEncodedLength;
+    this.dataLength += currentDataLength;
+
+    return currentEncodedLength;
+  }
+
+  @Override
+  public synchronized ShuffleDataFlushEvent toFlushEvent(
+      String appId,
+      int shuffleId,
+      int startPartition,
+      int endPartition,
+      Supplier<Boolean> isValid,
+      ShuffleDataDistributionType dataDistributionType) {
+    if (blocks.size() == 0) {
+      return null;
+    }
+    // The in flush blocks keep the received order for the reads, so the sorted copy is flushed
+    List<ShufflePartitionedBlock> spBlocks =
+        dataDistributionType == ShuffleDataDistributionType.LOCAL_ORDER
+            ? blocks.sortedCopy(TASK_ATTEMPT_ID_ORDER)
+            : blocks.asList();
+    long eventId = ShuffleFlushManager.ATOMIC_EVENT_ID.getAndIncrement();
+    final ShuffleDataFlushEvent event =
+        new ShuffleDataFlushEvent(
+            eventId,
+            appId,
+            shuffleId,
+            startPartition,
+            endPartition,
+            encodedLength,
+            dataLength,
+            spBlocks,
+            isValid,
+            this);
+    event.addCleanupCallback(
+        () -> {
+          this.clearInFlushBuffer(event.getEventId());
+          spBlocks.forEach(spb -> spb.getData().release());
+          inFlushSize.addAndGet(-event.getEncodedLength());
+        });
+    inFlushBlockMap.put(eventId, blocks);
+    blocks = new BlockArray();
+    inFlushSize.addAndGet(encodedLength);
+    encodedLength = 0;
+    dataLength = 0;
+    return event;
+  }
+
+  @Override
+  public synchronized Set<ShufflePartitionedBlock> getBlocks() {
+    return blocks.asSet();
+  }
+
+  @Override
+  public int getBlockCount() {
+    return blocks.size();
+  }
+
+  @Override
+  public long getInFlushBlockCount() {
+    return inFlushBlockMap.values().stream().mapToLong(BlockArray::size).sum();
+  }
+
+  @Override
+  public synchronized long release() {
+    Throwable lastException = null;
+    int failedToReleaseSize = 0;
+    long releasedSize = 0;
+    evicted = true;
+    for (ShufflePartitionedBlock spb : blocks.asList()) {
+      try {
+        spb.getData().release();
+        releasedSize += spb.getEncodedLength();
+      } catch (Throwable t) {
+        lastException = t;
+        failedToReleaseSize += spb.getEncodedLength();
+      }
+    }
+    if (lastException != null) {
+      LOG.warn(
+          "Failed to release shuffle blocks with size {}. Maybe it has been released by others.",
+          failedToReleaseSize,
+          lastException);
+    }
+    return releasedSize;
+  }
+
+  @Override
+  public synchronized void clearInFlushBuffer(long eventId) {
+    inFlushBlockMap.remove(eventId);
+  }
+
+  @Override
+  public Map<Long, Set<ShufflePartitionedBlock>> getInFlushBlockMap() {
+    return Maps.transformValues(inFlushBlockMap, BlockArray::asSet);
+  }
+
+  @Override
+  protected void updateBufferSegmentsAndResultBlocks(
+      long lastBlockId,
+      long readBufferSize,
+      List<BufferSegment> bufferSegments,
+      List<ShufflePartitionedBlock> resultBlocks,
+      Roaring64NavigableMap expectedTaskIds) {
+    long nextBlockId = lastBlockId;
+    List<Long> sortedEventId = sortFlushingEventId(Lists.newArrayList(inFlushBlockMap.keySet()));
+    int offset = 0;
+    boolean hasLastBlockId = false;
+    // read from inFlushBlockMap first to make sure the order of
+    // data read is according to the order of data received
+    for (Long eventId : sortedEventId) {
+      BlockArray inFlushBlocks = inFlushBlockMap.get(eventId);
+      if (inFlushBlocks == null) {
+        continue;
+      }
+      hasLastBlockId =
+          updateSegments(
+              offset,
+              inFlushBlocks,
+              readBufferSize,
+              nextBlockId,
+              bufferSegments,
+              resultBlocks,
+              expectedTaskIds);
+      // if last blockId is found, read from begin with next cached blocks
+      if (hasLastBlockId) {
+        // reset blockId to read from begin in next cached blocks
+        nextBlockId = Constants.INVALID_BLOCK_ID;
+      }
+      if (!bufferSegments.isEmpty()) {
+        offset = calculateDataLength(bufferSegments);
+      }
+      if (offset >= readBufferSize) {
+        break;
+      }
+    }
+    // try to read from cached blocks which is not in flush queue
+    if (blocks.size() > 0 && offset < readBufferSize) {
+      hasLastBlockId =
+          updateSegments(
+              offset,
+              blocks,
+              readBufferSize,
+              nextBlockId,
+              bufferSegments,
+              resultBlocks,
+              expectedTaskIds);
+    }
+    if ((!inFlushBlockMap.isEmpty() || blocks.size() > 0) && offset == 0 && !hasLastBlockId) {
+      // can't find lastBlockId, it should be flushed
+      // but there still has data in memory
+      // try read again with blockId = Constants.INVALID_BLOCK_ID
+      updateBufferSegmentsAndResultBlocks(
+          Constants.INVALID_BLOCK_ID,
+          readBufferSize,
+          bufferSegments,
+          resultBlocks,
+          expectedTaskIds);
+    }
+  }
+
+  private boolean updateSegments(
+      int offset,
+      BlockArray cachedBlocks,
+      long readBufferSize,
+      long lastBlockId,
+      List<BufferSegment> bufferSegments,
+      List<ShufflePartitionedBlock> readBlocks,
+      Roaring64NavigableMap expectedTaskIds) {
+    int start = 0;
+    if (lastBlockId != Constants.INVALID_BLOCK_ID) {
+      int position = cachedBlocks.indexOf(lastBlockId);
+      if (position < 0) {
+        return false;
+      }
+      start = position + 1;
+    }
+    int currentOffset = offset;
+    for (int i = start; i < cachedBlocks.size(); i++) {
+      ShufflePartitionedBlock block = cachedBlocks.get(i);
+      if (expectedTaskIds != null && !expectedTaskIds.contains(block.getTaskAttemptId())) {
+        continue;
+      }
+      // add bufferSegment with block
+      bufferSegments.add(
+          new BufferSegment(
+              block.getBlockId(),
+              currentOffset,
+              block.getDataLength(),
+              block.getUncompressLength(),
+              block.getCrc(),
+              block.getTaskAttemptId()));
+      readBlocks.add(block);
+      // update offset
+      currentOffset += block.getDataLength();
+      if (currentOffset >= readBufferSize) {
+        break;
+      }
+    }
+    return true;
+  }
+
+  public synchronized ShufflePartitionedBlock getBlock(long blockId) {
+    ShufflePartitionedBlock block = blocks.getBlock(blockId);
+    if (block == null) {
+      for (BlockArray inFlushBlocks : inFlushBlockMap.values()) {
+        block = inFlushBlocks.getBlock(blockId);
+        if (block != null) {
+          return block;
+        }
+      }
+    }
+    return block;
+  }
+
+  /**
+   * The blocks in the received order, indexed by block id with a linear probing table whose slots
+   * store the position of the block plus one, so 0 means an empty slot. The blocks are never
+   * removed, a flushed array is dropped as a whole.
+   */
+  @VisibleForTesting
+  static final class BlockArray {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private ShufflePartitionedBlock[] blocks = new ShufflePartitionedBlock[INITIAL_CAPACITY];
+    private int size;
+    // the load factor of the table is kept no more than 0.5
+    private long[] keys = new long[INITIAL_CAPACITY * 2];
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+    private static int hash(long blockId) {
+      // the taskAttemptId is in the lowest bits of the block id, so spread all the bits to the low
+      // ones which are used as the index of the table
+      long h = blockId * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+
+    /** @return false if the block id exists */
+    boolean add(ShufflePartitionedBlock block) {
+      long blockId = block.getBlockId();
+      int mask = slots.length - 1;
+      int i = hash(blockId) & mask;
+      while (slots[i] != 0) {
+        if (keys[i] == blockId) {
+          return false;
+        }
+        i = (i + 1) & mask;
+      }
+      if (size == blocks.length) {
+        blocks = Arrays.copyOf(blocks, size << 1);
+        rehash(slots.length << 1);
+        // the slot should be probed again in the new table
+        insert(blockId, size);
+      } else {
+        keys[i] = blockId;
+        slots[i] = size + 1;
+      }
+      blocks[size++] = block;
+      return true;
+    }
+
+    private void rehash(int capacity) {
+      keys = new long[capacity];
+      slots = new int[capacity];
+      for (int position = 0; position < size; position++) {
+        insert(blocks[position].getBlockId(), position);
+      }
+    }
+
+    private void insert(long blockId, int position) {
+      int mask = slots.length - 1;
+      int i = hash(blockId) & mask;
+      while (slots[i] != 0) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = blockId;
+      slots[i] = position + 1;
+    }
+
+    /** @return the position of the block, or -1 if it doesn't exist */
+    int indexOf(long blockId) {
+      int mask = slots.length - 1;
+      int i = hash(blockId) & mask;
+      while (slots[i] != 0) {
+        if (keys[i] == blockId) {
+          return slots[i] - 1;
+        }
+        i = (i + 1) & mask;
+      }
+      return -1;
+    }
+
+    ShufflePartitionedBlock getBlock(long blockId) {
+      int position = indexOf(blockId);
+      return position < 0 ? null : blocks[position];
+    }
+
+    ShufflePartitionedBlock get(int position) {
+      return blocks[position];
+    }
+
+    int size() {
+      return size;
+    }
+
+    List<ShufflePartitionedBlock> asList() {
+      return Arrays.asList(blocks).subList(0, size);
+    }
+
+    /** A view of the blocks without copying, the blocks are unique by block id. */
+    Set<ShufflePartitionedBlock> asSet() {
+      return new AbstractSet<ShufflePartitionedBlock>() {
+        @Override
+        public Iterator<ShufflePartitionedBlock> iterator() {
+          return asList().iterator();
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+          return o instanceof ShufflePartitionedBlock
+              && getBlock(((ShufflePartitionedBlock) o).getBlockId()) == o;
+        }
+      };
+    }
+
+    /** The sort is stable, so the blocks of a task attempt keep the received order. */
+    List<ShufflePartitionedBlock> sortedCopy(Comparator<ShufflePartitionedBlock> comparator) {
+      ShufflePartitionedBlock[] copy = Arrays.copyOf(blocks, size);
+      Arrays.sort(copy, comparator);
+      return Arrays.asList(copy);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.buffer;
+
+import java.util.function.Supplier;
+
+import io.netty.buffer.ByteBuf;
+
+import org.apache.uniffle.common.ShuffleDataDistributionType;
+import org.apache.uniffle.common.ShufflePartitionedBlock;
+import org.apache.uniffle.common.ShufflePartitionedData;
+import org.apache.uniffle.server.ShuffleDataFlushEvent;
+
+/**
+ * A {@link ShuffleBufferWithLinkedList} which copies the payloads of the received blocks into the
+ * off-heap slabs of a {@link SlabArena}, so the blocks don't retain the request buffers they were
+ * decoded from. The current slab is sealed when the buffer is flushed, so the slabs of the flushed
+ * blocks are released as a whole after the flush.
+ */
+public class ShuffleBufferWithSlab extends ShuffleBufferWithLinkedList {
+  private final SlabArena slabArena;
+  private ByteBuf currentSlab;
+
+  public ShuffleBufferWithSlab(SlabArena slabArena) {
+    this.slabArena = slabArena;
+  }
+
+  @Override
+  public synchronized long append(ShufflePartitionedData data) {
+    if (evicted) {
+      return BUFFER_EVICTED;
+    }
+    for (ShufflePartitionedBlock block : data.getBlockList()) {
+      // the duplicate blocks are released by the super class, don't waste the slab for them
+      if (!getBlocks().contains(block)) {
+        copyToSlab(block);
+      }
+    }
+    return super.append(data);
+  }
+
+  private void copyToSlab(ShufflePartitionedBlock block) {
+    ByteBuf data = block.getData();
+    int length = data.readableBytes();
+    // the big blocks are kept as they are, they are not fragments of the direct memory
+    if (length == 0 || length > slabArena.getSlabSize()) {
+      return;
+    }
+    if (currentSlab == null || currentSlab.writableBytes() < length) {
+      sealCurrentSlab();
+      currentSlab = slabArena.allocate();
+    }
+    int offset = currentSlab.writerIndex();
+    currentSlab.writeBytes(data, data.readerIndex(), length);
+    block.setData(currentSlab.retainedSlice(offset, length));
+    data.release();
+  }
+
+  private void sealCurrentSlab() {
+    if (currentSlab != null) {
+      slabArena.seal(currentSlab);
+      currentSlab = null;
+    }
+  }
+
+  @Override
+  public synchronized ShuffleDataFlushEvent toFlushEvent(
+      String appId,
+      int shuffleId,
+      int startPartition,
+      int endPartition,
+      Supplier<Boolean> isValid,
+      ShuffleDataDistributionType dataDistributionType) {
+    ShuffleDataFlushEvent event =
+        super.toFlushEvent(
+            appId, shuffleId, startPartition, endPartition, isValid, dataDistributionType);
+    if (event != null) {
+      // the following blocks won't share the slab with the flushed ones
+      sealCurrentSlab();
+    }
+    return event;
+  }
+
+  @Override
+  public synchronized long release() {
+    long releasedSize = super.release();
+    sealCurrentSlab();
+    return releasedSize;
+  }
+}
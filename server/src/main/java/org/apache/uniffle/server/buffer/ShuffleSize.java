@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.buffer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** The size of a shuffle in buffer, which is also the element of {@link ShuffleSizeIndex}. */
+public class ShuffleSize {
+  private final String appId;
+  private final int shuffleId;
+  private final AtomicLong size = new AtomicLong(0L);
+  // the bucket of ShuffleSizeIndex this shuffle belongs to, -1 means not in the index
+  volatile int bucket = -1;
+  // the size when the index sorts the bucket, it's only accessed by the picking thread
+  long snapshotSize;
+
+  public ShuffleSize(String appId, int shuffleId) {
+    this.appId = appId;
+    this.shuffleId = shuffleId;
+  }
+
+  public String getAppId() {
+    return appId;
+  }
+
+  public int getShuffleId() {
+    return shuffleId;
+  }
+
+  public long get() {
+    return size.get();
+  }
+
+  long addAndGet(long delta) {
+    return size.addAndGet(delta);
+  }
+
+  @Override
+  public String toString() {
+    return "ShuffleSize{appId=" + appId + ", shuffleId=" + shuffleId + ", size=" + size + "}";
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.buffer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A size-ordered index of the shuffles in buffer, which is maintained incrementally when the size
+ * of a shuffle changes. The shuffles are put into buckets by the highest one bit of their size, so
+ * a shuffle is only moved to another bucket when its size crosses a power of 2, and picking the
+ * biggest shuffles only needs to sort the few buckets visited instead of all the shuffles.
+ */
+public class ShuffleSizeIndex {
+  // bucket i holds the shuffles whose size is in [2^(i-1), 2^i), bucket 0 holds the empty ones
+  private static final int BUCKET_NUM = Long.SIZE;
+  private static final int NOT_INDEXED = -1;
+  private static final int REMOVED = -2;
+  private static final Comparator<ShuffleSize> SNAPSHOT_SIZE_DESC =
+      (s1, s2) -> Long.compare(s2.snapshotSize, s1.snapshotSize);
+
+  private final List<Set<ShuffleSize>> buckets;
+  // reused to sort the shuffles of a bucket when iterating the index in descending order
+  private final List<ShuffleSize> sortBuffer = new ArrayList<>();
+
+  public ShuffleSizeIndex() {
+    buckets = new ArrayList<>(BUCKET_NUM);
+    for (int i = 0; i < BUCKET_NUM; i++) {
+      buckets.add(ConcurrentHashMap.newKeySet());
+    }
+  }
+
+  static int bucketOf(long size) {
+    return size <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(size);
+  }
+
+  public void update(ShuffleSize shuffleSize, long delta) {
+    long newSize = shuffleSize.addAndGet(delta);
+    if (bucketOf(newSize) != shuffleSize.bucket) {
+      reindex(shuffleSize);
+    }
+  }
+
+  private void reindex(ShuffleSize shuffleSize) {
+    synchronized (shuffleSize) {
+      if (shuffleSize.bucket == REMOVED) {
+        return;
+      }
+      // the size may be changed by others, always use the latest one
+      int newBucket = bucketOf(shuffleSize.get());
+      if (newBucket != shuffleSize.bucket) {
+        if (shuffleSize.bucket != NOT_INDEXED) {
+          buckets.get(shuffleSize.bucket).remove(shuffleSize);
+        }
+        buckets.get(newBucket).add(shuffleSize);
+        shuffleSize.bucket = newBucket;
+      }
+    }
+  }
+
+  public void remove(ShuffleSize shuffleSize) {
+    synchronized (shuffleSize) {
+      if (shuffleSize.bucket >= 0) {
+        buckets.get(shuffleSize.bucket).remove(shuffleSize);
+      }
+      shuffleSize.bucket = REMOVED;
+    }
+  }
+
+  /**
+   * Returns the non-empty shuffles in descending order of size. The shuffles of a bucket are sorted
+   * by the snapshot of their sizes when the iterator reaches the bucket, so only the buckets
+   * visited are sorted. The iterator reuses the sort buffer of the index, so it must not be used by
+   * more than one thread at the same time.
+   */
+  public Iterator<ShuffleSize> descendingIterator() {
+    sortBuffer.clear();
+    return new Iterator<ShuffleSize>() {
+      private int bucketIndex = BUCKET_NUM;
+      private int position = 0;
+
+      @Override
+      public boolean hasNext() {
+        while (position >= sortBuffer.size()) {
+          sortBuffer.clear();
+          position = 0;
+          if (--bucketIndex <= 0) {
+            return false;
+          }
+          for (ShuffleSize shuffleSize : buckets.get(bucketIndex)) {
+            shuffleSize.snapshotSize = shuffleSize.get();
+            sortBuffer.add(shuffleSize);
+          }
+          sortBuffer.sort(SNAPSHOT_SIZE_DESC);
+        }
+        return true;
+      }
+
+      @Override
+      public ShuffleSize next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return sortBuffer.get(position++);
+      }
+    };
+  }
+
+  public int size() {
+    int size = 0;
+    for (Set<ShuffleSize> bucket : buckets) {
+      size += bucket.size();
+    }
+    return size;
+  }
+}
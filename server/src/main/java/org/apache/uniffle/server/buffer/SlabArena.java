@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.buffer.UnpooledDirectByteBuf;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * The arena of the off-heap slabs used by {@link ShuffleBufferWithSlab}. A slab is a large direct
+ * buffer which the payloads of many blocks are copied into, and every block holds a retained slice
+ * of the slab. So the memory of a slab is released as a whole when all the blocks in it are
+ * released, and the released slabs are pooled to be reused by the following writes.
+ */
+public class SlabArena {
+
+  private final int slabSize;
+  private final int maxPooledSlabNum;
+  private final Queue<ByteBuffer> pooledSlabs = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pooledSlabNum = new AtomicInteger(0);
+  // the capacity of the slabs which are not freed, including the pooled ones
+  private final AtomicLong allocatedSize = new AtomicLong(0L);
+  // the bytes written into the slabs which are still held by blocks
+  private final AtomicLong usedSize = new AtomicLong(0L);
+  // the bytes which can't be used anymore in the sealed slabs held by blocks
+  private final AtomicLong wastedSize = new AtomicLong(0L);
+
+  public SlabArena(int slabSize, int maxPooledSlabNum) {
+    this.slabSize = slabSize;
+    this.maxPooledSlabNum = maxPooledSlabNum;
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  /** @return a new slab whose reference is owned by the caller */
+  public ByteBuf allocate() {
+    ByteBuffer buffer = pooledSlabs.poll();
+    if (buffer != null) {
+      pooledSlabNum.decrementAndGet();
+      buffer.clear();
+    } else {
+      buffer = ByteBuffer.allocateDirect(slabSize);
+      allocatedSize.addAndGet(slabSize);
+    }
+    return new Slab(buffer);
+  }
+
+  /**
+   * Seal the slab, the unwritten bytes of the slab are wasted until all the blocks in it are
+   * released. The reference of the slab owned by the caller is released too.
+   */
+  public void seal(ByteBuf slab) {
+    ((Slab) slab).seal();
+    slab.release();
+  }
+
+  private void recycle(ByteBuffer buffer) {
+    if (pooledSlabNum.incrementAndGet() <= maxPooledSlabNum) {
+      pooledSlabs.offer(buffer);
+    } else {
+      pooledSlabNum.decrementAndGet();
+      allocatedSize.addAndGet(-buffer.capacity());
+      PlatformDependent.freeDirectBuffer(buffer);
+    }
+  }
+
+  public long getAllocatedSize() {
+    return allocatedSize.get();
+  }
+
+  public long getUsedSize() {
+    return usedSize.get();
+  }
+
+  public long getWastedSize() {
+    return wastedSize.get();
+  }
+
+  public long getPooledSize() {
+    return (long) pooledSlabNum.get() * slabSize;
+  }
+
+  /** The size of the slabs held by blocks, which is the direct memory really used by them. */
+  public long getHeldSize() {
+    return allocatedSize.get() - getPooledSize();
+  }
+
+  /** The used size divided by the size of the slabs held by blocks. */
+  public double getUtilization() {
+    long heldSize = getHeldSize();
+    return heldSize <= 0 ? 1.0 : (double) usedSize.get() / heldSize;
+  }
+
+  /** The wasted size divided by the size of the slabs held by blocks. */
+  public double getFragmentation() {
+    long heldSize = getHeldSize();
+    return heldSize <= 0 ? 0.0 : (double) wastedSize.get() / heldSize;
+  }
+
+  private class Slab extends UnpooledDirectByteBuf {
+    private final ByteBuffer slabBuffer;
+    private int accountedUsedSize;
+    private int accountedWastedSize;
+
+    Slab(ByteBuffer buffer) {
+      // the buffer won't be freed by netty since it's passed in, we recycle it when deallocating
+      super(UnpooledByteBufAllocator.DEFAULT, buffer, buffer.capacity());
+      this.slabBuffer = buffer;
+      clear();
+    }
+
+    @Override
+    public ByteBuf writeBytes(ByteBuf src, int srcIndex, int length) {
+      super.writeBytes(src, srcIndex, length);
+      accountedUsedSize += length;
+      usedSize.addAndGet(length);
+      return this;
+    }
+
+    void seal() {
+      accountedWastedSize = writableBytes();
+      wastedSize.addAndGet(accountedWastedSize);
+    }
+
+    @Override
+    protected void deallocate() {
+      super.deallocate();
+      usedSize.addAndGet(-accountedUsedSize);
+      wastedSize.addAndGet(-accountedWastedSize);
+      recycle(slabBuffer);
+    }
+  }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.uniffle.server.merge;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -56,7 +57,7 @@ import org.apache.uniffle.storage.common.FileBasedShuffleSegment;
 public class BlockFlushFileReader {
 
   private static final Logger LOG = LoggerFactory.getLogger(BlockFlushFileReader.class);
-  private static final int BUFFER_SIZE = 4096;
+  static final int BUFFER_SIZE = 4096;
 
   private final boolean direct;
   private String dataFile;
@@ -66,7 +67,7 @@ public class BlockFlushFileReader {
 
   // blockid -> BlockInputStream
   private final Map<Long, BlockInputStream> inputStreamMap = JavaUtils.newConcurrentMap();
-  private final LinkedHashMap<Long, FileBasedShuffleSegment> indexSegments = new LinkedHashMap<>();
+  private final Map<Long, FileBasedShuffleSegment> indexSegments;
 
   private FlushFileReader flushFileReader;
   private volatile Throwable readThrowable = null;
@@ -82,12 +83,24 @@ public class BlockFlushFileReader {
 
   public BlockFlushFileReader(
       String dataFile, String indexFile, int ringBufferSize, boolean direct) {
+    this(dataFile, loadShuffleIndex(indexFile), ringBufferSize, direct);
+  }
+
+  /**
+   * Reads the given segments of the data file only, the segments must be in the order of the
+   * offsets, so that the data file is read sequentially.
+   */
+  public BlockFlushFileReader(
+      String dataFile,
+      LinkedHashMap<Long, FileBasedShuffleSegment> indexSegments,
+      int ringBufferSize,
+      boolean direct) {
     // Make sure flush file will not be updated
     this.ringBufferSize = ringBufferSize;
     this.direct = direct;
     this.mask = ringBufferSize - 1;
     this.dataFile = dataFile;
-    loadShuffleIndex(indexFile);
+    this.indexSegments = indexSegments;
     // Avoid flushFileReader noop loop
     this.lock.lock();
   }
@@ -99,7 +112,10 @@ public class BlockFlushFileReader {
     this.flushFileReader.start();
   }
 
-  public void loadShuffleIndex(String indexFileName) {
+  /** @return the segments of the index file in the order of the offsets */
+  public static LinkedHashMap<Long, FileBasedShuffleSegment> loadShuffleIndex(
+      String indexFileName) {
+    LinkedHashMap<Long, FileBasedShuffleSegment> indexSegments = new LinkedHashMap<>();
     File indexFile = new File(indexFileName);
     long indexFileSize = indexFile.length();
     int indexNum = (int) (indexFileSize / FileBasedShuffleSegment.SEGMENT_SIZE);
@@ -117,6 +133,7 @@ public class BlockFlushFileReader {
               blockId, offset, length, uncompressLength, crc, taskAttemptId);
       indexSegments.put(fileBasedShuffleSegment.getBlockId(), fileBasedShuffleSegment);
     }
+    return indexSegments;
   }
 
   public void close() throws IOException {
@@ -164,7 +181,8 @@ public class BlockFlushFileReader {
               FileBasedShuffleSegment segment = iterator.next().getValue();
               long blockId = segment.getBlockId();
               BlockInputStream inputStream = inputStreamMap.get(blockId);
-              if (inputStream == null || inputStream.eof) {
+              // The streams of the later merge passes are not initialized yet.
+              if (inputStream == null || inputStream.eof || !inputStream.isInitialized()) {
                 continue;
               }
               available++;
@@ -172,11 +190,7 @@ public class BlockFlushFileReader {
                 continue;
               }
               process++;
-              long off = segment.getOffset() + inputStream.getOffsetInThisBlock();
-              if (dataFileChannel.position() != off) {
-                dataFileChannel.position(off);
-              }
-              inputStream.writeBuffer();
+              inputStream.writeBuffer(segment.getOffset() + inputStream.getOffsetInThisBlock());
             }
           } catch (Throwable throwable) {
             readThrowable = throwable;
@@ -222,9 +236,17 @@ public class BlockFlushFileReader {
       return this.buffer.readableBytes() > 0;
     }
 
-    public void writeBuffer(int length) throws IOException {
+    public void writeBuffer(long position, int length) throws IOException {
       ByteBuffer byteBuffer = this.buffer.nioBuffer(0, length);
-      dataFileChannel.read(byteBuffer);
+      // positional read, so the position of the channel needn't be moved for every block
+      long readPosition = position;
+      while (byteBuffer.hasRemaining()) {
+        int n = dataFileChannel.read(byteBuffer, readPosition);
+        if (n < 0) {
+          throw new EOFException("Unexpected EOF when reading " + dataFile);
+        }
+        readPosition += n;
+      }
       this.buffer.readerIndex(0);
       this.buffer.writerIndex(length);
     }
@@ -276,11 +298,11 @@ public class BlockFlushFileReader {
       return writeIndex == readIndex;
     }
 
-    int write(int available) throws IOException {
+    int write(long position, int available) throws IOException {
       int left = available;
       while (!full() && left > 0) {
-        int size = Math.min(available, BUFFER_SIZE);
-        this.buffers[writeIndex & mask].writeBuffer(size);
+        int size = Math.min(left, BUFFER_SIZE);
+        this.buffers[writeIndex & mask].writeBuffer(position + available - left, size);
         left -= size;
         writeIndex++;
       }
@@ -331,7 +353,7 @@ public class BlockFlushFileReader {
 
   public class BlockInputStream extends SerInputStream {
 
-    private RingBuffer ringBuffer;
+    private volatile RingBuffer ringBuffer;
     private boolean eof = false;
     private final int length;
     private int pos = 0;
@@ -426,12 +448,16 @@ public class BlockFlushFileReader {
       }
     }
 
+    boolean isInitialized() {
+      return ringBuffer != null;
+    }
+
     public boolean isBufferFull() {
       return ringBuffer.full();
     }
 
-    public void writeBuffer() throws IOException {
-      int size = this.ringBuffer.write(length - offsetInThisBlock);
+    public void writeBuffer(long position) throws IOException {
+      int size = this.ringBuffer.write(position, length - offsetInThisBlock);
       this.offsetInThisBlock += size;
     }
 
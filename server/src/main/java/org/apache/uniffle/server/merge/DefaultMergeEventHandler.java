@@ -17,17 +17,17 @@
 
 package org.apache.uniffle.server.merge;
 
+import java.util.Comparator;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.function.Consumer;
 
-import com.google.common.collect.Queues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.apache.uniffle.common.util.ThreadUtils;
 import org.apache.uniffle.server.ShuffleServerConf;
 import org.apache.uniffle.server.ShuffleServerMetrics;
 
@@ -35,12 +35,29 @@ import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_THREAD_AL
 import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_THREAD_POOL_QUEUE_SIZE;
 import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_THREAD_POOL_SIZE;
 
+/**
+ * The events are taken by the size of the partitions rather than FIFO, so that a few huge
+ * partitions don't block all the small ones. The events whose reducers are already polling go
+ * first, which also keeps a huge partition from starving. The merge threads are a work-stealing
+ * pool, so the sub-merges forked by a large partition are run by the idle merge threads, or by the
+ * forking thread itself when all the threads are busy.
+ */
 public class DefaultMergeEventHandler implements MergeEventHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultMergeEventHandler.class);
 
-  private Executor threadPoolExecutor;
-  protected final BlockingQueue<MergeEvent> queue = Queues.newLinkedBlockingQueue();
+  private static final Comparator<MergeEvent> EVENT_COMPARATOR =
+      Comparator.comparing((MergeEvent event) -> !event.isPrioritized())
+          .thenComparingLong(MergeEvent::getBlockNum)
+          .thenComparingLong(MergeEvent::getSequence);
+
+  private ForkJoinPool threadPoolExecutor;
+  // The next event is taken only when a merge thread is idle, so the events wait in the priority
+  // queue instead of the FIFO queue of the pool.
+  private final Semaphore idleThreads;
+  private final int queueSize;
+  protected final BlockingQueue<MergeEvent> queue =
+      new PriorityBlockingQueue<>(11, EVENT_COMPARATOR);
   private Consumer<MergeEvent> eventConsumer;
   private volatile boolean stopped = false;
 
@@ -48,17 +65,25 @@ public class DefaultMergeEventHandler implements MergeEventHandler {
       ShuffleServerConf serverConf, Consumer<MergeEvent> eventConsumer) {
     this.eventConsumer = eventConsumer;
     int poolSize = serverConf.get(SERVER_MERGE_THREAD_POOL_SIZE);
-    int queueSize = serverConf.get(SERVER_MERGE_THREAD_POOL_QUEUE_SIZE);
-    int keepAliveTime = serverConf.get(SERVER_MERGE_THREAD_ALIVE_TIME);
-    BlockingQueue<Runnable> waitQueue = Queues.newLinkedBlockingQueue(queueSize);
+    this.queueSize = serverConf.get(SERVER_MERGE_THREAD_POOL_QUEUE_SIZE);
+    this.idleThreads = new Semaphore(poolSize);
+    if (serverConf.contains(SERVER_MERGE_THREAD_ALIVE_TIME)) {
+      LOG.warn(
+          "{} is deprecated and ignored, since the merge threads are a work-stealing pool",
+          SERVER_MERGE_THREAD_ALIVE_TIME.key());
+    }
     threadPoolExecutor =
-        new ThreadPoolExecutor(
-            poolSize,
+        new ForkJoinPool(
             poolSize,
-            keepAliveTime,
-            TimeUnit.SECONDS,
-            waitQueue,
-            ThreadUtils.getThreadFactory("DefaultMergeEventHandler"));
+            pool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+              thread.setName("DefaultMergeEventHandler-" + thread.getPoolIndex());
+              thread.setDaemon(true);
+              return thread;
+            },
+            null,
+            false);
     startEventProcessor();
   }
 
@@ -76,25 +101,37 @@ public class DefaultMergeEventHandler implements MergeEventHandler {
   }
 
   protected void processNextEvent() {
+    try {
+      idleThreads.acquire();
+    } catch (InterruptedException e) {
+      LOG.error("Interrupted when waiting for idle merge thread.", e);
+      return;
+    }
     try {
       MergeEvent event = queue.take();
+      ShuffleServerMetrics.summaryMergeEventQueueTime.observe(
+          System.currentTimeMillis() - event.getCreateTime());
       threadPoolExecutor.execute(() -> handleEventAndUpdateMetrics(event));
     } catch (Exception e) {
+      idleThreads.release();
       LOG.error("Exception happened when process event.", e);
     }
   }
 
   private void handleEventAndUpdateMetrics(MergeEvent event) {
+    long start = System.currentTimeMillis();
     try {
       eventConsumer.accept(event);
     } finally {
+      ShuffleServerMetrics.summaryPartitionMergeTime.observe(System.currentTimeMillis() - start);
       ShuffleServerMetrics.gaugeMergeEventQueueSize.dec();
+      idleThreads.release();
     }
   }
 
   @Override
   public boolean handle(MergeEvent event) {
-    if (queue.offer(event)) {
+    if (queue.size() < queueSize && queue.offer(event)) {
       ShuffleServerMetrics.gaugeMergeEventQueueSize.inc();
       return true;
     } else {
@@ -102,6 +139,16 @@ public class DefaultMergeEventHandler implements MergeEventHandler {
     }
   }
 
+  @Override
+  public synchronized void prioritize(MergeEvent event) {
+    // The order of the queue is kept only if the event is out of the queue when it's changed.
+    if (!event.isPrioritized() && queue.remove(event)) {
+      event.setPrioritized(true);
+      queue.offer(event);
+      ShuffleServerMetrics.counterTotalPrioritizedMergeEventNum.inc();
+    }
+  }
+
   @Override
   public int getEventNumInMerge() {
     return queue.size();
@@ -17,16 +17,25 @@
 
 package org.apache.uniffle.server.merge;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
 public class MergeEvent {
 
+  private static final AtomicLong SEQUENCE = new AtomicLong();
+
   private final String appId;
   private final int shuffleId;
   private final int partitionId;
   private final Class kClass;
   private final Class vClass;
   private Roaring64NavigableMap expectedBlockIdMap;
+  private final long blockNum;
+  private final long sequence;
+  private final long createTime;
+  // Whether the reducer is already polling the merged blocks
+  private volatile boolean prioritized = false;
 
   public MergeEvent(
       String appId,
@@ -41,6 +50,9 @@ public class MergeEvent {
     this.kClass = kClass;
     this.vClass = vClass;
     this.expectedBlockIdMap = expectedBlockIdMap;
+    this.blockNum = expectedBlockIdMap.getLongCardinality();
+    this.sequence = SEQUENCE.getAndIncrement();
+    this.createTime = System.currentTimeMillis();
   }
 
   public String getAppId() {
@@ -59,6 +71,26 @@ public class MergeEvent {
     return expectedBlockIdMap;
   }
 
+  public long getBlockNum() {
+    return blockNum;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public long getCreateTime() {
+    return createTime;
+  }
+
+  public boolean isPrioritized() {
+    return prioritized;
+  }
+
+  void setPrioritized(boolean prioritized) {
+    this.prioritized = prioritized;
+  }
+
   public Class getKeyClass() {
     return kClass;
   }
@@ -21,6 +21,9 @@ public interface MergeEventHandler {
 
   boolean handle(MergeEvent event);
 
+  /** Moves the event ahead if it is still waiting, because its reducer is already polling. */
+  void prioritize(MergeEvent event);
+
   int getEventNumInMerge();
 
   void stop();
@@ -20,10 +20,16 @@ package org.apache.uniffle.server.merge;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinTask;
 
 import com.google.common.collect.Range;
 import io.netty.buffer.ByteBuf;
@@ -49,11 +55,15 @@ import org.apache.uniffle.common.netty.buffer.FileSegmentManagedBuffer;
 import org.apache.uniffle.common.netty.buffer.ManagedBuffer;
 import org.apache.uniffle.common.netty.buffer.NettyManagedBuffer;
 import org.apache.uniffle.common.rpc.StatusCode;
+import org.apache.uniffle.common.serializer.FileSerInputStream;
+import org.apache.uniffle.common.serializer.FileSerOutputStream;
 import org.apache.uniffle.common.serializer.SerInputStream;
 import org.apache.uniffle.common.serializer.SerOutputStream;
 import org.apache.uniffle.server.ShuffleDataReadEvent;
+import org.apache.uniffle.server.ShuffleServerMetrics;
 import org.apache.uniffle.server.buffer.ShuffleBuffer;
 import org.apache.uniffle.server.buffer.ShuffleBufferWithSkipList;
+import org.apache.uniffle.storage.common.FileBasedShuffleSegment;
 import org.apache.uniffle.storage.common.Storage;
 import org.apache.uniffle.storage.handler.impl.LocalFileServerReadHandler;
 import org.apache.uniffle.storage.request.CreateShuffleReadHandlerRequest;
@@ -66,11 +76,15 @@ import static org.apache.uniffle.common.merger.MergeState.MERGING;
 import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_BLOCK_RING_BUFFER_SIZE;
 import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_CACHE_MERGED_BLOCK_INIT_SLEEP_MS;
 import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_CACHE_MERGED_BLOCK_MAX_SLEEP_MS;
+import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_FACTOR;
+import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_SPILL_PATH;
 import static org.apache.uniffle.server.merge.ShuffleMergeManager.MERGE_APP_SUFFIX;
 
 public class Partition<K, V> {
 
   private static final Logger LOG = LoggerFactory.getLogger(Partition.class);
+  private static final String MERGE_RUN_DIR = ".merge_runs";
+  private static final int RUN_WRITE_BUFFER_SIZE = 64 * 1024;
 
   private final Shuffle shuffle;
   private final int partitionId;
@@ -86,6 +100,7 @@ public class Partition<K, V> {
   private long sleepTime;
   private int ringBufferSize;
   private BlockFlushFileReader reader = null;
+  private volatile MergeEvent mergeEvent;
 
   public Partition(Shuffle shuffle, int partitionId) throws IOException {
     this.shuffle = shuffle;
@@ -95,6 +110,7 @@ public class Partition<K, V> {
             shuffle.serverConf, this::cachedMergedBlock, shuffle.mergedBlockSize, this);
     this.initSleepTime = shuffle.serverConf.get(SERVER_MERGE_CACHE_MERGED_BLOCK_INIT_SLEEP_MS);
     this.maxSleepTime = shuffle.serverConf.get(SERVER_MERGE_CACHE_MERGED_BLOCK_MAX_SLEEP_MS);
+    this.sleepTime = initSleepTime;
     int tmpRingBufferSize = shuffle.serverConf.get(SERVER_MERGE_BLOCK_RING_BUFFER_SIZE);
     this.ringBufferSize =
         Integer.highestOneBit((Math.min(32, Math.max(2, tmpRingBufferSize)) - 1) << 1);
@@ -121,6 +137,7 @@ public class Partition<K, V> {
                 shuffle.kClass,
                 shuffle.vClass,
                 expectedBlockIdMap);
+        mergeEvent = event;
         if (!shuffle.eventHandler.handle(event)) {
           setState(INTERNAL_ERROR);
         }
@@ -223,20 +240,37 @@ public class Partition<K, V> {
   }
 
   void merge(List<Segment> segments, SerOutputStream output, BlockFlushFileReader reader) {
+    merge(segments, output, reader, new ArrayList<>());
+  }
+
+  private void merge(
+      List<Segment> segments,
+      SerOutputStream output,
+      BlockFlushFileReader reader,
+      List<File> runFiles) {
+    List<Segment> inputs = segments;
     try {
-      segments.forEach(segment -> segment.init());
-      // start reader must happen after init segment to allocate ring buffer.
+      // The reader skips the blocks whose ring buffers are not allocated yet, so it can be started
+      // before the segments of the later passes are initialized.
       if (reader != null) {
         reader.start();
       }
-      Merger.merge(
-          shuffle.serverConf,
-          output,
-          segments,
-          shuffle.kClass,
-          shuffle.vClass,
-          shuffle.comparator,
-          (shuffle.comparator instanceof RawComparator));
+      inputs = mergeToRuns(segments, runFiles);
+      int readBufferSize = getReadBufferSize(inputs);
+      requireMemory(readBufferSize);
+      try {
+        inputs.forEach(segment -> segment.init());
+        Merger.merge(
+            shuffle.serverConf,
+            output,
+            inputs,
+            shuffle.kClass,
+            shuffle.vClass,
+            shuffle.comparator,
+            (shuffle.comparator instanceof RawComparator));
+      } finally {
+        releaseMemory(readBufferSize);
+      }
       setState(DONE);
     } catch (Exception e) {
       LOG.info("Found exception when merge for {}, caused by", this, e);
@@ -254,17 +288,259 @@ public class Partition<K, V> {
       } catch (IOException ioe) {
         LOG.warn("Fail to close output, caused by ", ioe);
       }
-      segments.forEach(
-          segment -> {
-            try {
-              segment.close();
-            } catch (IOException ioe) {
-              LOG.warn("Fail to close segment, caused by ", ioe);
-            }
-          });
+      closeSegments(segments);
+      closeSegments(inputs);
+      deleteRunFiles(runFiles);
     }
   }
 
+  /**
+   * Merges each group of at most mergeFactor adjacent blocks into a sorted run as a sub task of the
+   * current fork join pool, so the idle merge threads share the work of a large partition. Then the
+   * runs are merged into the output like the blocks of a small partition. The index file is loaded
+   * once and split by the groups, so the reader of each group only goes through its own blocks.
+   */
+  void parallelMerge(Roaring64NavigableMap blockIds, Map<Long, ByteBuf> cachedBlocks) {
+    int mergeFactor = shuffle.serverConf.get(SERVER_MERGE_FACTOR);
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    List<File> runFiles = Collections.synchronizedList(new ArrayList<>());
+    List<Segment> runs = new ArrayList<>();
+    boolean handedOver = false;
+    try {
+      String dataFileName = null;
+      Map<Long, FileBasedShuffleSegment> indexSegments = Collections.emptyMap();
+      if (!allCached(blockIds.iterator(), cachedBlocks)) {
+        LocalFileServerReadHandler handler =
+            getLocalFileServerReadHandler(shuffle.serverConf, shuffle.appId);
+        dataFileName = handler.getDataFileName();
+        indexSegments = BlockFlushFileReader.loadShuffleIndex(handler.getIndexFileName());
+      }
+      List<ForkJoinTask<Segment>> subMerges = new ArrayList<>();
+      Iterator<Long> iterator = blockIds.iterator();
+      while (iterator.hasNext()) {
+        List<Long> group = new ArrayList<>(mergeFactor);
+        while (iterator.hasNext() && group.size() < mergeFactor) {
+          group.add(iterator.next());
+        }
+        String groupDataFileName = dataFileName;
+        LinkedHashMap<Long, FileBasedShuffleSegment> groupSegments =
+            splitIndex(group, cachedBlocks, indexSegments);
+        subMerges.add(
+            ForkJoinTask.adapt(
+                    () -> {
+                      // the worker may run other tasks later, so its class loader is restored
+                      Thread thread = Thread.currentThread();
+                      ClassLoader workerClassLoader = thread.getContextClassLoader();
+                      thread.setContextClassLoader(classLoader);
+                      try {
+                        return subMerge(
+                            group, cachedBlocks, groupDataFileName, groupSegments, runFiles);
+                      } finally {
+                        thread.setContextClassLoader(workerClassLoader);
+                      }
+                    })
+                .fork());
+      }
+      ShuffleServerMetrics.counterTotalSubMergeNum.inc(subMerges.size());
+      // Wait for all the sub-merges even if some fail, otherwise their runs would be leaked.
+      Throwable failure = null;
+      for (ForkJoinTask<Segment> subMerge : subMerges) {
+        try {
+          runs.add(subMerge.join());
+        } catch (Throwable t) {
+          failure = t;
+        }
+      }
+      if (failure != null) {
+        LOG.info("Found exception when merge for {}, caused by", this, failure);
+        setState(INTERNAL_ERROR);
+        if (failure instanceof Error) {
+          throw (Error) failure;
+        }
+        return;
+      }
+      ShuffleServerMetrics.counterTotalMergePassNum.inc();
+      long totalBytes = runs.stream().mapToLong(segment -> segment.getSize()).sum();
+      SerOutputStream output = createSerOutputStream(totalBytes);
+      // the final merge closes the runs and deletes the run files
+      handedOver = true;
+      merge(runs, output, null, runFiles);
+    } finally {
+      if (!handedOver) {
+        closeSegments(runs);
+        deleteRunFiles(runFiles);
+      }
+    }
+  }
+
+  private static boolean allCached(Iterator<Long> blockIds, Map<Long, ByteBuf> cachedBlocks) {
+    while (blockIds.hasNext()) {
+      if (!cachedBlocks.containsKey(blockIds.next())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the index segments of the uncached blocks of the group in the order of the offsets. */
+  private static LinkedHashMap<Long, FileBasedShuffleSegment> splitIndex(
+      List<Long> group,
+      Map<Long, ByteBuf> cachedBlocks,
+      Map<Long, FileBasedShuffleSegment> indexSegments) {
+    LinkedHashMap<Long, FileBasedShuffleSegment> groupSegments = new LinkedHashMap<>();
+    group.stream()
+        .filter(blockId -> !cachedBlocks.containsKey(blockId))
+        .map(indexSegments::get)
+        .filter(Objects::nonNull)
+        .sorted(Comparator.comparingLong(FileBasedShuffleSegment::getOffset))
+        .forEach(segment -> groupSegments.put(segment.getBlockId(), segment));
+    return groupSegments;
+  }
+
+  private Segment subMerge(
+      List<Long> blockIds,
+      Map<Long, ByteBuf> cachedBlocks,
+      String dataFileName,
+      LinkedHashMap<Long, FileBasedShuffleSegment> indexSegments,
+      List<File> runFiles)
+      throws IOException {
+    // BlockFlushFileReader must be used by the thread which creates it, see the lock of it.
+    BlockFlushFileReader groupReader =
+        cachedBlocks.keySet().containsAll(blockIds)
+            ? null
+            : new BlockFlushFileReader(dataFileName, indexSegments, ringBufferSize, shuffle.direct);
+    List<Segment> segments = new ArrayList<>();
+    try {
+      if (!collectSegments(
+          shuffle.serverConf,
+          blockIds.iterator(),
+          shuffle.kClass,
+          shuffle.vClass,
+          cachedBlocks,
+          segments,
+          groupReader)) {
+        throw new RssException("Can not find all the blocks of " + this);
+      }
+      if (groupReader != null) {
+        groupReader.start();
+      }
+      return mergeToRun(segments, runFiles);
+    } finally {
+      closeSegments(segments);
+      if (groupReader != null) {
+        groupReader.close();
+      }
+    }
+  }
+
+  /**
+   * Merges the segments into sorted runs on local disk until at most mergeFactor segments are left.
+   * Only the leading segments are merged in each pass, just enough to reach the merge factor at the
+   * end, so the rest of the data is written only once by the final merge. A run takes the id of its
+   * first segment and the runs are made of adjacent segments, so the records with the same key are
+   * kept in the same order as the single pass merge.
+   */
+  private List<Segment> mergeToRuns(List<Segment> segments, List<File> runFiles)
+      throws IOException {
+    int mergeFactor = shuffle.serverConf.get(SERVER_MERGE_FACTOR);
+    List<Segment> current = segments;
+    while (current.size() > mergeFactor) {
+      List<Segment> next = new ArrayList<>();
+      int i = 0;
+      while (i < current.size()) {
+        int excess = next.size() + current.size() - i - mergeFactor;
+        if (excess <= 0) {
+          next.addAll(current.subList(i, current.size()));
+          break;
+        }
+        int groupSize = Math.min(mergeFactor, excess + 1);
+        next.add(mergeToRun(current.subList(i, i + groupSize), runFiles));
+        i += groupSize;
+      }
+      ShuffleServerMetrics.counterTotalMergePassNum.inc();
+      current = next;
+    }
+    return current;
+  }
+
+  private Segment mergeToRun(List<Segment> group, List<File> runFiles) throws IOException {
+    File spillDir = getSpillDir();
+    if (!spillDir.isDirectory() && !spillDir.mkdirs() && !spillDir.isDirectory()) {
+      throw new IOException("Can not create the directory " + spillDir + " for sorted runs");
+    }
+    File runFile =
+        File.createTempFile(
+            shuffle.appId + "_" + shuffle.shuffleId + "_" + partitionId + "_", ".run", spillDir);
+    runFiles.add(runFile);
+    int bufferSize = getReadBufferSize(group) + RUN_WRITE_BUFFER_SIZE;
+    requireMemory(bufferSize);
+    try (SerOutputStream runOutput = new FileSerOutputStream(runFile, RUN_WRITE_BUFFER_SIZE)) {
+      group.forEach(segment -> segment.init());
+      Merger.merge(
+          shuffle.serverConf,
+          runOutput,
+          group,
+          shuffle.kClass,
+          shuffle.vClass,
+          shuffle.comparator,
+          (shuffle.comparator instanceof RawComparator));
+    } finally {
+      releaseMemory(bufferSize);
+      closeSegments(group);
+    }
+    ShuffleServerMetrics.counterTotalMergeSpillSize.inc(runFile.length());
+    return new StreamedSegment(
+        shuffle.serverConf,
+        SerInputStream.newInputStream(runFile),
+        group.get(0).getId(),
+        shuffle.kClass,
+        shuffle.vClass,
+        runFile.length(),
+        (shuffle.comparator instanceof RawComparator));
+  }
+
+  // The ring buffers of the blocks in flush file, or the read buffers of the sorted runs.
+  private int getReadBufferSize(List<Segment> segments) {
+    return segments.size()
+        * Math.max(
+            ringBufferSize * BlockFlushFileReader.BUFFER_SIZE, FileSerInputStream.BUFFER_SIZE);
+  }
+
+  private File getSpillDir() {
+    String spillPath = shuffle.serverConf.get(SERVER_MERGE_SPILL_PATH);
+    if (spillPath == null) {
+      Storage storage =
+          shuffle
+              .shuffleServer
+              .getStorageManager()
+              .selectStorage(
+                  new ShuffleDataReadEvent(
+                      shuffle.appId, shuffle.shuffleId, partitionId, partitionId));
+      spillPath = storage == null ? System.getProperty("java.io.tmpdir") : storage.getStoragePath();
+    }
+    // Hidden, so that it's not taken as an application by the local storage
+    return new File(spillPath, MERGE_RUN_DIR);
+  }
+
+  private void deleteRunFiles(List<File> runFiles) {
+    for (File runFile : runFiles) {
+      if (runFile.exists() && !runFile.delete()) {
+        LOG.warn("Fail to delete the sorted run {}", runFile);
+      }
+    }
+  }
+
+  private void closeSegments(List<Segment> segments) {
+    segments.forEach(
+        segment -> {
+          try {
+            segment.close();
+          } catch (IOException ioe) {
+            LOG.warn("Fail to close segment, caused by ", ioe);
+          }
+        });
+  }
+
   public void setState(MergeState state) {
     if (LOG.isDebugEnabled()) {
       LOG.debug("Partition is {}, transient from {} to {}.", this, this.state.name(), state.name());
@@ -281,6 +557,12 @@ public class Partition<K, V> {
   public MergeStatus tryGetBlock(long blockId) {
     long size = -1L;
     MergeState currentState = state;
+    MergeEvent event = mergeEvent;
+    if (currentState == MERGING && event != null) {
+      // The reducer is waiting for this partition, it's enough to prioritize it once.
+      mergeEvent = null;
+      shuffle.eventHandler.prioritize(event);
+    }
     if ((currentState == MERGING || currentState == DONE) && !result.isOutOfBound(blockId)) {
       size = result.getBlockSize(blockId);
     }
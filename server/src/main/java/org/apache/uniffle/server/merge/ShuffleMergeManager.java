@@ -30,6 +30,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.netty.buffer.ByteBuf;
@@ -50,6 +51,8 @@ import org.apache.uniffle.server.ShuffleServerConf;
 
 import static org.apache.uniffle.common.merger.MergeState.INTERNAL_ERROR;
 import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_CLASS_LOADER_JARS_PATH;
+import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_FACTOR;
+import static org.apache.uniffle.server.ShuffleServerConf.SERVER_MERGE_PARALLEL_ENABLED;
 
 public class ShuffleMergeManager {
 
@@ -249,6 +252,15 @@ public class ShuffleMergeManager {
       boolean allCached =
           partition.collectBlocks(event.getExpectedBlockIdMap().iterator(), cachedBlocks);
 
+      // A large partition is split into sub-merges, which create their own readers.
+      if (serverConf.get(SERVER_MERGE_PARALLEL_ENABLED)
+          && event.getBlockNum() > serverConf.get(SERVER_MERGE_FACTOR)
+          && ForkJoinTask.inForkJoinPool()) {
+        partition.parallelMerge(event.getExpectedBlockIdMap(), cachedBlocks);
+        success = true;
+        return;
+      }
+
       // 2 If the size of cacheBlock is less than total block, we will read from file, so construct
       // reader
       BlockFlushFileReader reader = null;
@@ -277,10 +277,21 @@ public class LocalStorageManager extends SingleStorageManager {
     ShuffleServerMetrics.counterTotalLocalFileWriteDataSize
         .labels(ShuffleServerMetrics.LOCAL_DISK_PATH_LABEL_ALL)
         .inc(event.getDataLength());
+    ShuffleServerMetrics.counterTotalLocalFileWriteTime
+        .labels(ShuffleServerMetrics.LOCAL_DISK_PATH_LABEL_ALL)
+        .inc(writeTime);
     if (event.getUnderStorage() != null) {
+      String storagePath = event.getUnderStorage().getStoragePath();
       ShuffleServerMetrics.counterTotalLocalFileWriteDataSize
-          .labels(event.getUnderStorage().getStoragePath())
+          .labels(storagePath)
           .inc(event.getDataLength());
+      ShuffleServerMetrics.counterTotalLocalFileWriteTime.labels(storagePath).inc(writeTime);
+      if (writeTime > 0) {
+        // bytes per millisecond to MB/s
+        ShuffleServerMetrics.histogramLocalFileWriteSpeed
+            .labels(storagePath)
+            .observe(event.getDataLength() * 1000.0 / writeTime / (1024 * 1024));
+      }
     }
   }
 
@@ -304,6 +315,7 @@ public class LocalStorageManager extends SingleStorageManager {
         storage.removeHandlers(appId);
       }
       for (Integer shuffleId : shuffleSet) {
+        storage.removeFiles(appId, shuffleId);
         storage.removeResources(RssUtils.generateShuffleKey(appId, shuffleId));
       }
     }
@@ -416,6 +428,7 @@ public class LocalStorageManager extends SingleStorageManager {
     Collection<String> appIds = appIdsSupplier.get();
     for (String appId : appIdsOnStorages) {
       if (!appIds.contains(appId)) {
+        localStorages.forEach(storage -> storage.removeFiles(appId));
         ShuffleDeleteHandler deleteHandler =
             ShuffleHandlerFactory.getInstance()
                 .createShuffleDeleteHandler(
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.apache.uniffle.common.ShuffleIndexResult;
+import org.apache.uniffle.common.netty.buffer.FileSegmentManagedBuffer;
+import org.apache.uniffle.server.buffer.ShuffleBufferManager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShuffleIndexCacheTest {
+
+  @BeforeEach
+  public void setUp() {
+    ShuffleServerMetrics.register();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    ShuffleServerMetrics.clear();
+  }
+
+  private static ShuffleIndexResult fileResult(File indexFile, long dataFileLen) {
+    return new ShuffleIndexResult(
+        new FileSegmentManagedBuffer(indexFile, 0, (int) indexFile.length()),
+        dataFileLen,
+        "data",
+        0);
+  }
+
+  private static byte[] writeIndex(File indexFile, int length) throws Exception {
+    byte[] data = new byte[length];
+    new Random().nextBytes(data);
+    Files.write(indexFile.toPath(), data, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    return data;
+  }
+
+  @Test
+  public void hitAndMissTest(@TempDir File tmpDir) throws Exception {
+    ShuffleServerConf conf = new ShuffleServerConf();
+    conf.set(ShuffleServerConf.SERVER_READ_BUFFER_CAPACITY, 10000L);
+    ShuffleBufferManager shuffleBufferManager = new ShuffleBufferManager(conf, null, false);
+    ShuffleIndexCache cache = new ShuffleIndexCache(4000, shuffleBufferManager);
+    File indexFile = new File(tmpDir, "index");
+    byte[] data = writeIndex(indexFile, 400);
+
+    ShuffleIndexResult result = cache.get("app", 0, 0, fileResult(indexFile, 100));
+    assertArrayEquals(data, result.getData());
+    assertEquals(100, result.getDataFileLen());
+    assertEquals(1, ShuffleServerMetrics.counterTotalIndexCacheMiss.get(), 0);
+    assertEquals(400, ShuffleServerMetrics.gaugeReadBufferUsedSize.get(), 0);
+
+    // the file is deleted, but the index is cached
+    indexFile.delete();
+    writeIndex(indexFile, 400);
+    result = cache.get("app", 0, 0, fileResult(indexFile, 100));
+    assertArrayEquals(data, result.getData());
+    // releasing the result doesn't affect the cached index
+    result.release();
+    assertArrayEquals(data, cache.get("app", 0, 0, fileResult(indexFile, 100)).getData());
+    assertEquals(2, ShuffleServerMetrics.counterTotalIndexCacheHit.get(), 0);
+
+    // the index is loaded again after more data is flushed
+    byte[] appended = writeIndex(indexFile, 40);
+    result = cache.get("app", 0, 0, fileResult(indexFile, 200));
+    assertEquals(440, result.getData().length);
+    assertArrayEquals(appended, Arrays.copyOfRange(result.getData(), 400, 440));
+    assertEquals(2, ShuffleServerMetrics.counterTotalIndexCacheMiss.get(), 0);
+    assertEquals(1, cache.size());
+    assertEquals(440, ShuffleServerMetrics.gaugeReadBufferUsedSize.get(), 0);
+    assertEquals(440, ShuffleServerMetrics.gaugeIndexCacheSize.get(), 0);
+
+    cache.removeShuffle("app", 1);
+    assertEquals(1, cache.size());
+    cache.removeShuffle("app", 0);
+    assertEquals(0, cache.size());
+    assertEquals(0, ShuffleServerMetrics.gaugeReadBufferUsedSize.get(), 0);
+    assertEquals(0, ShuffleServerMetrics.gaugeIndexCacheSize.get(), 0);
+  }
+
+  @Test
+  public void evictionTest(@TempDir File tmpDir) throws Exception {
+    ShuffleIndexCache cache = new ShuffleIndexCache(4000, null);
+    File indexFile = new File(tmpDir, "index");
+    writeIndex(indexFile, 400);
+    for (int i = 0; i < 20; i++) {
+      cache.get("app", 0, i, fileResult(indexFile, 100));
+    }
+    // every segment of the cache holds 2 indexes at most
+    assertTrue(cache.size() > 0 && cache.size() <= 8);
+    assertEquals(20 - cache.size(), ShuffleServerMetrics.counterTotalIndexCacheEviction.get(), 0);
+
+    // the index which is larger than a segment isn't cached
+    File largeIndexFile = new File(tmpDir, "largeIndex");
+    writeIndex(largeIndexFile, 2000);
+    cache.removeApp("app");
+    cache.get("app", 1, 0, fileResult(largeIndexFile, 100));
+    assertEquals(0, cache.size());
+    assertEquals(20, ShuffleServerMetrics.counterTotalIndexCacheMiss.get(), 0);
+  }
+
+  @Test
+  public void removeWithCollidingPrefixesTest(@TempDir File tmpDir) throws Exception {
+    ShuffleIndexCache cache = new ShuffleIndexCache(40000, null);
+    File indexFile = new File(tmpDir, "index");
+    writeIndex(indexFile, 40);
+    cache.get("app_1", 1, 0, fileResult(indexFile, 100));
+    cache.get("app_1", 10, 0, fileResult(indexFile, 100));
+    cache.get("app_10", 1, 0, fileResult(indexFile, 100));
+    assertEquals(3, cache.size());
+
+    // removing the shuffle 1 keeps the shuffle 10
+    cache.removeShuffle("app_1", 1);
+    assertEquals(2, cache.size());
+    // removing the app_1 keeps the app_10
+    cache.removeApp("app_1");
+    assertEquals(1, cache.size());
+    cache.removeApp("app_10");
+    assertEquals(0, cache.size());
+  }
+}
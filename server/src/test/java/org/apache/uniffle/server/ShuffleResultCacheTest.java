@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.apache.uniffle.common.util.BlockIdLayout;
+import org.apache.uniffle.server.buffer.ShuffleBufferManager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ShuffleResultCacheTest {
+
+  @BeforeEach
+  public void setUp() {
+    ShuffleServerMetrics.register();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    ShuffleServerMetrics.clear();
+  }
+
+  @Test
+  public void hitAndMissTest() throws Exception {
+    ShuffleServerConf conf = new ShuffleServerConf();
+    conf.set(ShuffleServerConf.SERVER_READ_BUFFER_CAPACITY, 10000L);
+    ShuffleBufferManager shuffleBufferManager = new ShuffleBufferManager(conf, null, false);
+    ShuffleResultCache cache = new ShuffleResultCache(4000, shuffleBufferManager);
+    BlockIdLayout layout = BlockIdLayout.DEFAULT;
+    AtomicInteger loadNum = new AtomicInteger();
+    ShuffleResultCache.ResultLoader loader = () -> new byte[] {(byte) loadNum.incrementAndGet()};
+
+    assertArrayEquals(
+        new byte[] {1}, cache.get("app", 0, Sets.newHashSet(1, 2), layout, 3, loader));
+    // the order of the partitions doesn't matter
+    assertArrayEquals(
+        new byte[] {1}, cache.get("app", 0, Sets.newHashSet(2, 1), layout, 3, loader));
+    assertEquals(1, ShuffleServerMetrics.counterTotalShuffleResultCacheHit.get(), 0);
+    assertEquals(1, ShuffleServerMetrics.counterTotalShuffleResultCacheMiss.get(), 0);
+
+    // more blocks are reported
+    assertArrayEquals(
+        new byte[] {2}, cache.get("app", 0, Sets.newHashSet(1, 2), layout, 4, loader));
+    assertArrayEquals(
+        new byte[] {3}, cache.get("app", 1, Sets.newHashSet(1, 2), layout, 4, loader));
+    assertArrayEquals(
+        new byte[] {4}, cache.get("app1", 0, Sets.newHashSet(1, 2), layout, 4, loader));
+    assertEquals(4, cache.size());
+    assertEquals(
+        ShuffleServerMetrics.gaugeShuffleResultCacheSize.get(),
+        ShuffleServerMetrics.gaugeReadBufferUsedSize.get(),
+        0);
+
+    cache.removeShuffle("app", 0);
+    assertEquals(2, cache.size());
+    cache.removeApp("app");
+    assertEquals(1, cache.size());
+    cache.removeApp("app1");
+    assertEquals(0, cache.size());
+    assertEquals(0, ShuffleServerMetrics.gaugeReadBufferUsedSize.get(), 0);
+  }
+}
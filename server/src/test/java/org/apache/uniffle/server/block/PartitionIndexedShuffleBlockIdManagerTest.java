@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.block;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import org.apache.uniffle.common.exception.RssException;
+import org.apache.uniffle.common.util.BlockIdLayout;
+import org.apache.uniffle.common.util.RssUtils;
+import org.apache.uniffle.server.ShuffleServerConf;
+import org.apache.uniffle.server.ShuffleTaskInfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PartitionIndexedShuffleBlockIdManagerTest {
+  private static final BlockIdLayout LAYOUT = BlockIdLayout.DEFAULT;
+
+  @Test
+  public void getFinishedBlockIdsTest() throws Exception {
+    ShuffleBlockIdManager manager =
+        ShuffleBlockIdManagerFactory.createShuffleBlockIdManager(
+            PartitionIndexedShuffleBlockIdManager.class.getName(), "key");
+    String appId = "getFinishedBlockIdsTest";
+    ShuffleTaskInfo taskInfo = new ShuffleTaskInfo(appId);
+    manager.registerAppId(appId);
+    final Roaring64NavigableMap expected = addBlockIds(manager, taskInfo, appId, 1, 10);
+    // the repeated block ids are ignored
+    assertEquals(0, manager.addFinishedBlockIds(taskInfo, appId, 1, toBlockIds(2, 5), 1));
+    assertEquals(10 * 5, manager.getTotalBlockCount());
+    assertEquals(10, manager.getBitmapNum(appId, 1));
+
+    Set<Integer> partitions = Sets.newHashSet(2, 3, 100);
+    assertEquals(
+        filter(expected, partitions),
+        RssUtils.deserializeBitMap(
+            manager.getFinishedBlockIds(taskInfo, appId, 1, partitions, LAYOUT)));
+
+    // the block number of partition 2 is inconsistent with the task info
+    taskInfo.incBlockNumber(1, 2, 1);
+    assertThrows(
+        RssException.class,
+        () -> manager.getFinishedBlockIds(taskInfo, appId, 1, partitions, LAYOUT));
+
+    manager.removeBlockIdByShuffleId(appId, Lists.newArrayList(1));
+    assertEquals(0, manager.getTotalBlockCount());
+    manager.removeBlockIdByAppId(appId);
+    assertFalse(manager.contains(appId));
+  }
+
+  @Test
+  public void freezeTest() throws Exception {
+    PartitionIndexedShuffleBlockIdManager manager =
+        new PartitionIndexedShuffleBlockIdManager(new ShuffleServerConf());
+    String appId = "freezeTest";
+    ShuffleTaskInfo taskInfo = new ShuffleTaskInfo(appId);
+    manager.registerAppId(appId);
+    final Roaring64NavigableMap expected = addBlockIds(manager, taskInfo, appId, 1, 10);
+    // the block ids are not frozen when they are read
+    Set<Integer> partitions = Sets.newHashSet(3);
+    byte[] result = manager.getFinishedBlockIds(taskInfo, appId, 1, partitions, LAYOUT);
+    assertFalse(manager.isFrozen(appId, 1, 3));
+    assertEquals(filter(expected, partitions), RssUtils.deserializeBitMap(result));
+
+    manager.freezeBlockIds(appId, 1);
+    for (int partitionId = 0; partitionId < 10; partitionId++) {
+      assertTrue(manager.isFrozen(appId, 1, partitionId));
+    }
+    byte[] frozen = manager.getFinishedBlockIds(taskInfo, appId, 1, partitions, LAYOUT);
+    assertEquals(filter(expected, partitions), RssUtils.deserializeBitMap(frozen));
+    // the serialized bitmap of a single partition is returned as it is
+    assertSame(frozen, manager.getFinishedBlockIds(taskInfo, appId, 1, partitions, LAYOUT));
+    Set<Integer> multiPartitions = Sets.newHashSet(0, 3, 100);
+    assertEquals(
+        filter(expected, multiPartitions),
+        RssUtils.deserializeBitMap(
+            manager.getFinishedBlockIds(taskInfo, appId, 1, multiPartitions, LAYOUT)));
+    assertEquals(10 * 5, manager.getTotalBlockCount());
+    assertEquals(10, manager.getBitmapNum(appId, 1));
+
+    // only the partition updated by a retried task is unfrozen
+    Map<Integer, long[]> newBlockIds = Maps.newHashMap();
+    newBlockIds.put(3, new long[] {LAYOUT.getBlockId(100, 3, 1), LAYOUT.getBlockId(0, 3, 0)});
+    assertEquals(1, manager.addFinishedBlockIds(taskInfo, appId, 1, newBlockIds, 1));
+    assertFalse(manager.isFrozen(appId, 1, 3));
+    assertTrue(manager.isFrozen(appId, 1, 0));
+    expected.addLong(LAYOUT.getBlockId(100, 3, 1));
+    assertEquals(
+        filter(expected, multiPartitions),
+        RssUtils.deserializeBitMap(
+            manager.getFinishedBlockIds(taskInfo, appId, 1, multiPartitions, LAYOUT)));
+    assertEquals(10, manager.getBitmapNum(appId, 1));
+    manager.freezeBlockIds(appId, 1);
+    assertTrue(manager.isFrozen(appId, 1, 3));
+    assertEquals(
+        filter(expected, partitions),
+        RssUtils.deserializeBitMap(
+            manager.getFinishedBlockIds(taskInfo, appId, 1, partitions, LAYOUT)));
+
+    manager.removeBlockIdByAppId(appId);
+    assertFalse(manager.contains(appId));
+  }
+
+  @Test
+  public void spillTest(@TempDir File tempDir) throws Exception {
+    ShuffleServerConf conf = new ShuffleServerConf();
+    conf.set(ShuffleServerConf.SERVER_BLOCK_ID_SPILL_PATH, tempDir.getAbsolutePath());
+    conf.set(ShuffleServerConf.SERVER_BLOCK_ID_SPILL_MIN_BLOCK_NUM, 10L);
+    conf.set(
+        ShuffleServerConf.SERVER_BLOCK_ID_MANAGER_CLASS,
+        PartitionIndexedShuffleBlockIdManager.class.getName());
+    PartitionIndexedShuffleBlockIdManager manager =
+        (PartitionIndexedShuffleBlockIdManager)
+            ShuffleBlockIdManagerFactory.createShuffleBlockIdManager(conf);
+    String appId = "spillTest";
+    ShuffleTaskInfo taskInfo = new ShuffleTaskInfo(appId);
+    manager.registerAppId(appId);
+    final Roaring64NavigableMap expected = addBlockIds(manager, taskInfo, appId, 1, 10);
+    // too few blocks to be spilled
+    addBlockIds(manager, taskInfo, appId, 2, 1);
+
+    manager.spillIdleShuffles(Long.MAX_VALUE);
+    assertTrue(manager.isSpilled(appId, 1));
+    assertFalse(manager.isSpilled(appId, 2));
+    assertEquals(1, tempDir.listFiles().length);
+    assertEquals(10 * 5 + 5, manager.getTotalBlockCount());
+
+    // read the requested partitions from the spill file
+    Set<Integer> partitions = Sets.newHashSet(0, 9);
+    assertEquals(
+        filter(expected, partitions),
+        RssUtils.deserializeBitMap(
+            manager.getFinishedBlockIds(taskInfo, appId, 1, partitions, LAYOUT)));
+    assertTrue(manager.isSpilled(appId, 1));
+
+    // the block ids are loaded when updating the shuffle
+    Map<Integer, long[]> newBlockIds = Maps.newHashMap();
+    newBlockIds.put(0, new long[] {LAYOUT.getBlockId(100, 0, 1), LAYOUT.getBlockId(0, 0, 0)});
+    assertEquals(1, manager.addFinishedBlockIds(taskInfo, appId, 1, newBlockIds, 1));
+    assertFalse(manager.isSpilled(appId, 1));
+    assertEquals(0, tempDir.listFiles().length);
+    expected.addLong(LAYOUT.getBlockId(100, 0, 1));
+    assertEquals(
+        filter(expected, partitions),
+        RssUtils.deserializeBitMap(
+            manager.getFinishedBlockIds(taskInfo, appId, 1, partitions, LAYOUT)));
+
+    // the spill file is deleted with the app
+    manager.spillIdleShuffles(Long.MAX_VALUE);
+    assertEquals(1, tempDir.listFiles().length);
+    manager.removeBlockIdByAppId(appId);
+    assertEquals(0, tempDir.listFiles().length);
+    manager.close();
+  }
+
+  private Roaring64NavigableMap addBlockIds(
+      ShuffleBlockIdManager manager,
+      ShuffleTaskInfo taskInfo,
+      String appId,
+      int shuffleId,
+      int partitionNum) {
+    Roaring64NavigableMap expected = Roaring64NavigableMap.bitmapOf();
+    for (int partitionId = 0; partitionId < partitionNum; partitionId++) {
+      Map<Integer, long[]> blockIds = toBlockIds(partitionId, 5);
+      for (long blockId : blockIds.get(partitionId)) {
+        expected.addLong(blockId);
+      }
+      assertEquals(5, manager.addFinishedBlockIds(taskInfo, appId, shuffleId, blockIds, 1));
+    }
+    return expected;
+  }
+
+  private Map<Integer, long[]> toBlockIds(int partitionId, int blockNum) {
+    long[] blockIds = new long[blockNum];
+    for (int i = 0; i < blockNum; i++) {
+      blockIds[i] = LAYOUT.getBlockId(i, partitionId, i % 2);
+    }
+    Map<Integer, long[]> partitionToBlockIds = Maps.newHashMap();
+    partitionToBlockIds.put(partitionId, blockIds);
+    return partitionToBlockIds;
+  }
+
+  private Roaring64NavigableMap filter(Roaring64NavigableMap blockIds, Set<Integer> partitions) {
+    return DefaultShuffleBlockIdManager.getBlockIdsByPartitionId(
+        partitions, blockIds, Roaring64NavigableMap.bitmapOf(), LAYOUT);
+  }
+}
@@ -19,14 +19,20 @@ package org.apache.uniffle.server.buffer;
 
 import java.io.File;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import com.google.common.collect.Range;
 import com.google.common.collect.RangeMap;
 import com.google.common.util.concurrent.Uninterruptibles;
 import io.prometheus.client.Collector;
@@ -47,8 +53,10 @@ import org.apache.uniffle.common.config.ConfigUtils;
 import org.apache.uniffle.common.rpc.StatusCode;
 import org.apache.uniffle.common.util.ByteBufUtils;
 import org.apache.uniffle.common.util.Constants;
+import org.apache.uniffle.common.util.JavaUtils;
 import org.apache.uniffle.server.DefaultFlushEventHandler;
 import org.apache.uniffle.server.HugePartitionUtils;
+import org.apache.uniffle.server.ShuffleDataFlushEvent;
 import org.apache.uniffle.server.ShuffleFlushManager;
 import org.apache.uniffle.server.ShuffleServer;
 import org.apache.uniffle.server.ShuffleServerConf;
@@ -66,6 +74,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -248,7 +257,8 @@ public class ShuffleBufferManagerTest extends BufferTestBase {
     shuffleBufferManager.cacheShuffleData(appId2, 1, false, spd4);
 
     // validate metadata of shuffle size
-    Map<String, Map<Integer, AtomicLong>> shuffleSizeMap = shuffleBufferManager.getShuffleSizeMap();
+    Map<String, Map<Integer, ShuffleSize>> shuffleSizeMap =
+        shuffleBufferManager.getShuffleSizeMap();
     assertEquals(99, shuffleSizeMap.get(appId1).get(1).get());
     assertEquals(200, shuffleSizeMap.get(appId1).get(2).get());
     assertEquals(100, shuffleSizeMap.get(appId2).get(1).get());
@@ -863,4 +873,111 @@ public class ShuffleBufferManagerTest extends BufferTestBase {
     assertEquals(1, pair.getRight().size());
     assertEquals(0, pair.getRight().get(0));
   }
+
+  @Test
+  public void concurrentCacheShuffleDataTest() throws Exception {
+    ShuffleServerConf shuffleConf = new ShuffleServerConf();
+    shuffleConf.set(ShuffleServerConf.SERVER_BUFFER_CAPACITY, 8L * 1024 * 1024);
+    shuffleConf.set(ShuffleServerConf.SERVER_MEMORY_SHUFFLE_LOWWATERMARK_PERCENTAGE, 20.0);
+    shuffleConf.set(ShuffleServerConf.SERVER_MEMORY_SHUFFLE_HIGHWATERMARK_PERCENTAGE, 80.0);
+    String appId = "concurrentCacheShuffleDataTest";
+    ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+    when(mockShuffleTaskManager.getAppReadLock(appId)).thenReturn(rwLock.readLock());
+
+    int partitionNum = 16;
+    int blockNumPerPartition = 125;
+    int blockSize = 1024;
+    long blockEncodedLength = createData(0, blockSize).getTotalBlockEncodedLength();
+    for (int threadNum : new int[] {1, 2, 4, 8}) {
+      // shuffleId_partitionId -> the number and the size of the flushed blocks
+      Map<String, AtomicLong> flushedBlockNums = JavaUtils.newConcurrentMap();
+      Map<String, AtomicLong> flushedSizes = JavaUtils.newConcurrentMap();
+      ShuffleFlushManager flushManager = mock(ShuffleFlushManager.class);
+      // flush the event immediately, so that the memory will be released by the writer threads
+      doAnswer(
+              invocation -> {
+                ShuffleDataFlushEvent event = invocation.getArgument(0);
+                String key = event.getShuffleId() + "_" + event.getStartPartition();
+                flushedBlockNums
+                    .computeIfAbsent(key, k -> new AtomicLong())
+                    .addAndGet(event.getShuffleBlocks().size());
+                flushedSizes
+                    .computeIfAbsent(key, k -> new AtomicLong())
+                    .addAndGet(event.getEncodedLength());
+                event.doCleanup();
+                return null;
+              })
+          .when(flushManager)
+          .addToFlushQueue(any());
+      ShuffleBufferManager bufferManager =
+          new ShuffleBufferManager(shuffleConf, flushManager, false);
+      bufferManager.setShuffleTaskManager(mockShuffleTaskManager);
+      for (int shuffleId = 0; shuffleId < threadNum; shuffleId++) {
+        for (int partitionId = 0; partitionId < partitionNum; partitionId++) {
+          bufferManager.registerBuffer(appId, shuffleId, partitionId, partitionId);
+        }
+      }
+      ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+      CountDownLatch startLatch = new CountDownLatch(1);
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threadNum; i++) {
+        final int shuffleId = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  int blockNum = blockNumPerPartition * partitionNum;
+                  ShufflePartitionedData[] data = new ShufflePartitionedData[blockNum];
+                  for (int j = 0; j < blockNum; j++) {
+                    data[j] = createData(j % partitionNum, blockSize);
+                  }
+                  startLatch.await();
+                  for (ShufflePartitionedData spd : data) {
+                    // like the client, retry to require memory until the flush releases it
+                    while (!bufferManager.requireMemory(spd.getTotalBlockEncodedLength(), true)) {
+                      bufferManager.flushIfNecessary();
+                    }
+                    assertEquals(
+                        StatusCode.SUCCESS,
+                        bufferManager.cacheShuffleData(appId, shuffleId, true, spd));
+                    bufferManager.releasePreAllocatedSize(spd.getTotalBlockEncodedLength());
+                  }
+                  return null;
+                }));
+      }
+      startLatch.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      executor.shutdown();
+
+      long bufferedSize = 0;
+      for (int shuffleId = 0; shuffleId < threadNum; shuffleId++) {
+        long shuffleBufferedSize = 0;
+        Map<Range<Integer>, ShuffleBuffer> buffers =
+            bufferManager.getBufferPool().get(appId).get(shuffleId).asMapOfRanges();
+        assertEquals(partitionNum, buffers.size());
+        for (Map.Entry<Range<Integer>, ShuffleBuffer> entry : buffers.entrySet()) {
+          String key = shuffleId + "_" + entry.getKey().lowerEndpoint();
+          ShuffleBuffer buffer = entry.getValue();
+          // every block of the partition is either flushed or still in its buffer
+          assertEquals(
+              blockNumPerPartition,
+              buffer.getBlockCount()
+                  + flushedBlockNums.getOrDefault(key, new AtomicLong()).get());
+          assertEquals(
+              blockNumPerPartition * blockEncodedLength,
+              buffer.getEncodedLength() + flushedSizes.getOrDefault(key, new AtomicLong()).get());
+          shuffleBufferedSize += buffer.getEncodedLength();
+        }
+        // the memory accounting should be consistent with the data left in buffers
+        assertEquals(
+            shuffleBufferedSize, bufferManager.getShuffleSizeMap().get(appId).get(shuffleId).get());
+        bufferedSize += shuffleBufferedSize;
+      }
+      assertEquals(bufferedSize, bufferManager.getUsedMemory());
+      assertEquals(0, bufferManager.getInFlushSize());
+      assertEquals(0, bufferManager.getPreAllocatedSize());
+      bufferManager.removeBuffer(appId);
+    }
+  }
 }
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import org.apache.uniffle.common.BufferSegment;
+import org.apache.uniffle.common.ShuffleDataDistributionType;
+import org.apache.uniffle.common.ShuffleDataResult;
+import org.apache.uniffle.common.ShufflePartitionedBlock;
+import org.apache.uniffle.common.ShufflePartitionedData;
+import org.apache.uniffle.common.util.Constants;
+import org.apache.uniffle.server.ShuffleDataFlushEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShuffleBufferWithLongMapTest extends BufferTestBase {
+  private static AtomicInteger atomSequenceNo = new AtomicInteger(0);
+
+  @Test
+  public void appendTest() {
+    ShuffleBuffer shuffleBuffer = new ShuffleBufferWithLongMap();
+    shuffleBuffer.append(createData(10));
+    // ShufflePartitionedBlock has constant 32 bytes overhead
+    assertEquals(42, shuffleBuffer.getEncodedLength());
+
+    shuffleBuffer.append(createData(26));
+    assertEquals(100, shuffleBuffer.getEncodedLength());
+
+    shuffleBuffer.append(createData(1));
+    assertEquals(133, shuffleBuffer.getEncodedLength());
+    assertEquals(3, shuffleBuffer.getBlockCount());
+  }
+
+  @Test
+  public void appendRepeatBlockTest() {
+    ShuffleBuffer shuffleBuffer = new ShuffleBufferWithLongMap();
+    ShufflePartitionedData block = createData(10);
+    shuffleBuffer.append(block);
+    assertEquals(42, shuffleBuffer.getEncodedLength());
+
+    shuffleBuffer.append(block);
+    // The repeat block should not append to shuffleBuffer
+    assertEquals(42, shuffleBuffer.getEncodedLength());
+    assertEquals(1, shuffleBuffer.getBlockCount());
+  }
+
+  @Test
+  public void blockArrayTest() {
+    ShuffleBufferWithLongMap.BlockArray blockArray = new ShuffleBufferWithLongMap.BlockArray();
+    // exceed the initial capacity to check the rehash
+    for (int i = 0; i < 100; i++) {
+      assertTrue(blockArray.add(createData(1, i % 7, 1).getBlockList()[0]));
+    }
+    assertEquals(100, blockArray.size());
+    for (int i = 0; i < 100; i++) {
+      ShufflePartitionedBlock block = blockArray.get(i);
+      assertEquals(i, blockArray.indexOf(block.getBlockId()));
+      assertSame(block, blockArray.getBlock(block.getBlockId()));
+      assertFalse(blockArray.add(block));
+    }
+    assertEquals(-1, blockArray.indexOf(Constants.INVALID_BLOCK_ID));
+    assertNull(blockArray.getBlock(Constants.INVALID_BLOCK_ID));
+  }
+
+  @Test
+  public void toFlushEventTest() {
+    ShuffleBufferWithLongMap shuffleBuffer = new ShuffleBufferWithLongMap();
+    ShuffleDataFlushEvent event = shuffleBuffer.toFlushEvent("appId", 0, 0, 1, null);
+    assertNull(event);
+    ShufflePartitionedData spd1 = createData(1, 2, 10);
+    ShufflePartitionedData spd2 = createData(1, 1, 10);
+    ShufflePartitionedData spd3 = createData(1, 2, 10);
+    ShufflePartitionedData spd4 = createData(1, 0, 10);
+    shuffleBuffer.append(spd1);
+    shuffleBuffer.append(spd2);
+    shuffleBuffer.append(spd3);
+    shuffleBuffer.append(spd4);
+    assertEquals(168, shuffleBuffer.getEncodedLength());
+    event =
+        shuffleBuffer.toFlushEvent("appId", 0, 0, 1, null, ShuffleDataDistributionType.LOCAL_ORDER);
+    assertEquals(168, event.getEncodedLength());
+    assertEquals(0, shuffleBuffer.getEncodedLength());
+    assertEquals(0, shuffleBuffer.getBlocks().size());
+    assertEquals(4, shuffleBuffer.getInFlushBlockCount());
+    assertEquals(168, shuffleBuffer.getInFlushSize());
+
+    // the flushed blocks are ordered by taskAttemptId, and keep the received order in a task
+    List<ShufflePartitionedBlock> flushedBlocks = new ArrayList<>(event.getShuffleBlocks());
+    assertSame(spd4.getBlockList()[0], flushedBlocks.get(0));
+    assertSame(spd2.getBlockList()[0], flushedBlocks.get(1));
+    assertSame(spd1.getBlockList()[0], flushedBlocks.get(2));
+    assertSame(spd3.getBlockList()[0], flushedBlocks.get(3));
+    // the in flush blocks still can be found
+    assertSame(spd3.getBlockList()[0], shuffleBuffer.getBlock(spd3.getBlockList()[0].getBlockId()));
+
+    event.doCleanup();
+    assertEquals(0, shuffleBuffer.getInFlushBlockCount());
+    assertEquals(0, shuffleBuffer.getInFlushSize());
+
+    // the blocks are flushed in the received order for the normal distribution type
+    shuffleBuffer.append(spd1);
+    shuffleBuffer.append(spd2);
+    event = shuffleBuffer.toFlushEvent("appId", 0, 0, 1, null);
+    flushedBlocks = new ArrayList<>(event.getShuffleBlocks());
+    assertSame(spd1.getBlockList()[0], flushedBlocks.get(0));
+    assertSame(spd2.getBlockList()[0], flushedBlocks.get(1));
+    assertNull(shuffleBuffer.getBlock(spd3.getBlockList()[0].getBlockId()));
+  }
+
+  @Test
+  public void getShuffleDataWithExpectedTaskIdsFilterTest() {
+    /** case1: all blocks in cached and size < readBufferSize */
+    ShuffleBuffer shuffleBuffer = new ShuffleBufferWithLongMap();
+    ShufflePartitionedData spd1 = createData(1, 1, 15);
+    ShufflePartitionedData spd2 = createData(1, 0, 15);
+    ShufflePartitionedData spd3 = createData(1, 2, 55);
+    ShufflePartitionedData spd4 = createData(1, 1, 45);
+    shuffleBuffer.append(spd1);
+    shuffleBuffer.append(spd2);
+    shuffleBuffer.append(spd3);
+    shuffleBuffer.append(spd4);
+
+    Roaring64NavigableMap expectedTasks = Roaring64NavigableMap.bitmapOf(1, 2);
+    ShuffleDataResult result =
+        shuffleBuffer.getShuffleData(Constants.INVALID_BLOCK_ID, 1000, expectedTasks);
+    // the blocks are read in the received order
+    assertSegments(result, spd1, spd3, spd4);
+
+    expectedTasks = Roaring64NavigableMap.bitmapOf(0);
+    result = shuffleBuffer.getShuffleData(Constants.INVALID_BLOCK_ID, 1000, expectedTasks);
+    assertSegments(result, spd2);
+
+    /** case2: all blocks in cached and size > readBufferSize, so it will read multiple times. */
+    expectedTasks = Roaring64NavigableMap.bitmapOf(1, 2);
+    result = shuffleBuffer.getShuffleData(Constants.INVALID_BLOCK_ID, 60, expectedTasks);
+    assertSegments(result, spd1, spd3);
+    long lastBlockId = result.getBufferSegments().get(1).getBlockId();
+    result = shuffleBuffer.getShuffleData(lastBlockId, 60, expectedTasks);
+    assertSegments(result, spd4);
+
+    /** case3: all blocks in flushed map, the reads keep the received order */
+    final ShuffleDataFlushEvent event = shuffleBuffer.toFlushEvent("appId", 0, 0, 1, null);
+    result = shuffleBuffer.getShuffleData(Constants.INVALID_BLOCK_ID, 60, expectedTasks);
+    assertSegments(result, spd1, spd3);
+    lastBlockId = result.getBufferSegments().get(1).getBlockId();
+    result = shuffleBuffer.getShuffleData(lastBlockId, 60, expectedTasks);
+    assertSegments(result, spd4);
+
+    /** case4: partial blocks in cache and another in flushedMap */
+    ShufflePartitionedData spd5 = createData(1, 2, 55);
+    ShufflePartitionedData spd6 = createData(1, 1, 5);
+    shuffleBuffer.append(spd5);
+    shuffleBuffer.append(spd6);
+    lastBlockId = result.getBufferSegments().get(0).getBlockId();
+    result = shuffleBuffer.getShuffleData(lastBlockId, 60, expectedTasks);
+    assertSegments(result, spd5, spd6);
+
+    /** case5: the lastBlockId is flushed, read again from the beginning */
+    event.doCleanup();
+    result = shuffleBuffer.getShuffleData(lastBlockId, 60, expectedTasks);
+    assertSegments(result, spd5, spd6);
+  }
+
+  private void assertSegments(ShuffleDataResult result, ShufflePartitionedData... expected) {
+    List<BufferSegment> segments = result.getBufferSegments();
+    assertEquals(expected.length, segments.size());
+    int offset = 0;
+    for (int i = 0; i < expected.length; i++) {
+      ShufflePartitionedBlock block = expected[i].getBlockList()[0];
+      assertEquals(block.getBlockId(), segments.get(i).getBlockId());
+      assertEquals(offset, segments.get(i).getOffset());
+      assertEquals(block.getDataLength(), segments.get(i).getLength());
+      offset += block.getDataLength();
+    }
+    result.release();
+  }
+
+  @Override
+  protected AtomicInteger getAtomSequenceNo() {
+    return atomSequenceNo;
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.buffer;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Test;
+
+import org.apache.uniffle.common.ShuffleDataResult;
+import org.apache.uniffle.common.ShufflePartitionedBlock;
+import org.apache.uniffle.common.ShufflePartitionedData;
+import org.apache.uniffle.common.util.ByteBufUtils;
+import org.apache.uniffle.common.util.Constants;
+import org.apache.uniffle.server.ShuffleDataFlushEvent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShuffleBufferWithSlabTest extends BufferTestBase {
+
+  @Test
+  public void appendTest() {
+    SlabArena slabArena = new SlabArena(100, 1);
+    ShuffleBuffer shuffleBuffer = new ShuffleBufferWithSlab(slabArena);
+    ShufflePartitionedData spd1 = createData(10);
+    final byte[] expectedData1 = ByteBufUtils.readBytes(spd1.getBlockList()[0].getData());
+    ByteBuf originalData1 = spd1.getBlockList()[0].getData();
+    shuffleBuffer.append(spd1);
+    // ShufflePartitionedBlock has constant 32 bytes overhead
+    assertEquals(42, shuffleBuffer.getEncodedLength());
+    // the payload is copied into the slab and the original buffer is released
+    assertEquals(0, originalData1.refCnt());
+    assertTrue(spd1.getBlockList()[0].getData().isDirect());
+    assertEquals(100, slabArena.getAllocatedSize());
+    assertEquals(10, slabArena.getUsedSize());
+
+    // the slab is full, a new slab is allocated
+    shuffleBuffer.append(createData(95));
+    assertEquals(200, slabArena.getAllocatedSize());
+    assertEquals(105, slabArena.getUsedSize());
+    assertEquals(90, slabArena.getWastedSize());
+    assertEquals(200, slabArena.getHeldSize());
+    assertEquals(0.45, slabArena.getFragmentation(), 0.001);
+
+    // the big block is not copied into the slab
+    ShufflePartitionedData bigData = createData(101);
+    ByteBuf originalBigData = bigData.getBlockList()[0].getData();
+    shuffleBuffer.append(bigData);
+    assertEquals(1, originalBigData.refCnt());
+    assertEquals(200, slabArena.getAllocatedSize());
+    assertEquals(42 + 127 + 133, shuffleBuffer.getEncodedLength());
+
+    // the duplicate block is released without being copied into the slab
+    ShufflePartitionedBlock duplicateBlock = spd1.getBlockList()[0];
+    ShufflePartitionedData duplicateData =
+        new ShufflePartitionedData(
+            1,
+            new ShufflePartitionedBlock[] {
+              new ShufflePartitionedBlock(
+                  duplicateBlock.getDataLength(),
+                  duplicateBlock.getUncompressLength(),
+                  duplicateBlock.getCrc(),
+                  duplicateBlock.getBlockId(),
+                  duplicateBlock.getTaskAttemptId(),
+                  ByteBufUtils.readBytes(duplicateBlock.getData()))
+            });
+    ByteBuf originalDuplicateData = duplicateData.getBlockList()[0].getData();
+    assertEquals(0, shuffleBuffer.append(duplicateData));
+    assertEquals(0, originalDuplicateData.refCnt());
+    assertEquals(105, slabArena.getUsedSize());
+
+    ShuffleDataResult result = shuffleBuffer.getShuffleData(Constants.INVALID_BLOCK_ID, 10);
+    assertArrayEquals(expectedData1, result.getData());
+    result.release();
+  }
+
+  @Test
+  public void flushAndReleaseTest() {
+    SlabArena slabArena = new SlabArena(100, 1);
+    ShuffleBuffer shuffleBuffer = new ShuffleBufferWithSlab(slabArena);
+    shuffleBuffer.append(createData(10));
+    shuffleBuffer.append(createData(20));
+    ShuffleDataFlushEvent event = shuffleBuffer.toFlushEvent("appId", 0, 0, 1, null);
+    assertEquals(2, event.getShuffleBlocks().size());
+    // the slab is sealed after the flush event is generated
+    assertEquals(70, slabArena.getWastedSize());
+    // the following blocks are copied into a new slab
+    ShufflePartitionedData spd = createData(30);
+    shuffleBuffer.append(spd);
+    assertEquals(200, slabArena.getAllocatedSize());
+    assertEquals(60, slabArena.getUsedSize());
+
+    // the whole slab of the flushed blocks is released and pooled after cleanup
+    event.doCleanup();
+    assertEquals(200, slabArena.getAllocatedSize());
+    assertEquals(100, slabArena.getPooledSize());
+    assertEquals(30, slabArena.getUsedSize());
+    assertEquals(0, slabArena.getWastedSize());
+    assertEquals(0.3, slabArena.getUtilization(), 0.001);
+    assertEquals(0.0, slabArena.getFragmentation(), 0.001);
+
+    // the pooled slab is reused
+    for (ShufflePartitionedBlock block : createData(80).getBlockList()) {
+      shuffleBuffer.append(new ShufflePartitionedData(1, new ShufflePartitionedBlock[] {block}));
+    }
+    assertEquals(200, slabArena.getAllocatedSize());
+    assertEquals(0, slabArena.getPooledSize());
+
+    // all the slabs are released when the buffer is released, only one of them is pooled
+    ByteBuf data = spd.getBlockList()[0].getData();
+    shuffleBuffer.release();
+    assertFalse(data.refCnt() > 0);
+    assertEquals(100, slabArena.getAllocatedSize());
+    assertEquals(100, slabArena.getPooledSize());
+    assertEquals(0, slabArena.getUsedSize());
+    assertEquals(0, slabArena.getWastedSize());
+  }
+}
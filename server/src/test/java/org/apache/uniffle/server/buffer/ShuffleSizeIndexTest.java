@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.buffer;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShuffleSizeIndexTest {
+
+  @Test
+  public void bucketOfTest() {
+    assertEquals(0, ShuffleSizeIndex.bucketOf(-1));
+    assertEquals(0, ShuffleSizeIndex.bucketOf(0));
+    assertEquals(1, ShuffleSizeIndex.bucketOf(1));
+    assertEquals(2, ShuffleSizeIndex.bucketOf(2));
+    assertEquals(2, ShuffleSizeIndex.bucketOf(3));
+    assertEquals(11, ShuffleSizeIndex.bucketOf(1024));
+    assertEquals(63, ShuffleSizeIndex.bucketOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void descendingIteratorTest() {
+    ShuffleSizeIndex index = new ShuffleSizeIndex();
+    List<ShuffleSize> shuffleSizes = Lists.newArrayList();
+    Random random = new Random();
+    for (int i = 0; i < 1000; i++) {
+      ShuffleSize shuffleSize = new ShuffleSize("app", i);
+      index.update(shuffleSize, 1 + random.nextInt(1 << 20));
+      shuffleSizes.add(shuffleSize);
+    }
+    // shrink a part of them, some will be moved to lower buckets
+    for (int i = 0; i < 1000; i += 3) {
+      ShuffleSize shuffleSize = shuffleSizes.get(i);
+      index.update(shuffleSize, -shuffleSize.get() / 2);
+    }
+    assertEquals(1000, index.size());
+
+    Iterator<ShuffleSize> iterator = index.descendingIterator();
+    long lastSize = Long.MAX_VALUE;
+    int count = 0;
+    while (iterator.hasNext()) {
+      long size = iterator.next().get();
+      assertTrue(size <= lastSize);
+      lastSize = size;
+      count++;
+    }
+    assertEquals(1000, count);
+  }
+
+  @Test
+  public void updateAndRemoveTest() {
+    ShuffleSizeIndex index = new ShuffleSizeIndex();
+    ShuffleSize small = new ShuffleSize("app1", 1);
+    ShuffleSize big = new ShuffleSize("app2", 1);
+    index.update(small, 100);
+    index.update(big, 1000);
+    Iterator<ShuffleSize> iterator = index.descendingIterator();
+    assertSame(big, iterator.next());
+    assertSame(small, iterator.next());
+    assertFalse(iterator.hasNext());
+
+    // the order changes with the sizes
+    index.update(small, 10000);
+    iterator = index.descendingIterator();
+    assertSame(small, iterator.next());
+    assertSame(big, iterator.next());
+
+    // the empty shuffles are not returned
+    index.update(big, -1000);
+    assertEquals(0, big.get());
+    iterator = index.descendingIterator();
+    assertSame(small, iterator.next());
+    assertFalse(iterator.hasNext());
+
+    // the removed shuffles won't be indexed again
+    index.remove(small);
+    index.update(small, 1);
+    assertFalse(index.descendingIterator().hasNext());
+    assertEquals(1, index.size());
+  }
+}
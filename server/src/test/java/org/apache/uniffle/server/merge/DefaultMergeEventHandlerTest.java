@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.server.merge;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import org.apache.uniffle.server.ShuffleServerConf;
+import org.apache.uniffle.server.ShuffleServerMetrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DefaultMergeEventHandlerTest {
+
+  @BeforeEach
+  public void setUp() {
+    ShuffleServerMetrics.register();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    ShuffleServerMetrics.clear();
+  }
+
+  @Test
+  public void scheduleTest() throws Exception {
+    ShuffleServerConf conf = new ShuffleServerConf();
+    conf.set(ShuffleServerConf.SERVER_MERGE_THREAD_POOL_SIZE, 1);
+    conf.set(ShuffleServerConf.SERVER_MERGE_THREAD_POOL_QUEUE_SIZE, 4);
+    CountDownLatch blocked = new CountDownLatch(1);
+    List<Integer> mergedPartitions = new CopyOnWriteArrayList<>();
+    DefaultMergeEventHandler handler =
+        new DefaultMergeEventHandler(
+            conf,
+            event -> {
+              try {
+                blocked.await();
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+              mergedPartitions.add(event.getPartitionId());
+            });
+
+    // the only merge thread is blocked by partition 0
+    assertTrue(handler.handle(createEvent(0, 1)));
+    Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> handler.getEventNumInMerge() == 0);
+    MergeEvent hugeEvent = createEvent(1, 100);
+    assertTrue(handler.handle(hugeEvent));
+    assertTrue(handler.handle(createEvent(2, 10)));
+    assertTrue(handler.handle(createEvent(3, 20)));
+    assertTrue(handler.handle(createEvent(4, 10)));
+    // the queue is full
+    assertFalse(handler.handle(createEvent(5, 1)));
+
+    // the reducer of the huge partition is polling
+    handler.prioritize(hugeEvent);
+    handler.prioritize(hugeEvent);
+    assertEquals(1, ShuffleServerMetrics.counterTotalPrioritizedMergeEventNum.get(), 0);
+
+    blocked.countDown();
+    Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> mergedPartitions.size() == 5);
+    // the small partitions go first, and the same size ones are FIFO
+    assertEquals(0, mergedPartitions.get(0));
+    assertEquals(1, mergedPartitions.get(1));
+    assertEquals(2, mergedPartitions.get(2));
+    assertEquals(4, mergedPartitions.get(3));
+    assertEquals(3, mergedPartitions.get(4));
+    handler.stop();
+  }
+
+  private MergeEvent createEvent(int partitionId, int blockNum) {
+    Roaring64NavigableMap blockIds = Roaring64NavigableMap.bitmapOf();
+    blockIds.add(0L, blockNum);
+    return new MergeEvent("app", 0, partitionId, String.class, String.class, blockIds);
+  }
+}
@@ -115,6 +115,47 @@ public class ShuffleMergeManagerTest {
         "org.apache.uniffle.common.serializer.SerializerUtils$SomeClass,java.lang.Integer",
       })
   void testMergerManager(String classes) throws Exception {
+    testMerge(classes);
+  }
+
+  @Timeout(10)
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "org.apache.hadoop.io.Text,org.apache.hadoop.io.IntWritable,true,true",
+        "java.lang.String,java.lang.Integer",
+      })
+  void testMultiPassMerge(String classes) throws Exception {
+    serverConf.set(ShuffleServerConf.SERVER_MERGE_FACTOR, 2);
+    serverConf.set(ShuffleServerConf.SERVER_MERGE_SPILL_PATH, tempDir1.getAbsolutePath());
+    serverConf.set(ShuffleServerConf.SERVER_MERGE_PARALLEL_ENABLED, false);
+    testMerge(classes);
+    // 4 blocks are merged into 2 runs in one pass, then the runs are merged into the output
+    assertEquals(1, ShuffleServerMetrics.counterTotalMergePassNum.get(), 0);
+    assertEquals(0, ShuffleServerMetrics.counterTotalSubMergeNum.get(), 0);
+    assertTrue(ShuffleServerMetrics.counterTotalMergeSpillSize.get() > 0);
+    // the sorted runs are deleted after merge
+    assertEquals(0, new File(tempDir1, ".merge_runs").list().length);
+  }
+
+  @Timeout(10)
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "org.apache.hadoop.io.Text,org.apache.hadoop.io.IntWritable,true,true",
+        "java.lang.String,java.lang.Integer",
+      })
+  void testParallelMerge(String classes) throws Exception {
+    serverConf.set(ShuffleServerConf.SERVER_MERGE_FACTOR, 2);
+    serverConf.set(ShuffleServerConf.SERVER_MERGE_SPILL_PATH, tempDir1.getAbsolutePath());
+    testMerge(classes);
+    // 4 blocks are merged into 2 runs by 2 sub-merges
+    assertEquals(2, ShuffleServerMetrics.counterTotalSubMergeNum.get(), 0);
+    assertEquals(1, ShuffleServerMetrics.counterTotalMergePassNum.get(), 0);
+    assertEquals(0, new File(tempDir1, ".merge_runs").list().length);
+  }
+
+  private void testMerge(String classes) throws Exception {
     // 1 Construct serializer and comparator
     final String[] classArray = classes.split(",");
     final String keyClassName = classArray[0];
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.storage.common;
+
+import java.util.Map;
+
+import org.apache.uniffle.common.util.JavaUtils;
+
+/**
+ * The registry of the shuffle files of a local storage, which is updated by the write handlers
+ * after every flush. The read handlers resolve the files and their committed lengths from it
+ * without listing the folder or getting the length of the files.
+ */
+public class LocalFileRegistry {
+
+  // appId -> shuffleId -> start partition of the range -> file info
+  private final Map<String, Map<Integer, Map<Integer, LocalFileInfo>>> files =
+      JavaUtils.newConcurrentMap();
+
+  public void commit(String appId, int shuffleId, int startPartition, LocalFileInfo fileInfo) {
+    files
+        .computeIfAbsent(appId, key -> JavaUtils.newConcurrentMap())
+        .computeIfAbsent(shuffleId, key -> JavaUtils.newConcurrentMap())
+        .put(startPartition, fileInfo);
+  }
+
+  /**
+   * Registers the files found on the disk, which doesn't replace the files committed by the writer.
+   *
+   * @return the registered file info
+   */
+  public LocalFileInfo commitIfAbsent(
+      String appId, int shuffleId, int startPartition, LocalFileInfo fileInfo) {
+    LocalFileInfo existing =
+        files
+            .computeIfAbsent(appId, key -> JavaUtils.newConcurrentMap())
+            .computeIfAbsent(shuffleId, key -> JavaUtils.newConcurrentMap())
+            .putIfAbsent(startPartition, fileInfo);
+    return existing == null ? fileInfo : existing;
+  }
+
+  /** @return null if no data of the partition range is flushed to this storage */
+  public LocalFileInfo get(String appId, int shuffleId, int startPartition) {
+    Map<Integer, Map<Integer, LocalFileInfo>> shuffles = files.get(appId);
+    if (shuffles == null) {
+      return null;
+    }
+    Map<Integer, LocalFileInfo> partitions = shuffles.get(shuffleId);
+    return partitions == null ? null : partitions.get(startPartition);
+  }
+
+  public void removeShuffle(String appId, int shuffleId) {
+    Map<Integer, Map<Integer, LocalFileInfo>> shuffles = files.get(appId);
+    if (shuffles != null) {
+      shuffles.remove(shuffleId);
+    }
+  }
+
+  public void removeApp(String appId) {
+    files.remove(appId);
+  }
+
+  /**
+   * The files of a partition range. It's immutable and replaced after every flush, so the committed
+   * lengths of the data file and the index file are always consistent.
+   */
+  public static class LocalFileInfo {
+    private final String dataFileName;
+    private final String indexFileName;
+    private final long dataFileLength;
+    private final long indexFileLength;
+
+    public LocalFileInfo(
+        String dataFileName, String indexFileName, long dataFileLength, long indexFileLength) {
+      this.dataFileName = dataFileName;
+      this.indexFileName = indexFileName;
+      this.dataFileLength = dataFileLength;
+      this.indexFileLength = indexFileLength;
+    }
+
+    public String getDataFileName() {
+      return dataFileName;
+    }
+
+    public String getIndexFileName() {
+      return indexFileName;
+    }
+
+    public long getDataFileLength() {
+      return dataFileLength;
+    }
+
+    public long getIndexFileLength() {
+      return indexFileLength;
+    }
+  }
+}
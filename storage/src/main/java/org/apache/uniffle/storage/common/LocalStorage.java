@@ -58,6 +58,7 @@ public class LocalStorage extends AbstractStorage {
   private final double highWaterMarkOfWrite;
   private final double lowWaterMarkOfWrite;
   private final LocalStorageMeta metaData = new LocalStorageMeta();
+  private final LocalFileRegistry fileRegistry = new LocalFileRegistry();
   private final StorageMedia media;
   private boolean isSpaceEnough = true;
   private volatile boolean isCorrupted = false;
@@ -140,7 +141,8 @@ public class LocalStorage extends AbstractStorage {
         request.getStartPartition(),
         request.getEndPartition(),
         basePath,
-        request.getFileNamePrefix());
+        request.getFileNamePrefix(),
+        fileRegistry);
   }
 
   @Override
@@ -152,7 +154,27 @@ public class LocalStorage extends AbstractStorage {
         request.getPartitionNumPerRange(),
         request.getPartitionNum(),
         basePath,
-        id);
+        id,
+        fileRegistry);
+  }
+
+  @Override
+  public void removeHandlers(String appId) {
+    super.removeHandlers(appId);
+    removeFiles(appId);
+  }
+
+  public void removeFiles(String appId, int shuffleId) {
+    fileRegistry.removeShuffle(appId, shuffleId);
+  }
+
+  public void removeFiles(String appId) {
+    fileRegistry.removeApp(appId);
+  }
+
+  @VisibleForTesting
+  public LocalFileRegistry getFileRegistry() {
+    return fileRegistry;
   }
 
   // only for tests.
@@ -19,6 +19,7 @@ package org.apache.uniffle.storage.factory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import com.google.common.collect.Lists;
@@ -64,19 +65,37 @@ public class ShuffleHandlerFactory {
     }
     if (request.getShuffleServerInfoList().size() > 1) {
       List<ClientReadHandler> handlers = Lists.newArrayList();
+      // the hedged reads run in the background, so every replica reads its own processed block ids
+      // which are synced with the consumer's ones before each read
+      Optional<MultiReplicaClientReadHandler.HedgeOption> hedgeOption = request.getHedgeOption();
+      List<Roaring64NavigableMap> replicaProcessBlockIds = Lists.newArrayList();
       request
           .getShuffleServerInfoList()
           .forEach(
               (ssi) -> {
+                Roaring64NavigableMap processBlockIds = request.getProcessBlockIds();
+                if (hedgeOption.isPresent()) {
+                  processBlockIds = RssUtils.cloneBitMap(processBlockIds);
+                  replicaProcessBlockIds.add(processBlockIds);
+                }
                 handlers.add(
                     ShuffleHandlerFactory.getInstance()
-                        .createSingleReplicaClientReadHandler(request, ssi));
+                        .createSingleReplicaClientReadHandler(request, ssi, processBlockIds));
               });
+      if (!hedgeOption.isPresent()) {
+        return new MultiReplicaClientReadHandler(
+            handlers,
+            request.getShuffleServerInfoList(),
+            request.getExpectBlockIds(),
+            request.getProcessBlockIds());
+      }
       return new MultiReplicaClientReadHandler(
           handlers,
           request.getShuffleServerInfoList(),
           request.getExpectBlockIds(),
-          request.getProcessBlockIds());
+          request.getProcessBlockIds(),
+          replicaProcessBlockIds,
+          hedgeOption.get());
     } else {
       ShuffleServerInfo serverInfo = request.getShuffleServerInfoList().get(0);
       return createSingleReplicaClientReadHandler(request, serverInfo);
@@ -85,6 +104,13 @@ public class ShuffleHandlerFactory {
 
   public ClientReadHandler createSingleReplicaClientReadHandler(
       CreateShuffleReadHandlerRequest request, ShuffleServerInfo serverInfo) {
+    return createSingleReplicaClientReadHandler(request, serverInfo, request.getProcessBlockIds());
+  }
+
+  private ClientReadHandler createSingleReplicaClientReadHandler(
+      CreateShuffleReadHandlerRequest request,
+      ShuffleServerInfo serverInfo,
+      Roaring64NavigableMap processBlockIds) {
     String storageType = request.getStorageType();
     StorageType type = StorageType.valueOf(storageType);
 
@@ -94,21 +120,21 @@ public class ShuffleHandlerFactory {
     }
 
     if (StorageType.HDFS == type) {
-      return getHadoopClientReadHandler(request, serverInfo);
+      return getHadoopClientReadHandler(request, serverInfo, processBlockIds);
     }
     if (StorageType.LOCALFILE == type) {
-      return getLocalfileClientReaderHandler(request, serverInfo);
+      return getLocalfileClientReaderHandler(request, serverInfo, processBlockIds);
     }
 
     List<Supplier<ClientReadHandler>> handlers = new ArrayList<>();
     if (StorageType.withMemory(type)) {
-      handlers.add(() -> getMemoryClientReadHandler(request, serverInfo));
+      handlers.add(() -> getMemoryClientReadHandler(request, serverInfo, processBlockIds));
     }
     if (StorageType.withLocalfile(type)) {
-      handlers.add(() -> getLocalfileClientReaderHandler(request, serverInfo));
+      handlers.add(() -> getLocalfileClientReaderHandler(request, serverInfo, processBlockIds));
     }
     if (StorageType.withHadoop(type)) {
-      handlers.add(() -> getHadoopClientReadHandler(request, serverInfo));
+      handlers.add(() -> getHadoopClientReadHandler(request, serverInfo, processBlockIds));
     }
     if (handlers.isEmpty()) {
       throw new RssException(
@@ -119,14 +145,16 @@ public class ShuffleHandlerFactory {
   }
 
   private ClientReadHandler getMemoryClientReadHandler(
-      CreateShuffleReadHandlerRequest request, ShuffleServerInfo ssi) {
+      CreateShuffleReadHandlerRequest request,
+      ShuffleServerInfo ssi,
+      Roaring64NavigableMap processBlockIds) {
     ShuffleServerClient shuffleServerClient =
         ShuffleServerClientFactory.getInstance()
             .getShuffleServerClient(request.getClientType().name(), ssi, request.getClientConf());
     Roaring64NavigableMap expectTaskIds = null;
     if (request.isExpectedTaskIdsBitmapFilterEnable()) {
       Roaring64NavigableMap realExceptBlockIds = RssUtils.cloneBitMap(request.getExpectBlockIds());
-      realExceptBlockIds.xor(request.getProcessBlockIds());
+      realExceptBlockIds.xor(processBlockIds);
       expectTaskIds = RssUtils.generateTaskIdBitMap(realExceptBlockIds, request.getIdHelper());
     }
     ClientReadHandler memoryClientReadHandler =
@@ -144,47 +172,57 @@ public class ShuffleHandlerFactory {
   }
 
   private ClientReadHandler getLocalfileClientReaderHandler(
-      CreateShuffleReadHandlerRequest request, ShuffleServerInfo ssi) {
+      CreateShuffleReadHandlerRequest request,
+      ShuffleServerInfo ssi,
+      Roaring64NavigableMap processBlockIds) {
     ShuffleServerClient shuffleServerClient =
         ShuffleServerClientFactory.getInstance()
             .getShuffleServerClient(request.getClientType().name(), ssi, request.getClientConf());
-    return new LocalFileClientReadHandler(
-        request.getAppId(),
-        request.getShuffleId(),
-        request.getPartitionId(),
-        request.getIndexReadLimit(),
-        request.getPartitionNumPerRange(),
-        request.getPartitionNum(),
-        request.getReadBufferSize(),
-        request.getExpectBlockIds(),
-        request.getProcessBlockIds(),
-        shuffleServerClient,
-        request.getDistributionType(),
-        request.getExpectTaskIds(),
-        request.getRetryMax(),
-        request.getRetryIntervalMax(),
-        request.getPrefetchOption());
+    LocalFileClientReadHandler handler =
+        new LocalFileClientReadHandler(
+            request.getAppId(),
+            request.getShuffleId(),
+            request.getPartitionId(),
+            request.getIndexReadLimit(),
+            request.getPartitionNumPerRange(),
+            request.getPartitionNum(),
+            request.getReadBufferSize(),
+            request.getExpectBlockIds(),
+            processBlockIds,
+            shuffleServerClient,
+            request.getDistributionType(),
+            request.getExpectTaskIds(),
+            request.getRetryMax(),
+            request.getRetryIntervalMax(),
+            request.getPrefetchOption());
+    handler.setCoalesceMaxGap(request.getCoalesceMaxGap());
+    return handler;
   }
 
   private ClientReadHandler getHadoopClientReadHandler(
-      CreateShuffleReadHandlerRequest request, ShuffleServerInfo ssi) {
-    return new HadoopClientReadHandler(
-        request.getAppId(),
-        request.getShuffleId(),
-        request.getPartitionId(),
-        request.getIndexReadLimit(),
-        request.getPartitionNumPerRange(),
-        request.getPartitionNum(),
-        request.getReadBufferSize(),
-        request.getExpectBlockIds(),
-        request.getProcessBlockIds(),
-        request.getStorageBasePath(),
-        request.getHadoopConf(),
-        request.getDistributionType(),
-        request.getExpectTaskIds(),
-        ssi.getId(),
-        request.isOffHeapEnabled(),
-        request.getPrefetchOption());
+      CreateShuffleReadHandlerRequest request,
+      ShuffleServerInfo ssi,
+      Roaring64NavigableMap processBlockIds) {
+    HadoopClientReadHandler handler =
+        new HadoopClientReadHandler(
+            request.getAppId(),
+            request.getShuffleId(),
+            request.getPartitionId(),
+            request.getIndexReadLimit(),
+            request.getPartitionNumPerRange(),
+            request.getPartitionNum(),
+            request.getReadBufferSize(),
+            request.getExpectBlockIds(),
+            processBlockIds,
+            request.getStorageBasePath(),
+            request.getHadoopConf(),
+            request.getDistributionType(),
+            request.getExpectTaskIds(),
+            ssi.getId(),
+            request.isOffHeapEnabled(),
+            request.getPrefetchOption());
+    handler.setCoalesceMaxGap(request.getCoalesceMaxGap());
+    return handler;
   }
 
   public ShuffleDeleteHandler createShuffleDeleteHandler(
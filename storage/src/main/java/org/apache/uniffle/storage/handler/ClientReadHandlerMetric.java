@@ -28,6 +28,15 @@ public class ClientReadHandlerMetric {
   private long skippedReadLength = 0L;
   private long skippedReadUncompressLength = 0L;
 
+  // the time and the times of waiting for the prefetched data
+  private long prefetchWaitTime = 0L;
+  private long prefetchWaitNum = 0L;
+  private int maxPrefetchInFlightNum = 0;
+
+  // the times of reading another replica because of a slow read, and the times it was faster
+  private long hedgedReadNum = 0L;
+  private long hedgedReadWinNum = 0L;
+
   public long getReadBlockNum() {
     return readBlockNum;
   }
@@ -76,6 +85,46 @@ public class ClientReadHandlerMetric {
     this.skippedReadUncompressLength += skippedReadUncompressLength;
   }
 
+  public long getPrefetchWaitTime() {
+    return prefetchWaitTime;
+  }
+
+  public void incPrefetchWaitTime(long prefetchWaitTime) {
+    this.prefetchWaitTime += prefetchWaitTime;
+  }
+
+  public long getPrefetchWaitNum() {
+    return prefetchWaitNum;
+  }
+
+  public void incPrefetchWaitNum() {
+    this.prefetchWaitNum++;
+  }
+
+  public int getMaxPrefetchInFlightNum() {
+    return maxPrefetchInFlightNum;
+  }
+
+  public void updateMaxPrefetchInFlightNum(int prefetchInFlightNum) {
+    this.maxPrefetchInFlightNum = Math.max(maxPrefetchInFlightNum, prefetchInFlightNum);
+  }
+
+  public long getHedgedReadNum() {
+    return hedgedReadNum;
+  }
+
+  public void incHedgedReadNum() {
+    this.hedgedReadNum++;
+  }
+
+  public long getHedgedReadWinNum() {
+    return hedgedReadWinNum;
+  }
+
+  public void incHedgedReadWinNum() {
+    this.hedgedReadWinNum++;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
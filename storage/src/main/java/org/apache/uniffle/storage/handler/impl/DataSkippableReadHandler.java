@@ -19,12 +19,14 @@ package org.apache.uniffle.storage.handler.impl;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import com.google.common.collect.Lists;
 import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.uniffle.common.BufferSegment;
 import org.apache.uniffle.common.ShuffleDataDistributionType;
 import org.apache.uniffle.common.ShuffleDataResult;
 import org.apache.uniffle.common.ShuffleDataSegment;
@@ -43,6 +45,12 @@ public abstract class DataSkippableReadHandler extends PrefetchableClientReadHan
   protected ShuffleDataDistributionType distributionType;
   protected Roaring64NavigableMap expectTaskIds;
 
+  // The max bytes of unwanted data that may be read to merge two ranges, a negative value means
+  // the segments are read as they are split.
+  protected long coalesceMaxGap = -1;
+  // The next block to plan within the current segment when coalescing
+  private int blockIndex = 0;
+
   public DataSkippableReadHandler(
       String appId,
       int shuffleId,
@@ -64,12 +72,22 @@ public abstract class DataSkippableReadHandler extends PrefetchableClientReadHan
     this.expectTaskIds = expectTaskIds;
   }
 
+  public void setCoalesceMaxGap(long coalesceMaxGap) {
+    this.coalesceMaxGap = coalesceMaxGap;
+  }
+
   protected abstract ShuffleIndexResult readShuffleIndex();
 
   protected abstract ShuffleDataResult readShuffleData(ShuffleDataSegment segment);
 
   @Override
   public ShuffleDataResult doReadShuffleData() {
+    Supplier<ShuffleDataResult> read = nextRead();
+    return read == null ? null : read.get();
+  }
+
+  @Override
+  protected Supplier<ShuffleDataResult> nextRead() {
     if (shuffleDataSegments.isEmpty()) {
       ShuffleIndexResult shuffleIndexResult = readShuffleIndex();
       if (shuffleIndexResult == null || shuffleIndexResult.isEmpty()) {
@@ -86,10 +104,15 @@ public abstract class DataSkippableReadHandler extends PrefetchableClientReadHan
       }
     }
 
+    if (coalesceMaxGap >= 0) {
+      ShuffleDataSegment range = nextCoalescedRange();
+      return range == null ? null : () -> readShuffleData(range);
+    }
+
     // We should skip unexpected and processed segments when handler is read
-    ShuffleDataResult result = null;
     while (segmentIndex < shuffleDataSegments.size()) {
       ShuffleDataSegment segment = shuffleDataSegments.get(segmentIndex);
+      segmentIndex++;
       Roaring64NavigableMap blocksOfSegment = Roaring64NavigableMap.bitmapOf();
       segment.getBufferSegments().forEach(block -> blocksOfSegment.addLong(block.getBlockId()));
       // skip unexpected blockIds
@@ -98,13 +121,69 @@ public abstract class DataSkippableReadHandler extends PrefetchableClientReadHan
         // skip processed blockIds
         blocksOfSegment.andNot(processBlockIds);
         if (!blocksOfSegment.isEmpty()) {
-          result = readShuffleData(segment);
-          segmentIndex++;
-          break;
+          return () -> readShuffleData(segment);
         }
       }
-      segmentIndex++;
     }
-    return result;
+    return null;
+  }
+
+  /**
+   * Plans the next read at block granularity. Unexpected and processed blocks are trimmed, wanted
+   * blocks of adjacent segments are merged into one range as long as the range fits in the read
+   * buffer and the skipped bytes between them don't exceed {@link #coalesceMaxGap}.
+   */
+  private ShuffleDataSegment nextCoalescedRange() {
+    List<BufferSegment> blocks = Lists.newArrayList();
+    long rangeOffset = -1;
+    long rangeEnd = -1;
+    int storageId = -1;
+    while (segmentIndex < shuffleDataSegments.size()) {
+      ShuffleDataSegment segment = shuffleDataSegments.get(segmentIndex);
+      List<BufferSegment> bufferSegments = segment.getBufferSegments();
+      if (blockIndex >= bufferSegments.size()) {
+        segmentIndex++;
+        blockIndex = 0;
+        continue;
+      }
+      BufferSegment block = bufferSegments.get(blockIndex);
+      if (!expectBlockIds.contains(block.getBlockId())
+          || processBlockIds.contains(block.getBlockId())) {
+        blockIndex++;
+        continue;
+      }
+      long offset = segment.getOffset() + block.getOffset();
+      if (!blocks.isEmpty()
+          && (segment.getStorageId() != storageId
+              || offset < rangeEnd
+              || offset - rangeEnd > coalesceMaxGap
+              || offset + block.getLength() - rangeOffset > readBufferSize)) {
+        break;
+      }
+      if (blocks.isEmpty()) {
+        rangeOffset = offset;
+        storageId = segment.getStorageId();
+      }
+      blocks.add(
+          new BufferSegment(
+              block.getBlockId(),
+              offset - rangeOffset,
+              block.getLength(),
+              block.getUncompressLength(),
+              block.getCrc(),
+              block.getTaskAttemptId()));
+      rangeEnd = offset + block.getLength();
+      blockIndex++;
+    }
+    if (blocks.isEmpty()) {
+      return null;
+    }
+    return new ShuffleDataSegment(rangeOffset, (int) (rangeEnd - rangeOffset), storageId, blocks);
+  }
+
+  /** The segments are independent, so they can be read in parallel. */
+  @Override
+  protected boolean isParallelReadSupported() {
+    return true;
   }
 }
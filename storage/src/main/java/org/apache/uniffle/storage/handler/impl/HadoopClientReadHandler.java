@@ -57,6 +57,7 @@ public class HadoopClientReadHandler extends AbstractClientReadHandler {
   private Roaring64NavigableMap expectTaskIds;
   private boolean offHeapEnable = false;
   private Optional<PrefetchableClientReadHandler.PrefetchOption> prefetchOption;
+  private long coalesceMaxGap = -1;
 
   public HadoopClientReadHandler(
       String appId,
@@ -125,6 +126,10 @@ public class HadoopClientReadHandler extends AbstractClientReadHandler {
         Optional.empty());
   }
 
+  public void setCoalesceMaxGap(long coalesceMaxGap) {
+    this.coalesceMaxGap = coalesceMaxGap;
+  }
+
   protected void init(String fullShufflePath) {
     FileSystem fs;
     Path baseFolder = new Path(fullShufflePath);
@@ -181,6 +186,7 @@ public class HadoopClientReadHandler extends AbstractClientReadHandler {
                   expectTaskIds,
                   offHeapEnable,
                   prefetchOption);
+          handler.setCoalesceMaxGap(coalesceMaxGap);
           readHandlers.add(handler);
         } catch (Exception e) {
           LOG.warn("Can't create ShuffleReaderHandler for " + filePrefix, e);
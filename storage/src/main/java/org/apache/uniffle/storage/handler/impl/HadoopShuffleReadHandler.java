@@ -202,6 +202,12 @@ public class HadoopShuffleReadHandler extends DataSkippableReadHandler {
     return data;
   }
 
+  /** The data is read by the same stream, so the segments are read one by one. */
+  @Override
+  protected boolean isParallelReadSupported() {
+    return false;
+  }
+
   private long getDataFileLen() {
     try {
       return dataReader.getFileLen();
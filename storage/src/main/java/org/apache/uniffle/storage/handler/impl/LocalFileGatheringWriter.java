@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.storage.handler.impl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.netty.buffer.ByteBuf;
+
+import org.apache.uniffle.storage.api.FileWriter;
+import org.apache.uniffle.storage.common.FileBasedShuffleSegment;
+
+/**
+ * A writer which doesn't copy the data into heap. The buffers of the data are collected without
+ * copying, and written to the file by gathering writes of the {@link FileChannel} when the writer
+ * is closed, so all the blocks of a flush event are written in one batch. The caller must not
+ * release the written buffers before the writer is closed. The index segments are serialized into a
+ * pooled direct buffer.
+ */
+public class LocalFileGatheringWriter implements FileWriter {
+  private static final int MAX_POOLED_INDEX_BUFFERS = 64;
+  // the direct buffers for index are reused among the writers, the extra ones are dropped
+  private static final Queue<ByteBuffer> INDEX_BUFFER_POOL =
+      new ArrayBlockingQueue<>(MAX_POOLED_INDEX_BUFFERS);
+
+  private final FileOutputStream fileOutputStream;
+  private final FileChannel fileChannel;
+  private final int indexBufferSize;
+  private final List<ByteBuffer> pendingBuffers = new ArrayList<>();
+  private ByteBuffer indexBuffer;
+  private long nextOffset;
+  private boolean closed;
+
+  @VisibleForTesting
+  public LocalFileGatheringWriter(File file) throws IOException {
+    this(file, 8 * 1024);
+  }
+
+  public LocalFileGatheringWriter(File file, int bufferSize) throws IOException {
+    fileOutputStream = new FileOutputStream(file, true);
+    fileChannel = fileOutputStream.getChannel();
+    // the index buffer holds the whole segments
+    indexBufferSize =
+        Math.max(bufferSize / FileBasedShuffleSegment.SEGMENT_SIZE, 1)
+            * FileBasedShuffleSegment.SEGMENT_SIZE;
+    nextOffset = file.length();
+  }
+
+  @Override
+  public void writeData(byte[] data) throws IOException {
+    if (data != null && data.length > 0) {
+      pendingBuffers.add(ByteBuffer.wrap(data));
+      nextOffset = nextOffset + data.length;
+    }
+  }
+
+  @Override
+  public void writeData(ByteBuf buf) throws IOException {
+    if (buf != null && buf.readableBytes() > 0) {
+      // the composite buffer is split into its components without copying
+      for (ByteBuffer buffer : buf.nioBuffers()) {
+        pendingBuffers.add(buffer);
+      }
+      nextOffset = nextOffset + buf.readableBytes();
+    }
+  }
+
+  @Override
+  public void writeIndex(FileBasedShuffleSegment segment) throws IOException {
+    if (indexBuffer == null) {
+      indexBuffer = borrowIndexBuffer(indexBufferSize);
+    } else if (indexBuffer.remaining() < FileBasedShuffleSegment.SEGMENT_SIZE) {
+      flushIndex();
+    }
+    indexBuffer.putLong(segment.getOffset());
+    indexBuffer.putInt(segment.getLength());
+    indexBuffer.putInt(segment.getUncompressLength());
+    indexBuffer.putLong(segment.getCrc());
+    indexBuffer.putLong(segment.getBlockId());
+    indexBuffer.putLong(segment.getTaskAttemptId());
+  }
+
+  private static ByteBuffer borrowIndexBuffer(int size) {
+    ByteBuffer buffer = INDEX_BUFFER_POOL.poll();
+    if (buffer == null || buffer.capacity() < size) {
+      // the smaller one is dropped, the pool keeps the buffers of the configured size
+      return ByteBuffer.allocateDirect(size);
+    }
+    buffer.clear();
+    buffer.limit(size);
+    return buffer;
+  }
+
+  private void flushIndex() throws IOException {
+    indexBuffer.flip();
+    while (indexBuffer.hasRemaining()) {
+      fileChannel.write(indexBuffer);
+    }
+    indexBuffer.clear();
+    indexBuffer.limit(indexBufferSize);
+  }
+
+  private void flushData() throws IOException {
+    if (pendingBuffers.isEmpty()) {
+      return;
+    }
+    ByteBuffer[] buffers = pendingBuffers.toArray(new ByteBuffer[0]);
+    pendingBuffers.clear();
+    long remaining = 0;
+    for (ByteBuffer buffer : buffers) {
+      remaining += buffer.remaining();
+    }
+    int index = 0;
+    // the gathering write may write part of the buffers because of the limit of iovec
+    while (remaining > 0) {
+      long written = fileChannel.write(buffers, index, buffers.length - index);
+      if (written < 0) {
+        throw new IOException("Failed to write data to file");
+      }
+      remaining -= written;
+      while (index < buffers.length && !buffers[index].hasRemaining()) {
+        index++;
+      }
+    }
+  }
+
+  @Override
+  public long nextOffset() {
+    return nextOffset;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flushData();
+      if (indexBuffer != null) {
+        flushIndex();
+      }
+    } finally {
+      if (indexBuffer != null) {
+        INDEX_BUFFER_POOL.offer(indexBuffer);
+        indexBuffer = null;
+      }
+      fileOutputStream.close();
+    }
+  }
+}
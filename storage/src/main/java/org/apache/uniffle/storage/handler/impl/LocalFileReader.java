@@ -18,57 +18,41 @@
 package org.apache.uniffle.storage.handler.impl;
 
 import java.io.Closeable;
-import java.io.DataInputStream;
-import java.io.FileInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.storage.api.FileReader;
 
+/**
+ * The reader of local file. Like a stream, every read skips the given offset from the end of the
+ * last read, but the data is read by the positional read of {@link FileChannel}, so the offset is
+ * skipped without reading the bytes in between. The data can be read into a heap array or a direct
+ * buffer.
+ */
 public class LocalFileReader implements FileReader, Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(LocalFileReader.class);
-  private String path;
-  private DataInputStream dataInputStream;
+  private final String path;
+  private FileChannel channel;
+  // the end of the last read, which the offset of the next read is relative to
+  private long position;
 
   public LocalFileReader(String path) throws Exception {
     this.path = path;
-    dataInputStream = new DataInputStream(new FileInputStream(path));
+    this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
   }
 
   public byte[] read(long offset, int length) {
     try {
-      long targetSkip = offset;
-      // comments from skip API:
-      // The skip method may, for a variety of reasons,
-      // end up skipping over some smaller number of bytes, possibly 0
-      // the result should be checked and try again until skip expectation length
-      while (targetSkip > 0) {
-        long realSkip = dataInputStream.skip(targetSkip);
-        if (realSkip == -1) {
-          throw new RssException("Unexpected EOF when skip bytes");
-        }
-        targetSkip -= realSkip;
-        if (targetSkip > 0) {
-          LOG.warn(
-              "Got unexpected skip for path:"
-                  + path
-                  + " with offset["
-                  + offset
-                  + "], length["
-                  + length
-                  + "], remain["
-                  + targetSkip
-                  + "]");
-        }
-      }
       byte[] buf = new byte[length];
-      dataInputStream.readFully(buf);
+      readFully(ByteBuffer.wrap(buf), offset);
       return buf;
     } catch (Exception e) {
       LOG.warn(
@@ -86,7 +70,7 @@ public class LocalFileReader implements FileReader, Closeable {
 
   public byte[] read() {
     try {
-      return IOUtils.toByteArray(dataInputStream);
+      return read(0, getRemainingLength());
     } catch (IOException e) {
       LOG.error("Fail to read all data from {}", path, e);
       return new byte[0];
@@ -95,22 +79,64 @@ public class LocalFileReader implements FileReader, Closeable {
 
   @Override
   public ByteBuffer readAsByteBuffer(long offset, int length) {
-    throw new UnsupportedOperationException("Local file reader don't support off heap read now");
+    try {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+      readFully(buffer, offset);
+      buffer.flip();
+      return buffer;
+    } catch (Exception e) {
+      LOG.warn(
+          "Can't read buffer data for path:"
+              + path
+              + " with offset["
+              + offset
+              + "], length["
+              + length
+              + "]",
+          e);
+      return ByteBuffer.allocateDirect(0);
+    }
   }
 
   @Override
   public ByteBuffer readAsByteBuffer() {
-    throw new UnsupportedOperationException("Local file reader don't support off heap read now");
+    try {
+      return readAsByteBuffer(0, getRemainingLength());
+    } catch (IOException e) {
+      LOG.warn("Can't read buffer data for path:" + path, e);
+      return ByteBuffer.allocateDirect(0);
+    }
+  }
+
+  private int getRemainingLength() throws IOException {
+    long length = Math.max(channel.size() - position, 0L);
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("File " + path + " length is too long");
+    }
+    return (int) length;
+  }
+
+  private void readFully(ByteBuffer buffer, long offset) throws IOException {
+    long readPosition = position + offset;
+    while (buffer.hasRemaining()) {
+      int n = channel.read(buffer, readPosition);
+      if (n < 0) {
+        throw new EOFException("Unexpected EOF when reading bytes");
+      }
+      readPosition += n;
+    }
+    position = readPosition;
   }
 
   @Override
   public synchronized void close() {
-    if (dataInputStream != null) {
+    if (channel != null) {
       try {
-        dataInputStream.close();
+        channel.close();
       } catch (IOException ioe) {
         LOG.warn("Error happen when close " + path, ioe);
       }
+      channel = null;
     }
   }
 }
@@ -30,6 +30,7 @@ import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.netty.buffer.FileSegmentManagedBuffer;
 import org.apache.uniffle.common.util.Constants;
 import org.apache.uniffle.storage.common.FileBasedShuffleSegment;
+import org.apache.uniffle.storage.common.LocalFileRegistry;
 import org.apache.uniffle.storage.handler.api.ServerReadHandler;
 import org.apache.uniffle.storage.util.ShuffleStorageUtils;
 
@@ -42,6 +43,11 @@ public class LocalFileServerReadHandler implements ServerReadHandler {
   private String appId;
   private int shuffleId;
   private int partitionId;
+  private final LocalFileRegistry fileRegistry;
+  private int startPartition;
+  private int partitionNumPerRange;
+  private int partitionNum;
+  private String path;
 
   public LocalFileServerReadHandler(
       String appId,
@@ -51,11 +57,74 @@ public class LocalFileServerReadHandler implements ServerReadHandler {
       int partitionNum,
       String path,
       int storageId) {
+    this(appId, shuffleId, partitionId, partitionNumPerRange, partitionNum, path, storageId, null);
+  }
+
+  /**
+   * The files are resolved from the registry if it's not null, otherwise they are found from the
+   * folder of the partition.
+   */
+  public LocalFileServerReadHandler(
+      String appId,
+      int shuffleId,
+      int partitionId,
+      int partitionNumPerRange,
+      int partitionNum,
+      String path,
+      int storageId,
+      LocalFileRegistry fileRegistry) {
     this.appId = appId;
     this.shuffleId = shuffleId;
     this.partitionId = partitionId;
     this.storageId = storageId;
+    this.fileRegistry = fileRegistry;
+    this.partitionNumPerRange = partitionNumPerRange;
+    this.partitionNum = partitionNum;
+    this.path = path;
+    if (fileRegistry != null) {
+      this.startPartition =
+          ShuffleStorageUtils.getPartitionRange(partitionId, partitionNumPerRange, partitionNum)[0];
+      LocalFileRegistry.LocalFileInfo fileInfo = getFileInfo();
+      dataFileName = fileInfo.getDataFileName();
+      indexFileName = fileInfo.getIndexFileName();
+    } else {
+      init(appId, shuffleId, partitionId, partitionNumPerRange, partitionNum, path);
+    }
+  }
+
+  private LocalFileRegistry.LocalFileInfo getFileInfo() {
+    LocalFileRegistry.LocalFileInfo fileInfo = fileRegistry.get(appId, shuffleId, startPartition);
+    if (fileInfo == null) {
+      // the registry is lost after the server restarts, so the files flushed before are found from
+      // the folder of the partition and registered again
+      fileInfo = loadFileInfo();
+    }
+    return fileInfo;
+  }
+
+  private LocalFileRegistry.LocalFileInfo loadFileInfo() {
     init(appId, shuffleId, partitionId, partitionNumPerRange, partitionNum, path);
+    if (indexFileName.isEmpty()) {
+      throw new FileNotFoundException(
+          "Can't find files of appId["
+              + appId
+              + "], shuffleId["
+              + shuffleId
+              + "], partitionId["
+              + partitionId
+              + "] in storage "
+              + storageId);
+    }
+    // the index is written after the data, so the length of index file is got first
+    long indexFileLength = new File(indexFileName).length();
+    indexFileLength -= indexFileLength % FileBasedShuffleSegment.SEGMENT_SIZE;
+    long dataFileLength = new File(dataFileName).length();
+    return fileRegistry.commitIfAbsent(
+        appId,
+        shuffleId,
+        startPartition,
+        new LocalFileRegistry.LocalFileInfo(
+            dataFileName, indexFileName, dataFileLength, indexFileLength));
   }
 
   public LocalFileServerReadHandler(
@@ -151,6 +220,9 @@ public class LocalFileServerReadHandler implements ServerReadHandler {
 
   @Override
   public ShuffleIndexResult getShuffleIndex() {
+    if (fileRegistry != null) {
+      return getShuffleIndex(getFileInfo());
+    }
     File indexFile = new File(indexFileName);
     long indexFileSize = indexFile.length();
     int indexNum = (int) (indexFileSize / FileBasedShuffleSegment.SEGMENT_SIZE);
@@ -166,6 +238,16 @@ public class LocalFileServerReadHandler implements ServerReadHandler {
         new FileSegmentManagedBuffer(indexFile, 0, len), dataFileSize, dataFileName, storageId);
   }
 
+  private ShuffleIndexResult getShuffleIndex(LocalFileRegistry.LocalFileInfo fileInfo) {
+    // the committed lengths are used, so the index never points to the data not flushed yet
+    int len = (int) fileInfo.getIndexFileLength();
+    return new ShuffleIndexResult(
+        new FileSegmentManagedBuffer(new File(fileInfo.getIndexFileName()), 0, len),
+        fileInfo.getDataFileLength(),
+        fileInfo.getDataFileName(),
+        storageId);
+  }
+
   public String getDataFileName() {
     return dataFileName;
   }
@@ -20,7 +20,9 @@ package org.apache.uniffle.storage.handler.impl;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.slf4j.Logger;
@@ -31,6 +33,7 @@ import org.apache.uniffle.common.config.RssBaseConf;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.storage.api.FileWriter;
 import org.apache.uniffle.storage.common.FileBasedShuffleSegment;
+import org.apache.uniffle.storage.common.LocalFileRegistry;
 import org.apache.uniffle.storage.handler.api.ShuffleWriteHandler;
 import org.apache.uniffle.storage.util.ShuffleStorageUtils;
 
@@ -43,6 +46,12 @@ public class LocalFileWriteHandler implements ShuffleWriteHandler {
   private String basePath;
   private final int dataBufferSize;
   private final int indexBufferSize;
+  private final String appId;
+  private final int shuffleId;
+  private final int startPartition;
+  private final LocalFileRegistry fileRegistry;
+  // the length of the index file after the last flush, -1 before the first flush
+  private long indexFileLength = -1;
 
   public LocalFileWriteHandler(
       RssBaseConf rssBaseConf,
@@ -52,7 +61,31 @@ public class LocalFileWriteHandler implements ShuffleWriteHandler {
       int endPartition,
       String storageBasePath,
       String fileNamePrefix) {
+    this(
+        rssBaseConf,
+        appId,
+        shuffleId,
+        startPartition,
+        endPartition,
+        storageBasePath,
+        fileNamePrefix,
+        null);
+  }
+
+  public LocalFileWriteHandler(
+      RssBaseConf rssBaseConf,
+      String appId,
+      int shuffleId,
+      int startPartition,
+      int endPartition,
+      String storageBasePath,
+      String fileNamePrefix,
+      LocalFileRegistry fileRegistry) {
     this.rssBaseConf = rssBaseConf;
+    this.appId = appId;
+    this.shuffleId = shuffleId;
+    this.startPartition = startPartition;
+    this.fileRegistry = fileRegistry;
     this.fileNamePrefix = fileNamePrefix;
     this.basePath =
         ShuffleStorageUtils.getFullShuffleDataFolder(
@@ -129,36 +162,61 @@ public class LocalFileWriteHandler implements ShuffleWriteHandler {
     long accessTime = System.currentTimeMillis();
     String dataFileName = ShuffleStorageUtils.generateDataFileName(fileNamePrefix);
     String indexFileName = ShuffleStorageUtils.generateIndexFileName(fileNamePrefix);
+    long lastIndexFileLength = indexFileLength;
+    if (fileRegistry != null && lastIndexFileLength < 0) {
+      lastIndexFileLength = new File(basePath, indexFileName).length();
+    }
+    // it's got from the file again in the next flush if this flush fails
+    indexFileLength = -1;
+    long dataFileLength;
 
+    List<FileBasedShuffleSegment> segments = new ArrayList<>(shuffleBlocks.size());
+    long startTime = System.currentTimeMillis();
     try (FileWriter dataWriter =
-            LocalFileWriterFactory.getLocalFileWriter(
-                rssBaseConf, new File(basePath, dataFileName), dataBufferSize);
-        FileWriter indexWriter = createWriter(indexFileName, indexBufferSize)) {
-
-      long startTime = System.currentTimeMillis();
+        LocalFileWriterFactory.getLocalFileWriter(
+            rssBaseConf, new File(basePath, dataFileName), dataBufferSize)) {
       for (ShufflePartitionedBlock block : shuffleBlocks) {
-        long blockId = block.getBlockId();
-        long crc = block.getCrc();
         long startOffset = dataWriter.nextOffset();
         dataWriter.writeData(block.getData());
-
-        FileBasedShuffleSegment segment =
+        segments.add(
             new FileBasedShuffleSegment(
-                blockId,
+                block.getBlockId(),
                 startOffset,
                 block.getDataLength(),
                 block.getUncompressLength(),
-                crc,
-                block.getTaskAttemptId());
-        indexWriter.writeIndex(segment);
+                block.getCrc(),
+                block.getTaskAttemptId()));
       }
-      if (LOG.isDebugEnabled()) {
-        LOG.debug(
-            "Write handler write {} blocks cost {} ms without file open close",
-            shuffleBlocks.size(),
-            (System.currentTimeMillis() - startTime));
+      dataFileLength = dataWriter.nextOffset();
+    }
+    // the index is written after the data writer is closed, so the index never points to the data
+    // which is not written yet
+    try (FileWriter indexWriter =
+        LocalFileWriterFactory.getLocalFileWriter(
+            rssBaseConf, new File(basePath, indexFileName), indexBufferSize)) {
+      for (FileBasedShuffleSegment segment : segments) {
+        indexWriter.writeIndex(segment);
       }
     }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(
+          "Write handler write {} blocks cost {} ms without file open close",
+          shuffleBlocks.size(),
+          (System.currentTimeMillis() - startTime));
+    }
+    if (fileRegistry != null) {
+      indexFileLength =
+          lastIndexFileLength + (long) shuffleBlocks.size() * FileBasedShuffleSegment.SEGMENT_SIZE;
+      fileRegistry.commit(
+          appId,
+          shuffleId,
+          startPartition,
+          new LocalFileRegistry.LocalFileInfo(
+              basePath + "/" + dataFileName,
+              basePath + "/" + indexFileName,
+              dataFileLength,
+              indexFileLength));
+    }
     if (LOG.isDebugEnabled()) {
       LOG.debug(
           "Write handler write {} blocks cost {} ms with file open close",
@@ -167,12 +225,6 @@ public class LocalFileWriteHandler implements ShuffleWriteHandler {
     }
   }
 
-  private FileWriter createWriter(String fileName, int bufferSize)
-      throws IOException, IllegalStateException {
-    File file = new File(basePath, fileName);
-    return new LocalFileWriter(file, bufferSize);
-  }
-
   @VisibleForTesting
   protected String getBasePath() {
     return basePath;
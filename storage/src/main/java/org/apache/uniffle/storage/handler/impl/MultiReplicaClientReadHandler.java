@@ -17,8 +17,17 @@
 
 package org.apache.uniffle.storage.handler.impl;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
 import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,28 +37,92 @@ import org.apache.uniffle.common.ShuffleDataResult;
 import org.apache.uniffle.common.ShuffleServerInfo;
 import org.apache.uniffle.common.exception.RssException;
 import org.apache.uniffle.common.util.RssUtils;
+import org.apache.uniffle.common.util.ThreadUtils;
 import org.apache.uniffle.storage.handler.api.ClientReadHandler;
 
+/**
+ * The handler reads the replicas one by one, and moves to the next replica when the current one
+ * fails or runs out of data before all the blocks are read. With the hedge option, a slow read from
+ * the current replica triggers a read from the next replica and the first non-empty result wins,
+ * the handler then moves to the next replica and releases the losing read once it's done. A hedged
+ * read of the next replica which is still in flight or has returned data is kept until that replica
+ * is read, so no data of the replica is lost when the handler moves to it later. A hedged read
+ * which failed or returned no data is dropped, and the replica is read again when its turn comes.
+ * The blocks read twice are skipped by the processed block ids.
+ *
+ * <p>The hedged reads plan what to read in the background while the consumer keeps updating its
+ * processed block ids, so every replica is given its own copy of them. The copy is synced by the
+ * calling thread before a read of the replica starts, and it's never updated while the read is in
+ * flight.
+ */
 public class MultiReplicaClientReadHandler extends AbstractClientReadHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(MultiReplicaClientReadHandler.class);
+  // the number of recent read latencies to compute the hedge delay
+  private static final int LATENCY_WINDOW_SIZE = 100;
+  private static volatile ExecutorService sharedHedgeExecutor;
 
   private final List<ClientReadHandler> handlers;
   private final List<ShuffleServerInfo> shuffleServerInfos;
   private final Roaring64NavigableMap blockIdBitmap;
   private final Roaring64NavigableMap processedBlockIds;
+  // the processed block ids read by the replicas, null if they share the ones of the consumer
+  private final List<Roaring64NavigableMap> replicaProcessedBlockIds;
 
   private int readHandlerIndex;
 
+  private final HedgeOption hedgeOption;
+  // the reads issued to the replicas but not consumed yet, keyed by the index of the replica
+  private final Map<Integer, CompletableFuture<ShuffleDataResult>> pendingReads = Maps.newHashMap();
+  private final long[] latencies = new long[LATENCY_WINDOW_SIZE];
+  private int latencyNum;
+
   public MultiReplicaClientReadHandler(
       List<ClientReadHandler> handlers,
       List<ShuffleServerInfo> shuffleServerInfos,
       Roaring64NavigableMap blockIdBitmap,
       Roaring64NavigableMap processedBlockIds) {
+    this(handlers, shuffleServerInfos, blockIdBitmap, processedBlockIds, null, null);
+  }
+
+  /**
+   * @param replicaProcessedBlockIds the processed block ids read by every replica handler, which
+   *     must not be the ones of the consumer
+   */
+  public MultiReplicaClientReadHandler(
+      List<ClientReadHandler> handlers,
+      List<ShuffleServerInfo> shuffleServerInfos,
+      Roaring64NavigableMap blockIdBitmap,
+      Roaring64NavigableMap processedBlockIds,
+      List<Roaring64NavigableMap> replicaProcessedBlockIds,
+      HedgeOption hedgeOption) {
     this.handlers = handlers;
     this.blockIdBitmap = blockIdBitmap;
     this.processedBlockIds = processedBlockIds;
+    this.replicaProcessedBlockIds = replicaProcessedBlockIds;
     this.shuffleServerInfos = shuffleServerInfos;
+    this.hedgeOption = hedgeOption;
+  }
+
+  public static class HedgeOption {
+    private double percentile;
+    private long minDelayMs;
+
+    public HedgeOption(double percentile, long minDelayMs) {
+      this.percentile = percentile;
+      this.minDelayMs = minDelayMs;
+    }
+  }
+
+  private static ExecutorService getSharedHedgeExecutor() {
+    if (sharedHedgeExecutor == null) {
+      synchronized (MultiReplicaClientReadHandler.class) {
+        if (sharedHedgeExecutor == null) {
+          sharedHedgeExecutor = ThreadUtils.getDaemonCachedThreadPool("hedged-read");
+        }
+      }
+    }
+    return sharedHedgeExecutor;
   }
 
   @Override
@@ -62,7 +135,7 @@ public class MultiReplicaClientReadHandler extends AbstractClientReadHandler {
       }
       handler = handlers.get(readHandlerIndex);
       try {
-        result = handler.readShuffleData();
+        result = read(readHandlerIndex);
       } catch (Exception e) {
         LOG.warn(
             "Failed to read a replica from [{}] due to ",
@@ -99,6 +172,141 @@ public class MultiReplicaClientReadHandler extends AbstractClientReadHandler {
     } while (true);
   }
 
+  private ShuffleDataResult read(int index) throws Exception {
+    CompletableFuture<ShuffleDataResult> pendingRead = pendingReads.remove(index);
+    if (pendingRead != null) {
+      try {
+        ShuffleDataResult result = join(pendingRead);
+        if (result != null && !result.isEmpty()) {
+          return result;
+        }
+      } catch (Exception e) {
+        LOG.warn(
+            "The hedged read from [{}] failed, read it again",
+            shuffleServerInfos.get(index).getId(),
+            e);
+      }
+    }
+    if (hedgeOption == null || index >= handlers.size() - 1) {
+      syncProcessedBlockIds(index);
+      return handlers.get(index).readShuffleData();
+    }
+    return hedgedRead(index);
+  }
+
+  private ShuffleDataResult hedgedRead(int index) throws Exception {
+    long start = System.currentTimeMillis();
+    CompletableFuture<ShuffleDataResult> primary = submit(index);
+    long hedgeDelayMs = getHedgeDelayMs();
+    try {
+      ShuffleDataResult result = join(primary, hedgeDelayMs);
+      recordLatency(System.currentTimeMillis() - start);
+      return result;
+    } catch (TimeoutException e) {
+      // read the next replica as well
+    }
+    int backupIndex = index + 1;
+    CompletableFuture<ShuffleDataResult> backup = pendingReads.remove(backupIndex);
+    if (backup == null) {
+      backup = submit(backupIndex);
+      readHandlerMetric.incHedgedReadNum();
+      LOG.info(
+          "Read from [{}] is slower than {} ms, read from [{}] as well",
+          shuffleServerInfos.get(index).getId(),
+          hedgeDelayMs,
+          shuffleServerInfos.get(backupIndex).getId());
+    }
+    try {
+      CompletableFuture.anyOf(primary, backup).get();
+    } catch (ExecutionException e) {
+      // the failed read is handled as the others when it's consumed
+    }
+    if (!primary.isDone()) {
+      ShuffleDataResult backupResult = backup.isCompletedExceptionally() ? null : backup.get();
+      if (backupResult != null && !backupResult.isEmpty()) {
+        readHandlerMetric.incHedgedReadWinNum();
+        // the handler never reads the replica of the primary again
+        releaseWhenDone(primary);
+        readHandlerIndex = backupIndex;
+        return backupResult;
+      }
+    }
+    if (!backup.isDone() || isNonEmpty(backup)) {
+      pendingReads.put(backupIndex, backup);
+    } else {
+      releaseWhenDone(backup);
+    }
+    ShuffleDataResult result = join(primary);
+    recordLatency(System.currentTimeMillis() - start);
+    return result;
+  }
+
+  private static boolean isNonEmpty(CompletableFuture<ShuffleDataResult> done) {
+    if (done.isCompletedExceptionally()) {
+      return false;
+    }
+    ShuffleDataResult result = done.join();
+    return result != null && !result.isEmpty();
+  }
+
+  private static void releaseWhenDone(CompletableFuture<ShuffleDataResult> future) {
+    future.thenAccept(
+        result -> {
+          if (result != null) {
+            result.release();
+          }
+        });
+  }
+
+  private CompletableFuture<ShuffleDataResult> submit(int index) {
+    syncProcessedBlockIds(index);
+    ClientReadHandler handler = handlers.get(index);
+    return CompletableFuture.supplyAsync(handler::readShuffleData, getSharedHedgeExecutor());
+  }
+
+  /** Called by the consumer before reading the replica, when no read of it is in flight. */
+  private void syncProcessedBlockIds(int index) {
+    if (replicaProcessedBlockIds != null) {
+      replicaProcessedBlockIds.get(index).or(processedBlockIds);
+    }
+  }
+
+  private static ShuffleDataResult join(CompletableFuture<ShuffleDataResult> future)
+      throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+    }
+  }
+
+  private static ShuffleDataResult join(CompletableFuture<ShuffleDataResult> future, long timeoutMs)
+      throws Exception {
+    try {
+      return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+    }
+  }
+
+  private void recordLatency(long latency) {
+    latencies[latencyNum % LATENCY_WINDOW_SIZE] = latency;
+    latencyNum++;
+  }
+
+  /** Returns the percentile of the recent read latencies, but not less than the min delay. */
+  @VisibleForTesting
+  long getHedgeDelayMs() {
+    int num = Math.min(latencyNum, LATENCY_WINDOW_SIZE);
+    if (num == 0) {
+      return hedgeOption.minDelayMs;
+    }
+    long[] sorted = Arrays.copyOf(latencies, num);
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(hedgeOption.percentile * num) - 1;
+    return Math.max(hedgeOption.minDelayMs, sorted[Math.max(rank, 0)]);
+  }
+
   @Override
   public void updateConsumedBlockInfo(BufferSegment bs, boolean isSkippedMetrics) {
     super.updateConsumedBlockInfo(bs, isSkippedMetrics);
@@ -109,7 +317,21 @@ public class MultiReplicaClientReadHandler extends AbstractClientReadHandler {
 
   @Override
   public void logConsumedBlockInfo() {
+    if (hedgeOption != null) {
+      LOG.info(
+          "Hedged {} reads to the next replicas and they were faster {} times",
+          readHandlerMetric.getHedgedReadNum(),
+          readHandlerMetric.getHedgedReadWinNum());
+    }
     super.logConsumedBlockInfo();
     handlers.forEach(ClientReadHandler::logConsumedBlockInfo);
   }
+
+  @Override
+  public void close() {
+    super.close();
+    // the reads left are never consumed, release their data once they are done
+    pendingReads.values().forEach(MultiReplicaClientReadHandler::releaseWhenDone);
+    pendingReads.clear();
+  }
 }
@@ -17,32 +17,58 @@
 
 package org.apache.uniffle.storage.handler.impl;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.uniffle.common.ShuffleDataResult;
+import org.apache.uniffle.common.config.RssClientConf;
 import org.apache.uniffle.common.exception.RssException;
+import org.apache.uniffle.common.util.JavaUtils;
+import org.apache.uniffle.common.util.ThreadUtils;
 
+/**
+ * The handler prefetches the data by the executor shared by all the handlers in the JVM with the
+ * same number of prefetch threads, so every configured number is honored. The reads are in flight
+ * in parallel if the subclass supports it, otherwise they are executed one by one, and the results
+ * are always returned in the order of the reads. The number of the reads in flight grows when the
+ * consumer waits for the data, and shrinks when the heap memory is insufficient.
+ */
 public abstract class PrefetchableClientReadHandler extends AbstractClientReadHandler {
   private static final Logger LOG = LoggerFactory.getLogger(PrefetchableClientReadHandler.class);
+  // the number of the reads in flight is shrunk if the used heap memory exceeds this ratio
+  private static final double MEMORY_PRESSURE_RATIO = 0.9;
+  // the number of threads -> the executor shared by the handlers
+  private static final Map<Integer, ExecutorService> SHARED_PREFETCH_EXECUTORS =
+      JavaUtils.newConcurrentMap();
 
   private boolean prefetchEnabled;
   private int prefetchQueueCapacity;
   private int prefetchTimeoutSec;
-  private LinkedBlockingQueue<Optional<ShuffleDataResult>> prefetchResultQueue;
-  private ExecutorService prefetchExecutors;
-  private AtomicBoolean abnormalFetchTag;
-  private AtomicBoolean finishedTag;
-  private AtomicInteger queueingNumber;
+  private int prefetchThreadNum;
+  private Executor prefetchExecutor;
+  // the reads in flight in order, it's only accessed by the consumer
+  private Deque<PrefetchTask> inFlightReads;
+  private int prefetchDepth;
+  private boolean noMoreReads;
+  private volatile boolean finishedTag;
   private AtomicLong fetchTime;
 
   public PrefetchableClientReadHandler(Optional<PrefetchOption> prefetchOptional) {
@@ -55,12 +81,9 @@ public abstract class PrefetchableClientReadHandler extends AbstractClientReadHa
       this.prefetchEnabled = true;
       this.prefetchQueueCapacity = option.capacity;
       this.prefetchTimeoutSec = option.timeoutSec;
-      this.prefetchResultQueue = new LinkedBlockingQueue<>(option.capacity);
-      // todo: support multi threads to prefetch
-      this.prefetchExecutors = Executors.newFixedThreadPool(1);
-      this.abnormalFetchTag = new AtomicBoolean(false);
-      this.finishedTag = new AtomicBoolean(false);
-      this.queueingNumber = new AtomicInteger(0);
+      this.prefetchThreadNum = option.threadNum;
+      this.inFlightReads = new ArrayDeque<>(option.capacity);
+      this.prefetchDepth = 1;
       this.fetchTime = new AtomicLong(0);
     } else {
       this.prefetchEnabled = false;
@@ -70,87 +93,230 @@ public abstract class PrefetchableClientReadHandler extends AbstractClientReadHa
   public static class PrefetchOption {
     private int capacity;
     private int timeoutSec;
+    private int threadNum;
 
     public PrefetchOption(int capacity, int timeoutSec) {
+      this(capacity, timeoutSec, RssClientConf.RSS_CLIENT_PREFETCH_THREADS.defaultValue());
+    }
+
+    public PrefetchOption(int capacity, int timeoutSec, int threadNum) {
       this.capacity = capacity;
       this.timeoutSec = timeoutSec;
+      this.threadNum = threadNum;
     }
   }
 
+  private static ExecutorService getSharedPrefetchExecutor(int threadNum) {
+    return SHARED_PREFETCH_EXECUTORS.computeIfAbsent(
+        threadNum, key -> ThreadUtils.getDaemonFixedThreadPool(key, "prefetch-" + key));
+  }
+
   protected abstract ShuffleDataResult doReadShuffleData();
 
+  /**
+   * Prepares the next read, which is called by the consumer in order.
+   *
+   * @return the next read, or null if there is no more data
+   */
+  protected Supplier<ShuffleDataResult> nextRead() {
+    if (finishedTag) {
+      return null;
+    }
+    return () -> {
+      if (finishedTag) {
+        return null;
+      }
+      ShuffleDataResult result = doReadShuffleData();
+      if (result == null) {
+        finishedTag = true;
+      }
+      return result;
+    };
+  }
+
+  /** @return true if the reads returned by {@link #nextRead()} can be executed in parallel */
+  protected boolean isParallelReadSupported() {
+    return false;
+  }
+
   @Override
   public ShuffleDataResult readShuffleData() {
     if (!prefetchEnabled) {
       return doReadShuffleData();
     }
+    if (prefetchExecutor == null) {
+      ExecutorService executor = getSharedPrefetchExecutor(prefetchThreadNum);
+      prefetchExecutor = isParallelReadSupported() ? executor : new SerialExecutor(executor);
+    }
 
-    int free = prefetchQueueCapacity - prefetchResultQueue.size() - queueingNumber.get();
-    for (int i = 0; i < free; i++) {
-      queueingNumber.incrementAndGet();
-      prefetchExecutors.submit(
-          () -> {
-            long start = System.currentTimeMillis();
-            try {
-              if (abnormalFetchTag.get() || finishedTag.get()) {
-                return;
-              }
-              ShuffleDataResult result = doReadShuffleData();
-              if (result == null) {
-                this.finishedTag.set(true);
-              }
-              prefetchResultQueue.offer(Optional.ofNullable(result));
-            } catch (Exception e) {
-              abnormalFetchTag.set(true);
-              LOG.error("Errors on doing readShuffleData", e);
-            } finally {
-              queueingNumber.decrementAndGet();
-              fetchTime.addAndGet(System.currentTimeMillis() - start);
-            }
-          });
+    while (!noMoreReads && inFlightReads.size() < prefetchDepth) {
+      Supplier<ShuffleDataResult> read = nextRead();
+      if (read == null) {
+        noMoreReads = true;
+        break;
+      }
+      PrefetchTask task =
+          new PrefetchTask(
+              () -> {
+                long start = System.currentTimeMillis();
+                try {
+                  return read.get();
+                } finally {
+                  fetchTime.addAndGet(System.currentTimeMillis() - start);
+                }
+              });
+      prefetchExecutor.execute(task);
+      inFlightReads.add(task);
     }
+    readHandlerMetric.updateMaxPrefetchInFlightNum(inFlightReads.size());
 
+    PrefetchTask read = inFlightReads.poll();
+    if (read == null) {
+      return null;
+    }
+    boolean waiting = !read.isDone();
     long start = System.currentTimeMillis();
-    while (true) {
-      if (abnormalFetchTag.get()) {
-        throw new RssException("Fast fail due to the fetch failure");
-      }
+    ShuffleDataResult result;
+    try {
+      result = read.get(prefetchTimeoutSec, TimeUnit.SECONDS);
+    } catch (TimeoutException e) {
+      read.abandon();
+      cancelInFlightReads();
+      throw new RssException("Unexpected duration of reading shuffle data. Fast fail!");
+    } catch (ExecutionException e) {
+      cancelInFlightReads();
+      LOG.error("Errors on doing readShuffleData", e.getCause());
+      throw new RssException("Fast fail due to the fetch failure", e.getCause());
+    } catch (InterruptedException e) {
+      read.abandon();
+      return null;
+    }
+    if (waiting) {
+      readHandlerMetric.incPrefetchWaitNum();
+      readHandlerMetric.incPrefetchWaitTime(System.currentTimeMillis() - start);
+    }
+    adjustPrefetchDepth(waiting);
+    if (result == null) {
+      noMoreReads = true;
+      cancelInFlightReads();
+    }
+    return result;
+  }
 
-      try {
-        Optional<ShuffleDataResult> optionalShuffleDataResult =
-            prefetchResultQueue.poll(10, TimeUnit.MILLISECONDS);
-        if (optionalShuffleDataResult != null) {
-          if (optionalShuffleDataResult.isPresent()) {
-            return optionalShuffleDataResult.get();
-          } else {
-            return null;
-          }
-        }
-      } catch (InterruptedException e) {
-        return null;
-      }
+  private void adjustPrefetchDepth(boolean waiting) {
+    if (isMemoryInsufficient()) {
+      prefetchDepth = Math.max(1, prefetchDepth / 2);
+    } else if (waiting) {
+      prefetchDepth = Math.min(prefetchQueueCapacity, prefetchDepth + 1);
+    }
+  }
 
-      if (System.currentTimeMillis() - start > prefetchTimeoutSec * 1000) {
-        throw new RssException("Unexpected duration of reading shuffle data. Fast fail!");
-      }
+  private static boolean isMemoryInsufficient() {
+    Runtime runtime = Runtime.getRuntime();
+    long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+    return usedMemory > runtime.maxMemory() * MEMORY_PRESSURE_RATIO;
+  }
+
+  /** Abandons the reads in flight without waiting for them, their data is released once done. */
+  private void cancelInFlightReads() {
+    PrefetchTask read;
+    while ((read = inFlightReads.poll()) != null) {
+      read.abandon();
     }
   }
 
+  @VisibleForTesting
+  int getPrefetchDepth() {
+    return prefetchDepth;
+  }
+
   @Override
   public void close() {
     super.close();
-    if (prefetchExecutors != null) {
-      prefetchExecutors.shutdown();
+    if (inFlightReads != null) {
+      cancelInFlightReads();
     }
   }
 
   @Override
   public void logConsumedBlockInfo() {
     LOG.info(
-        "Metrics for shuffleId[{}], partitionId[{}], background fetch cost {} ms",
+        "Metrics for shuffleId[{}], partitionId[{}], background fetch cost {} ms, "
+            + "waited {} times for {} ms, max {} reads in flight",
         shuffleId,
         partitionId,
-        fetchTime);
+        fetchTime,
+        readHandlerMetric.getPrefetchWaitNum(),
+        readHandlerMetric.getPrefetchWaitTime(),
+        readHandlerMetric.getMaxPrefetchInFlightNum());
     super.logConsumedBlockInfo();
   }
+
+  /**
+   * The read which releases its data if it's abandoned by the consumer, no matter whether it's
+   * done before or after being abandoned, so abandoning it never blocks.
+   */
+  private static class PrefetchTask extends FutureTask<ShuffleDataResult> {
+    private final AtomicBoolean abandoned = new AtomicBoolean(false);
+    private final AtomicReference<ShuffleDataResult> unconsumedResult = new AtomicReference<>();
+
+    PrefetchTask(Callable<ShuffleDataResult> callable) {
+      super(callable);
+    }
+
+    @Override
+    protected void set(ShuffleDataResult result) {
+      unconsumedResult.set(result);
+      super.set(result);
+      if (abandoned.get()) {
+        releaseUnconsumedResult();
+      }
+    }
+
+    void abandon() {
+      abandoned.set(true);
+      cancel(true);
+      releaseUnconsumedResult();
+    }
+
+    private void releaseUnconsumedResult() {
+      ShuffleDataResult result = unconsumedResult.getAndSet(null);
+      if (result != null) {
+        result.release();
+      }
+    }
+  }
+
+  /** Executes the tasks one by one in order by the shared executor. */
+  private static class SerialExecutor implements Executor {
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Executor executor;
+    private Runnable active;
+
+    SerialExecutor(Executor executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public synchronized void execute(Runnable task) {
+      tasks.offer(
+          () -> {
+            try {
+              task.run();
+            } finally {
+              scheduleNext();
+            }
+          });
+      if (active == null) {
+        scheduleNext();
+      }
+    }
+
+    private synchronized void scheduleNext() {
+      active = tasks.poll();
+      if (active != null) {
+        executor.execute(active);
+      }
+    }
+  }
 }
@@ -30,6 +30,7 @@ import org.apache.uniffle.common.config.RssBaseConf;
 import org.apache.uniffle.common.config.RssClientConf;
 import org.apache.uniffle.common.config.RssConf;
 import org.apache.uniffle.common.util.IdHelper;
+import org.apache.uniffle.storage.handler.impl.MultiReplicaClientReadHandler;
 import org.apache.uniffle.storage.handler.impl.PrefetchableClientReadHandler;
 
 public class CreateShuffleReadHandlerRequest {
@@ -251,7 +252,27 @@ public class CreateShuffleReadHandlerRequest {
       return Optional.of(
           new PrefetchableClientReadHandler.PrefetchOption(
               clientConf.get(RssClientConf.RSS_CLIENT_PREFETCH_CAPACITY),
-              clientConf.get(RssClientConf.READ_CLIENT_PREFETCH_TIMEOUT_SEC)));
+              clientConf.get(RssClientConf.READ_CLIENT_PREFETCH_TIMEOUT_SEC),
+              clientConf.get(RssClientConf.RSS_CLIENT_PREFETCH_THREADS)));
+    } else {
+      return Optional.empty();
+    }
+  }
+
+  /** Returns the max gap of coalesced reads, or -1 if coalescing is disabled. */
+  public long getCoalesceMaxGap() {
+    if (clientConf.get(RssClientConf.RSS_CLIENT_READ_COALESCE_ENABLED)) {
+      return clientConf.get(RssClientConf.RSS_CLIENT_READ_COALESCE_MAX_GAP);
+    }
+    return -1;
+  }
+
+  public Optional<MultiReplicaClientReadHandler.HedgeOption> getHedgeOption() {
+    if (clientConf.get(RssClientConf.RSS_CLIENT_READ_HEDGE_ENABLED)) {
+      return Optional.of(
+          new MultiReplicaClientReadHandler.HedgeOption(
+              clientConf.get(RssClientConf.RSS_CLIENT_READ_HEDGE_PERCENTILE),
+              clientConf.get(RssClientConf.RSS_CLIENT_READ_HEDGE_MIN_DELAY_MS)));
     } else {
       return Optional.empty();
     }
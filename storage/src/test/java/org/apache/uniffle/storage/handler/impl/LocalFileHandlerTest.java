@@ -19,22 +19,35 @@ package org.apache.uniffle.storage.handler.impl;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import org.apache.uniffle.common.ShuffleDataResult;
 import org.apache.uniffle.common.ShuffleIndexResult;
 import org.apache.uniffle.common.config.RssBaseConf;
+import org.apache.uniffle.common.exception.FileNotFoundException;
+import org.apache.uniffle.storage.common.FileBasedShuffleSegment;
+import org.apache.uniffle.storage.common.LocalFileRegistry;
 import org.apache.uniffle.storage.util.ShuffleStorageUtils;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LocalFileHandlerTest {
@@ -153,6 +166,129 @@ public class LocalFileHandlerTest {
     assertEquals(writer.nextOffset(), totalSize);
   }
 
+  @Test
+  public void writeWithGatheringWriterTest(@TempDir File tmpDir) throws Exception {
+    RssBaseConf conf = new RssBaseConf();
+    conf.set(
+        RssBaseConf.RSS_STORAGE_LOCALFILE_WRITER_CLASS, LocalFileGatheringWriter.class.getName());
+    // the index buffer can hold 2 segments only
+    conf.setString(RssBaseConf.RSS_STORAGE_LOCALFILE_WRITE_INDEX_BUFFER_SIZE.key(), "80");
+    LocalFileWriteHandler writeHandler =
+        new LocalFileWriteHandler(conf, "appId", 0, 1, 1, tmpDir.getAbsolutePath(), "pre");
+    Map<Long, byte[]> expectedData = Maps.newHashMap();
+    Set<Long> expectedBlockIds = Sets.newHashSet();
+    LocalFileHandlerTestBase.writeTestData(
+        LocalFileHandlerTestBase.generateBlocks(5, 32),
+        writeHandler,
+        expectedData,
+        expectedBlockIds);
+    LocalFileHandlerTestBase.writeTestData(
+        LocalFileHandlerTestBase.generateBlocks(3, 64),
+        writeHandler,
+        expectedData,
+        expectedBlockIds);
+
+    LocalFileServerReadHandler readHandler =
+        new LocalFileServerReadHandler("appId", 0, 1, 1, 10, tmpDir.getAbsolutePath());
+    LocalFileHandlerTestBase.validateResult(readHandler, expectedBlockIds, expectedData);
+    ShuffleIndexResult shuffleIndexResult = LocalFileHandlerTestBase.readIndex(readHandler);
+    assertEquals(5 * 32 + 3 * 64, shuffleIndexResult.getDataFileLen());
+    assertEquals(8 * FileBasedShuffleSegment.SEGMENT_SIZE, shuffleIndexResult.getData().length);
+  }
+
+  @Test
+  public void readWithFileRegistryTest(@TempDir File tmpDir) throws Exception {
+    LocalFileRegistry fileRegistry = new LocalFileRegistry();
+    LocalFileWriteHandler writeHandler =
+        new LocalFileWriteHandler(
+            new RssBaseConf(), "appId", 0, 1, 1, tmpDir.getAbsolutePath(), "pre", fileRegistry);
+    // nothing is flushed yet
+    assertThrows(
+        FileNotFoundException.class,
+        () ->
+            new LocalFileServerReadHandler(
+                "appId", 0, 1, 1, 10, tmpDir.getAbsolutePath(), 0, fileRegistry));
+
+    Map<Long, byte[]> expectedData = Maps.newHashMap();
+    Set<Long> expectedBlockIds = Sets.newHashSet();
+    LocalFileHandlerTestBase.writeTestData(
+        LocalFileHandlerTestBase.generateBlocks(5, 32),
+        writeHandler,
+        expectedData,
+        expectedBlockIds);
+    LocalFileServerReadHandler readHandler =
+        new LocalFileServerReadHandler(
+            "appId", 0, 1, 1, 10, tmpDir.getAbsolutePath(), 0, fileRegistry);
+    assertEquals(
+        new File(writeHandler.getBasePath(), "pre.data").getPath(), readHandler.getDataFileName());
+    LocalFileHandlerTestBase.validateResult(readHandler, expectedBlockIds, expectedData);
+
+    // the data appended to the file after the last flush isn't committed
+    Files.write(
+        new File(writeHandler.getBasePath(), "pre.data").toPath(),
+        new byte[64],
+        StandardOpenOption.APPEND);
+    ShuffleIndexResult shuffleIndexResult = LocalFileHandlerTestBase.readIndex(readHandler);
+    assertEquals(5 * 32, shuffleIndexResult.getDataFileLen());
+    assertEquals(5 * FileBasedShuffleSegment.SEGMENT_SIZE, shuffleIndexResult.getData().length);
+
+    // the new data can be read by the existing handler
+    LocalFileHandlerTestBase.writeTestData(
+        LocalFileHandlerTestBase.generateBlocks(3, 32),
+        writeHandler,
+        expectedData,
+        expectedBlockIds);
+    shuffleIndexResult = LocalFileHandlerTestBase.readIndex(readHandler);
+    LocalFileHandlerTestBase.validateResult(readHandler, expectedBlockIds, expectedData);
+    assertEquals(8 * 32 + 64, shuffleIndexResult.getDataFileLen());
+    assertEquals(8 * FileBasedShuffleSegment.SEGMENT_SIZE, shuffleIndexResult.getData().length);
+
+    // the files flushed before the server restarts are found from the disk and registered again
+    LocalFileRegistry newFileRegistry = new LocalFileRegistry();
+    readHandler =
+        new LocalFileServerReadHandler(
+            "appId", 0, 1, 1, 10, tmpDir.getAbsolutePath(), 0, newFileRegistry);
+    assertEquals(
+        new File(writeHandler.getBasePath(), "pre.data").getPath(), readHandler.getDataFileName());
+    assertNotNull(newFileRegistry.get("appId", 0, 1));
+    LocalFileHandlerTestBase.validateResult(readHandler, expectedBlockIds, expectedData);
+
+    FileUtils.deleteDirectory(new File(writeHandler.getBasePath()));
+    newFileRegistry.removeShuffle("appId", 0);
+    assertThrows(FileNotFoundException.class, readHandler::getShuffleIndex);
+  }
+
+  @Test
+  public void gatheringWriterTest(@TempDir File tmpDir) throws IOException {
+    File writeFile = new File(tmpDir, "writetest");
+    byte[] expected = new byte[3 * 1024];
+    new Random().nextBytes(expected);
+    // a composite buffer of direct buffers is written without copying
+    CompositeByteBuf composite = Unpooled.compositeBuffer();
+    for (int i = 0; i < 3; i++) {
+      ByteBuf component = Unpooled.directBuffer(1024);
+      component.writeBytes(expected, i * 1024, 1024);
+      composite.addComponent(true, component);
+    }
+    try (LocalFileGatheringWriter writer = new LocalFileGatheringWriter(writeFile)) {
+      writer.writeData(composite);
+      assertEquals(3 * 1024, writer.nextOffset());
+      writer.writeData(new byte[0]);
+      assertEquals(3 * 1024, writer.nextOffset());
+    } finally {
+      composite.release();
+    }
+    assertArrayEquals(expected, Files.readAllBytes(writeFile.toPath()));
+
+    // append to the existing file
+    try (LocalFileGatheringWriter writer = new LocalFileGatheringWriter(writeFile)) {
+      assertEquals(3 * 1024, writer.nextOffset());
+      writer.writeData(expected);
+      assertEquals(6 * 1024, writer.nextOffset());
+    }
+    assertEquals(6 * 1024, writeFile.length());
+  }
+
   @Test
   public void testReadIndex() {}
 }
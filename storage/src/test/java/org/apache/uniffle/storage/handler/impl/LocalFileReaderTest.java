@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.storage.handler.impl;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocalFileReaderTest {
+
+  private File writeFile(File tmpDir, byte[] data) throws Exception {
+    File file = new File(tmpDir, "test.data");
+    Files.write(file.toPath(), data);
+    return file;
+  }
+
+  @Test
+  public void readTest(@TempDir File tmpDir) throws Exception {
+    byte[] data = new byte[1024];
+    new Random().nextBytes(data);
+    File file = writeFile(tmpDir, data);
+
+    try (LocalFileReader reader = new LocalFileReader(file.getAbsolutePath())) {
+      assertArrayEquals(Arrays.copyOfRange(data, 0, 100), reader.read(0, 100));
+      // the offset is skipped from the end of the last read
+      assertArrayEquals(Arrays.copyOfRange(data, 612, 740), reader.read(512, 128));
+      // read the remaining data from the end of the last read
+      assertArrayEquals(Arrays.copyOfRange(data, 740, 1024), reader.read());
+      assertEquals(0, reader.read().length);
+      // EOF
+      assertEquals(0, reader.read(0, 100).length);
+    }
+  }
+
+  @Test
+  public void readAsByteBufferTest(@TempDir File tmpDir) throws Exception {
+    byte[] data = new byte[1024];
+    new Random().nextBytes(data);
+    File file = writeFile(tmpDir, data);
+
+    try (LocalFileReader reader = new LocalFileReader(file.getAbsolutePath())) {
+      ByteBuffer buffer = reader.readAsByteBuffer(10, 200);
+      assertTrue(buffer.isDirect());
+      assertEquals(ByteBuffer.wrap(data, 10, 200), buffer);
+      // the heap and the direct reads share the position
+      assertArrayEquals(Arrays.copyOfRange(data, 220, 300), reader.read(10, 80));
+      ByteBuffer remaining = reader.readAsByteBuffer();
+      assertTrue(remaining.isDirect());
+      assertEquals(ByteBuffer.wrap(data, 300, 724), remaining);
+      assertEquals(0, reader.readAsByteBuffer(0, 100).remaining());
+    }
+  }
+
+  @Test
+  public void closeTest(@TempDir File tmpDir) throws Exception {
+    byte[] data = new byte[128];
+    new Random().nextBytes(data);
+    File file = writeFile(tmpDir, data);
+
+    final LocalFileReader reader1 = new LocalFileReader(file.getAbsolutePath());
+    final LocalFileReader reader2 = new LocalFileReader(file.getAbsolutePath());
+    reader1.close();
+    // closing twice is allowed, and doesn't affect the other reader
+    reader1.close();
+    assertArrayEquals(Arrays.copyOfRange(data, 0, 64), reader2.read(0, 64));
+    reader2.close();
+
+    assertThrows(
+        Exception.class, () -> new LocalFileReader(new File(tmpDir, "none").getAbsolutePath()));
+  }
+}
@@ -18,11 +18,13 @@
 package org.apache.uniffle.storage.handler.impl;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.Test;
@@ -38,9 +40,11 @@ import org.apache.uniffle.common.ShuffleDataResult;
 import org.apache.uniffle.common.ShufflePartitionedBlock;
 import org.apache.uniffle.common.netty.buffer.NettyManagedBuffer;
 import org.apache.uniffle.common.rpc.StatusCode;
+import org.apache.uniffle.common.util.ByteBufUtils;
 import org.apache.uniffle.storage.common.FileBasedShuffleSegment;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class LocalFileServerReadHandlerTest {
   @Test
@@ -144,4 +148,87 @@ public class LocalFileServerReadHandlerTest {
     }
     assertEquals(actualWriteDataBlock, readBlocks);
   }
+
+  @Test
+  public void testCoalescedRead() throws Exception {
+    // the second block is processed, so the reads either skip it or read it as a gap
+    assertEquals(Arrays.asList(0L, 10L, 20L, 40L), readCoalesced(0, 40));
+    assertEquals(Arrays.asList(0L, 40L, 40L, 20L), readCoalesced(10, 40));
+    assertEquals(Arrays.asList(0L, 10L, 20L, 20L, 40L, 20L), readCoalesced(10, 20));
+  }
+
+  /** Reads 6 contiguous blocks of 10 bytes and returns the offset and length of each request. */
+  private List<Long> readCoalesced(long maxGap, int readBufferSize) throws Exception {
+    int blockNum = 6;
+    int blockSize = 10;
+    List<ShufflePartitionedBlock> blocks =
+        LocalFileHandlerTestBase.generateBlocks(blockNum, blockSize);
+    ByteBuffer index = ByteBuffer.allocate(blockNum * 40);
+    ByteBuffer data = ByteBuffer.allocate(blockNum * blockSize);
+    Map<Long, byte[]> expectedData = Maps.newHashMap();
+    Roaring64NavigableMap expectBlockIds = Roaring64NavigableMap.bitmapOf();
+    for (ShufflePartitionedBlock block : blocks) {
+      byte[] bytes = ByteBufUtils.readBytes(block.getData());
+      LocalFileHandlerTestBase.writeIndex(
+          index,
+          new FileBasedShuffleSegment(
+              block.getBlockId(),
+              data.position(),
+              block.getDataLength(),
+              block.getUncompressLength(),
+              block.getCrc(),
+              block.getTaskAttemptId()));
+      data.put(bytes);
+      expectedData.put(block.getBlockId(), bytes);
+      expectBlockIds.addLong(block.getBlockId());
+    }
+    index.rewind();
+    Roaring64NavigableMap processBlockIds =
+        Roaring64NavigableMap.bitmapOf(blocks.get(1).getBlockId());
+
+    ShuffleServerClient mockShuffleServerClient = Mockito.mock(ShuffleServerClient.class);
+    Mockito.doReturn(
+            new RssGetShuffleIndexResponse(
+                StatusCode.SUCCESS,
+                new NettyManagedBuffer(Unpooled.wrappedBuffer(index)),
+                data.capacity()))
+        .when(mockShuffleServerClient)
+        .getShuffleIndex(Mockito.any());
+    List<Long> requests = Lists.newArrayList();
+    Mockito.doAnswer(
+            invocation -> {
+              RssGetShuffleDataRequest request = invocation.getArgument(0);
+              requests.add(request.getOffset());
+              requests.add((long) request.getLength());
+              byte[] bytes = new byte[request.getLength()];
+              System.arraycopy(
+                  data.array(), (int) request.getOffset(), bytes, 0, request.getLength());
+              return new RssGetShuffleDataResponse(StatusCode.SUCCESS, ByteBuffer.wrap(bytes));
+            })
+        .when(mockShuffleServerClient)
+        .getShuffleData(Mockito.any());
+
+    LocalFileClientReadHandler handler =
+        new LocalFileClientReadHandler(
+            "app1",
+            1,
+            1,
+            -1,
+            1,
+            1,
+            readBufferSize,
+            expectBlockIds,
+            processBlockIds,
+            mockShuffleServerClient);
+    handler.setCoalesceMaxGap(maxGap);
+    int readBlocks = 0;
+    ShuffleDataResult result;
+    while ((result = handler.readShuffleData()) != null) {
+      LocalFileHandlerTestBase.checkData(result, expectedData);
+      readBlocks += result.getBufferSegments().size();
+    }
+    assertEquals(blockNum - 1, readBlocks);
+    assertNull(handler.readShuffleData());
+    return requests;
+  }
 }
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.uniffle.storage.handler.impl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import org.apache.uniffle.common.BufferSegment;
+import org.apache.uniffle.common.ShuffleDataResult;
+import org.apache.uniffle.common.ShuffleServerInfo;
+import org.apache.uniffle.common.exception.RssException;
+import org.apache.uniffle.storage.handler.api.ClientReadHandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MultiReplicaClientReadHandlerTest {
+  private static final int BLOCK_NUM = 4;
+
+  /** Returns the blocks one by one and skips the processed ones, like the real replicas. */
+  class MockedHandler extends AbstractClientReadHandler {
+    private final Roaring64NavigableMap processedBlockIds;
+    private final long delayMs;
+    private final long lastBlockId;
+    private long nextBlockId = 1;
+    private final AtomicInteger readNum = new AtomicInteger();
+    private volatile boolean processedBlockIdsChangedWhileReading = false;
+
+    MockedHandler(Roaring64NavigableMap processedBlockIds, long delayMs) {
+      this(processedBlockIds, delayMs, BLOCK_NUM);
+    }
+
+    MockedHandler(Roaring64NavigableMap processedBlockIds, long delayMs, long lastBlockId) {
+      this.processedBlockIds = processedBlockIds;
+      this.delayMs = delayMs;
+      this.lastBlockId = lastBlockId;
+    }
+
+    @Override
+    public ShuffleDataResult readShuffleData() {
+      try {
+        long processedNum = processedBlockIds.getLongCardinality();
+        try {
+          Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+          // ignore
+        }
+        if (processedBlockIds.getLongCardinality() != processedNum) {
+          processedBlockIdsChangedWhileReading = true;
+        }
+        while (nextBlockId <= lastBlockId && processedBlockIds.contains(nextBlockId)) {
+          nextBlockId++;
+        }
+        if (nextBlockId > lastBlockId) {
+          return null;
+        }
+        BufferSegment block = new BufferSegment(nextBlockId++, 0, 1, 1, 0, 0);
+        return new ShuffleDataResult(new byte[1], Lists.newArrayList(block));
+      } finally {
+        readNum.incrementAndGet();
+      }
+    }
+  }
+
+  @Test
+  public void testHedgedRead() {
+    Roaring64NavigableMap processedBlockIds = Roaring64NavigableMap.bitmapOf();
+    List<Roaring64NavigableMap> replicaBlockIds = newReplicaBlockIds();
+    MultiReplicaClientReadHandler handler =
+        createHandler(
+            processedBlockIds,
+            replicaBlockIds,
+            new MockedHandler(replicaBlockIds.get(0), 2000),
+            new MockedHandler(replicaBlockIds.get(1), 0));
+
+    long start = System.currentTimeMillis();
+    assertEquals(BLOCK_NUM, readAll(handler, processedBlockIds));
+    // the slow replica is only read once
+    assertTrue(System.currentTimeMillis() - start < 2000);
+    assertEquals(1, handler.getReadHandlerMetric().getHedgedReadNum());
+    assertEquals(1, handler.getReadHandlerMetric().getHedgedReadWinNum());
+    handler.close();
+  }
+
+  @Test
+  public void testFailedHedgedRead() {
+    Roaring64NavigableMap processedBlockIds = Roaring64NavigableMap.bitmapOf();
+    List<Roaring64NavigableMap> replicaBlockIds = newReplicaBlockIds();
+    // the slow replica misses the last blocks, and the hedged read of the next one fails once
+    MockedHandler backup =
+        new MockedHandler(replicaBlockIds.get(1), 0) {
+          private boolean failed = false;
+
+          @Override
+          public ShuffleDataResult readShuffleData() {
+            if (!failed) {
+              failed = true;
+              throw new RssException("Mocked failure");
+            }
+            return super.readShuffleData();
+          }
+        };
+    MultiReplicaClientReadHandler handler =
+        createHandler(
+            processedBlockIds,
+            replicaBlockIds,
+            new MockedHandler(replicaBlockIds.get(0), 300, 2),
+            backup);
+
+    // the next replica is read again instead of being treated as failed
+    assertEquals(BLOCK_NUM, readAll(handler, processedBlockIds));
+    handler.close();
+  }
+
+  @Test
+  public void testProcessedBlockIdsOfHedgedRead() {
+    Roaring64NavigableMap processedBlockIds = Roaring64NavigableMap.bitmapOf();
+    List<Roaring64NavigableMap> replicaBlockIds = newReplicaBlockIds();
+    // the slow hedged read of the next replica is in flight while the consumer processes blocks
+    MockedHandler backup = new MockedHandler(replicaBlockIds.get(1), 2000);
+    MultiReplicaClientReadHandler handler =
+        createHandler(
+            processedBlockIds,
+            replicaBlockIds,
+            new MockedHandler(replicaBlockIds.get(0), 150),
+            backup);
+
+    assertEquals(BLOCK_NUM, readAll(handler, processedBlockIds));
+    assertTrue(handler.getReadHandlerMetric().getHedgedReadNum() > 0);
+    Awaitility.await()
+        .timeout(Duration.ofSeconds(5))
+        .until(() -> backup.readNum.get() == handler.getReadHandlerMetric().getHedgedReadNum());
+    // the hedged read never sees the processed block ids updated by the consumer in the meantime
+    assertFalse(backup.processedBlockIdsChangedWhileReading);
+    assertEquals(BLOCK_NUM, processedBlockIds.getLongCardinality());
+    assertEquals(0, replicaBlockIds.get(1).getLongCardinality());
+    handler.close();
+  }
+
+  @Test
+  public void testReadWithoutHedge() {
+    Roaring64NavigableMap processedBlockIds = Roaring64NavigableMap.bitmapOf();
+    List<Roaring64NavigableMap> replicaBlockIds = newReplicaBlockIds();
+    MultiReplicaClientReadHandler handler =
+        createHandler(
+            processedBlockIds,
+            replicaBlockIds,
+            new MockedHandler(replicaBlockIds.get(0), 0),
+            new MockedHandler(replicaBlockIds.get(1), 0));
+
+    assertEquals(BLOCK_NUM, readAll(handler, processedBlockIds));
+    assertEquals(0, handler.getReadHandlerMetric().getHedgedReadNum());
+    assertEquals(100, handler.getHedgeDelayMs());
+    handler.close();
+  }
+
+  private static List<Roaring64NavigableMap> newReplicaBlockIds() {
+    return Arrays.asList(Roaring64NavigableMap.bitmapOf(), Roaring64NavigableMap.bitmapOf());
+  }
+
+  private MultiReplicaClientReadHandler createHandler(
+      Roaring64NavigableMap processedBlockIds,
+      List<Roaring64NavigableMap> replicaBlockIds,
+      ClientReadHandler primary,
+      ClientReadHandler next) {
+    Roaring64NavigableMap blockIds = Roaring64NavigableMap.bitmapOf(1, 2, 3, 4);
+    List<ShuffleServerInfo> servers =
+        Arrays.asList(
+            new ShuffleServerInfo("s1", "host1", 1), new ShuffleServerInfo("s2", "host2", 2));
+    return new MultiReplicaClientReadHandler(
+        Arrays.asList(primary, next),
+        servers,
+        blockIds,
+        processedBlockIds,
+        replicaBlockIds,
+        new MultiReplicaClientReadHandler.HedgeOption(0.9, 100));
+  }
+
+  private int readAll(
+      MultiReplicaClientReadHandler handler, Roaring64NavigableMap processedBlockIds) {
+    int readNum = 0;
+    ShuffleDataResult result;
+    while ((result = handler.readShuffleData()) != null) {
+      for (BufferSegment block : result.getBufferSegments()) {
+        if (!processedBlockIds.contains(block.getBlockId())) {
+          processedBlockIds.addLong(block.getBlockId());
+          readNum++;
+        }
+      }
+    }
+    return readNum;
+  }
+}
@@ -17,15 +17,27 @@
 
 package org.apache.uniffle.storage.handler.impl;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
 
 import org.apache.uniffle.common.ShuffleDataResult;
 import org.apache.uniffle.common.exception.RssException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class PrefetchableClientReadHandlerTest {
@@ -109,6 +121,114 @@ public class PrefetchableClientReadHandlerTest {
     }
   }
 
+  class MockedStuckHandler extends PrefetchableClientReadHandler {
+    private final CountDownLatch stuck = new CountDownLatch(1);
+    private final ByteBuf data = Unpooled.buffer(1);
+
+    MockedStuckHandler(Optional<PrefetchOption> option) {
+      super(option);
+    }
+
+    @Override
+    protected ShuffleDataResult doReadShuffleData() {
+      // the read ignores the interruption like a stuck server
+      while (stuck.getCount() > 0) {
+        try {
+          stuck.await();
+        } catch (InterruptedException e) {
+          // ignore
+        }
+      }
+      return new ShuffleDataResult(data, Collections.emptyList());
+    }
+  }
+
+  @Test
+  public void test_with_stuck_read() {
+    // a separate number of threads, so the stuck read doesn't block the other tests
+    MockedStuckHandler handler =
+        new MockedStuckHandler(
+            Optional.of(new PrefetchableClientReadHandler.PrefetchOption(4, 1, 3)));
+    try {
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(3),
+          () -> {
+            assertThrows(RssException.class, handler::readShuffleData);
+            handler.close();
+          });
+    } finally {
+      handler.stuck.countDown();
+    }
+    // the data read after the read is abandoned is released
+    Awaitility.await().timeout(Duration.ofSeconds(5)).until(() -> handler.data.refCnt() == 0);
+  }
+
+  class MockedParallelHandler extends PrefetchableClientReadHandler {
+    private final int readNum;
+    private final AtomicInteger maxConcurrency = new AtomicInteger();
+    private final AtomicInteger concurrency = new AtomicInteger();
+    private int nextIndex = 0;
+
+    MockedParallelHandler(Optional<PrefetchOption> option, int readNum) {
+      super(option);
+      this.readNum = readNum;
+    }
+
+    @Override
+    protected ShuffleDataResult doReadShuffleData() {
+      Supplier<ShuffleDataResult> read = nextRead();
+      return read == null ? null : read.get();
+    }
+
+    @Override
+    protected Supplier<ShuffleDataResult> nextRead() {
+      if (nextIndex >= readNum) {
+        return null;
+      }
+      final int index = nextIndex++;
+      return () -> {
+        maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+        try {
+          // the later reads may finish earlier
+          Thread.sleep(new Random().nextInt(20));
+        } catch (InterruptedException e) {
+          // ignore
+        } finally {
+          concurrency.decrementAndGet();
+        }
+        return new ShuffleDataResult(new byte[] {(byte) index});
+      };
+    }
+
+    @Override
+    protected boolean isParallelReadSupported() {
+      return true;
+    }
+  }
+
+  @Test
+  public void test_with_parallel_prefetch() {
+    MockedParallelHandler handler =
+        new MockedParallelHandler(
+            Optional.of(new PrefetchableClientReadHandler.PrefetchOption(4, 10, 4)), 50);
+    for (int i = 0; i < 50; i++) {
+      ShuffleDataResult result = handler.readShuffleData();
+      // the results are in the order of the reads
+      assertEquals(i, result.getDataBuffer().get(0));
+    }
+    assertNull(handler.readShuffleData());
+    assertNull(handler.readShuffleData());
+
+    // the depth grows since the consumer is always waiting
+    assertTrue(handler.getPrefetchDepth() > 1);
+    assertTrue(handler.getPrefetchDepth() <= 4);
+    assertTrue(handler.getReadHandlerMetric().getPrefetchWaitNum() > 0);
+    assertTrue(handler.getReadHandlerMetric().getMaxPrefetchInFlightNum() > 1);
+    assertTrue(handler.getReadHandlerMetric().getMaxPrefetchInFlightNum() <= 4);
+    assertTrue(handler.maxConcurrency.get() <= 4);
+    handler.close();
+  }
+
   @Test
   public void test_without_prefetch() {
     PrefetchableClientReadHandler handler = new MockedHandler(Optional.empty(), 10, true, false);